@@ -0,0 +1,127 @@
+package com.box.l10n.mojito.cli.command;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds which patterns are contained in a text with a single pass over the text (Aho-Corasick
+ * automaton), instead of calling {@link String#contains(CharSequence)} for each pattern.
+ *
+ * <p>The automaton is built once for a set of patterns and can then be used to search many texts.
+ * It is immutable after construction and can be shared between threads.
+ *
+ * @param <T> type of the values associated to the patterns
+ */
+public class AhoCorasickMatcher<T> {
+
+  final Node rootNode = new Node();
+
+  final List<List<T>> valuesByOrdinal = new ArrayList<>();
+
+  /**
+   * @param valuesByPattern the values to return when a pattern is found, the iteration order of
+   *     the map defines the order of the values returned by {@link #findMatches(String)}
+   */
+  public AhoCorasickMatcher(Map<String, List<T>> valuesByPattern) {
+    for (Map.Entry<String, List<T>> valuesForPattern : valuesByPattern.entrySet()) {
+      Node node = rootNode;
+      for (char c : valuesForPattern.getKey().toCharArray()) {
+        node = node.children.computeIfAbsent(c, k -> new Node());
+      }
+      node.ordinal = valuesByOrdinal.size();
+      valuesByOrdinal.add(valuesForPattern.getValue());
+    }
+
+    buildLinks();
+  }
+
+  /**
+   * Computes, breadth first, the failure link of each node (longest proper suffix that is in the
+   * trie) and the output link (longest proper suffix that is a pattern).
+   */
+  void buildLinks() {
+    ArrayDeque<Node> toProcess = new ArrayDeque<>();
+
+    for (Node child : rootNode.children.values()) {
+      child.failure = rootNode;
+      toProcess.add(child);
+    }
+
+    while (!toProcess.isEmpty()) {
+      Node node = toProcess.poll();
+
+      if (node.failure != rootNode) {
+        node.output = node.failure.ordinal >= 0 ? node.failure : node.failure.output;
+      }
+
+      for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+        Node failure = node.failure;
+        Node next = failure.children.get(child.getKey());
+
+        while (next == null && failure != rootNode) {
+          failure = failure.failure;
+          next = failure.children.get(child.getKey());
+        }
+
+        child.getValue().failure = next != null ? next : rootNode;
+        toProcess.add(child.getValue());
+      }
+    }
+  }
+
+  /**
+   * @param text the text to search
+   * @return the values of the patterns contained in the text (empty if none)
+   */
+  public List<T> findMatches(String text) {
+    BitSet matchedOrdinals = new BitSet(valuesByOrdinal.size());
+
+    if (rootNode.ordinal >= 0) {
+      // empty pattern, contained in any text
+      matchedOrdinals.set(rootNode.ordinal);
+    }
+
+    Node node = rootNode;
+
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      Node next = node.children.get(c);
+
+      while (next == null && node != rootNode) {
+        node = node.failure;
+        next = node.children.get(c);
+      }
+
+      node = next != null ? next : rootNode;
+
+      for (Node match = node.ordinal >= 0 ? node : node.output;
+          match != null;
+          match = match.output) {
+        matchedOrdinals.set(match.ordinal);
+      }
+    }
+
+    List<T> values = new ArrayList<>();
+    for (int ordinal = matchedOrdinals.nextSetBit(0);
+        ordinal >= 0;
+        ordinal = matchedOrdinals.nextSetBit(ordinal + 1)) {
+      values.addAll(valuesByOrdinal.get(ordinal));
+    }
+    return values;
+  }
+
+  static class Node {
+    Map<Character, Node> children = new HashMap<>();
+
+    /** Index of the pattern that ends at this node, -1 if none */
+    int ordinal = -1;
+
+    Node failure;
+
+    Node output;
+  }
+}
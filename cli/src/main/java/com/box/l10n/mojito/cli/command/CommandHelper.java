@@ -8,6 +8,7 @@ import com.box.l10n.mojito.cli.filefinder.file.FileType;
 import com.box.l10n.mojito.cli.filefinder.file.XcodeXliffFileType;
 import com.box.l10n.mojito.rest.client.PollableTaskClient;
 import com.box.l10n.mojito.rest.client.RepositoryClient;
+import com.box.l10n.mojito.rest.client.WaitForPollableTaskListener;
 import com.box.l10n.mojito.rest.client.exception.PollableTaskException;
 import com.box.l10n.mojito.rest.client.exception.RestClientException;
 import com.box.l10n.mojito.rest.entity.Locale;
@@ -286,6 +287,32 @@ public class CommandHelper {
     }
   }
 
+  /**
+   * Waits for multiple {@link PollableTask}s to be all finished, with a single request per poll
+   * (see {@link PollableTaskClient#waitForPollableTasks(List, long, WaitForPollableTaskListener)}).
+   * Infinite timeout.
+   *
+   * @param pollableTaskIds the {@link PollableTask#id}s
+   * @throws com.box.l10n.mojito.cli.command.CommandException
+   */
+  public void waitForPollableTasks(List<Long> pollableTaskIds) throws CommandException {
+
+    consoleWriter
+        .newLine()
+        .a("Running, number of tasks: ")
+        .fg(Ansi.Color.MAGENTA)
+        .a(pollableTaskIds.size())
+        .a(" ")
+        .println();
+
+    try {
+      pollableTaskClient.waitForPollableTasks(
+          pollableTaskIds, PollableTaskClient.NO_TIMEOUT, new CommandWaitForPollableTaskListener());
+    } catch (PollableTaskException e) {
+      throw new CommandException(e.getMessage(), e.getCause());
+    }
+  }
+
   /**
    * Gets the repository locales sorted so that parent are before child locales.
    *
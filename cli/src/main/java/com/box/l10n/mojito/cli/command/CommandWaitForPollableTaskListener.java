@@ -4,6 +4,7 @@ import com.box.l10n.mojito.cli.console.ConsoleWriter;
 import com.box.l10n.mojito.rest.client.WaitForPollableTaskListener;
 import com.box.l10n.mojito.rest.entity.PollableTask;
 import com.google.common.base.Strings;
+import java.util.List;
 import org.fusesource.jansi.Ansi;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +42,45 @@ public class CommandWaitForPollableTaskListener implements WaitForPollableTaskLi
     consoleWriter.print();
   }
 
+  /**
+   * Prints a summary of the tasks (finished over total) and the failed tasks, replacing the output
+   * of the previous callback.
+   *
+   * <p>There can be hundreds of tasks (eg. one per asset for a push), printing all of them would
+   * exceed the terminal height and the previous output could not be erased.
+   */
+  @Override
+  public void afterPoll(List<PollableTask> pollableTasks) {
+
+    if (numberAfterPollCallback++ > 0) {
+      consoleWriter.erasePreviouslyPrintedLines();
+    }
+
+    long finished = pollableTasks.stream().filter(PollableTask::isAllFinished).count();
+
+    consoleWriter
+        .a("Tasks finished: ")
+        .fg(finished == pollableTasks.size() ? Ansi.Color.GREEN : Ansi.Color.YELLOW)
+        .a(finished)
+        .a("/")
+        .a(pollableTasks.size())
+        .reset()
+        .newLine();
+
+    for (PollableTask pollableTask : pollableTasks) {
+      if (hasError(pollableTask)) {
+        printPollableTaskMessages(pollableTask, 0);
+      }
+    }
+
+    consoleWriter.print();
+  }
+
+  boolean hasError(PollableTask pollableTask) {
+    return pollableTask.getErrorMessage() != null
+        || pollableTask.getSubTasks().stream().anyMatch(this::hasError);
+  }
+
   /**
    * Recursively prints messages of a {@link PollableTask} and its sub tasks.
    *
@@ -2,14 +2,22 @@ package com.box.l10n.mojito.cli.command;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
+import com.box.l10n.mojito.cli.command.extraction.ExtractionManifest;
 import com.box.l10n.mojito.cli.command.extraction.ExtractionPaths;
 import com.box.l10n.mojito.cli.command.extraction.ExtractionService;
 import com.box.l10n.mojito.cli.command.param.Param;
 import com.box.l10n.mojito.cli.console.ConsoleWriter;
 import com.box.l10n.mojito.cli.filefinder.FileMatch;
 import com.box.l10n.mojito.cli.filefinder.file.FileType;
+import com.box.l10n.mojito.okapi.FilterConfigIdOverride;
+import com.google.common.base.Throwables;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 import org.fusesource.jansi.Ansi;
 import org.fusesource.jansi.Ansi.Color;
 import org.slf4j.Logger;
@@ -95,6 +103,21 @@ public class ExtractionCommand extends Command {
       description = Param.EXTRACTION_OUTPUT_DESCRIPTION)
   String outputDirectoryParam = ExtractionPaths.DEFAULT_OUTPUT_DIRECTORY;
 
+  @Parameter(
+      names = {"--parallelism"},
+      arity = 1,
+      required = false,
+      description = "Number of files extracted concurrently")
+  Integer parallelism = 1;
+
+  @Parameter(
+      names = {"--incremental"},
+      required = false,
+      description =
+          "Keep the previous extraction with the same name and only extract the files whose "
+              + "content, filter config or filter options changed")
+  Boolean incremental = false;
+
   @Autowired CommandHelper commandHelper;
 
   @Autowired ExtractionService extractionService;
@@ -104,6 +127,10 @@ public class ExtractionCommand extends Command {
   @Override
   public void execute() throws CommandException {
 
+    if (parallelism < 1) {
+      throw new CommandException("--parallelism must be at least 1, got: " + parallelism);
+    }
+
     commandDirectories = new CommandDirectories(sourceDirectoryParam);
 
     consoleWriter
@@ -114,7 +141,6 @@ public class ExtractionCommand extends Command {
         .println();
 
     ExtractionPaths extractionPaths = new ExtractionPaths(outputDirectoryParam, extractionName);
-    extractionService.recreateExtractionDirectory(extractionPaths);
 
     ArrayList<FileMatch> sourceFileMatches =
         commandHelper.getSourceFileMatches(
@@ -125,18 +151,108 @@ public class ExtractionCommand extends Command {
             directoriesIncludePatterns,
             directoriesExcludePatterns);
 
-    for (FileMatch sourceFileMatch : sourceFileMatches) {
-      consoleWriter.a("Extracting: ").fg(Color.CYAN).a(sourceFileMatch.getSourcePath()).println();
-      List<String> filterOptions =
-          commandHelper.getFilterOptionsOrDefaults(
-              sourceFileMatch.getFileType(), filterOptionsParam);
-      extractionService.fileMatchToAssetExtractionAndSaveToJsonFile(
+    ExtractionManifest previousManifest;
+
+    if (incremental) {
+      previousManifest = extractionService.readManifest(extractionPaths);
+      extractionService.prepareIncrementalExtractionDirectory(
           extractionPaths,
-          filterOptions,
-          sourceFileMatch.getFileType().getFilterConfigIdOverride(),
-          sourceFileMatch);
+          sourceFileMatches.stream().map(FileMatch::getSourcePath).collect(Collectors.toSet()));
+    } else {
+      previousManifest = extractionService.createManifest();
+      extractionService.recreateExtractionDirectory(extractionPaths);
+    }
+
+    ExtractionManifest manifest = extractionService.createManifest();
+
+    ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
+
+    try {
+      List<CompletableFuture<FileExtractionResult>> fileExtractionResults = new ArrayList<>();
+
+      for (FileMatch sourceFileMatch : sourceFileMatches) {
+        fileExtractionResults.add(
+            CompletableFuture.supplyAsync(
+                () -> extractFile(extractionPaths, sourceFileMatch, previousManifest),
+                executorService));
+      }
+
+      for (int i = 0; i < sourceFileMatches.size(); i++) {
+        FileMatch sourceFileMatch = sourceFileMatches.get(i);
+        FileExtractionResult fileExtractionResult =
+            getFileExtractionResult(fileExtractionResults.get(i));
+
+        consoleWriter
+            .a(fileExtractionResult.unchanged ? "Unchanged: " : "Extracting: ")
+            .fg(Color.CYAN)
+            .a(sourceFileMatch.getSourcePath())
+            .println();
+
+        if (fileExtractionResult.hash != null) {
+          manifest
+              .getHashesBySourcePath()
+              .put(sourceFileMatch.getSourcePath(), fileExtractionResult.hash);
+        }
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    if (incremental) {
+      extractionService.writeManifest(extractionPaths, manifest);
     }
 
     consoleWriter.fg(Ansi.Color.GREEN).newLine().a("Finished").println(2);
   }
+
+  /**
+   * Extracts a file, unless it is an incremental extraction and the hash of the extraction inputs
+   * is the same as in the previous manifest.
+   */
+  FileExtractionResult extractFile(
+      ExtractionPaths extractionPaths,
+      FileMatch sourceFileMatch,
+      ExtractionManifest previousManifest) {
+
+    List<String> filterOptions =
+        commandHelper.getFilterOptionsOrDefaults(sourceFileMatch.getFileType(), filterOptionsParam);
+    FilterConfigIdOverride filterConfigIdOverride =
+        sourceFileMatch.getFileType().getFilterConfigIdOverride();
+
+    FileExtractionResult fileExtractionResult = new FileExtractionResult();
+
+    if (incremental) {
+      fileExtractionResult.hash =
+          extractionService.getAssetExtractionHash(
+              sourceFileMatch, filterOptions, filterConfigIdOverride);
+      fileExtractionResult.unchanged =
+          fileExtractionResult.hash.equals(
+                  previousManifest.getHashesBySourcePath().get(sourceFileMatch.getSourcePath()))
+              && extractionService.hasAssetExtraction(extractionPaths, sourceFileMatch);
+    }
+
+    if (!fileExtractionResult.unchanged) {
+      extractionService.fileMatchToAssetExtractionAndSaveToJsonFile(
+          extractionPaths, filterOptions, filterConfigIdOverride, sourceFileMatch);
+    }
+
+    return fileExtractionResult;
+  }
+
+  FileExtractionResult getFileExtractionResult(
+      CompletableFuture<FileExtractionResult> fileExtractionResult) throws CommandException {
+    try {
+      return fileExtractionResult.join();
+    } catch (CompletionException ce) {
+      Throwables.throwIfUnchecked(ce.getCause());
+      throw new CommandException(ce.getCause());
+    }
+  }
+
+  static class FileExtractionResult {
+    /** Hash of the extraction inputs, {@code null} if not an incremental extraction */
+    String hash;
+
+    boolean unchanged = false;
+  }
 }
@@ -0,0 +1,80 @@
+package com.box.l10n.mojito.cli.command;
+
+import com.box.l10n.mojito.rest.entity.GitBlame;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Content and git-blame information of each line of a file, extracted from a {@link
+ * org.eclipse.jgit.blame.BlameResult} so that it can be cached in memory and on disk (see {@link
+ * FileBlameDiskCache}).
+ *
+ * <p>The blame information is stored once per commit, lines reference it by index.
+ */
+public class FileBlame {
+
+  List<String> lines = new ArrayList<>();
+
+  List<GitBlame> gitBlames = new ArrayList<>();
+
+  /** Index in {@link #gitBlames} for each line, -1 if the line has no blame information */
+  List<Integer> gitBlameIndexes = new ArrayList<>();
+
+  @JsonIgnore
+  public int getLineCount() {
+    return lines.size();
+  }
+
+  public String getLine(int lineNumber) {
+    return lines.get(lineNumber);
+  }
+
+  /**
+   * @param lineNumber the line number, starts at 0
+   * @return a new {@link GitBlame} for the line
+   * @throws LineMissingException if the line is not in the file or has no blame information
+   */
+  public GitBlame getGitBlame(int lineNumber) throws LineMissingException {
+    if (lineNumber < 0
+        || lineNumber >= gitBlameIndexes.size()
+        || gitBlameIndexes.get(lineNumber) < 0) {
+      throw new LineMissingException(
+          MessageFormat.format("The line: {0} is not available in the file anymore", lineNumber));
+    }
+
+    GitBlame gitBlame = gitBlames.get(gitBlameIndexes.get(lineNumber));
+
+    GitBlame copy = new GitBlame();
+    copy.setAuthorName(gitBlame.getAuthorName());
+    copy.setAuthorEmail(gitBlame.getAuthorEmail());
+    copy.setCommitName(gitBlame.getCommitName());
+    copy.setCommitTime(gitBlame.getCommitTime());
+    return copy;
+  }
+
+  public List<String> getLines() {
+    return lines;
+  }
+
+  public void setLines(List<String> lines) {
+    this.lines = lines;
+  }
+
+  public List<GitBlame> getGitBlames() {
+    return gitBlames;
+  }
+
+  public void setGitBlames(List<GitBlame> gitBlames) {
+    this.gitBlames = gitBlames;
+  }
+
+  public List<Integer> getGitBlameIndexes() {
+    return gitBlameIndexes;
+  }
+
+  public void setGitBlameIndexes(List<Integer> gitBlameIndexes) {
+    this.gitBlameIndexes = gitBlameIndexes;
+  }
+}
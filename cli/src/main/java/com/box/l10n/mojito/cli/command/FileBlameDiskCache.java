@@ -0,0 +1,81 @@
+package com.box.l10n.mojito.cli.command;
+
+import com.box.l10n.mojito.json.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists {@link FileBlame}s on disk between runs of the git-blame command.
+ *
+ * <p>Entries are keyed by the id of the last commit that changed the file from HEAD and by the file
+ * path: that commit determines the blame, so a file that didn't change since the last run doesn't
+ * need to be blamed again. The content of the file is not enough, it stays the same after a rebase
+ * or an amend that rewrites the history. Unreadable entries are ignored and the file is blamed
+ * again.
+ */
+public class FileBlameDiskCache {
+
+  /** logger */
+  static Logger logger = LoggerFactory.getLogger(FileBlameDiskCache.class);
+
+  final Path directory;
+
+  final ObjectMapper objectMapper = new ObjectMapper();
+
+  public FileBlameDiskCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * @param commitId id of the last commit that changed the file from HEAD
+   * @param filePath path of the file in the git repository
+   * @return the cached {@link FileBlame} or {@code null} if none
+   */
+  public FileBlame get(String commitId, String filePath) {
+    Path entryPath = getEntryPath(commitId, filePath);
+
+    if (!Files.exists(entryPath)) {
+      return null;
+    }
+
+    try {
+      return objectMapper.readValueUnchecked(entryPath.toFile(), FileBlame.class);
+    } catch (UncheckedIOException uioe) {
+      logger.debug("Can't read cache entry: {}, ignore it", entryPath, uioe);
+      return null;
+    }
+  }
+
+  /**
+   * Writes the entry in a temporary file then moves it so that a concurrent reader never sees a
+   * partial entry.
+   *
+   * @param commitId id of the last commit that changed the file from HEAD
+   * @param filePath path of the file in the git repository
+   * @param fileBlame the blame information to cache
+   */
+  public void put(String commitId, String filePath, FileBlame fileBlame) {
+    Path entryPath = getEntryPath(commitId, filePath);
+
+    try {
+      Files.createDirectories(entryPath.getParent());
+      Path tmpPath = Files.createTempFile(entryPath.getParent(), commitId, ".tmp");
+      objectMapper.writeValueUnchecked(tmpPath.toFile(), fileBlame);
+      Files.move(tmpPath, entryPath, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException | UncheckedIOException e) {
+      logger.debug("Can't write cache entry: {}, ignore it", entryPath, e);
+    }
+  }
+
+  Path getEntryPath(String commitId, String filePath) {
+    return directory
+        .resolve(commitId.substring(0, 2))
+        .resolve(commitId + "-" + DigestUtils.md5Hex(filePath) + ".json");
+  }
+}
@@ -13,22 +13,32 @@ import com.box.l10n.mojito.cli.filefinder.file.GitBlameType;
 import com.box.l10n.mojito.rest.client.AssetClient;
 import com.box.l10n.mojito.rest.client.GitBlameWithUsageClient;
 import com.box.l10n.mojito.rest.client.RepositoryClient;
-import com.box.l10n.mojito.rest.client.exception.PollableTaskException;
 import com.box.l10n.mojito.rest.entity.GitBlame;
 import com.box.l10n.mojito.rest.entity.GitBlameWithUsage;
 import com.box.l10n.mojito.rest.entity.PollableTask;
 import com.box.l10n.mojito.rest.entity.Repository;
+import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.nio.file.NoSuchFileException;
-import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import org.eclipse.jgit.blame.BlameResult;
 import org.fusesource.jansi.Ansi;
 import org.slf4j.Logger;
@@ -121,6 +131,22 @@ public class GitBlameCommand extends Command {
       converter = GitBlameOverrideConverter.class)
   OverrideType overrideType = OverrideType.NONE;
 
+  @Parameter(
+      names = {"--parallelism"},
+      arity = 1,
+      required = false,
+      description = "Number of source files blamed concurrently")
+  Integer parallelism = Runtime.getRuntime().availableProcessors();
+
+  @Parameter(
+      names = {"--blame-cache-directory"},
+      arity = 1,
+      required = false,
+      description =
+          "Directory to keep the blame of the files between runs. A file is blamed again only if "
+              + "its content at HEAD changed")
+  String blameCacheDirectoryParam;
+
   @Autowired AssetClient assetClient;
 
   @Autowired RepositoryClient repositoryClient;
@@ -134,21 +160,30 @@ public class GitBlameCommand extends Command {
   GitRepository gitRepository = new GitRepository();
 
   /**
-   * Cache {@link BlameResult} of a given file.
+   * Cache {@link FileBlame} of a given file.
    *
    * <p>A cache is used since getting blame information for a file can be pretty slow and required
    * multiple time for a project. The cache is build with {@link
-   * CacheBuilder.newBuilder().softValues().build()} to free {@link BlameResult} if memory is
-   * missing
+   * CacheBuilder.newBuilder().softValues().build()} to free {@link FileBlame} if memory is missing
    */
-  Cache<String, BlameResult> getBlameResultForFileCache =
-      CacheBuilder.newBuilder().softValues().build();
+  Cache<String, FileBlame> getFileBlameCache = CacheBuilder.newBuilder().softValues().build();
+
+  /** Persistent cache of {@link FileBlame}, {@code null} if not enabled */
+  FileBlameDiskCache fileBlameDiskCache;
 
   @Override
   public void execute() throws CommandException {
 
+    if (parallelism < 1) {
+      throw new CommandException("--parallelism must be at least 1, got: " + parallelism);
+    }
+
     commandDirectories = new CommandDirectories(sourceDirectoryParam);
 
+    if (blameCacheDirectoryParam != null) {
+      fileBlameDiskCache = new FileBlameDiskCache(Paths.get(blameCacheDirectoryParam));
+    }
+
     consoleWriter.newLine().a("Git blame for repository: ").fg(CYAN).a(repositoryParam).println(2);
 
     Repository repository = commandHelper.findRepositoryByName(repositoryParam);
@@ -192,14 +227,9 @@ public class GitBlameCommand extends Command {
           gitBlameWithUsageClient.saveGitBlameWithUsages(getGitBlameWithUsagesToProcess));
     } while (numGitBlameWithUsages == BATCH_SIZE);
 
-    try {
-      logger.debug("Wait for all \"git-blame\" tasks to be finished");
-      for (PollableTask pollableTask : pollableTasks) {
-        commandHelper.waitForPollableTask(pollableTask.getId());
-      }
-    } catch (PollableTaskException e) {
-      throw new CommandException(e.getMessage(), e.getCause());
-    }
+    logger.debug("Wait for all \"git-blame\" tasks to be finished");
+    commandHelper.waitForPollableTasks(
+        pollableTasks.stream().map(PollableTask::getId).collect(Collectors.toList()));
 
     consoleWriter.fg(Ansi.Color.GREEN).newLine().a("Finished").println(2);
   }
@@ -237,6 +267,14 @@ public class GitBlameCommand extends Command {
   /**
    * Runs git-blame on each line of the file
    *
+   * <p>The files are blamed concurrently (see {@link #parallelism}) and then scanned in order. Each
+   * line is scanned once for all the text unit names, with a matcher built once per file type (see
+   * {@link #getTextUnitNameInSourceMatcher(List, FileType)}).
+   *
+   * <p>At most twice {@link #parallelism} files are blamed ahead of the file being scanned, and a
+   * blame is not referenced anymore once its file is scanned, so that the {@link FileBlame}s can be
+   * freed from {@link #getFileBlameCache} if memory is missing.
+   *
    * @param gitBlameWithUsages
    * @throws CommandException
    */
@@ -252,44 +290,90 @@ public class GitBlameCommand extends Command {
             directoriesIncludePatterns,
             directoriesExcludePatterns);
 
-    for (FileMatch sourceFileMatch : sourceFileMatches) {
-      if (GitBlameType.TEXT_UNIT_USAGES.equals(sourceFileMatch.getFileType().getGitBlameType())) {
-        continue;
-      }
-      logger.debug("Processing source file: {}", sourceFileMatch.getPath().toString());
-
-      Path sourceRelativePath =
-          gitRepository
-              .getDirectory()
-              .getParentFile()
-              .toPath()
-              .relativize(sourceFileMatch.getPath());
-      BlameResult blameResultForFile =
-          gitRepository.getBlameResultForFile(sourceRelativePath.toString());
-
-      if (blameResultForFile != null) {
-        for (int i = 0; i < blameResultForFile.getResultContents().size(); i++) {
-          String lineText = blameResultForFile.getResultContents().getString(i);
-
-          List<GitBlameWithUsage> gitBlameWithUsageList =
-              getGitBlameWithUsagesFromLine(
-                  lineText, gitBlameWithUsages, sourceFileMatch.getFileType());
-          for (GitBlameWithUsage gitBlameWithUsage : gitBlameWithUsageList) {
-            try {
-              updateBlameResultsInGitBlameWithUsage(i, blameResultForFile, gitBlameWithUsage);
-            } catch (LineMissingException lme) {
-              throw new RuntimeException("Processing source file, this must not happen", lme);
+    List<FileMatch> sourceFileMatchesToBlame =
+        sourceFileMatches.stream()
+            .filter(
+                sourceFileMatch ->
+                    !GitBlameType.TEXT_UNIT_USAGES.equals(
+                        sourceFileMatch.getFileType().getGitBlameType()))
+            .collect(Collectors.toList());
+
+    Map<FileType, AhoCorasickMatcher<GitBlameWithUsage>> matchersByFileType = new HashMap<>();
+
+    ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
+
+    try {
+      int maxFileBlamesInFlight = parallelism * 2;
+      ArrayDeque<CompletableFuture<FileBlame>> fileBlamesInFlight = new ArrayDeque<>();
+      Iterator<FileMatch> sourceFileMatchesToSubmit = sourceFileMatchesToBlame.iterator();
+
+      for (FileMatch sourceFileMatch : sourceFileMatchesToBlame) {
+        while (sourceFileMatchesToSubmit.hasNext()
+            && fileBlamesInFlight.size() < maxFileBlamesInFlight) {
+          String sourceRelativePath = getSourceRelativePath(sourceFileMatchesToSubmit.next());
+          fileBlamesInFlight.add(
+              CompletableFuture.supplyAsync(
+                  () -> getFileBlameCachedOrNull(sourceRelativePath), executorService));
+        }
+
+        logger.debug("Processing source file: {}", sourceFileMatch.getPath().toString());
+
+        FileBlame fileBlame = getFileBlameAfterBlame(fileBlamesInFlight.poll());
+
+        if (fileBlame != null) {
+          AhoCorasickMatcher<GitBlameWithUsage> matcher =
+              matchersByFileType.computeIfAbsent(
+                  sourceFileMatch.getFileType(),
+                  fileType -> getTextUnitNameInSourceMatcher(gitBlameWithUsages, fileType));
+
+          for (int lineNumber = 0; lineNumber < fileBlame.getLineCount(); lineNumber++) {
+            for (GitBlameWithUsage gitBlameWithUsage :
+                matcher.findMatches(fileBlame.getLine(lineNumber))) {
+              try {
+                updateBlameResultsInGitBlameWithUsage(lineNumber, fileBlame, gitBlameWithUsage);
+              } catch (LineMissingException lme) {
+                throw new RuntimeException("Processing source file, this must not happen", lme);
+              }
             }
           }
+        } else {
+          consoleWriter
+              .a("Source file:")
+              .fg(CYAN)
+              .a(getSourceRelativePath(sourceFileMatch))
+              .reset()
+              .a(" not in Git. Skip it.");
         }
-      } else {
-        consoleWriter
-            .a("Source file:")
-            .fg(CYAN)
-            .a(sourceRelativePath.toString())
-            .reset()
-            .a(" not in Git. Skip it.");
       }
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  String getSourceRelativePath(FileMatch sourceFileMatch) {
+    return gitRepository
+        .getDirectory()
+        .getParentFile()
+        .toPath()
+        .relativize(sourceFileMatch.getPath())
+        .toString();
+  }
+
+  FileBlame getFileBlameCachedOrNull(String filePath) throws CommandException {
+    try {
+      return getFileBlameCached(filePath);
+    } catch (NoSuchFileException nsfe) {
+      return null;
+    }
+  }
+
+  FileBlame getFileBlameAfterBlame(CompletableFuture<FileBlame> fileBlame)
+      throws CommandException {
+    try {
+      return fileBlame.join();
+    } catch (CompletionException ce) {
+      Throwables.throwIfUnchecked(ce.getCause());
+      throw new CommandException(ce.getCause());
     }
   }
 
@@ -315,8 +399,8 @@ public class GitBlameCommand extends Command {
           }
 
           try {
-            BlameResult blameResultForFile = getBlameResultForFileCached(filename);
-            updateBlameResultsInGitBlameWithUsage(line, blameResultForFile, gitBlameWithUsage);
+            FileBlame fileBlame = getFileBlameCached(filename);
+            updateBlameResultsInGitBlameWithUsage(line, fileBlame, gitBlameWithUsage);
             break;
           } catch (NoSuchFileException e) {
             logger.debug(
@@ -336,36 +420,25 @@ public class GitBlameCommand extends Command {
   }
 
   void updateBlameResultsInGitBlameWithUsage(
-      int lineNumber, BlameResult blameResultForFile, GitBlameWithUsage gitBlameWithUsage)
+      int lineNumber, FileBlame fileBlame, GitBlameWithUsage gitBlameWithUsage)
       throws LineMissingException {
-    GitBlame gitBlame = gitRepository.getBlameResults(lineNumber, blameResultForFile);
+    GitBlame gitBlame = fileBlame.getGitBlame(lineNumber);
     gitBlameWithUsage.setGitBlame(gitBlame);
   }
 
   /**
-   * Gets {@link BlameResult} from the cache.
+   * Gets {@link FileBlame} from the cache.
    *
    * @param filePath file path to be blamed
    * @return
    * @throws CommandException something unexpected happened
    * @throws NoSuchFileException if the file is missing and can't be blamed
    */
-  BlameResult getBlameResultForFileCached(final String filePath)
+  FileBlame getFileBlameCached(final String filePath)
       throws CommandException, NoSuchFileException {
     try {
-      return getBlameResultForFileCache.get(
-          filePath,
-          new Callable<BlameResult>() {
-            @Override
-            public BlameResult call() throws Exception {
-              BlameResult blameResult = gitRepository.getBlameResultForFile(filePath);
-              if (blameResult == null) {
-                throw new NoSuchFileException(filePath);
-              }
-              return blameResult;
-            }
-          });
-    } catch (ExecutionException ee) {
+      return getFileBlameCache.get(filePath, () -> getFileBlame(filePath));
+    } catch (ExecutionException | UncheckedExecutionException ee) {
       Throwable cause = ee.getCause();
 
       if (cause instanceof NoSuchFileException) {
@@ -377,33 +450,92 @@ public class GitBlameCommand extends Command {
   }
 
   /**
-   * Checks if the given line contains text unit(s) to git-blame
+   * Gets the {@link FileBlame} from the disk cache if enabled, else blames the file.
+   *
+   * @param filePath file path to be blamed
+   * @return
+   * @throws CommandException something unexpected happened
+   * @throws NoSuchFileException if the file is missing and can't be blamed
+   */
+  FileBlame getFileBlame(String filePath) throws CommandException, NoSuchFileException {
+    String commitId = null;
+    FileBlame fileBlame = null;
+
+    if (fileBlameDiskCache != null) {
+      commitId = gitRepository.getLastCommitIdForFile(filePath);
+      if (commitId != null) {
+        fileBlame = fileBlameDiskCache.get(commitId, filePath);
+      }
+    }
+
+    if (fileBlame == null) {
+      BlameResult blameResult = gitRepository.getBlameResultForFile(filePath);
+      if (blameResult == null) {
+        throw new NoSuchFileException(filePath);
+      }
+
+      fileBlame = toFileBlame(blameResult);
+
+      if (commitId != null) {
+        fileBlameDiskCache.put(commitId, filePath, fileBlame);
+      }
+    }
+
+    return fileBlame;
+  }
+
+  FileBlame toFileBlame(BlameResult blameResult) {
+    FileBlame fileBlame = new FileBlame();
+    Map<String, Integer> gitBlameIndexesByCommitName = new HashMap<>();
+
+    for (int i = 0; i < blameResult.getResultContents().size(); i++) {
+      fileBlame.getLines().add(blameResult.getResultContents().getString(i));
+
+      int gitBlameIndex = -1;
+      try {
+        GitBlame gitBlame = gitRepository.getBlameResults(i, blameResult);
+        gitBlameIndex =
+            gitBlameIndexesByCommitName.computeIfAbsent(
+                gitBlame.getCommitName(),
+                commitName -> {
+                  fileBlame.getGitBlames().add(gitBlame);
+                  return fileBlame.getGitBlames().size() - 1;
+                });
+      } catch (LineMissingException lme) {
+        logger.debug("No blame information for line: {}", i);
+      }
+      fileBlame.getGitBlameIndexes().add(gitBlameIndex);
+    }
+
+    return fileBlame;
+  }
+
+  /**
+   * Builds a matcher that finds the {@link GitBlameWithUsage}s whose text unit name in source (see
+   * {@link #textUnitNameToTextUnitNameInSource(String, FileType, boolean)}) is contained in a line.
    *
-   * @param line
    * @param gitBlameWithUsages
    * @param fileType
-   * @return list of GitBlameWithUsage objects that match current line
+   * @return the matcher
    */
-  List<GitBlameWithUsage> getGitBlameWithUsagesFromLine(
-      String line, List<GitBlameWithUsage> gitBlameWithUsages, FileType fileType) {
-
-    List<GitBlameWithUsage> gitBlameWithUsagesWithLine = new ArrayList<>();
-
-    if (line != null) {
-      for (GitBlameWithUsage gitBlameWithUsage : gitBlameWithUsages) {
-        String textUnitNameInSource =
-            textUnitNameToTextUnitNameInSource(
-                gitBlameWithUsage.getTextUnitName(),
-                fileType,
-                gitBlameWithUsage.getPluralForm() != null);
-        if (line.contains(textUnitNameInSource)) {
-          logger.debug(
-              "Found match for string in source file: {} in line: {}", textUnitNameInSource, line);
-          gitBlameWithUsagesWithLine.add(gitBlameWithUsage);
-        }
-      }
+  AhoCorasickMatcher<GitBlameWithUsage> getTextUnitNameInSourceMatcher(
+      List<GitBlameWithUsage> gitBlameWithUsages, FileType fileType) {
+
+    Map<String, List<GitBlameWithUsage>> gitBlameWithUsagesByTextUnitNameInSource =
+        new LinkedHashMap<>();
+
+    for (GitBlameWithUsage gitBlameWithUsage : gitBlameWithUsages) {
+      String textUnitNameInSource =
+          textUnitNameToTextUnitNameInSource(
+              gitBlameWithUsage.getTextUnitName(),
+              fileType,
+              gitBlameWithUsage.getPluralForm() != null);
+      gitBlameWithUsagesByTextUnitNameInSource
+          .computeIfAbsent(textUnitNameInSource, k -> new ArrayList<>())
+          .add(gitBlameWithUsage);
     }
-    return gitBlameWithUsagesWithLine;
+
+    return new AhoCorasickMatcher<>(gitBlameWithUsagesByTextUnitNameInSource);
   }
 
   /**
@@ -9,7 +9,12 @@ import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.blame.BlameResult;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -91,6 +96,37 @@ public class GitRepository {
     }
   }
 
+  /**
+   * Gets the id of the last commit that changed a file from HEAD. That commit and its history fully
+   * determine the blame of the file, unlike the content of the file (eg. after a rebase or an
+   * amend).
+   *
+   * @param filePath path of the file in the git repository
+   * @return the commit id or {@code null} if no commit changed the file
+   * @throws CommandException
+   */
+  public String getLastCommitIdForFile(String filePath) throws CommandException {
+    try (RevWalk revWalk = new RevWalk(jgitRepository)) {
+      ObjectId commitID = jgitRepository.resolve("HEAD");
+      if (commitID == null) {
+        return null;
+      }
+
+      revWalk.setTreeFilter(
+          AndTreeFilter.create(PathFilter.create(filePath), TreeFilter.ANY_DIFF));
+      revWalk.markStart(revWalk.parseCommit(commitID));
+      RevCommit lastCommit = revWalk.next();
+      return lastCommit == null ? null : lastCommit.getName();
+    } catch (IllegalArgumentException iae) {
+      logger.debug("Invalid path in the git repository: {}", filePath, iae);
+      return null;
+    } catch (IOException e) {
+      String msg = MessageFormat.format("Can't get last commit id for file: {0}", filePath);
+      logger.error(msg, e);
+      throw new CommandException(msg, e);
+    }
+  }
+
   public File getDirectory() {
     return jgitRepository.getDirectory();
   }
@@ -10,6 +10,7 @@ import com.box.l10n.mojito.cli.filefinder.file.FileType;
 import com.box.l10n.mojito.json.ObjectMapper;
 import com.box.l10n.mojito.rest.client.AssetClient;
 import com.box.l10n.mojito.rest.client.exception.AssetNotFoundException;
+import com.box.l10n.mojito.rest.client.exception.PollableTaskException;
 import com.box.l10n.mojito.rest.entity.Asset;
 import com.box.l10n.mojito.rest.entity.LocalizedAssetBody;
 import com.box.l10n.mojito.rest.entity.PollableTask;
@@ -17,11 +18,18 @@ import com.box.l10n.mojito.rest.entity.Repository;
 import com.box.l10n.mojito.rest.entity.RepositoryLocale;
 import com.box.l10n.mojito.rest.entity.RepositoryLocaleStatistic;
 import com.box.l10n.mojito.rest.entity.RepositoryStatistic;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.fusesource.jansi.Ansi.Color;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +48,8 @@ public class PullCommand extends Command {
   /** logger */
   static Logger logger = LoggerFactory.getLogger(PullCommand.class);
 
+  static final int MAX_SYNC_ATTEMPTS = 5;
+
   @Autowired ConsoleWriter consoleWriter;
 
   @Parameter(
@@ -158,6 +168,14 @@ public class PullCommand extends Command {
               + "A file will be generated with the pull run name.")
   Boolean recordPullRun = false;
 
+  @Parameter(
+      names = {"--parallelism"},
+      required = false,
+      description =
+          "Number of localized files generated concurrently. The files are written as soon as they "
+              + "are generated, the console output keeps the order of the source files and locales")
+  Integer parallelism = 1;
+
   @Autowired AssetClient assetClient;
 
   @Autowired CommandHelper commandHelper;
@@ -185,6 +203,10 @@ public class PullCommand extends Command {
   @Override
   public void execute() throws CommandException {
 
+    if (parallelism < 1) {
+      throw new CommandException("--parallelism must be at least 1, got: " + parallelism);
+    }
+
     consoleWriter
         .newLine()
         .a("Pull localized asset from repository: ")
@@ -204,27 +226,16 @@ public class PullCommand extends Command {
     initRepositoryLocalesMapAndRootRepositoryLocale(repository);
     localeMappings = localeMappingHelper.getLocaleMapping(localeMappingParam);
 
-    for (FileMatch sourceFileMatch :
+    List<FileMatch> sourceFileMatches =
         commandHelper.getSourceFileMatches(
             commandDirectories,
             fileTypes,
             sourceLocale,
             sourcePathFilterRegex,
             directoriesIncludePatterns,
-            directoriesExcludePatterns)) {
-
-      consoleWriter.a("Localizing: ").fg(Color.CYAN).a(sourceFileMatch.getSourcePath()).println();
+            directoriesExcludePatterns);
 
-      List<String> filterOptions =
-          commandHelper.getFilterOptionsOrDefaults(
-              sourceFileMatch.getFileType(), filterOptionsParam);
-
-      if (localeMappingParam != null) {
-        generateLocalizedFilesWithLocaleMaping(repository, sourceFileMatch, filterOptions);
-      } else {
-        generateLocalizedFilesWithoutLocaleMapping(repository, sourceFileMatch, filterOptions);
-      }
-    }
+    generateLocalizedFiles(repository, sourceFileMatches);
 
     writePullRunFileIfNeeded();
 
@@ -251,66 +262,222 @@ public class PullCommand extends Command {
   }
 
   /**
-   * Default generation, uses the locales defined in the repository to generate the localized files.
+   * Generates the localized files of the source files with up to {@link #parallelism} concurrent
+   * requests.
+   *
+   * <p>All the localized files are submitted upfront in the order of the source files and locales,
+   * and each one is written as soon as it is generated. The results are then printed in the same
+   * order, so the console output is the same whatever the parallelism. The first failure in that
+   * order stops the command.
    *
    * @param repository
-   * @param sourceFileMatch
-   * @param filterOptions
+   * @param sourceFileMatches
    * @throws CommandException
    */
-  void generateLocalizedFilesWithoutLocaleMapping(
-      Repository repository, FileMatch sourceFileMatch, List<String> filterOptions)
+  void generateLocalizedFiles(Repository repository, List<FileMatch> sourceFileMatches)
       throws CommandException {
 
+    ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
+
+    try {
+      List<List<CompletableFuture<LocalizedFileResult>>> localizedFileResultsBySourceFile =
+          new ArrayList<>();
+
+      for (FileMatch sourceFileMatch : sourceFileMatches) {
+        List<String> filterOptions =
+            commandHelper.getFilterOptionsOrDefaults(
+                sourceFileMatch.getFileType(), filterOptionsParam);
+
+        // Fetched once per source file, by the first localized file that needs it
+        Supplier<AssetWithContent> assetWithContentSupplier =
+            Suppliers.memoize(() -> getAssetWithContent(repository, sourceFileMatch));
+
+        if (localeMappingParam != null) {
+          localizedFileResultsBySourceFile.add(
+              generateLocalizedFilesWithLocaleMaping(
+                  sourceFileMatch, filterOptions, assetWithContentSupplier, executorService));
+        } else {
+          localizedFileResultsBySourceFile.add(
+              generateLocalizedFilesWithoutLocaleMapping(
+                  sourceFileMatch, filterOptions, assetWithContentSupplier, executorService));
+        }
+      }
+
+      for (int i = 0; i < sourceFileMatches.size(); i++) {
+        consoleWriter
+            .a("Localizing: ")
+            .fg(Color.CYAN)
+            .a(sourceFileMatches.get(i).getSourcePath())
+            .println();
+
+        for (CompletableFuture<LocalizedFileResult> localizedFileResult :
+            localizedFileResultsBySourceFile.get(i)) {
+          printLocalizedFileResult(getLocalizedFileResult(localizedFileResult));
+        }
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Default generation, uses the locales defined in the repository to generate the localized files.
+   *
+   * @param sourceFileMatch
+   * @param filterOptions
+   * @param assetWithContentSupplier
+   * @param executorService
+   * @return the results of the localized files, in the locale order
+   */
+  List<CompletableFuture<LocalizedFileResult>> generateLocalizedFilesWithoutLocaleMapping(
+      FileMatch sourceFileMatch,
+      List<String> filterOptions,
+      Supplier<AssetWithContent> assetWithContentSupplier,
+      ExecutorService executorService) {
+
     logger.debug("Generate localized files (without locale mapping)");
 
+    List<CompletableFuture<LocalizedFileResult>> localizedFileResults = new ArrayList<>();
+
     for (RepositoryLocale repositoryLocale : repositoryLocalesWithoutRootLocale.values()) {
-      generateLocalizedFile(repository, sourceFileMatch, filterOptions, null, repositoryLocale);
+      localizedFileResults.add(
+          generateLocalizedFile(
+              sourceFileMatch,
+              filterOptions,
+              null,
+              repositoryLocale,
+              assetWithContentSupplier,
+              executorService));
     }
+
+    return localizedFileResults;
   }
 
   /**
    * Generation with locale mapping. The localized files are generated using specific output tags
    * while still using the repository locale to fetch the proper translations.
    *
-   * @param repository
    * @param sourceFileMatch
    * @param filterOptions
-   * @throws CommandException
+   * @param assetWithContentSupplier
+   * @param executorService
+   * @return the results of the localized files, in the locale mapping order
+   * @throws CommandException if the locale mapping is invalid
    */
-  void generateLocalizedFilesWithLocaleMaping(
-      Repository repository, FileMatch sourceFileMatch, List<String> filterOptions)
+  List<CompletableFuture<LocalizedFileResult>> generateLocalizedFilesWithLocaleMaping(
+      FileMatch sourceFileMatch,
+      List<String> filterOptions,
+      Supplier<AssetWithContent> assetWithContentSupplier,
+      ExecutorService executorService)
       throws CommandException {
 
     logger.debug("Generate localzied files with locale mapping");
 
+    List<CompletableFuture<LocalizedFileResult>> localizedFileResults = new ArrayList<>();
+
     for (Map.Entry<String, String> localeMapping : localeMappings.entrySet()) {
       String outputBcp47tag = localeMapping.getKey();
       RepositoryLocale repositoryLocale = getRepositoryLocaleForOutputBcp47Tag(outputBcp47tag);
-      generateLocalizedFile(
-          repository, sourceFileMatch, filterOptions, outputBcp47tag, repositoryLocale);
+      localizedFileResults.add(
+          generateLocalizedFile(
+              sourceFileMatch,
+              filterOptions,
+              outputBcp47tag,
+              repositoryLocale,
+              assetWithContentSupplier,
+              executorService));
     }
+
+    return localizedFileResults;
   }
 
-  void generateLocalizedFile(
-      Repository repository,
+  /**
+   * Submits the generation of a localized file to the executor, unless the locale must be skipped.
+   *
+   * @return the result of the generation, completed once the localized file is written
+   */
+  CompletableFuture<LocalizedFileResult> generateLocalizedFile(
       FileMatch sourceFileMatch,
       List<String> filterOptions,
       String outputBcp47tag,
-      RepositoryLocale repositoryLocale)
-      throws CommandException {
-    if (shouldGenerateLocalizedFile(repositoryLocale)) {
-      LocalizedAssetBody localizedAsset =
-          getLocalizedAsset(
-              repository, sourceFileMatch, repositoryLocale, outputBcp47tag, filterOptions);
-      writeLocalizedAssetToTargetDirectory(localizedAsset, sourceFileMatch);
-    } else {
+      RepositoryLocale repositoryLocale,
+      Supplier<AssetWithContent> assetWithContentSupplier,
+      ExecutorService executorService) {
+
+    LocalizedFileResult localizedFileResult =
+        new LocalizedFileResult(repositoryLocale.getLocale().getBcp47Tag());
+
+    if (!shouldGenerateLocalizedFile(repositoryLocale)) {
+      localizedFileResult.skipped = true;
+      return CompletableFuture.completedFuture(localizedFileResult);
+    }
+
+    return CompletableFuture.supplyAsync(
+        () -> {
+          LocalizedAssetBody localizedAsset =
+              getLocalizedAsset(
+                  sourceFileMatch,
+                  repositoryLocale,
+                  outputBcp47tag,
+                  filterOptions,
+                  assetWithContentSupplier.get(),
+                  localizedFileResult);
+          localizedFileResult.relativeTargetFilePath =
+              writeLocalizedAssetToTargetDirectory(localizedAsset, sourceFileMatch);
+          return localizedFileResult;
+        },
+        executorService);
+  }
+
+  /**
+   * Waits for the result of a localized file.
+   *
+   * @throws CommandException if the generation failed
+   */
+  LocalizedFileResult getLocalizedFileResult(
+      CompletableFuture<LocalizedFileResult> localizedFileResult) throws CommandException {
+    try {
+      return localizedFileResult.join();
+    } catch (CompletionException ce) {
+      if (ce.getCause() instanceof CommandException) {
+        throw (CommandException) ce.getCause();
+      }
+      throw new CommandException(ce.getCause());
+    }
+  }
+
+  void printLocalizedFileResult(LocalizedFileResult localizedFileResult) {
+    if (localizedFileResult.skipped) {
       consoleWriter
           .a(" - Skipping locale: ")
           .fg(Color.CYAN)
-          .a(repositoryLocale.getLocale().getBcp47Tag())
+          .a(localizedFileResult.bcp47Tag)
           .print();
       consoleWriter.a(" --> ").fg(Color.MAGENTA).a("not fully translated").println();
+    } else {
+      for (int attempt = 1; attempt <= localizedFileResult.failedAttempts; attempt++) {
+        consoleWriter
+            .fg(Color.RED)
+            .a("Attempt ")
+            .a(attempt)
+            .a("/")
+            .a(MAX_SYNC_ATTEMPTS)
+            .a(" for locale: ")
+            .a(localizedFileResult.bcp47Tag)
+            .a(" failed. Retrying...")
+            .println();
+      }
+
+      consoleWriter
+          .a(" - Processing locale: ")
+          .fg(Color.CYAN)
+          .a(localizedFileResult.bcp47Tag)
+          .print();
+      consoleWriter
+          .a(" --> ")
+          .fg(Color.MAGENTA)
+          .a(localizedFileResult.relativeTargetFilePath.toString())
+          .println();
     }
   }
 
@@ -371,7 +538,8 @@ public class PullCommand extends Command {
     return repositoryLocalesWithoutRootLocale;
   }
 
-  void writeLocalizedAssetToTargetDirectory(
+  /** @return the path of the localized file, relative to the user directory */
+  Path writeLocalizedAssetToTargetDirectory(
       LocalizedAssetBody localizedAsset, FileMatch sourceFileMatch) throws CommandException {
 
     Path targetPath =
@@ -381,23 +549,15 @@ public class PullCommand extends Command {
 
     commandHelper.writeFileContent(localizedAsset.getContent(), targetPath, sourceFileMatch);
 
-    Path relativeTargetFilePath = commandDirectories.relativizeWithUserDirectory(targetPath);
-
-    consoleWriter.a(" --> ").fg(Color.MAGENTA).a(relativeTargetFilePath.toString()).println();
+    return commandDirectories.relativizeWithUserDirectory(targetPath);
   }
 
-  LocalizedAssetBody getLocalizedAsset(
-      Repository repository,
-      FileMatch sourceFileMatch,
-      RepositoryLocale repositoryLocale,
-      String outputBcp47tag,
-      List<String> filterOptions)
+  /**
+   * Gets the remote asset of a source file and the content to localize. They are the same for all
+   * the locales.
+   */
+  AssetWithContent getAssetWithContent(Repository repository, FileMatch sourceFileMatch)
       throws CommandException {
-    consoleWriter
-        .a(" - Processing locale: ")
-        .fg(Color.CYAN)
-        .a(repositoryLocale.getLocale().getBcp47Tag())
-        .print();
 
     String sourcePath =
         commandHelper.getMappedSourcePath(assetMapping, sourceFileMatch.getSourcePath());
@@ -405,10 +565,7 @@ public class PullCommand extends Command {
     Asset assetByPathAndRepositoryId;
 
     try {
-      logger.debug(
-          "Getting the asset for path: {} and locale: {}",
-          sourcePath,
-          repositoryLocale.getLocale().getBcp47Tag());
+      logger.debug("Getting the asset for path: {}", sourcePath);
       assetByPathAndRepositoryId =
           assetClient.getAssetByPathAndRepositoryId(sourcePath, repository.getId());
     } catch (AssetNotFoundException e) {
@@ -419,6 +576,21 @@ public class PullCommand extends Command {
 
     String assetContent = commandHelper.getFileContentWithXcodePatch(sourceFileMatch);
 
+    return new AssetWithContent(assetByPathAndRepositoryId, assetContent);
+  }
+
+  LocalizedAssetBody getLocalizedAsset(
+      FileMatch sourceFileMatch,
+      RepositoryLocale repositoryLocale,
+      String outputBcp47tag,
+      List<String> filterOptions,
+      AssetWithContent assetWithContent,
+      LocalizedFileResult localizedFileResult)
+      throws CommandException {
+
+    Asset assetByPathAndRepositoryId = assetWithContent.asset;
+    String assetContent = assetWithContent.content;
+
     LocalizedAssetBody localizedAsset = null;
 
     if (asyncWS) {
@@ -439,7 +611,7 @@ public class PullCommand extends Command {
               filterOptions,
               assetByPathAndRepositoryId,
               assetContent,
-              localizedAsset);
+              localizedFileResult);
     }
 
     logger.trace("LocalizedAsset content = {}", localizedAsset.getContent());
@@ -454,12 +626,13 @@ public class PullCommand extends Command {
       List<String> filterOptions,
       Asset assetByPathAndRepositoryId,
       String assetContent,
-      LocalizedAssetBody localizedAsset)
+      LocalizedFileResult localizedFileResult)
       throws CommandException {
     // TODO remove this is temporary, Async service is implemented but we don't use it yet by
     // default
+    LocalizedAssetBody localizedAsset = null;
     int count = 0;
-    int maxCount = 5;
+    int maxCount = MAX_SYNC_ATTEMPTS;
     while (localizedAsset == null && count < maxCount) {
       try {
         localizedAsset =
@@ -475,16 +648,14 @@ public class PullCommand extends Command {
                 pullRunName);
       } catch (Exception e) {
         count++;
-        consoleWriter
-            .fg(Color.RED)
-            .a("Attempt ")
-            .a(count)
-            .a("/")
-            .a(maxCount)
-            .a(" for locale: ")
-            .a(repositoryLocale.getLocale().getBcp47Tag())
-            .a(" failed. Retrying...")
-            .println();
+        logger.debug(
+            "Attempt {}/{} for locale: {} failed",
+            count,
+            maxCount,
+            repositoryLocale.getLocale().getBcp47Tag(),
+            e);
+        // printed with the result to keep the console output ordered
+        localizedFileResult.failedAttempts = count;
       }
     }
 
@@ -516,7 +687,12 @@ public class PullCommand extends Command {
             status,
             inheritanceMode,
             pullRunName);
-    commandHelper.waitForPollableTask(localizedAssetForContentAsync.getId());
+    // no progress output (see CommandHelper#waitForPollableTask) since tasks can run concurrently
+    try {
+      commandHelper.pollableTaskClient.waitForPollableTask(localizedAssetForContentAsync.getId());
+    } catch (PollableTaskException e) {
+      throw new CommandException(e.getMessage(), e.getCause());
+    }
     String jsonOutput =
         commandHelper.pollableTaskClient.getPollableTaskOutput(
             localizedAssetForContentAsync.getId());
@@ -552,4 +728,27 @@ public class PullCommand extends Command {
 
     return localize;
   }
+
+  /** Remote asset of a source file and the content to localize */
+  static class AssetWithContent {
+    Asset asset;
+    String content;
+
+    AssetWithContent(Asset asset, String content) {
+      this.asset = asset;
+      this.content = content;
+    }
+  }
+
+  /** Result of the generation of a localized file, printed in order once available */
+  static class LocalizedFileResult {
+    String bcp47Tag;
+    boolean skipped = false;
+    int failedAttempts = 0;
+    Path relativeTargetFilePath;
+
+    LocalizedFileResult(String bcp47Tag) {
+      this.bcp47Tag = bcp47Tag;
+    }
+  }
 }
@@ -145,6 +145,14 @@ public class PushCommand extends Command {
       converter = AssetMappingConverter.class)
   Map<String, String> assetMapping;
 
+  @Parameter(
+      names = {"--parallelism"},
+      required = false,
+      description =
+          "Number of source assets uploaded concurrently. Assets that didn't change since the last "
+              + "push to the branch are not uploaded")
+  Integer parallelism = 1;
+
   @Autowired RepositoryClient repositoryClient;
 
   @Autowired CommandHelper commandHelper;
@@ -156,6 +164,10 @@ public class PushCommand extends Command {
   @Override
   public void execute() throws CommandException {
 
+    if (parallelism < 1) {
+      throw new CommandException("--parallelism must be at least 1, got: " + parallelism);
+    }
+
     commandDirectories = new CommandDirectories(sourceDirectoryParam);
 
     consoleWriter
@@ -231,7 +243,7 @@ public class PushCommand extends Command {
                   return sourceAsset;
                 });
 
-    pushService.push(repository, sourceAssetStream, branchName, pushType);
+    pushService.push(repository, sourceAssetStream, branchName, pushType, parallelism);
     pushService.associatePushRun(repository, pushRunName, commitHash);
 
     consoleWriter.fg(Ansi.Color.GREEN).newLine().a("Finished").println(2);
@@ -4,23 +4,37 @@ import com.box.l10n.mojito.cli.console.ConsoleWriter;
 import com.box.l10n.mojito.rest.client.AssetClient;
 import com.box.l10n.mojito.rest.client.CommitClient;
 import com.box.l10n.mojito.rest.client.RepositoryClient;
-import com.box.l10n.mojito.rest.client.exception.PollableTaskException;
+import com.box.l10n.mojito.rest.entity.AssetExtractionMd5;
 import com.box.l10n.mojito.rest.entity.Branch;
 import com.box.l10n.mojito.rest.entity.PollableTask;
 import com.box.l10n.mojito.rest.entity.Repository;
 import com.box.l10n.mojito.rest.entity.SourceAsset;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Sets;
+import com.ibm.icu.text.Normalizer2;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.fusesource.jansi.Ansi;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 
 /** @author jaurambault */
 @Component
@@ -45,17 +59,67 @@ public class PushService {
       String branchName,
       PushType pushType)
       throws CommandException {
+    push(repository, sourceAssetStream, branchName, pushType, 1);
+  }
+
+  /**
+   * Pushes the source assets.
+   *
+   * <p>Up to {@code parallelism} assets are uploaded concurrently, the console output keeps the
+   * order of the stream. The stream is read at most twice {@code parallelism} assets ahead of the
+   * output and each asset is dropped once printed, so the contents of all the assets are not kept
+   * in memory. Assets that didn't change since the last processing in the branch (same content and
+   * filter options md5s) are not uploaded since the server would not process them.
+   *
+   * @param repository the repository
+   * @param sourceAssetStream the assets to push
+   * @param branchName the branch name
+   * @param pushType the push type
+   * @param parallelism max number of concurrent uploads
+   * @throws CommandException
+   */
+  public void push(
+      Repository repository,
+      Stream<SourceAsset> sourceAssetStream,
+      String branchName,
+      PushType pushType,
+      int parallelism)
+      throws CommandException {
 
     List<PollableTask> pollableTasks = new ArrayList<>();
     Set<Long> usedAssetIds = new HashSet<>();
 
-    sourceAssetStream.forEach(
-        sourceAsset -> {
-          consoleWriter.a(" - Uploading: ").fg(Ansi.Color.CYAN).a(sourceAsset.getPath()).println();
+    Map<String, AssetExtractionMd5> assetExtractionMd5sByPath =
+        getAssetExtractionMd5sByPath(repository, branchName);
 
-          SourceAsset assetAfterSend = assetClient.sendSourceAsset(sourceAsset);
-          pollableTasks.add(assetAfterSend.getPollableTask());
+    ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
+
+    try {
+      int maxAssetsInFlight = parallelism * 2;
+      ArrayDeque<String> pathsInFlight = new ArrayDeque<>();
+      ArrayDeque<CompletableFuture<SourceAsset>> assetsAfterSendInFlight = new ArrayDeque<>();
+      Iterator<SourceAsset> sourceAssets = sourceAssetStream.iterator();
+
+      while (sourceAssets.hasNext() || !assetsAfterSendInFlight.isEmpty()) {
+        while (sourceAssets.hasNext() && assetsAfterSendInFlight.size() < maxAssetsInFlight) {
+          SourceAsset sourceAsset = sourceAssets.next();
+          pathsInFlight.add(sourceAsset.getPath());
+          assetsAfterSendInFlight.add(
+              sendSourceAssetIfChanged(sourceAsset, assetExtractionMd5sByPath, executorService));
+        }
+
+        String path = pathsInFlight.poll();
+        SourceAsset assetAfterSend = getAssetAfterSend(assetsAfterSendInFlight.poll());
 
+        if (assetAfterSend.getPollableTask() == null) {
+          consoleWriter.a(" - Unchanged: ").fg(Ansi.Color.CYAN).a(path).println();
+          consoleWriter
+              .a(" --> asset id: ")
+              .fg(Ansi.Color.MAGENTA)
+              .a(assetAfterSend.getAddedAssetId())
+              .println();
+        } else {
+          consoleWriter.a(" - Uploading: ").fg(Ansi.Color.CYAN).a(path).println();
           consoleWriter
               .a(" --> asset id: ")
               .fg(Ansi.Color.MAGENTA)
@@ -65,8 +129,14 @@ public class PushService {
               .fg(Ansi.Color.MAGENTA)
               .a(assetAfterSend.getPollableTask().getId())
               .println();
-          usedAssetIds.add(assetAfterSend.getAddedAssetId());
-        });
+          pollableTasks.add(assetAfterSend.getPollableTask());
+        }
+
+        usedAssetIds.add(assetAfterSend.getAddedAssetId());
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
 
     if (PushType.SEND_ASSET_NO_WAIT_NO_DELETE.equals(pushType)) {
       consoleWriter
@@ -81,6 +151,67 @@ public class PushService {
     }
   }
 
+  CompletableFuture<SourceAsset> sendSourceAssetIfChanged(
+      SourceAsset sourceAsset,
+      Map<String, AssetExtractionMd5> assetExtractionMd5sByPath,
+      ExecutorService executorService) {
+    AssetExtractionMd5 assetExtractionMd5 = assetExtractionMd5sByPath.get(sourceAsset.getPath());
+
+    if (isUnchanged(sourceAsset, assetExtractionMd5)) {
+      sourceAsset.setAddedAssetId(assetExtractionMd5.getAssetId());
+      return CompletableFuture.completedFuture(sourceAsset);
+    }
+
+    return CompletableFuture.supplyAsync(
+        () -> assetClient.sendSourceAsset(sourceAsset), executorService);
+  }
+
+  /**
+   * Gets the md5s of the assets in the branch, keyed by path. Returns an empty map if the server
+   * doesn't provide them (older versions), in which case all the assets are uploaded.
+   */
+  Map<String, AssetExtractionMd5> getAssetExtractionMd5sByPath(
+      Repository repository, String branchName) {
+    try {
+      return assetClient.getAssetExtractionMd5s(repository.getId(), branchName).stream()
+          .collect(Collectors.toMap(AssetExtractionMd5::getPath, Function.identity()));
+    } catch (HttpClientErrorException hcee) {
+      logger.debug("Can't get the asset extraction md5s, upload all the assets", hcee);
+      return Collections.emptyMap();
+    }
+  }
+
+  /**
+   * An asset is unchanged if its content and filter options have the same md5s as the ones used
+   * for the last processing of the asset in the branch. The md5s are computed like on the server,
+   * so the server would not process the asset again.
+   *
+   * <p>Assets pushed with a push run are never unchanged since the push run must be recorded.
+   */
+  boolean isUnchanged(SourceAsset sourceAsset, AssetExtractionMd5 assetExtractionMd5) {
+    return assetExtractionMd5 != null
+        && StringUtils.isBlank(sourceAsset.getPushRunName())
+        && DigestUtils.md5Hex(Normalizer2.getNFCInstance().normalize(sourceAsset.getContent()))
+            .equals(assetExtractionMd5.getContentMd5())
+        && getFilterOptionsMd5(sourceAsset.getFilterOptions())
+            .equals(assetExtractionMd5.getFilterOptionsMd5());
+  }
+
+  String getFilterOptionsMd5(List<String> filterOptions) {
+    String joined = filterOptions == null ? "" : String.join("", filterOptions);
+    return DigestUtils.md5Hex(joined);
+  }
+
+  SourceAsset getAssetAfterSend(CompletableFuture<SourceAsset> assetAfterSend)
+      throws CommandException {
+    try {
+      return assetAfterSend.join();
+    } catch (CompletionException ce) {
+      Throwables.throwIfUnchecked(ce.getCause());
+      throw new CommandException(ce.getCause());
+    }
+  }
+
   void optionalDeleteUnusedAssets(
       Repository repository, String branchName, PushType pushType, Set<Long> usedAssetIds)
       throws CommandException {
@@ -118,15 +249,18 @@ public class PushService {
     }
   }
 
+  /**
+   * Waits for all the "push" tasks with a single request per poll for the unfinished tasks (see
+   * {@link CommandHelper#waitForPollableTasks(List)}), stops at the first failure.
+   */
   void waitForPollableTasks(List<PollableTask> pollableTasks) throws CommandException {
-    try {
-      logger.debug("Wait for all \"push\" tasks to be finished");
-      for (PollableTask pollableTask : pollableTasks) {
-        commandHelper.waitForPollableTask(pollableTask.getId());
-      }
-    } catch (PollableTaskException e) {
-      throw new CommandException(e.getMessage(), e.getCause());
+    if (pollableTasks.isEmpty()) {
+      return;
     }
+
+    logger.debug("Wait for all \"push\" tasks to be finished");
+    commandHelper.waitForPollableTasks(
+        pollableTasks.stream().map(PollableTask::getId).collect(Collectors.toList()));
   }
 
   public void associatePushRun(Repository repository, String pushRunName, String commitHash) {
@@ -0,0 +1,33 @@
+package com.box.l10n.mojito.cli.command.extraction;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Lists the hashes of the inputs used to generate each asset extraction of an extraction
+ * directory, so that a later incremental extraction can reuse the asset extractions whose inputs
+ * didn't change (see {@link ExtractionService#getAssetExtractionHash}).
+ */
+public class ExtractionManifest {
+
+  /** Version of the CLI that generated the extraction, asset extractions are not reused across */
+  String cliVersion;
+
+  Map<String, String> hashesBySourcePath = new TreeMap<>();
+
+  public String getCliVersion() {
+    return cliVersion;
+  }
+
+  public void setCliVersion(String cliVersion) {
+    this.cliVersion = cliVersion;
+  }
+
+  public Map<String, String> getHashesBySourcePath() {
+    return hashesBySourcePath;
+  }
+
+  public void setHashesBySourcePath(Map<String, String> hashesBySourcePath) {
+    this.hashesBySourcePath = hashesBySourcePath;
+  }
+}
@@ -17,6 +17,9 @@ public class ExtractionPaths {
   public static final String DEFAULT_OUTPUT_DIRECTORY = ".mojito/extractions";
   static final String JSON_FILE_EXTENSION = ".json";
 
+  /** Not a JSON file extension, to not be listed with the asset extractions */
+  static final String MANIFEST_FILE_NAME = ".extraction-manifest";
+
   String outputDirectory;
   String extractionName;
 
@@ -37,6 +40,10 @@ public class ExtractionPaths {
     return getOutputDirectory().resolve(extractionName);
   }
 
+  Path manifestPath() {
+    return extractionPath().resolve(MANIFEST_FILE_NAME);
+  }
+
   Path assetExtractionPath(String sourceFileMatchPath) {
     return extractionPath().resolve(sourceFileMatchPath + JSON_FILE_EXTENSION);
   }
@@ -1,5 +1,6 @@
 package com.box.l10n.mojito.cli.command.extraction;
 
+import com.box.l10n.mojito.cli.GitInfo;
 import com.box.l10n.mojito.cli.command.CommandException;
 import com.box.l10n.mojito.cli.command.CommandHelper;
 import com.box.l10n.mojito.cli.filefinder.FileMatch;
@@ -9,8 +10,11 @@ import com.box.l10n.mojito.okapi.FilterConfigIdOverride;
 import com.box.l10n.mojito.okapi.asset.UnsupportedAssetFilterTypeException;
 import com.box.l10n.mojito.okapi.extractor.AssetExtractor;
 import com.box.l10n.mojito.okapi.extractor.AssetExtractorTextUnit;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Set;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,6 +35,8 @@ public class ExtractionService {
 
   @Autowired AssetExtractor assetExtractor;
 
+  @Autowired GitInfo gitInfo;
+
   public void fileMatchToAssetExtractionAndSaveToJsonFile(
       ExtractionPaths extractionPaths,
       List<String> filterOptions,
@@ -56,6 +62,104 @@ public class ExtractionService {
     Files.createDirectories(path);
   }
 
+  /**
+   * Prepares the extraction directory for an incremental extraction: creates it if needed and
+   * deletes the asset extractions of the source files that are not extracted anymore. The manifest
+   * is deleted so that an interrupted extraction is not reused, it is written again at the end of
+   * the extraction (see {@link #writeManifest(ExtractionPaths, ExtractionManifest)}).
+   *
+   * @param extractionPaths the extraction paths
+   * @param sourcePaths the source paths of the files to be extracted
+   */
+  public void prepareIncrementalExtractionDirectory(
+      ExtractionPaths extractionPaths, Set<String> sourcePaths) {
+    Path path = extractionPaths.extractionPath();
+    Files.createDirectories(path);
+
+    Files.deleteIfExists(extractionPaths.manifestPath());
+
+    for (Path assetExtractionPath : extractionPaths.findAllAssetExtractionPaths()) {
+      if (!sourcePaths.contains(extractionPaths.sourceFileMatchPath(assetExtractionPath))) {
+        logger.debug("Delete asset extraction that is not used anymore: {}", assetExtractionPath);
+        Files.deleteIfExists(assetExtractionPath);
+      }
+    }
+  }
+
+  /**
+   * Reads the manifest of the previous extraction.
+   *
+   * @param extractionPaths the extraction paths
+   * @return the manifest, empty if there is none, if it can't be read, if it was written by another
+   *     version of the CLI or if the version of the CLI is unknown
+   */
+  public ExtractionManifest readManifest(ExtractionPaths extractionPaths) {
+    Path manifestPath = extractionPaths.manifestPath();
+    String cliVersion = getCliVersion();
+
+    if (cliVersion == null) {
+      logger.debug("Unknown version of the CLI, don't reuse the previous extraction");
+    } else if (manifestPath.toFile().exists()) {
+      try {
+        ExtractionManifest manifest =
+            objectMapper.readValueUnchecked(manifestPath.toFile(), ExtractionManifest.class);
+        if (cliVersion.equals(manifest.getCliVersion())) {
+          return manifest;
+        }
+        logger.debug("Manifest written by another version of the CLI, ignore it");
+      } catch (UncheckedIOException uioe) {
+        logger.debug("Can't read the manifest, ignore it", uioe);
+      }
+    }
+
+    return createManifest();
+  }
+
+  public ExtractionManifest createManifest() {
+    ExtractionManifest manifest = new ExtractionManifest();
+    manifest.setCliVersion(getCliVersion());
+    return manifest;
+  }
+
+  public void writeManifest(ExtractionPaths extractionPaths, ExtractionManifest manifest) {
+    objectMapper.createDirectoriesAndWrite(extractionPaths.manifestPath(), manifest);
+  }
+
+  /**
+   * Computes the hash of the inputs of the extraction of a file: its content, the filter config
+   * and the filter options. The asset extraction can be reused if the hash didn't change.
+   *
+   * @param sourceFileMatch the file to extract
+   * @param filterOptions the filter options
+   * @param filterConfigIdOverride the filter config override
+   * @return the hash
+   */
+  public String getAssetExtractionHash(
+      FileMatch sourceFileMatch,
+      List<String> filterOptions,
+      FilterConfigIdOverride filterConfigIdOverride) {
+    String assetContent = commandHelper.getFileContentWithXcodePatch(sourceFileMatch);
+
+    return DigestUtils.md5Hex(
+        String.join(
+            "\n",
+            DigestUtils.md5Hex(assetContent),
+            String.valueOf(filterConfigIdOverride),
+            filterOptions == null ? "" : String.join(",", filterOptions)));
+  }
+
+  /**
+   * @return {@code true} if the asset extraction of the file was written by a previous extraction
+   */
+  public boolean hasAssetExtraction(ExtractionPaths extractionPaths, FileMatch sourceFileMatch) {
+    return extractionPaths.assetExtractionPath(sourceFileMatch.getSourcePath()).toFile().exists();
+  }
+
+  /** @return the git commit id of the CLI, {@code null} if unknown (eg. not built from git) */
+  String getCliVersion() {
+    return gitInfo.getCommit().getId();
+  }
+
   AssetExtraction fileMatchToAssetExtraction(
       String extractionName,
       FileMatch sourceFileMatch,
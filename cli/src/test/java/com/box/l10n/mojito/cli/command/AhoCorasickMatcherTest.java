@@ -0,0 +1,81 @@
+package com.box.l10n.mojito.cli.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class AhoCorasickMatcherTest {
+
+  @Test
+  public void findMatches() {
+    AhoCorasickMatcher<String> matcher = getMatcher("he", "she", "his", "hers");
+
+    assertEquals(Arrays.asList("he", "she", "hers"), matcher.findMatches("ushers"));
+    assertEquals(Arrays.asList("his"), matcher.findMatches("this"));
+    assertTrue(matcher.findMatches("nothing").isEmpty());
+    assertTrue(matcher.findMatches("").isEmpty());
+  }
+
+  @Test
+  public void findMatchesWithFailureLinks() {
+    AhoCorasickMatcher<String> matcher = getMatcher("abcd", "bce", "c");
+
+    assertEquals(Arrays.asList("bce", "c"), matcher.findMatches("abce"));
+    assertEquals(Arrays.asList("abcd", "c"), matcher.findMatches("xabcd"));
+  }
+
+  @Test
+  public void findMatchesSameAsContains() {
+    List<String> patterns =
+        Arrays.asList("test", "test_1", "plural_tests", "a", "aa", "aab", "name=\"", "\"test\"");
+    AhoCorasickMatcher<String> matcher = getMatcher(patterns.toArray(new String[0]));
+
+    for (String text :
+        Arrays.asList(
+            "<string name=\"test_1\">Test 1</string>",
+            "<plurals name=\"plural_tests\">",
+            "aaab",
+            "\"test\"",
+            "")) {
+      List<String> expected = new ArrayList<>();
+      for (String pattern : patterns) {
+        if (text.contains(pattern)) {
+          expected.add(pattern);
+        }
+      }
+      assertEquals(text, expected, matcher.findMatches(text));
+    }
+  }
+
+  @Test
+  public void findMatchesEmptyPattern() {
+    AhoCorasickMatcher<String> matcher = getMatcher("", "b");
+    assertEquals(Arrays.asList(""), matcher.findMatches(""));
+    assertEquals(Arrays.asList("", "b"), matcher.findMatches("abc"));
+  }
+
+  @Test
+  public void findMatchesMultipleValues() {
+    Map<String, List<Integer>> valuesByPattern = new LinkedHashMap<>();
+    valuesByPattern.put("x", Arrays.asList(1, 2));
+    valuesByPattern.put("y", Collections.singletonList(3));
+    AhoCorasickMatcher<Integer> matcher = new AhoCorasickMatcher<>(valuesByPattern);
+
+    assertEquals(Arrays.asList(1, 2, 3), matcher.findMatches("yx"));
+  }
+
+  AhoCorasickMatcher<String> getMatcher(String... patterns) {
+    Map<String, List<String>> valuesByPattern = new LinkedHashMap<>();
+    for (String pattern : patterns) {
+      valuesByPattern.put(pattern, Collections.singletonList(pattern));
+    }
+    return new AhoCorasickMatcher<>(valuesByPattern);
+  }
+}
@@ -1,10 +1,21 @@
 package com.box.l10n.mojito.cli.command;
 
 import com.box.l10n.mojito.cli.CLITestBase;
+import com.box.l10n.mojito.cli.GitInfo;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 
 /** @author jeanaurambault */
 public class ExtractionCommandTest extends CLITestBase {
@@ -12,6 +23,24 @@ public class ExtractionCommandTest extends CLITestBase {
   /** logger */
   static Logger logger = LoggerFactory.getLogger(ExtractionCommandTest.class);
 
+  @Autowired GitInfo gitInfo;
+
+  String gitCommitId;
+
+  /** Incremental extractions are not reused if the version of the CLI is unknown */
+  @Before
+  public void setGitCommitId() {
+    gitCommitId = gitInfo.getCommit().getId();
+    if (gitCommitId == null) {
+      gitInfo.getCommit().setId("test");
+    }
+  }
+
+  @After
+  public void restoreGitCommitId() {
+    gitInfo.getCommit().setId(gitCommitId);
+  }
+
   @Test
   public void extract() throws Exception {
     getL10nJCommander()
@@ -29,6 +58,133 @@ public class ExtractionCommandTest extends CLITestBase {
     checkExpectedGeneratedResources();
   }
 
+  @Test
+  public void extractIncremental() throws Exception {
+    String[] args =
+        new String[] {
+          "extract",
+          "-s",
+          getInputResourcesTestDir("source1").getAbsolutePath(),
+          "-o",
+          getTargetTestDir().getAbsolutePath(),
+          "-fo",
+          "testoption=something",
+          "-n",
+          "source1",
+          "--incremental",
+          "--parallelism",
+          "2"
+        };
+
+    getL10nJCommander().run(args);
+    String outputString = outputCapture.toString();
+    Assert.assertEquals(2, StringUtils.countMatches(outputString, "Extracting: "));
+    Assert.assertTrue(new File(getTargetTestDir(), "source1/.extraction-manifest").exists());
+
+    getL10nJCommander().run(args);
+    String secondOutputString = outputCapture.toString().substring(outputString.length());
+    Assert.assertEquals(0, StringUtils.countMatches(secondOutputString, "Extracting: "));
+    Assert.assertEquals(2, StringUtils.countMatches(secondOutputString, "Unchanged: "));
+    Assert.assertTrue(
+        new File(getTargetTestDir(), "source1/LC_MESSAGES/messages.pot.json").exists());
+  }
+
+  @Test
+  public void extractIncrementalModifiedFile() throws Exception {
+    File sourceDirectory = copyInputToTarget();
+
+    String output = runIncrementalExtraction(sourceDirectory, "testoption=something");
+    Assert.assertEquals(2, StringUtils.countMatches(output, "Extracting: "));
+
+    Files.write(
+        new File(sourceDirectory, "LC_MESSAGES/messages.pot").toPath(),
+        "\n#: file.js:30\nmsgctxt \"new_string\"\nmsgid \"New string\"\nmsgstr \"\"\n"
+            .getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    String secondOutput = runIncrementalExtraction(sourceDirectory, "testoption=something");
+    Assert.assertEquals(1, StringUtils.countMatches(secondOutput, "Extracting: "));
+    Assert.assertEquals(1, StringUtils.countMatches(secondOutput, "Unchanged: "));
+    Assert.assertTrue(
+        FileUtils.readFileToString(
+                new File(getTargetTestDir(), "extractions/source1/LC_MESSAGES/messages.pot.json"),
+                StandardCharsets.UTF_8)
+            .contains("New string"));
+  }
+
+  @Test
+  public void extractIncrementalRemovedFile() throws Exception {
+    File sourceDirectory = copyInputToTarget();
+    File assetExtraction =
+        new File(getTargetTestDir(), "extractions/source1/LC_MESSAGES/messages2.pot.json");
+
+    runIncrementalExtraction(sourceDirectory, "testoption=something");
+    Assert.assertTrue(assetExtraction.exists());
+
+    Files.delete(new File(sourceDirectory, "LC_MESSAGES/messages2.pot").toPath());
+
+    String secondOutput = runIncrementalExtraction(sourceDirectory, "testoption=something");
+    Assert.assertEquals(0, StringUtils.countMatches(secondOutput, "Extracting: "));
+    Assert.assertEquals(1, StringUtils.countMatches(secondOutput, "Unchanged: "));
+    Assert.assertFalse(assetExtraction.exists());
+    Assert.assertFalse(
+        FileUtils.readFileToString(
+                new File(getTargetTestDir(), "extractions/source1/.extraction-manifest"),
+                StandardCharsets.UTF_8)
+            .contains("messages2.pot"));
+  }
+
+  @Test
+  public void extractIncrementalFilterOptionsChanged() throws Exception {
+    File sourceDirectory = copyInputToTarget();
+
+    runIncrementalExtraction(sourceDirectory, "testoption=something");
+
+    String secondOutput = runIncrementalExtraction(sourceDirectory, "testoption=other");
+    Assert.assertEquals(2, StringUtils.countMatches(secondOutput, "Extracting: "));
+    Assert.assertEquals(0, StringUtils.countMatches(secondOutput, "Unchanged: "));
+
+    String thirdOutput = runIncrementalExtraction(sourceDirectory, "testoption=other");
+    Assert.assertEquals(2, StringUtils.countMatches(thirdOutput, "Unchanged: "));
+  }
+
+  @Test
+  public void extractIncrementalUnknownCliVersion() throws Exception {
+    File sourceDirectory = copyInputToTarget();
+    gitInfo.getCommit().setId(null);
+
+    runIncrementalExtraction(sourceDirectory, "testoption=something");
+
+    String secondOutput = runIncrementalExtraction(sourceDirectory, "testoption=something");
+    Assert.assertEquals(2, StringUtils.countMatches(secondOutput, "Extracting: "));
+    Assert.assertEquals(0, StringUtils.countMatches(secondOutput, "Unchanged: "));
+  }
+
+  /** Copies the input to the target directory so that the test can modify the source files. */
+  File copyInputToTarget() throws IOException {
+    File sourceDirectory = getTargetTestDir("source1");
+    FileUtils.copyDirectory(getInputResourcesTestDir("source1"), sourceDirectory);
+    return sourceDirectory;
+  }
+
+  /** @return the output of this extraction only */
+  String runIncrementalExtraction(File sourceDirectory, String filterOption) {
+    int start = outputCapture.toString().length();
+    getL10nJCommander()
+        .run(
+            "extract",
+            "-s",
+            sourceDirectory.getAbsolutePath(),
+            "-o",
+            getTargetTestDir("extractions").getAbsolutePath(),
+            "-fo",
+            filterOption,
+            "-n",
+            "source1",
+            "--incremental");
+    return outputCapture.toString().substring(start);
+  }
+
   @Test
   public void extractBrokenPO() {
     L10nJCommander l10nJCommander = getL10nJCommander();
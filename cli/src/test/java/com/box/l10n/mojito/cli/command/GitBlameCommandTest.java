@@ -6,8 +6,11 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 import com.box.l10n.mojito.cli.CLITestBase;
 import com.box.l10n.mojito.cli.filefinder.file.AndroidStringsFileType;
@@ -224,8 +227,9 @@ public class GitBlameCommandTest extends CLITestBase {
 
     for (int i = 0; i < lines.length; i++) {
       List<GitBlameWithUsage> gitBlameWithUsages =
-          gitBlameCommand.getGitBlameWithUsagesFromLine(
-              lines[i], textUnitWithUsages, new AndroidStringsFileType());
+          gitBlameCommand
+              .getTextUnitNameInSourceMatcher(textUnitWithUsages, new AndroidStringsFileType())
+              .findMatches(lines[i]);
       assertEquals(textUnitWithUsages.get(i), gitBlameWithUsages.get(i));
       assertEquals(2, gitBlameWithUsages.size());
     }
@@ -257,8 +261,10 @@ public class GitBlameCommandTest extends CLITestBase {
 
     GitBlameCommand gitBlameCommand = new GitBlameCommand();
     List<GitBlameWithUsage> gitBlameWithUsagesActual =
-        gitBlameCommand.getGitBlameWithUsagesFromLine(
-            line, gitBlameWithUsagesExpected, new AndroidStringsFileType());
+        gitBlameCommand
+            .getTextUnitNameInSourceMatcher(
+                gitBlameWithUsagesExpected, new AndroidStringsFileType())
+            .findMatches(line);
 
     for (int i = 0; i < gitBlameWithUsagesActual.size(); i++)
       assertEquals(gitBlameWithUsagesExpected.get(i), gitBlameWithUsagesActual.get(i));
@@ -333,13 +339,13 @@ public class GitBlameCommandTest extends CLITestBase {
   }
 
   @Test(expected = NoSuchFileException.class)
-  public void getBlameResultForFileCachedWhenFileIsMissing()
+  public void getFileBlameCachedWhenFileIsMissing()
       throws CommandException, NoSuchFileException {
     GitBlameCommand gitBlameCommand = new GitBlameCommand();
     gitBlameCommand.commandDirectories =
         new CommandDirectories(getInputResourcesTestDir().getAbsolutePath());
     gitBlameCommand.initGitRepository();
-    gitBlameCommand.getBlameResultForFileCached("forSomeMissingFile");
+    gitBlameCommand.getFileBlameCached("forSomeMissingFile");
   }
 
   @Test(expected = LineMissingException.class)
@@ -349,9 +355,9 @@ public class GitBlameCommandTest extends CLITestBase {
     GitBlameCommand gitBlameCommand = new GitBlameCommand();
     gitBlameCommand.commandDirectories = new CommandDirectories(getBaseDir().getAbsolutePath());
     gitBlameCommand.initGitRepository();
-    BlameResult blameResult = gitBlameCommand.getBlameResultForFileCached("pom.xml");
+    FileBlame fileBlame = gitBlameCommand.getFileBlameCached("pom.xml");
     GitBlameWithUsage gitBlameWithUsage = new GitBlameWithUsage();
-    gitBlameCommand.updateBlameResultsInGitBlameWithUsage(100000, blameResult, gitBlameWithUsage);
+    gitBlameCommand.updateBlameResultsInGitBlameWithUsage(100000, fileBlame, gitBlameWithUsage);
     assertNull(gitBlameWithUsage.getGitBlame().getAuthorName());
   }
 
@@ -361,12 +367,40 @@ public class GitBlameCommandTest extends CLITestBase {
     GitBlameCommand gitBlameCommand = new GitBlameCommand();
     gitBlameCommand.commandDirectories = new CommandDirectories(getBaseDir().getAbsolutePath());
     gitBlameCommand.initGitRepository();
-    BlameResult blameResult = gitBlameCommand.getBlameResultForFileCached("somemissginfile");
+    FileBlame fileBlame = gitBlameCommand.getFileBlameCached("somemissginfile");
     GitBlameWithUsage gitBlameWithUsage = new GitBlameWithUsage();
-    gitBlameCommand.updateBlameResultsInGitBlameWithUsage(10, blameResult, gitBlameWithUsage);
+    gitBlameCommand.updateBlameResultsInGitBlameWithUsage(10, fileBlame, gitBlameWithUsage);
     assertNull(gitBlameWithUsage.getGitBlame().getAuthorName());
   }
 
+  @Test
+  public void getFileBlameFromDiskCache() throws Exception {
+    Assume.assumeFalse(isGitActions());
+
+    FileBlameDiskCache fileBlameDiskCache =
+        new FileBlameDiskCache(getTargetTestDir("blameCache").toPath());
+
+    GitBlameCommand gitBlameCommand = new GitBlameCommand();
+    gitBlameCommand.commandDirectories = new CommandDirectories(getBaseDir().getAbsolutePath());
+    gitBlameCommand.initGitRepository();
+    gitBlameCommand.fileBlameDiskCache = fileBlameDiskCache;
+    FileBlame fileBlame = gitBlameCommand.getFileBlame("pom.xml");
+
+    GitBlameCommand gitBlameCommandWithCache = new GitBlameCommand();
+    gitBlameCommandWithCache.commandDirectories =
+        new CommandDirectories(getBaseDir().getAbsolutePath());
+    gitBlameCommandWithCache.initGitRepository();
+    gitBlameCommandWithCache.gitRepository = spy(gitBlameCommandWithCache.gitRepository);
+    gitBlameCommandWithCache.fileBlameDiskCache = fileBlameDiskCache;
+    FileBlame fileBlameFromCache = gitBlameCommandWithCache.getFileBlame("pom.xml");
+
+    verify(gitBlameCommandWithCache.gitRepository, never()).getBlameResultForFile(anyString());
+    assertEquals(fileBlame.getLines(), fileBlameFromCache.getLines());
+    assertEquals(
+        fileBlame.getGitBlame(0).getCommitName(),
+        fileBlameFromCache.getGitBlame(0).getCommitName());
+  }
+
   @Test(expected = ArrayIndexOutOfBoundsException.class)
   public void getSourceCommitsAccessOutOfBound() throws CommandException, NoSuchFileException {
     Assume.assumeFalse(isGitActions());
@@ -374,7 +408,7 @@ public class GitBlameCommandTest extends CLITestBase {
     GitBlameCommand gitBlameCommand = new GitBlameCommand();
     gitBlameCommand.commandDirectories = new CommandDirectories(getBaseDir().getAbsolutePath());
     gitBlameCommand.initGitRepository();
-    BlameResult blameResult = gitBlameCommand.getBlameResultForFileCached("pom.xml");
+    BlameResult blameResult = gitBlameCommand.gitRepository.getBlameResultForFile("pom.xml");
     blameResult.getSourceCommit(100000);
   }
 
@@ -2,6 +2,7 @@ package com.box.l10n.mojito.cli.command;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import com.box.l10n.mojito.cli.CLITestBase;
 import com.box.l10n.mojito.entity.Locale;
@@ -27,7 +28,10 @@ import com.box.l10n.mojito.service.tm.TMTextUnitCurrentVariantService;
 import com.box.l10n.mojito.service.tm.TMTextUnitRepository;
 import com.box.l10n.mojito.service.tm.TMTextUnitVariantRepository;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 import org.assertj.core.api.Assertions;
@@ -164,6 +168,110 @@ public class PullCommandTest extends CLITestBase {
     checkExpectedGeneratedResources();
   }
 
+  @Test
+  public void pullWithParallelism() throws Exception {
+
+    Repository repository = createTestRepoUsingRepoService();
+
+    getL10nJCommander()
+        .run(
+            "push",
+            "-r",
+            repository.getName(),
+            "-s",
+            getInputResourcesTestDir("source").getAbsolutePath());
+
+    Asset asset =
+        assetClient.getAssetByPathAndRepositoryId("source-xliff.xliff", repository.getId());
+    importTranslations(asset.getId(), "source-xliff_", "fr-FR");
+    importTranslations(asset.getId(), "source-xliff_", "ja-JP");
+
+    Asset asset2 =
+        assetClient.getAssetByPathAndRepositoryId("source2-xliff.xliff", repository.getId());
+    importTranslations(asset2.getId(), "source2-xliff_", "fr-FR");
+    importTranslations(asset2.getId(), "source2-xliff_", "ja-JP");
+
+    getL10nJCommander()
+        .run(
+            "pull",
+            "-r",
+            repository.getName(),
+            "-s",
+            getInputResourcesTestDir("source").getAbsolutePath(),
+            "-t",
+            getTargetTestDir("target").getAbsolutePath(),
+            "--parallelism",
+            "4");
+
+    getL10nJCommander()
+        .run(
+            "pull",
+            "-r",
+            repository.getName(),
+            "-s",
+            getInputResourcesTestDir("source_modified").getAbsolutePath(),
+            "-t",
+            getTargetTestDir("target_modified").getAbsolutePath(),
+            "--parallelism",
+            "4");
+
+    checkExpectedGeneratedResources();
+  }
+
+  @Test
+  public void pullWithParallelismAndRecordPullRun() throws Exception {
+
+    Repository repository = createTestRepoUsingRepoService();
+
+    getL10nJCommander()
+        .run(
+            "push",
+            "-r",
+            repository.getName(),
+            "-s",
+            getInputResourcesTestDir("source").getAbsolutePath());
+
+    Asset asset =
+        assetClient.getAssetByPathAndRepositoryId("source-xliff.xliff", repository.getId());
+    importTranslations(asset.getId(), "source-xliff_", "fr-FR");
+    importTranslations(asset.getId(), "source-xliff_", "ja-JP");
+
+    Asset asset2 =
+        assetClient.getAssetByPathAndRepositoryId("source2-xliff.xliff", repository.getId());
+    importTranslations(asset2.getId(), "source2-xliff_", "fr-FR");
+    importTranslations(asset2.getId(), "source2-xliff_", "ja-JP");
+
+    L10nJCommander l10nJCommander = getL10nJCommander();
+    l10nJCommander.run(
+        "pull",
+        "-r",
+        repository.getName(),
+        "-s",
+        getInputResourcesTestDir("source").getAbsolutePath(),
+        "-t",
+        getTargetTestDir("target").getAbsolutePath(),
+        "--record-pull-run",
+        "--parallelism",
+        "4");
+    assertEquals(0, l10nJCommander.getExitCode());
+
+    String pullRunName =
+        Files.toString(
+            new File(getTargetTestDir("target"), PullRunHelper.PULL_RUN_NAME_FILE),
+            StandardCharsets.UTF_8);
+    assertTrue(pullRunRepository.findByName(pullRunName).isPresent());
+  }
+
+  @Test
+  public void pullWithInvalidParallelism() throws Exception {
+
+    Repository repository = createTestRepoUsingRepoService();
+
+    L10nJCommander l10nJCommander = getL10nJCommander();
+    l10nJCommander.run("pull", "-r", repository.getName(), "--parallelism", "0");
+    assertEquals(1, l10nJCommander.getExitCode());
+  }
+
   @Test
   public void pullWithDuplicatedTextUnits() throws Exception {
 
@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -110,6 +111,38 @@ public class PushCommandTest extends CLITestBase {
     checkNumberOfUnusedUntranslatedTextUnit(repository, locales, 5);
   }
 
+  @Test
+  public void testSkipUnchangedAssets() throws Exception {
+
+    Repository repository = createTestRepoUsingRepoService();
+    File sourceDirectory = getInputResourcesTestDir("delete");
+    List<String> locales = Arrays.asList("fr-FR");
+
+    getL10nJCommander()
+        .run(
+            "push",
+            "-r",
+            repository.getName(),
+            "-s",
+            sourceDirectory.getAbsolutePath(),
+            "--parallelism",
+            "2");
+    String outputString = outputCapture.toString();
+    assertEquals(2, StringUtils.countMatches(outputString, "- Uploading:"));
+    assertFalse(outputString.contains("- Unchanged:"));
+    checkNumberOfUsedUntranslatedTextUnit(repository, locales, 10);
+
+    getL10nJCommander()
+        .run("push", "-r", repository.getName(), "-s", sourceDirectory.getAbsolutePath());
+    String secondOutputString = outputCapture.toString().substring(outputString.length());
+    assertEquals(0, StringUtils.countMatches(secondOutputString, "- Uploading:"));
+    assertEquals(2, StringUtils.countMatches(secondOutputString, "- Unchanged:"));
+
+    // the unchanged assets must not be deleted
+    checkNumberOfUsedUntranslatedTextUnit(repository, locales, 10);
+    checkNumberOfUnusedUntranslatedTextUnit(repository, locales, 0);
+  }
+
   @Test
   public void testRenameAsset() throws Exception {
 
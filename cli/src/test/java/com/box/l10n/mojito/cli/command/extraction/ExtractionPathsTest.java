@@ -34,6 +34,14 @@ public class ExtractionPathsTest extends IOTestBase {
         extractionPaths.assetExtractionPath("LC_MESSAGES/messages.pot"));
   }
 
+  @Test
+  public void manifestPath() {
+    ExtractionPaths extractionPaths = new ExtractionPaths(outputDirectory, extractName);
+    Assert.assertEquals(
+        Paths.get(outputDirectory, extractName, ".extraction-manifest"),
+        extractionPaths.manifestPath());
+  }
+
   @Test
   public void sourceFileMatchPath() {
     ExtractionPaths extractionPaths = new ExtractionPaths(outputDirectory, extractName);
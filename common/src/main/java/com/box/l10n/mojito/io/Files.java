@@ -35,6 +35,14 @@ public class Files {
     }
   }
 
+  public static boolean deleteIfExists(Path path) {
+    try {
+      return java.nio.file.Files.deleteIfExists(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   public static Stream<Path> find(
       Path start,
       int maxDepth,
@@ -0,0 +1,351 @@
+package com.box.l10n.mojito.localtm.merger;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Compact binary format for {@link MultiBranchState}.
+ *
+ * <p>The JSON representation repeats the branch names, the usages and the property names for each
+ * text unit. This format starts with a versioned header followed by a string table that holds each
+ * distinct string once. Branch names, usages and the other strings of the text units are then
+ * written as varint indexes into the string table, so they are also interned when reading: all the
+ * text units of a state share the same branch name instances. MD5s are stored as 128-bit values
+ * (with a fallback to the string table for values that are not hex MD5s).
+ *
+ * <p>Blobs written in this format start with {@link #MAGIC} which can't be the first bytes of a
+ * JSON document, so readers can fallback to JSON for older blobs, see {@link #isBinary(byte[])}.
+ */
+public class MultiBranchStateBinary {
+
+  static final byte[] MAGIC = {'M', 'B', 'S', 'T'};
+
+  static final int VERSION = 1;
+
+  static final int MD5_NULL = 0;
+
+  static final int MD5_HEX = 1;
+
+  static final int MD5_STRING = 2;
+
+  static final int MD5_HEX_LENGTH = 32;
+
+  public static boolean isBinary(byte[] bytes) {
+    if (bytes.length < MAGIC.length) {
+      return false;
+    }
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (bytes[i] != MAGIC[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public static byte[] write(MultiBranchState multiBranchState) {
+    try {
+      ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(byteArrayOutputStream);
+
+      out.write(MAGIC);
+      writeVarInt(out, VERSION);
+
+      StringTable stringTable = new StringTable();
+      for (Branch branch : multiBranchState.getBranches()) {
+        stringTable.add(branch.getName());
+      }
+      for (BranchStateTextUnit branchStateTextUnit : multiBranchState.getBranchStateTextUnits()) {
+        if (!isHexMd5(branchStateTextUnit.getMd5())) {
+          stringTable.add(branchStateTextUnit.getMd5());
+        }
+        stringTable.add(branchStateTextUnit.getName());
+        stringTable.add(branchStateTextUnit.getSource());
+        stringTable.add(branchStateTextUnit.getComments());
+        stringTable.add(branchStateTextUnit.getPluralForm());
+        stringTable.add(branchStateTextUnit.getPluralFormOther());
+        for (Map.Entry<String, BranchData> entry :
+            branchStateTextUnit.getBranchNameToBranchDatas().entrySet()) {
+          stringTable.add(entry.getKey());
+          entry.getValue().getUsages().forEach(stringTable::add);
+        }
+      }
+      stringTable.write(out);
+
+      writeVarInt(out, multiBranchState.getBranches().size());
+      for (Branch branch : multiBranchState.getBranches()) {
+        writeVarInt(out, stringTable.indexOf(branch.getName()));
+        out.writeLong(branch.getCreatedAt().getMillis());
+      }
+
+      writeVarInt(out, multiBranchState.getBranchStateTextUnits().size());
+      for (BranchStateTextUnit branchStateTextUnit : multiBranchState.getBranchStateTextUnits()) {
+        writeBranchStateTextUnit(out, stringTable, branchStateTextUnit);
+      }
+
+      out.flush();
+      return byteArrayOutputStream.toByteArray();
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+  }
+
+  public static MultiBranchState read(byte[] bytes) {
+    if (!isBinary(bytes)) {
+      throw new IllegalArgumentException("Content is not in the binary MultiBranchState format");
+    }
+
+    try {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+      in.skipBytes(MAGIC.length);
+
+      int version = readVarInt(in);
+      if (version != VERSION) {
+        throw new IllegalArgumentException(
+            "Unsupported version of the binary MultiBranchState format: " + version);
+      }
+
+      String[] stringTable = StringTable.read(in);
+
+      int branchCount = readVarInt(in);
+      ImmutableSet.Builder<Branch> branches = ImmutableSet.builderWithExpectedSize(branchCount);
+      for (int i = 0; i < branchCount; i++) {
+        branches.add(
+            Branch.builder()
+                .name(stringTable[readVarInt(in)])
+                .createdAt(new DateTime(in.readLong(), DateTimeZone.UTC))
+                .build());
+      }
+
+      int textUnitCount = readVarInt(in);
+      ImmutableList.Builder<BranchStateTextUnit> branchStateTextUnits =
+          ImmutableList.builderWithExpectedSize(textUnitCount);
+      for (int i = 0; i < textUnitCount; i++) {
+        branchStateTextUnits.add(readBranchStateTextUnit(in, stringTable));
+      }
+
+      return MultiBranchState.builder()
+          .branches(branches.build())
+          .branchStateTextUnits(branchStateTextUnits.build())
+          .build();
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+  }
+
+  static void writeBranchStateTextUnit(
+      DataOutputStream out, StringTable stringTable, BranchStateTextUnit branchStateTextUnit)
+      throws IOException {
+    writeNullableLong(out, branchStateTextUnit.getTmTextUnitId());
+    writeNullableLong(out, branchStateTextUnit.getAssetTextUnitId());
+    writeNullableLong(
+        out,
+        branchStateTextUnit.getCreatedDate() == null
+            ? null
+            : branchStateTextUnit.getCreatedDate().getMillis());
+
+    String md5 = branchStateTextUnit.getMd5();
+    if (md5 == null) {
+      out.writeByte(MD5_NULL);
+    } else if (isHexMd5(md5)) {
+      out.writeByte(MD5_HEX);
+      out.writeLong(Long.parseUnsignedLong(md5.substring(0, MD5_HEX_LENGTH / 2), 16));
+      out.writeLong(Long.parseUnsignedLong(md5.substring(MD5_HEX_LENGTH / 2), 16));
+    } else {
+      out.writeByte(MD5_STRING);
+      writeVarInt(out, stringTable.indexOf(md5));
+    }
+
+    writeNullableString(out, stringTable, branchStateTextUnit.getName());
+    writeNullableString(out, stringTable, branchStateTextUnit.getSource());
+    writeNullableString(out, stringTable, branchStateTextUnit.getComments());
+    writeNullableString(out, stringTable, branchStateTextUnit.getPluralForm());
+    writeNullableString(out, stringTable, branchStateTextUnit.getPluralFormOther());
+
+    ImmutableMap<String, BranchData> branchNameToBranchDatas =
+        branchStateTextUnit.getBranchNameToBranchDatas();
+    writeVarInt(out, branchNameToBranchDatas.size());
+    for (Map.Entry<String, BranchData> entry : branchNameToBranchDatas.entrySet()) {
+      writeVarInt(out, stringTable.indexOf(entry.getKey()));
+      ImmutableSet<String> usages = entry.getValue().getUsages();
+      writeVarInt(out, usages.size());
+      for (String usage : usages) {
+        writeVarInt(out, stringTable.indexOf(usage));
+      }
+    }
+  }
+
+  static BranchStateTextUnit readBranchStateTextUnit(DataInputStream in, String[] stringTable)
+      throws IOException {
+    BranchStateTextUnit.Builder builder = BranchStateTextUnit.builder();
+
+    builder.tmTextUnitId(readNullableLong(in));
+    builder.assetTextUnitId(readNullableLong(in));
+    Long createdDate = readNullableLong(in);
+    builder.createdDate(createdDate == null ? null : new DateTime(createdDate, DateTimeZone.UTC));
+
+    int md5Type = in.readUnsignedByte();
+    if (md5Type == MD5_HEX) {
+      builder.md5(toHex(in.readLong()) + toHex(in.readLong()));
+    } else if (md5Type == MD5_STRING) {
+      builder.md5(stringTable[readVarInt(in)]);
+    }
+
+    builder.name(readNullableString(in, stringTable));
+    builder.source(readNullableString(in, stringTable));
+    builder.comments(readNullableString(in, stringTable));
+    builder.pluralForm(readNullableString(in, stringTable));
+    builder.pluralFormOther(readNullableString(in, stringTable));
+
+    int branchCount = readVarInt(in);
+    ImmutableMap.Builder<String, BranchData> branchNameToBranchDatas =
+        ImmutableMap.builderWithExpectedSize(branchCount);
+    for (int i = 0; i < branchCount; i++) {
+      String branchName = stringTable[readVarInt(in)];
+      int usageCount = readVarInt(in);
+      BranchData branchData = BranchData.of();
+      if (usageCount > 0) {
+        ImmutableSet.Builder<String> usages = ImmutableSet.builderWithExpectedSize(usageCount);
+        for (int j = 0; j < usageCount; j++) {
+          usages.add(stringTable[readVarInt(in)]);
+        }
+        branchData = branchData.withUsages(usages.build());
+      }
+      branchNameToBranchDatas.put(branchName, branchData);
+    }
+    builder.branchNameToBranchDatas(branchNameToBranchDatas.build());
+
+    return builder.build();
+  }
+
+  /** Only lower case hex MD5s are stored as 128-bit values so that reading gives the same string */
+  static boolean isHexMd5(String md5) {
+    if (md5 == null || md5.length() != MD5_HEX_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < md5.length(); i++) {
+      char c = md5.charAt(i);
+      if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f')) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static String toHex(long value) {
+    String hex = Long.toHexString(value);
+    StringBuilder sb = new StringBuilder(MD5_HEX_LENGTH / 2);
+    for (int i = hex.length(); i < MD5_HEX_LENGTH / 2; i++) {
+      sb.append('0');
+    }
+    return sb.append(hex).toString();
+  }
+
+  static void writeNullableLong(DataOutputStream out, Long value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      writeVarLong(out, value);
+    }
+  }
+
+  static Long readNullableLong(DataInputStream in) throws IOException {
+    return in.readBoolean() ? readVarLong(in) : null;
+  }
+
+  /** Strings are stored as index + 1 in the string table, 0 is used for null. */
+  static void writeNullableString(DataOutputStream out, StringTable stringTable, String value)
+      throws IOException {
+    writeVarInt(out, value == null ? 0 : stringTable.indexOf(value) + 1);
+  }
+
+  static String readNullableString(DataInputStream in, String[] stringTable) throws IOException {
+    int index = readVarInt(in);
+    return index == 0 ? null : stringTable[index - 1];
+  }
+
+  static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(out, bytes.length);
+    out.write(bytes);
+  }
+
+  static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[readVarInt(in)];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  static void writeVarInt(DataOutputStream out, int value) throws IOException {
+    writeVarLong(out, value & 0xFFFFFFFFL);
+  }
+
+  static int readVarInt(DataInputStream in) throws IOException {
+    return (int) readVarLong(in);
+  }
+
+  static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  static long readVarLong(DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  static class StringTable {
+
+    Map<String, Integer> indexes = new HashMap<>();
+
+    List<String> strings = new ArrayList<>();
+
+    void add(String value) {
+      if (value != null && !indexes.containsKey(value)) {
+        indexes.put(value, strings.size());
+        strings.add(value);
+      }
+    }
+
+    int indexOf(String value) {
+      return indexes.get(value);
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      writeVarInt(out, strings.size());
+      for (String string : strings) {
+        writeString(out, string);
+      }
+    }
+
+    static String[] read(DataInputStream in) throws IOException {
+      String[] strings = new String[readVarInt(in)];
+      for (int i = 0; i < strings.length; i++) {
+        strings[i] = readString(in);
+      }
+      return strings;
+    }
+  }
+}
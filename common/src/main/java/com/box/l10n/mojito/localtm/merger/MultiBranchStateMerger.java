@@ -6,8 +6,13 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.springframework.stereotype.Component;
 
@@ -35,21 +40,32 @@ public class MultiBranchStateMerger {
         mergeBranchesByPriorityThenCreatedDateThenName(
             intoState.getBranches(), toMergeState.getBranches(), priorityBranchNames);
 
-    ImmutableMap<String, BranchStateTextUnit> intoStateUpdated =
-        intoState.getBranchStateTextUnits().stream()
-            .map(mergerMultiBranchStateIntoBranchStateTextUnit(toMergeState, newBranches))
-            .collect(ImmutableMap.toImmutableMap(BranchStateTextUnit::getMd5, Function.identity()));
+    Function<BranchStateTextUnit, BranchStateTextUnit> merger =
+        mergerMultiBranchStateIntoBranchStateTextUnit(
+            toMergeState, newBranches, !isRelativeOrderKept(intoState.getBranches(), newBranches));
 
-    ImmutableList<BranchStateTextUnit> fromToMergeStateNotInIntoState =
-        toMergeState.getBranchStateTextUnits().stream()
-            .filter(bstu -> !intoStateUpdated.containsKey(bstu.getMd5()))
-            .collect(ImmutableList.toImmutableList());
+    ImmutableList.Builder<BranchStateTextUnit> all =
+        ImmutableList.builderWithExpectedSize(
+            intoState.getBranchStateTextUnits().size()
+                + toMergeState.getBranchStateTextUnits().size());
 
-    ImmutableList<BranchStateTextUnit> all =
-        Stream.concat(intoStateUpdated.values().stream(), fromToMergeStateNotInIntoState.stream())
-            .collect(ImmutableList.toImmutableList());
+    Set<String> intoStateMd5s = new HashSet<>(intoState.getBranchStateTextUnits().size() * 2);
+
+    for (BranchStateTextUnit intoBranchStateTextUnit : intoState.getBranchStateTextUnits()) {
+      Preconditions.checkArgument(
+          intoStateMd5s.add(intoBranchStateTextUnit.getMd5()),
+          "Duplicate md5 in state: %s",
+          intoBranchStateTextUnit.getMd5());
+      all.add(merger.apply(intoBranchStateTextUnit));
+    }
+
+    for (BranchStateTextUnit toMergeBranchStateTextUnit : toMergeState.getBranchStateTextUnits()) {
+      if (!intoStateMd5s.contains(toMergeBranchStateTextUnit.getMd5())) {
+        all.add(toMergeBranchStateTextUnit);
+      }
+    }
 
-    return MultiBranchState.of().withBranches(newBranches).withBranchStateTextUnits(all);
+    return MultiBranchState.of().withBranches(newBranches).withBranchStateTextUnits(all.build());
   }
 
   public MultiBranchState removeBranch(MultiBranchState state, String branchName) {
@@ -63,8 +79,10 @@ public class MultiBranchStateMerger {
         state.getBranchStateTextUnits().stream()
             .map(
                 intoStateTextUnit ->
-                    intoStateTextUnit.withBranchNameToBranchDatas(
-                        removeBranchByName(intoStateTextUnit, branchName)))
+                    intoStateTextUnit.getBranchNameToBranchDatas().containsKey(branchName)
+                        ? intoStateTextUnit.withBranchNameToBranchDatas(
+                            removeBranchByName(intoStateTextUnit, branchName))
+                        : intoStateTextUnit)
             .collect(ImmutableList.toImmutableList());
 
     return MultiBranchState.of()
@@ -79,66 +97,151 @@ public class MultiBranchStateMerger {
    * all the branch in which that text unit is used - If it doesn't exist, remove all the branches
    * of the merge state from the "intoBranchStateTextUnit" --> this covers updates in a branch that
    * removes a text unit and potentially could lead it to be unused (no branch remaining)
+   *
+   * <p>Text units that are not in the merge state, are not in any of its branches and whose branch
+   * data are already sorted are returned as is. Usually only a small fraction of the text units are
+   * changed by a push so this avoids rebuilding the branch data of every text unit.
    */
   Function<BranchStateTextUnit, BranchStateTextUnit> mergerMultiBranchStateIntoBranchStateTextUnit(
       MultiBranchState toMergeState, ImmutableSet<Branch> sortedBranches) {
+    return mergerMultiBranchStateIntoBranchStateTextUnit(toMergeState, sortedBranches, true);
+  }
 
-    ImmutableMap<String, BranchStateTextUnit> toMergeStateBranchTextUnitsByMd5 =
-        toMergeState.getBranchStateTextUnits().stream()
-            .collect(ImmutableMap.toImmutableMap(BranchStateTextUnit::getMd5, Function.identity()));
+  /**
+   * @param checkSorted {@code false} if the branch data of the text units are known to be sorted
+   *     following sortedBranches. Checking the order of the branch data of every text unit makes
+   *     the merge O(text units x branches) while the check of the branches of the merge state is
+   *     usually O(text units) since a push updates a single branch.
+   */
+  Function<BranchStateTextUnit, BranchStateTextUnit> mergerMultiBranchStateIntoBranchStateTextUnit(
+      MultiBranchState toMergeState, ImmutableSet<Branch> sortedBranches, boolean checkSorted) {
 
-    ImmutableMap<String, Branch> toMergeStateBranchNames =
-        toMergeState.getBranches().stream()
-            .collect(ImmutableMap.toImmutableMap(Branch::getName, Function.identity()));
+    Map<String, BranchStateTextUnit> toMergeStateBranchTextUnitsByMd5 =
+        new HashMap<>(toMergeState.getBranchStateTextUnits().size() * 2);
+    for (BranchStateTextUnit toMergeBranchStateTextUnit : toMergeState.getBranchStateTextUnits()) {
+      Preconditions.checkArgument(
+          toMergeStateBranchTextUnitsByMd5.put(
+                  toMergeBranchStateTextUnit.getMd5(), toMergeBranchStateTextUnit)
+              == null,
+          "Duplicate md5 in state to merge: %s",
+          toMergeBranchStateTextUnit.getMd5());
+    }
+
+    Set<String> toMergeStateBranchNames =
+        toMergeState.getBranches().stream().map(Branch::getName).collect(Collectors.toSet());
+
+    Map<String, Integer> branchNameToIndex = getBranchNameToIndex(sortedBranches);
 
     return intoBranchStateTextUnit -> {
-      ImmutableMap<String, BranchData> branchNamesToBranchDatas;
       BranchStateTextUnit toMergeBranchStateTextUnit =
           toMergeStateBranchTextUnitsByMd5.get(intoBranchStateTextUnit.getMd5());
 
+      ImmutableMap<String, BranchData> intoBranchNameToBranchDatas =
+          intoBranchStateTextUnit.getBranchNameToBranchDatas();
+
+      if (toMergeBranchStateTextUnit == null
+          && !containsAny(intoBranchNameToBranchDatas, toMergeStateBranchNames)
+          && (!checkSorted || isSorted(intoBranchNameToBranchDatas, branchNameToIndex))) {
+        return intoBranchStateTextUnit;
+      }
+
+      Map<String, BranchData> branchNamesToBranchDatas = new LinkedHashMap<>();
+
       if (toMergeBranchStateTextUnit == null) {
-        branchNamesToBranchDatas =
-            intoBranchStateTextUnit.getBranchNameToBranchDatas().entrySet().stream()
-                .filter(
-                    branchNameToBranchData ->
-                        !toMergeStateBranchNames.containsKey(branchNameToBranchData.getKey()))
-                .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+        for (Map.Entry<String, BranchData> entry : intoBranchNameToBranchDatas.entrySet()) {
+          if (!toMergeStateBranchNames.contains(entry.getKey())) {
+            branchNamesToBranchDatas.put(entry.getKey(), entry.getValue());
+          }
+        }
       } else {
-        branchNamesToBranchDatas =
-            Stream.concat(
-                    intoBranchStateTextUnit.getBranchNameToBranchDatas().entrySet().stream(),
-                    toMergeBranchStateTextUnit.getBranchNameToBranchDatas().entrySet().stream())
-                .collect(
-                    ImmutableMap.toImmutableMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (branchData1, branchData2) ->
-                            // update the branchData by taking the newer entry from
-                            // toMergeBranchStateTextUnit (stream order is key)
-                            branchData2));
+        branchNamesToBranchDatas.putAll(intoBranchNameToBranchDatas);
+        // update the branchData by taking the newer entry from toMergeBranchStateTextUnit
+        branchNamesToBranchDatas.putAll(toMergeBranchStateTextUnit.getBranchNameToBranchDatas());
       }
 
-      ImmutableMap<String, BranchData> branchNameToBranchDataUpdated =
-          sortBranchDataByBranch(branchNamesToBranchDatas, sortedBranches);
-      return intoBranchStateTextUnit.withBranchNameToBranchDatas(branchNameToBranchDataUpdated);
+      return intoBranchStateTextUnit.withBranchNameToBranchDatas(
+          sortBranchDataByBranch(branchNamesToBranchDatas, branchNameToIndex));
     };
   }
 
   ImmutableMap<String, BranchData> sortBranchDataByBranch(
       ImmutableMap<String, BranchData> branchNamesToBranchDatas,
       ImmutableSet<Branch> sortedBranches) {
-    ImmutableList<String> sortedBranchNames =
-        sortedBranches.stream().map(Branch::getName).collect(ImmutableList.toImmutableList());
+    return sortBranchDataByBranch(branchNamesToBranchDatas, getBranchNameToIndex(sortedBranches));
+  }
+
+  /**
+   * Sorts the branch data following the branch indexes. Branches without index come last, in the
+   * original order.
+   */
+  ImmutableMap<String, BranchData> sortBranchDataByBranch(
+      Map<String, BranchData> branchNamesToBranchDatas, Map<String, Integer> branchNameToIndex) {
     return branchNamesToBranchDatas.entrySet().stream()
         .sorted(
-            Comparator.comparing(
-                stringBranchDataEntry -> {
-                  int idx = sortedBranchNames.indexOf(stringBranchDataEntry.getKey());
-                  return idx == -1 ? Integer.MAX_VALUE : idx;
-                }))
+            Comparator.comparingInt(
+                stringBranchDataEntry ->
+                    branchNameToIndex.getOrDefault(
+                        stringBranchDataEntry.getKey(), Integer.MAX_VALUE)))
         .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
   }
 
+  Map<String, Integer> getBranchNameToIndex(ImmutableSet<Branch> sortedBranches) {
+    Map<String, Integer> branchNameToIndex = new HashMap<>(sortedBranches.size() * 2);
+    for (Branch branch : sortedBranches) {
+      branchNameToIndex.putIfAbsent(branch.getName(), branchNameToIndex.size());
+    }
+    return branchNameToIndex;
+  }
+
+  /** Iterates over the smaller of the two, usually the names of the branches of a push. */
+  boolean containsAny(ImmutableMap<String, BranchData> branchNameToBranchDatas, Set<String> names) {
+    if (names.size() < branchNameToBranchDatas.size()) {
+      for (String name : names) {
+        if (branchNameToBranchDatas.containsKey(name)) {
+          return true;
+        }
+      }
+    } else {
+      for (String branchName : branchNameToBranchDatas.keySet()) {
+        if (names.contains(branchName)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks that the branches keep their relative order in the sorted branches, in which case the
+   * branch data of the text units, sorted when the branches were merged, are still sorted.
+   */
+  boolean isRelativeOrderKept(ImmutableSet<Branch> branches, ImmutableSet<Branch> sortedBranches) {
+    Map<String, Integer> branchNameToIndex = getBranchNameToIndex(sortedBranches);
+    int previousIndex = -1;
+    for (Branch branch : branches) {
+      Integer index = branchNameToIndex.get(branch.getName());
+      if (index == null || index < previousIndex) {
+        return false;
+      }
+      previousIndex = index;
+    }
+    return true;
+  }
+
+  boolean isSorted(
+      ImmutableMap<String, BranchData> branchNameToBranchDatas,
+      Map<String, Integer> branchNameToIndex) {
+    int previousIndex = -1;
+    for (String branchName : branchNameToBranchDatas.keySet()) {
+      int index = branchNameToIndex.getOrDefault(branchName, Integer.MAX_VALUE);
+      if (index < previousIndex) {
+        return false;
+      }
+      previousIndex = index;
+    }
+    return true;
+  }
+
   ImmutableMap<String, BranchData> removeBranchByName(
       BranchStateTextUnit intoStateTextUnit, String branchName) {
     return intoStateTextUnit.getBranchNameToBranchDatas().entrySet().stream()
@@ -2,6 +2,7 @@ package com.box.l10n.mojito.okapi;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -24,11 +25,22 @@ public class RawDocument extends net.sf.okapi.common.resource.RawDocument {
   }
 
   public RawDocument(CharSequence inputCharSequence, LocaleId sourceLocale, LocaleId targetLocale) {
-    super(
+    this(
         new ByteArrayInputStream(inputCharSequence.toString().getBytes(StandardCharsets.UTF_8)),
-        StandardCharsets.UTF_8.name().toLowerCase(),
         sourceLocale,
         targetLocale);
+  }
+
+  /**
+   * Creates a document that reads the content from a stream (UTF-8 is used if no encoding is
+   * detected), to avoid having the full content in memory.
+   *
+   * @param inputStream the content, closed by Okapi once the document is processed
+   * @param sourceLocale
+   * @param targetLocale
+   */
+  public RawDocument(InputStream inputStream, LocaleId sourceLocale, LocaleId targetLocale) {
+    super(inputStream, StandardCharsets.UTF_8.name().toLowerCase(), sourceLocale, targetLocale);
 
     Field inputURIField = ReflectionUtils.findField(RawDocument.class, "inputURI");
     ReflectionUtils.makeAccessible(inputURIField);
@@ -0,0 +1,192 @@
+package com.box.l10n.mojito.okapi.asset;
+
+import com.box.l10n.mojito.okapi.filters.AndroidFilter;
+import com.box.l10n.mojito.okapi.filters.POFilter;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import net.sf.okapi.common.filters.IFilter;
+import net.sf.okapi.common.filters.IFilterConfigurationMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pool of Okapi filters keyed by filter config id.
+ *
+ * <p>Instantiating some filters (XLIFF, PO, Android strings) is noticeable when processing many
+ * small files. A pooled filter is given to {@link
+ * net.sf.okapi.steps.common.RawDocumentToFilterEventsStep}, the {@link IFilterConfigurationMapper}
+ * then re-uses that instance instead of creating a new one (it only re-loads the parameters of the
+ * filter configuration).
+ *
+ * <p>Only the filter config ids listed in {@code l10n.okapi.filterPool.filterConfigIds} are pooled.
+ * Those filters must not keep state between documents besides their parameters, which are reset
+ * before a filter is re-used. For other ids {@link #borrowFilter(String)} returns {@code null} and
+ * the filter is created by the pipeline as usual.
+ *
+ * <p>A filter must be returned with {@link #returnFilter(String, IFilter)} only once the processing
+ * succeeded. If the processing failed the filter must be closed and not re-used, see {@link
+ * #discardFilter(IFilter)}.
+ */
+@Component
+public class FilterPool {
+
+  /** logger */
+  static Logger logger = LoggerFactory.getLogger(FilterPool.class);
+
+  @Autowired IFilterConfigurationMapper filterConfigurationMapper;
+
+  @Value(
+      "${l10n.okapi.filterPool.filterConfigIds:"
+          + AssetPathToFilterConfigMapper.XLIFF_FILTER_CONFIG_ID
+          + ","
+          + POFilter.FILTER_CONFIG_ID
+          + ","
+          + AndroidFilter.FILTER_CONFIG_ID
+          + "}")
+  Set<String> pooledFilterConfigIds;
+
+  @Value("${l10n.okapi.filterPool.maxIdlePerFilterConfigId:8}")
+  int maxIdlePerFilterConfigId;
+
+  @Value("${l10n.okapi.filterPool.warmUpPerFilterConfigId:1}")
+  int warmUpPerFilterConfigId;
+
+  final Map<String, Deque<IFilter>> idleFilters = new ConcurrentHashMap<>();
+
+  final AtomicLong createdCount = new AtomicLong();
+
+  final AtomicLong reusedCount = new AtomicLong();
+
+  final AtomicLong droppedCount = new AtomicLong();
+
+  /** Creates the filters at startup so that the first requests don't pay for it. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    for (String filterConfigId : getPooledFilterConfigIds()) {
+      logger.debug("Warm up {} filter(s) for: {}", warmUpPerFilterConfigId, filterConfigId);
+      for (int i = 0; i < warmUpPerFilterConfigId; i++) {
+        offerIdleFilter(filterConfigId, createFilter(filterConfigId));
+      }
+    }
+  }
+
+  /**
+   * Borrows a filter from the pool, creating it if there is no idle filter.
+   *
+   * @param filterConfigId the filter config id
+   * @return the filter or {@code null} if that filter config id is not pooled
+   */
+  public IFilter borrowFilter(String filterConfigId) {
+    IFilter filter = null;
+
+    if (isPooled(filterConfigId)) {
+      filter = getIdleFilters(filterConfigId).pollFirst();
+
+      if (filter == null) {
+        filter = createFilter(filterConfigId);
+      } else {
+        logger.debug("Re-use filter for: {}", filterConfigId);
+        reusedCount.incrementAndGet();
+        filter = reloadParameters(filterConfigId, filter);
+      }
+    }
+
+    return filter;
+  }
+
+  /**
+   * Returns a filter to the pool, the filter is dropped if the pool is already full.
+   *
+   * @param filterConfigId the filter config id used to borrow the filter
+   * @param filter the filter, can be {@code null} (filter config id not pooled)
+   */
+  public void returnFilter(String filterConfigId, IFilter filter) {
+    if (filter != null) {
+      filter.close();
+      offerIdleFilter(filterConfigId, filter);
+    }
+  }
+
+  /**
+   * Closes a filter without returning it to the pool, to be used when the processing failed since
+   * the filter may be left in an inconsistent state.
+   *
+   * @param filter the filter, can be {@code null} (filter config id not pooled)
+   */
+  public void discardFilter(IFilter filter) {
+    if (filter != null) {
+      try {
+        filter.close();
+      } catch (RuntimeException re) {
+        logger.debug("Can't close discarded filter, ignore it", re);
+      }
+    }
+  }
+
+  public boolean isPooled(String filterConfigId) {
+    return filterConfigId != null && getPooledFilterConfigIds().contains(filterConfigId);
+  }
+
+  public Set<String> getPooledFilterConfigIds() {
+    return pooledFilterConfigIds;
+  }
+
+  public int getIdleCount(String filterConfigId) {
+    return getIdleFilters(filterConfigId).size();
+  }
+
+  /** @return the number of filters created by the pool, including the ones for the warm up */
+  public long getCreatedCount() {
+    return createdCount.get();
+  }
+
+  /** @return the number of times an idle filter was re-used */
+  public long getReusedCount() {
+    return reusedCount.get();
+  }
+
+  /** @return the number of filters dropped because the pool was full */
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  Deque<IFilter> getIdleFilters(String filterConfigId) {
+    return idleFilters.computeIfAbsent(filterConfigId, k -> new ConcurrentLinkedDeque<>());
+  }
+
+  void offerIdleFilter(String filterConfigId, IFilter filter) {
+    Deque<IFilter> filters = getIdleFilters(filterConfigId);
+
+    if (filters.size() < maxIdlePerFilterConfigId) {
+      filters.offerFirst(filter);
+    } else {
+      logger.debug("Pool is full for: {}, drop the filter", filterConfigId);
+      droppedCount.incrementAndGet();
+    }
+  }
+
+  IFilter createFilter(String filterConfigId) {
+    logger.debug("Create filter for: {}", filterConfigId);
+    IFilter filter = filterConfigurationMapper.createFilter(filterConfigId);
+    createdCount.incrementAndGet();
+    return filter;
+  }
+
+  /**
+   * Parameters can be changed by filter options so they are re-loaded from the filter configuration
+   * (parameter file, custom parameters or defaults) to make sure nothing leaks between documents.
+   * The mapper re-uses the given filter instance since it has the class of the configuration.
+   */
+  IFilter reloadParameters(String filterConfigId, IFilter filter) {
+    return filterConfigurationMapper.createFilter(filterConfigId, filter);
+  }
+}
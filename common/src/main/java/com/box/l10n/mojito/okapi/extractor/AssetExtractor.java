@@ -3,11 +3,13 @@ package com.box.l10n.mojito.okapi.extractor;
 import com.box.l10n.mojito.okapi.FilterConfigIdOverride;
 import com.box.l10n.mojito.okapi.RawDocument;
 import com.box.l10n.mojito.okapi.asset.AssetPathToFilterConfigMapper;
+import com.box.l10n.mojito.okapi.asset.FilterPool;
 import com.box.l10n.mojito.okapi.asset.UnsupportedAssetFilterTypeException;
 import com.box.l10n.mojito.okapi.filters.FilterOptions;
 import com.box.l10n.mojito.okapi.steps.CheckForDoNotTranslateStep;
 import java.util.List;
 import net.sf.okapi.common.LocaleId;
+import net.sf.okapi.common.filters.IFilter;
 import net.sf.okapi.common.filters.IFilterConfigurationMapper;
 import net.sf.okapi.common.pipelinedriver.IPipelineDriver;
 import net.sf.okapi.common.pipelinedriver.PipelineDriver;
@@ -26,6 +28,8 @@ public class AssetExtractor {
 
   @Autowired IFilterConfigurationMapper filterConfigurationMapper;
 
+  @Autowired FilterPool filterPool;
+
   public List<AssetExtractorTextUnit> getAssetExtractorTextUnitsForAsset(
       String assetPath,
       String assetContent,
@@ -34,10 +38,23 @@ public class AssetExtractor {
       List<String> md5sToSkip)
       throws UnsupportedAssetFilterTypeException {
 
+    String filterConfigId = null;
+
+    if (filterConfigIdOverride != null) {
+      filterConfigId = filterConfigIdOverride.getOkapiFilterId();
+    } else {
+      filterConfigId = assetPathToFilterConfigMapper.getFilterConfigIdFromPath(assetPath);
+    }
+
     logger.debug("Configuring pipeline");
     IPipelineDriver driver = new PipelineDriver();
 
-    driver.addStep(new RawDocumentToFilterEventsStep());
+    IFilter filter = filterPool.borrowFilter(filterConfigId);
+    // the filter must not be set when not pooled, else the step won't create it from its config
+    driver.addStep(
+        filter == null
+            ? new RawDocumentToFilterEventsStep()
+            : new RawDocumentToFilterEventsStep(filter));
     driver.addStep(new CheckForDoNotTranslateStep());
     AssetExtractionStep assetExtractionStep = new AssetExtractionStep(md5sToSkip);
     driver.addStep(assetExtractionStep);
@@ -47,14 +64,6 @@ public class AssetExtractor {
 
     RawDocument rawDocument = new RawDocument(assetContent, LocaleId.ENGLISH);
 
-    String filterConfigId = null;
-
-    if (filterConfigIdOverride != null) {
-      filterConfigId = filterConfigIdOverride.getOkapiFilterId();
-    } else {
-      filterConfigId = assetPathToFilterConfigMapper.getFilterConfigIdFromPath(assetPath);
-    }
-
     rawDocument.setFilterConfigId(filterConfigId);
     logger.debug("Set filter config {} for asset {}", filterConfigId, assetPath);
 
@@ -64,7 +73,17 @@ public class AssetExtractor {
     driver.addBatchItem(rawDocument);
 
     logger.debug("Start processing batch");
-    driver.processBatch();
+    boolean processed = false;
+    try {
+      driver.processBatch();
+      processed = true;
+    } finally {
+      if (processed) {
+        filterPool.returnFilter(filterConfigId, filter);
+      } else {
+        filterPool.discardFilter(filter);
+      }
+    }
 
     return assetExtractionStep.getAssetExtractorTextUnits();
   }
@@ -94,15 +94,15 @@ public class AndroidFilter extends XMLFilter {
   void applyFilterOptions(RawDocument input) {
     FilterOptions filterOptions = input.getAnnotation(FilterOptions.class);
 
+    // reset to the default value since the filter instance can be re-used, see FilterPool
+    oldEscaping = false;
+
     if (filterOptions != null) {
-      filterOptions.getBoolean(
-          OPTION_OLD_ESCAPING,
-          b -> {
-            oldEscaping = b;
-            if (androidXMLEncoder != null) {
-              androidXMLEncoder.oldEscaping = oldEscaping;
-            }
-          });
+      filterOptions.getBoolean(OPTION_OLD_ESCAPING, b -> oldEscaping = b);
+    }
+
+    if (androidXMLEncoder != null) {
+      androidXMLEncoder.oldEscaping = oldEscaping;
     }
 
     logger.debug("filter option, old escaping: {}", oldEscaping);
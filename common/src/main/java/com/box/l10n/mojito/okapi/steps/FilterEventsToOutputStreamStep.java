@@ -0,0 +1,219 @@
+package com.box.l10n.mojito.okapi.steps;
+
+import com.google.common.io.FileBackedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import net.sf.okapi.common.Event;
+import net.sf.okapi.common.LocaleId;
+import net.sf.okapi.common.UsingParameters;
+import net.sf.okapi.common.filterwriter.IFilterWriter;
+import net.sf.okapi.common.pipeline.BasePipelineStep;
+import net.sf.okapi.common.pipeline.annotations.StepParameterMapping;
+import net.sf.okapi.common.pipeline.annotations.StepParameterType;
+import net.sf.okapi.common.resource.RawDocument;
+import net.sf.okapi.common.resource.StartDocument;
+
+/**
+ * Same as {@link FilterEventsToInMemoryRawDocumentStep} but the document is written directly into
+ * an {@link OutputStream} instead of being kept in memory.
+ *
+ * <p>When the filter provides an {@link OutputDocumentPostProcessingAnnotation}, the post
+ * processing may need the full document, which is only known at the end of the processing. In that
+ * case the output is spooled (in memory up to {@link #SPOOL_MEMORY_THRESHOLD} bytes then in a
+ * temporary file) and it is then either copied as is or post processed into the output stream.
+ *
+ * <p>The output stream is not closed by this step.
+ */
+@UsingParameters() // No parameters
+public class FilterEventsToOutputStreamStep extends BasePipelineStep {
+
+  static final int SPOOL_MEMORY_THRESHOLD = 1024 * 1024;
+
+  private final OutputStream outputStream;
+  private final String forcedOutputEncoding;
+  private String outputEncoding;
+  private IFilterWriter filterWriter;
+  private LocaleId targetLocale;
+  private RawDocument rawDocument;
+  private FileBackedOutputStream spool;
+
+  /**
+   * The document is written with the encoding of the input document.
+   *
+   * @param outputStream where the document is written
+   */
+  public FilterEventsToOutputStreamStep(OutputStream outputStream) {
+    this(outputStream, null);
+  }
+
+  /**
+   * The document is written with the given encoding, whatever the encoding of the input document or
+   * the output encoding of the pipeline.
+   *
+   * @param outputStream where the document is written
+   * @param outputEncoding the encoding of the document, {@code null} for the encoding of the input
+   *     document
+   */
+  public FilterEventsToOutputStreamStep(OutputStream outputStream, String outputEncoding) {
+    this.outputStream = outputStream;
+    this.forcedOutputEncoding = outputEncoding;
+  }
+
+  @StepParameterMapping(parameterType = StepParameterType.OUTPUT_ENCODING)
+  public void setOutputEncoding(String outputEncoding) {
+    this.outputEncoding = outputEncoding;
+  }
+
+  @SuppressWarnings("deprecation")
+  @StepParameterMapping(parameterType = StepParameterType.TARGET_LOCALE)
+  public void setTargetLocale(LocaleId targetLocale) {
+    this.targetLocale = targetLocale;
+  }
+
+  @StepParameterMapping(parameterType = StepParameterType.INPUT_RAWDOC)
+  public void setInputDocument(RawDocument rawDocument) {
+    this.rawDocument = rawDocument;
+  }
+
+  @Override
+  public String getName() {
+    return "Filter Events to Output Stream";
+  }
+
+  @Override
+  public String getDescription() {
+    return "Combine filter events into a document written in an output stream."
+        + " Expects: filter events. Sends back: filter events.";
+  }
+
+  @Override
+  public Event handleEvent(Event event) {
+    switch (event.getEventType()) {
+      case START_DOCUMENT:
+        return handleStartDocument(event);
+
+      case END_DOCUMENT:
+        return processEndDocument(event);
+
+      case START_SUBDOCUMENT:
+      case START_GROUP:
+      case END_SUBDOCUMENT:
+      case END_GROUP:
+      case START_SUBFILTER:
+      case END_SUBFILTER:
+      case DOCUMENT_PART:
+      case TEXT_UNIT:
+        filterWriter.handleEvent(event);
+        return Event.NOOP_EVENT;
+    }
+
+    return event;
+  }
+
+  @Override
+  protected Event handleStartDocument(Event event) {
+    StartDocument startDoc = (StartDocument) event.getResource();
+    if (forcedOutputEncoding != null) {
+      // keep the name used by the document if it is the same charset (eg. "utf-8" in a PO header)
+      outputEncoding =
+          isSameCharset(forcedOutputEncoding, startDoc.getEncoding())
+              ? startDoc.getEncoding()
+              : forcedOutputEncoding;
+    } else if (outputEncoding == null) {
+      outputEncoding = startDoc.getEncoding();
+    }
+
+    filterWriter = startDoc.getFilterWriter();
+    filterWriter.setOptions(targetLocale, outputEncoding);
+
+    if (rawDocument.getAnnotation(OutputDocumentPostProcessingAnnotation.class) != null) {
+      spool = new FileBackedOutputStream(SPOOL_MEMORY_THRESHOLD, true);
+      filterWriter.setOutput(spool);
+    } else {
+      spool = null;
+      filterWriter.setOutput(new NotClosingOutputStream(outputStream));
+    }
+
+    filterWriter.handleEvent(event);
+    return event;
+  }
+
+  static boolean isSameCharset(String encoding, String otherEncoding) {
+    try {
+      return otherEncoding != null
+          && Charset.forName(encoding).equals(Charset.forName(otherEncoding));
+    } catch (IllegalArgumentException iae) {
+      return false;
+    }
+  }
+
+  Event processEndDocument(Event event) {
+    filterWriter.handleEvent(event);
+    filterWriter.close();
+
+    if (spool != null) {
+      try {
+        writeSpoolToOutputStream();
+      } catch (IOException ioe) {
+        throw new UncheckedIOException(ioe);
+      } finally {
+        resetSpool();
+      }
+    }
+
+    return event;
+  }
+
+  void writeSpoolToOutputStream() throws IOException {
+    OutputDocumentPostProcessingAnnotation outputDocumentPostProcessingAnnotation =
+        rawDocument.getAnnotation(OutputDocumentPostProcessingAnnotation.class);
+
+    if (outputDocumentPostProcessingAnnotation.isEnabled()) {
+      Charset charset = Charset.forName(outputEncoding);
+      String outputDocument = spool.asByteSource().asCharSource(charset).read();
+      outputDocument =
+          outputDocumentPostProcessingAnnotation.getPostProcessing().apply(outputDocument);
+      outputStream.write(outputDocument.getBytes(charset));
+    } else {
+      spool.asByteSource().copyTo(outputStream);
+    }
+  }
+
+  void resetSpool() {
+    try {
+      spool.reset();
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    } finally {
+      spool = null;
+    }
+  }
+
+  @Override
+  public void destroy() {
+    if (spool != null) {
+      resetSpool();
+    }
+  }
+
+  /** Filter writers close their output, this keeps the output stream open for the caller. */
+  static class NotClosingOutputStream extends FilterOutputStream {
+
+    NotClosingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.box.l10n.mojito.localtm.merger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.nio.charset.StandardCharsets;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+public class MultiBranchStateBinaryTest {
+
+  @Test
+  public void writeAndReadEmpty() {
+    byte[] bytes = MultiBranchStateBinary.write(MultiBranchState.of());
+    assertTrue(MultiBranchStateBinary.isBinary(bytes));
+    assertEquals(MultiBranchState.of(), MultiBranchStateBinary.read(bytes));
+  }
+
+  @Test
+  public void writeAndRead() {
+    Branch master =
+        Branch.builder()
+            .name("master")
+            .createdAt(new DateTime(2020, 7, 10, 0, 0, DateTimeZone.UTC))
+            .build();
+    Branch branch1 =
+        Branch.builder()
+            .name("branch1")
+            .createdAt(new DateTime(2020, 8, 10, 0, 0, DateTimeZone.UTC))
+            .build();
+
+    BranchStateTextUnit full =
+        BranchStateTextUnit.builder()
+            .tmTextUnitId(1000L)
+            .assetTextUnitId(-1L)
+            .md5("0123456789abcdef00000000000000ff")
+            .createdDate(new DateTime(2020, 9, 10, 0, 0, DateTimeZone.UTC))
+            .name("name")
+            .source("source é 日本語")
+            .comments("comments")
+            .pluralForm("one")
+            .pluralFormOther("other")
+            .branchNameToBranchDatas(
+                ImmutableMap.of(
+                    "branch1",
+                    BranchData.of().withUsages(ImmutableSet.of("file1", "file2")),
+                    "master",
+                    BranchData.of()))
+            .build();
+
+    BranchStateTextUnit minimal =
+        BranchStateTextUnit.builder()
+            .md5("MD5HASH")
+            .branchNameToBranchDatas(
+                ImmutableMap.of("master", BranchData.of().withUsages(ImmutableSet.of("file1"))))
+            .build();
+
+    BranchStateTextUnit upperCaseMd5 =
+        BranchStateTextUnit.builder().md5("0123456789ABCDEF00000000000000FF").build();
+
+    MultiBranchState multiBranchState =
+        MultiBranchState.builder()
+            .branches(ImmutableSet.of(master, branch1))
+            .branchStateTextUnits(
+                ImmutableList.of(
+                    full, minimal, upperCaseMd5, BranchStateTextUnit.builder().build()))
+            .build();
+
+    MultiBranchState read =
+        MultiBranchStateBinary.read(MultiBranchStateBinary.write(multiBranchState));
+
+    assertEquals(multiBranchState, read);
+
+    ImmutableList<String> fullBranchNames =
+        read.getBranchStateTextUnits().get(0).getBranchNameToBranchDatas().keySet().asList();
+    assertEquals(ImmutableList.of("branch1", "master"), fullBranchNames);
+    ImmutableList<String> minimalBranchNames =
+        read.getBranchStateTextUnits().get(1).getBranchNameToBranchDatas().keySet().asList();
+    assertSame("branch names are interned", fullBranchNames.get(1), minimalBranchNames.get(0));
+  }
+
+  @Test
+  public void isBinary() {
+    assertFalse(MultiBranchStateBinary.isBinary("{}".getBytes(StandardCharsets.UTF_8)));
+    assertFalse(MultiBranchStateBinary.isBinary(new byte[0]));
+  }
+
+  @Test
+  public void toHex() {
+    assertEquals("00000000000000ff", MultiBranchStateBinary.toHex(255L));
+    assertEquals("ffffffffffffffff", MultiBranchStateBinary.toHex(-1L));
+  }
+}
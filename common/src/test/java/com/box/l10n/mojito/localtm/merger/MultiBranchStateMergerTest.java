@@ -2,6 +2,8 @@ package com.box.l10n.mojito.localtm.merger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -12,6 +14,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -406,4 +409,112 @@ public class MultiBranchStateMergerTest {
             .apply(baseBranchStateTextUnit);
     assertEquals(message, expected, result);
   }
+
+  @Test
+  public void mergeKeepsUnchangedTextUnits() {
+    Branch branch1 =
+        Branch.builder().name("branch1").createdAt(new DateTime(2020, 6, 10, 0, 0)).build();
+
+    Branch branch2 =
+        Branch.builder().name("branch2").createdAt(new DateTime(2020, 7, 10, 0, 0)).build();
+
+    Branch branch3 =
+        Branch.builder().name("branch3").createdAt(new DateTime(2020, 8, 10, 0, 0)).build();
+
+    BranchStateTextUnit unchanged =
+        createBranchStateTextUnit("MD5HASH1", createBranchMap(branch1, branch2));
+    BranchStateTextUnit inMergedBranch =
+        createBranchStateTextUnit("MD5HASH2", createBranchMap(branch3));
+
+    MultiBranchState intoState =
+        MultiBranchState.of()
+            .withBranches(ImmutableSet.of(branch1, branch2, branch3))
+            .withBranchStateTextUnits(ImmutableList.of(unchanged, inMergedBranch));
+
+    MultiBranchState toMergeState =
+        MultiBranchState.of()
+            .withBranches(ImmutableSet.of(branch3))
+            .withBranchStateTextUnits(
+                ImmutableList.of(createBranchStateTextUnit("MD5HASH3", createBranchMap(branch3))));
+
+    MultiBranchStateMerger multiBranchStateMerger = new MultiBranchStateMerger();
+    MultiBranchState result =
+        multiBranchStateMerger.merge(toMergeState, intoState, ImmutableSet.of());
+
+    assertSame(unchanged, result.getBranchStateTextUnits().get(0));
+    assertNotSame(inMergedBranch, result.getBranchStateTextUnits().get(1));
+    assertEquals(
+        ImmutableMap.of(), result.getBranchStateTextUnits().get(1).getBranchNameToBranchDatas());
+    assertEquals("MD5HASH3", result.getBranchStateTextUnits().get(2).getMd5());
+  }
+
+  @Test
+  public void mergeSortsTextUnitsWhenBranchOrderChanges() {
+    Branch branch1 =
+        Branch.builder().name("branch1").createdAt(new DateTime(2020, 6, 10, 0, 0)).build();
+
+    Branch branch2 =
+        Branch.builder().name("branch2").createdAt(new DateTime(2020, 7, 10, 0, 0)).build();
+
+    Branch branch3 =
+        Branch.builder().name("branch3").createdAt(new DateTime(2020, 8, 10, 0, 0)).build();
+
+    BranchStateTextUnit notInMergedBranch =
+        createBranchStateTextUnit("MD5HASH1", createBranchMap(branch1, branch2));
+
+    MultiBranchState intoState =
+        MultiBranchState.of()
+            .withBranches(ImmutableSet.of(branch1, branch2))
+            .withBranchStateTextUnits(ImmutableList.of(notInMergedBranch));
+
+    MultiBranchState toMergeState =
+        MultiBranchState.of()
+            .withBranches(ImmutableSet.of(branch3))
+            .withBranchStateTextUnits(
+                ImmutableList.of(createBranchStateTextUnit("MD5HASH2", createBranchMap(branch3))));
+
+    MultiBranchStateMerger multiBranchStateMerger = new MultiBranchStateMerger();
+
+    MultiBranchState sameOrder =
+        multiBranchStateMerger.merge(toMergeState, intoState, ImmutableSet.of());
+    assertSame(notInMergedBranch, sameOrder.getBranchStateTextUnits().get(0));
+
+    MultiBranchState withPriority =
+        multiBranchStateMerger.merge(toMergeState, intoState, ImmutableSet.of("branch2"));
+    assertEquals(
+        ImmutableList.of("branch2", "branch1"),
+        withPriority
+            .getBranchStateTextUnits()
+            .get(0)
+            .getBranchNameToBranchDatas()
+            .keySet()
+            .asList());
+  }
+
+  @Test
+  public void removeBranchKeepsTextUnitsNotInBranch() {
+    Branch branch1 =
+        Branch.builder().name("branch1").createdAt(new DateTime(2020, 6, 10, 0, 0)).build();
+
+    Branch branch2 =
+        Branch.builder().name("branch2").createdAt(new DateTime(2020, 7, 10, 0, 0)).build();
+
+    BranchStateTextUnit notInBranch2 =
+        createBranchStateTextUnit("MD5HASH1", createBranchMap(branch1));
+    BranchStateTextUnit inBranch2 =
+        createBranchStateTextUnit("MD5HASH2", createBranchMap(branch1, branch2));
+
+    MultiBranchState state =
+        MultiBranchState.of()
+            .withBranches(ImmutableSet.of(branch1, branch2))
+            .withBranchStateTextUnits(ImmutableList.of(notInBranch2, inBranch2));
+
+    MultiBranchState result = new MultiBranchStateMerger().removeBranch(state, "branch2");
+
+    assertSame(notInBranch2, result.getBranchStateTextUnits().get(0));
+    assertEquals(
+        createBranchMap(branch1),
+        result.getBranchStateTextUnits().get(1).getBranchNameToBranchDatas());
+    assertEquals(ImmutableSet.of(branch1), result.getBranches());
+  }
 }
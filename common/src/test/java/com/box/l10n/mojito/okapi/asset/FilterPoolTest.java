@@ -0,0 +1,104 @@
+package com.box.l10n.mojito.okapi.asset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.box.l10n.mojito.okapi.filters.AndroidFilter;
+import com.google.common.collect.ImmutableSet;
+import net.sf.okapi.common.filters.FilterConfigurationMapper;
+import net.sf.okapi.common.filters.IFilter;
+import net.sf.okapi.filters.xliff.XLIFFFilter;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FilterPoolTest {
+
+  FilterPool filterPool;
+
+  @Before
+  public void before() {
+    FilterConfigurationMapper filterConfigurationMapper = new FilterConfigurationMapper();
+    filterConfigurationMapper.addConfigurations(XLIFFFilter.class.getName());
+    filterConfigurationMapper.addConfigurations(AndroidFilter.class.getName());
+
+    filterPool = new FilterPool();
+    filterPool.filterConfigurationMapper = filterConfigurationMapper;
+    filterPool.pooledFilterConfigIds =
+        ImmutableSet.of(AssetPathToFilterConfigMapper.XLIFF_FILTER_CONFIG_ID);
+    filterPool.maxIdlePerFilterConfigId = 1;
+    filterPool.warmUpPerFilterConfigId = 1;
+  }
+
+  @Test
+  public void testNotPooled() {
+    assertNull(filterPool.borrowFilter("okf_json"));
+    assertNull(filterPool.borrowFilter(null));
+    assertEquals(0, filterPool.getCreatedCount());
+  }
+
+  @Test
+  public void testBorrowAndReturn() {
+    String filterConfigId = AssetPathToFilterConfigMapper.XLIFF_FILTER_CONFIG_ID;
+
+    IFilter filter = filterPool.borrowFilter(filterConfigId);
+    assertEquals(XLIFFFilter.class, filter.getClass());
+    assertEquals(1, filterPool.getCreatedCount());
+    assertEquals(0, filterPool.getIdleCount(filterConfigId));
+
+    IFilter other = filterPool.borrowFilter(filterConfigId);
+    assertNotSame(filter, other);
+    assertEquals(2, filterPool.getCreatedCount());
+
+    filterPool.returnFilter(filterConfigId, filter);
+    filterPool.returnFilter(filterConfigId, other);
+    assertEquals(1, filterPool.getIdleCount(filterConfigId));
+    assertEquals(1, filterPool.getDroppedCount());
+
+    assertSame(filter, filterPool.borrowFilter(filterConfigId));
+    assertEquals(1, filterPool.getReusedCount());
+    assertEquals(2, filterPool.getCreatedCount());
+  }
+
+  @Test
+  public void testReuseReloadsParametersFile() {
+    String filterConfigId = AndroidFilter.FILTER_CONFIG_ID;
+    filterPool.pooledFilterConfigIds = ImmutableSet.of(filterConfigId);
+
+    IFilter filter = filterPool.borrowFilter(filterConfigId);
+    String parameters = filter.getParameters().toString();
+    filter.getParameters().reset();
+    filterPool.returnFilter(filterConfigId, filter);
+
+    assertSame(filter, filterPool.borrowFilter(filterConfigId));
+    assertEquals(parameters, filter.getParameters().toString());
+  }
+
+  @Test
+  public void testDiscard() {
+    String filterConfigId = AssetPathToFilterConfigMapper.XLIFF_FILTER_CONFIG_ID;
+
+    IFilter filter = filterPool.borrowFilter(filterConfigId);
+    filterPool.discardFilter(filter);
+    filterPool.discardFilter(null);
+    assertEquals(0, filterPool.getIdleCount(filterConfigId));
+
+    assertNotSame(filter, filterPool.borrowFilter(filterConfigId));
+    assertEquals(2, filterPool.getCreatedCount());
+    assertEquals(0, filterPool.getReusedCount());
+  }
+
+  @Test
+  public void testWarmUp() {
+    String filterConfigId = AssetPathToFilterConfigMapper.XLIFF_FILTER_CONFIG_ID;
+
+    filterPool.warmUp();
+    assertEquals(1, filterPool.getCreatedCount());
+    assertEquals(1, filterPool.getIdleCount(filterConfigId));
+
+    filterPool.borrowFilter(filterConfigId);
+    assertEquals(1, filterPool.getReusedCount());
+    assertEquals(0, filterPool.getIdleCount(filterConfigId));
+  }
+}
@@ -3,6 +3,7 @@ package com.box.l10n.mojito.rest.client;
 import com.box.l10n.mojito.okapi.FilterConfigIdOverride;
 import com.box.l10n.mojito.rest.client.exception.AssetNotFoundException;
 import com.box.l10n.mojito.rest.entity.Asset;
+import com.box.l10n.mojito.rest.entity.AssetExtractionMd5;
 import com.box.l10n.mojito.rest.entity.ImportLocalizedAssetBody;
 import com.box.l10n.mojito.rest.entity.Locale;
 import com.box.l10n.mojito.rest.entity.LocalizedAssetBody;
@@ -290,6 +291,27 @@ public class AssetClient extends BaseClient {
         getBasePathForEntity(), Asset[].class, filterParams);
   }
 
+  /**
+   * Gets the md5s of the content and filter options of the assets of a branch.
+   *
+   * @param repositoryId {@link Repository#id}
+   * @param branchName the branch name, {@code null} for the default branch
+   * @return the md5s of the assets of the branch
+   */
+  public List<AssetExtractionMd5> getAssetExtractionMd5s(Long repositoryId, String branchName) {
+    logger.debug("Get asset extraction md5s, repo id = {}, branch = {}", repositoryId, branchName);
+
+    Map<String, String> filterParams = new HashMap<>();
+    filterParams.put("repositoryId", repositoryId.toString());
+
+    if (branchName != null) {
+      filterParams.put("branchName", branchName);
+    }
+
+    return authenticatedRestTemplate.getForObjectAsListWithQueryStringParams(
+        getBasePathForEntity() + "/extractionMd5s", AssetExtractionMd5[].class, filterParams);
+  }
+
   /**
    * Exports an XLIFF that contains all translation (regardless if they are used or not) of an
    * {@link Asset}.
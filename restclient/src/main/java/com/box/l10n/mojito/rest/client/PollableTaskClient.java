@@ -6,11 +6,20 @@ import com.box.l10n.mojito.rest.client.exception.PollableTaskException;
 import com.box.l10n.mojito.rest.client.exception.PollableTaskExecutionException;
 import com.box.l10n.mojito.rest.client.exception.PollableTaskTimeoutException;
 import com.box.l10n.mojito.rest.entity.PollableTask;
+import com.google.common.collect.Lists;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.slf4j.Logger;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * @author aloison
@@ -24,6 +33,21 @@ public class PollableTaskClient extends BaseClient {
 
   public static final Long NO_TIMEOUT = -1L;
 
+  /** Max time a long polling request waits on the server, see {@link #waitForPollableTaskUpdate} */
+  static final long LONG_POLLING_TIMEOUT = 10000;
+
+  /** Set to {@code false} if the server doesn't support long polling (older versions) */
+  boolean longPollingSupported = true;
+
+  /** Max number of ids in a request to get multiple tasks, see {@link #getPollableTasks(List)} */
+  static final int GET_POLLABLE_TASKS_BATCH_SIZE = 100;
+
+  /** Set to {@code false} if the server can't get multiple tasks at once (older versions) */
+  boolean getPollableTasksSupported = true;
+
+  /** Set to {@code false} if the server doesn't support long polling on multiple tasks */
+  boolean waitForPollableTasksUpdateSupported = true;
+
   @Override
   public String getEntityName() {
     return "pollableTasks";
@@ -38,6 +62,84 @@ public class PollableTaskClient extends BaseClient {
         getBasePathForResource(pollableTaskId), PollableTask.class);
   }
 
+  /**
+   * Gets multiple {@link PollableTask}s with one request per {@link #GET_POLLABLE_TASKS_BATCH_SIZE}
+   * ids. Fallbacks to a request per task if the server doesn't support it.
+   *
+   * @param pollableTaskIds {@link PollableTask#id}s
+   * @return the {@link PollableTask}s, in the order of the ids
+   * @throws PollableTaskException if some of the tasks don't exist
+   */
+  public List<PollableTask> getPollableTasks(List<Long> pollableTaskIds)
+      throws PollableTaskException {
+    List<PollableTask> pollableTasks = new ArrayList<>();
+
+    for (List<Long> batch : Lists.partition(pollableTaskIds, GET_POLLABLE_TASKS_BATCH_SIZE)) {
+      if (getPollableTasksSupported) {
+        try {
+          UriComponentsBuilder uriBuilder =
+              UriComponentsBuilder.fromPath(getBasePathForEntity())
+                  .queryParam("ids", batch.stream().map(Object::toString).toArray());
+          pollableTasks.addAll(
+              Arrays.asList(
+                  authenticatedRestTemplate.getForObject(
+                      uriBuilder.toUriString(), PollableTask[].class)));
+          continue;
+        } catch (HttpClientErrorException hcee) {
+          if (!isNotSupportedByServer(hcee)) {
+            throw hcee;
+          }
+          logger.debug("Getting multiple tasks not supported by the server, get them one by one");
+          getPollableTasksSupported = false;
+        }
+      }
+
+      for (Long pollableTaskId : batch) {
+        pollableTasks.add(getPollableTask(pollableTaskId));
+      }
+    }
+
+    throwIfNotFound(pollableTaskIds, pollableTasks);
+    return pollableTasks;
+  }
+
+  /**
+   * Long polling: the server returns the {@link PollableTask} as soon as it or one of its sub tasks
+   * finishes, or after the timeout.
+   *
+   * @param pollableTaskId {@link PollableTask#id}
+   * @param timeout max time for the server to wait in milliseconds
+   * @return the current state of the {@link PollableTask}
+   */
+  public PollableTask waitForPollableTaskUpdate(Long pollableTaskId, long timeout) {
+    UriComponentsBuilder uriBuilder =
+        UriComponentsBuilder.fromPath(getBasePathForResource(pollableTaskId, "wait"))
+            .queryParam("timeout", timeout);
+    return authenticatedRestTemplate.getForObject(uriBuilder.toUriString(), PollableTask.class);
+  }
+
+  /**
+   * Long polling on multiple tasks: the server returns the {@link PollableTask}s as soon as one of
+   * them or of their sub tasks finishes, or after the timeout.
+   *
+   * @param pollableTaskIds {@link PollableTask#id}s, at most {@link #GET_POLLABLE_TASKS_BATCH_SIZE}
+   * @param timeout max time for the server to wait in milliseconds
+   * @return the current state of the {@link PollableTask}s, in the order of the ids
+   * @throws PollableTaskException if some of the tasks don't exist
+   */
+  public List<PollableTask> waitForPollableTasksUpdate(List<Long> pollableTaskIds, long timeout)
+      throws PollableTaskException {
+    UriComponentsBuilder uriBuilder =
+        UriComponentsBuilder.fromPath(getBasePathForEntity() + "/wait")
+            .queryParam("ids", pollableTaskIds.stream().map(Object::toString).toArray())
+            .queryParam("timeout", timeout);
+    List<PollableTask> pollableTasks =
+        Arrays.asList(
+            authenticatedRestTemplate.getForObject(uriBuilder.toUriString(), PollableTask[].class));
+    throwIfNotFound(pollableTaskIds, pollableTasks);
+    return pollableTasks;
+  }
+
   public String getPollableTaskOutput(Long pollableTaskId) {
     String output =
         authenticatedRestTemplate.getForObject(
@@ -88,30 +190,13 @@ public class PollableTaskClient extends BaseClient {
 
       logger.debug("Waiting for PollableTask: {} to finish", pollableId);
 
-      pollableTask = getPollableTask(pollableId);
+      pollableTask = getPollableTaskForWait(pollableId, pollableTask == null, timeoutTime, timeout);
 
       if (waitForPollableTaskListener != null) {
         waitForPollableTaskListener.afterPoll(pollableTask);
       }
 
-      List<PollableTask> pollableTaskWithErrors = getAllPollableTasksWithError(pollableTask);
-
-      if (!pollableTaskWithErrors.isEmpty()) {
-
-        for (PollableTask pollableTaskWithError : pollableTaskWithErrors) {
-          logger.debug(
-              "Error happened in PollableTask {}: {}",
-              pollableTaskWithError.getId(),
-              pollableTaskWithError.getErrorMessage().getMessage());
-        }
-
-        // Last task is the root task if it has an error or any of the sub task
-        // TODO(P1) we might want to show all errors
-        PollableTask lastTaskInError =
-            pollableTaskWithErrors.get(pollableTaskWithErrors.size() - 1);
-
-        throw new PollableTaskExecutionException(lastTaskInError.getErrorMessage().getMessage());
-      }
+      throwIfError(pollableTask);
 
       if (!pollableTask.isAllFinished()) {
 
@@ -124,11 +209,13 @@ public class PollableTaskClient extends BaseClient {
               "Timed out waiting for PollableTask: " + pollableId);
         }
 
-        try {
-          Thread.sleep(waitTime);
-          waitTime = getNextWaitTime(waitTime);
-        } catch (InterruptedException ie) {
-          throw new RuntimeException(ie);
+        if (!longPollingSupported) {
+          try {
+            Thread.sleep(waitTime);
+            waitTime = getNextWaitTime(waitTime);
+          } catch (InterruptedException ie) {
+            throw new RuntimeException(ie);
+          }
         }
       } else {
         logger.debug("PollableTask: {} finished", pollableId);
@@ -136,6 +223,222 @@ public class PollableTaskClient extends BaseClient {
     }
   }
 
+  /**
+   * Waits for multiple {@link PollableTask}s to be all finished (see {@link
+   * PollableTask#isAllFinished()}).
+   *
+   * @param pollableTaskIds the {@link PollableTask#id}s
+   * @param timeout timeout in milliseconds.
+   * @throws PollableTaskException
+   */
+  public void waitForPollableTasks(List<Long> pollableTaskIds, long timeout)
+      throws PollableTaskException {
+    waitForPollableTasks(pollableTaskIds, timeout, null);
+  }
+
+  /**
+   * Waits for multiple {@link PollableTask}s to be all finished (see {@link
+   * PollableTask#isAllFinished()}).
+   *
+   * <p>The tasks that are not finished yet are fetched together on each poll, with long polling if
+   * the server supports it (see {@link #waitForPollableTasksUpdate(List, long)}), instead of
+   * waiting for each task in turn. Stops at the first task in error.
+   *
+   * @param pollableTaskIds the {@link PollableTask#id}s
+   * @param timeout timeout in milliseconds.
+   * @param waitForPollableTaskListener listener to be called during polling with the last known
+   *     state of all the tasks
+   * @throws PollableTaskException
+   */
+  public void waitForPollableTasks(
+      List<Long> pollableTaskIds,
+      long timeout,
+      WaitForPollableTaskListener waitForPollableTaskListener)
+      throws PollableTaskException {
+
+    long timeoutTime = System.currentTimeMillis() + timeout;
+    long waitTime = 0;
+
+    Map<Long, PollableTask> pollableTasksById = new LinkedHashMap<>();
+    Set<Long> unfinishedPollableTaskIds = new LinkedHashSet<>(pollableTaskIds);
+    boolean firstCall = true;
+
+    while (!unfinishedPollableTaskIds.isEmpty()) {
+
+      logger.debug("Waiting for {} PollableTasks to finish", unfinishedPollableTaskIds.size());
+
+      List<PollableTask> pollableTasks =
+          getPollableTasksForWait(
+              new ArrayList<>(unfinishedPollableTaskIds), firstCall, timeoutTime, timeout);
+      firstCall = false;
+
+      for (PollableTask pollableTask : pollableTasks) {
+        pollableTasksById.put(pollableTask.getId(), pollableTask);
+      }
+
+      if (waitForPollableTaskListener != null) {
+        waitForPollableTaskListener.afterPoll(new ArrayList<>(pollableTasksById.values()));
+      }
+
+      for (PollableTask pollableTask : pollableTasks) {
+        throwIfError(pollableTask);
+
+        if (pollableTask.isAllFinished()) {
+          logger.debug("PollableTask: {} finished", pollableTask.getId());
+          unfinishedPollableTaskIds.remove(pollableTask.getId());
+        }
+      }
+
+      if (!unfinishedPollableTaskIds.isEmpty()) {
+        if (timeout != NO_TIMEOUT && System.currentTimeMillis() > timeoutTime) {
+          throw new PollableTaskTimeoutException(
+              "Timed out waiting for PollableTasks: " + unfinishedPollableTaskIds);
+        }
+
+        if (!isLongPollingForTasks(unfinishedPollableTaskIds.size())) {
+          try {
+            Thread.sleep(waitTime);
+            waitTime = getNextWaitTime(waitTime);
+          } catch (InterruptedException ie) {
+            throw new RuntimeException(ie);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Long polling is only used for a single batch of tasks, waiting on each batch in turn would
+   * delay the updates of the other batches.
+   *
+   * <p>Servers that can't get multiple tasks can't wait for them either. They would answer the wait
+   * request with a 400 (the "wait" path segment is parsed as a task id) instead of a 404.
+   */
+  boolean isLongPollingForTasks(int numberOfPollableTasks) {
+    return waitForPollableTasksUpdateSupported
+        && getPollableTasksSupported
+        && numberOfPollableTasks <= GET_POLLABLE_TASKS_BATCH_SIZE;
+  }
+
+  /**
+   * Gets the {@link PollableTask}s right away for the first call, then uses long polling if
+   * possible (see {@link #isLongPollingForTasks(int)}).
+   */
+  List<PollableTask> getPollableTasksForWait(
+      List<Long> pollableTaskIds, boolean firstCall, long timeoutTime, long timeout) {
+
+    if (firstCall || !isLongPollingForTasks(pollableTaskIds.size())) {
+      return getPollableTasks(pollableTaskIds);
+    }
+
+    long longPollingTimeout = getLongPollingTimeout(timeoutTime, timeout);
+
+    try {
+      return waitForPollableTasksUpdate(pollableTaskIds, longPollingTimeout);
+    } catch (HttpClientErrorException hcee) {
+      if (!isNotSupportedByServer(hcee)) {
+        throw hcee;
+      }
+      logger.debug("Long polling on multiple tasks not supported by the server, use polling");
+      waitForPollableTasksUpdateSupported = false;
+      return getPollableTasks(pollableTaskIds);
+    }
+  }
+
+  /**
+   * The server only returns the tasks that exist, a missing task would never finish and the callers
+   * would poll forever.
+   *
+   * @param pollableTaskIds the requested {@link PollableTask#id}s
+   * @param pollableTasks the tasks returned by the server
+   * @throws PollableTaskException if some of the tasks don't exist
+   */
+  void throwIfNotFound(List<Long> pollableTaskIds, List<PollableTask> pollableTasks)
+      throws PollableTaskException {
+    Set<Long> missingPollableTaskIds = new LinkedHashSet<>(pollableTaskIds);
+    for (PollableTask pollableTask : pollableTasks) {
+      if (pollableTask != null) {
+        missingPollableTaskIds.remove(pollableTask.getId());
+      }
+    }
+
+    if (!missingPollableTaskIds.isEmpty()) {
+      throw new PollableTaskException("PollableTasks not found: " + missingPollableTaskIds);
+    }
+  }
+
+  /**
+   * @param pollableTask the task to check
+   * @throws PollableTaskExecutionException if the task or one of its sub tasks is in error
+   */
+  void throwIfError(PollableTask pollableTask) throws PollableTaskExecutionException {
+    List<PollableTask> pollableTaskWithErrors = getAllPollableTasksWithError(pollableTask);
+
+    if (!pollableTaskWithErrors.isEmpty()) {
+
+      for (PollableTask pollableTaskWithError : pollableTaskWithErrors) {
+        logger.debug(
+            "Error happened in PollableTask {}: {}",
+            pollableTaskWithError.getId(),
+            pollableTaskWithError.getErrorMessage().getMessage());
+      }
+
+      // Last task is the root task if it has an error or any of the sub task
+      // TODO(P1) we might want to show all errors
+      PollableTask lastTaskInError = pollableTaskWithErrors.get(pollableTaskWithErrors.size() - 1);
+
+      throw new PollableTaskExecutionException(lastTaskInError.getErrorMessage().getMessage());
+    }
+  }
+
+  /**
+   * Gets the {@link PollableTask} right away for the first call, then uses long polling if the
+   * server supports it so that there is no need to sleep between requests.
+   */
+  PollableTask getPollableTaskForWait(
+      Long pollableId, boolean firstCall, long timeoutTime, long timeout) {
+
+    if (firstCall || !longPollingSupported) {
+      return getPollableTask(pollableId);
+    }
+
+    long longPollingTimeout = getLongPollingTimeout(timeoutTime, timeout);
+
+    try {
+      return waitForPollableTaskUpdate(pollableId, longPollingTimeout);
+    } catch (HttpClientErrorException hcee) {
+      if (!isNotSupportedByServer(hcee)) {
+        throw hcee;
+      }
+      logger.debug("Long polling not supported by the server, fallback to polling");
+      longPollingSupported = false;
+      return getPollableTask(pollableId);
+    }
+  }
+
+  /**
+   * @param timeoutTime when the wait times out
+   * @param timeout the timeout of the wait, {@link #NO_TIMEOUT} to wait forever
+   * @return the timeout of a long polling request, shortened so that it doesn't outlast the wait
+   */
+  long getLongPollingTimeout(long timeoutTime, long timeout) {
+    long longPollingTimeout = LONG_POLLING_TIMEOUT;
+    if (timeout != NO_TIMEOUT) {
+      longPollingTimeout =
+          Math.max(0, Math.min(longPollingTimeout, timeoutTime - System.currentTimeMillis()));
+    }
+    return longPollingTimeout;
+  }
+
+  /**
+   * Older servers don't have the endpoint. Other client errors (eg. authentication or a too long
+   * URL) must not disable it for the following requests.
+   */
+  boolean isNotSupportedByServer(HttpClientErrorException hcee) {
+    return HttpStatus.NOT_FOUND.equals(hcee.getStatusCode())
+        || HttpStatus.METHOD_NOT_ALLOWED.equals(hcee.getStatusCode());
+  }
+
   long getNextWaitTime(long lastWaitTime) {
     int maxTime = 500;
     long nextWaitTime = lastWaitTime + 25;
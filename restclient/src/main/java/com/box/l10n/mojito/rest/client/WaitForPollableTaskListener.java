@@ -1,6 +1,7 @@
 package com.box.l10n.mojito.rest.client;
 
 import com.box.l10n.mojito.rest.entity.PollableTask;
+import java.util.List;
 
 /**
  * Listener to be passed to {@link PollableTaskClient#waitForPollableTask(java.lang.Long, long,
@@ -15,4 +16,14 @@ public interface WaitForPollableTaskListener {
    * @param pollableTask the {@link PollableTask} that was just retrieved
    */
   void afterPoll(PollableTask pollableTask);
+
+  /**
+   * Called after each poll when waiting for multiple tasks, see {@link
+   * PollableTaskClient#waitForPollableTasks(List, long, WaitForPollableTaskListener)}
+   *
+   * @param pollableTasks the last known state of all the {@link PollableTask}s
+   */
+  default void afterPoll(List<PollableTask> pollableTasks) {
+    pollableTasks.forEach(this::afterPoll);
+  }
 }
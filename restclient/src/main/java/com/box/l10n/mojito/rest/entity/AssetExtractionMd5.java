@@ -0,0 +1,47 @@
+package com.box.l10n.mojito.rest.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The md5s of the content and the filter options of an asset in a branch. This entity mirrors:
+ * com.box.l10n.mojito.service.assetExtraction.AssetExtractionMd5DTO
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AssetExtractionMd5 {
+  protected Long assetId;
+  protected String path;
+  protected String contentMd5;
+  protected String filterOptionsMd5;
+
+  public Long getAssetId() {
+    return assetId;
+  }
+
+  public void setAssetId(Long assetId) {
+    this.assetId = assetId;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public void setPath(String path) {
+    this.path = path;
+  }
+
+  public String getContentMd5() {
+    return contentMd5;
+  }
+
+  public void setContentMd5(String contentMd5) {
+    this.contentMd5 = contentMd5;
+  }
+
+  public String getFilterOptionsMd5() {
+    return filterOptionsMd5;
+  }
+
+  public void setFilterOptionsMd5(String filterOptionsMd5) {
+    this.filterOptionsMd5 = filterOptionsMd5;
+  }
+}
@@ -1,6 +1,7 @@
 package com.box.l10n.mojito;
 
 import java.util.concurrent.Executor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.AdviceMode;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -40,4 +41,82 @@ public class AsyncConfig extends AsyncConfigurerSupport {
 
     return new DelegatingSecurityContextAsyncTaskExecutor(threadPoolTaskExecutor);
   }
+
+  /**
+   * Executor used to refresh the TextUnitDTOs cache of multiple locales of an asset in parallel.
+   * The pool is bounded to limit the number of concurrent database connections used.
+   */
+  @Bean(name = "textUnitDTOsCacheExecutor")
+  public AsyncTaskExecutor getTextUnitDTOsCacheExecutor(
+      @Value("${l10n.textUnitDTOsCache.executor.poolSize:5}") int poolSize) {
+    ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+    threadPoolTaskExecutor.setBeanName("textUnitDTOsCache");
+    threadPoolTaskExecutor.setCorePoolSize(poolSize);
+    threadPoolTaskExecutor.setMaxPoolSize(poolSize);
+    threadPoolTaskExecutor.initialize();
+    return threadPoolTaskExecutor;
+  }
+
+  /**
+   * Executor used to import the (locale, asset) groups of a text unit batch import in parallel. The
+   * security context is propagated so that the imported variants keep the right author.
+   */
+  @Bean(name = "textUnitBatchImporterExecutor")
+  public AsyncTaskExecutor getTextUnitBatchImporterExecutor(
+      @Value("${l10n.textUnitBatchImporter.executor.poolSize:5}") int poolSize) {
+    ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+    threadPoolTaskExecutor.setBeanName("textUnitBatchImporter");
+    threadPoolTaskExecutor.setCorePoolSize(poolSize);
+    threadPoolTaskExecutor.setMaxPoolSize(poolSize);
+    threadPoolTaskExecutor.initialize();
+    return new DelegatingSecurityContextAsyncTaskExecutor(threadPoolTaskExecutor);
+  }
+
+  /**
+   * Executor used to generate the localized assets of multiple locales in parallel. The pool is
+   * bounded since each generation holds a database connection while fetching translations.
+   */
+  @Bean(name = "generateLocalizedExecutor")
+  public AsyncTaskExecutor getGenerateLocalizedExecutor(
+      @Value("${l10n.generateLocalized.executor.poolSize:5}") int poolSize) {
+    ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+    threadPoolTaskExecutor.setBeanName("generateLocalized");
+    threadPoolTaskExecutor.setCorePoolSize(poolSize);
+    threadPoolTaskExecutor.setMaxPoolSize(poolSize);
+    threadPoolTaskExecutor.initialize();
+    return new DelegatingSecurityContextAsyncTaskExecutor(threadPoolTaskExecutor);
+  }
+
+  /**
+   * Executor used to compute the statistics of the assets of a repository in parallel. The pool is
+   * bounded since refreshing the TextUnitDTOs of an asset uses a database connection.
+   */
+  @Bean(name = "repositoryStatisticsExecutor")
+  public AsyncTaskExecutor getRepositoryStatisticsExecutor(
+      @Value("${l10n.repositoryStatistics.executor.poolSize:4}") int poolSize) {
+    ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+    threadPoolTaskExecutor.setBeanName("repositoryStatistics");
+    threadPoolTaskExecutor.setCorePoolSize(poolSize);
+    threadPoolTaskExecutor.setMaxPoolSize(poolSize);
+    threadPoolTaskExecutor.initialize();
+    return threadPoolTaskExecutor;
+  }
+
+  /**
+   * Executor used to run lightweight pollable jobs in the local JVM. The queue is bounded, when it
+   * is full jobs without unique id are scheduled with Quartz instead (see {@link
+   * com.box.l10n.mojito.quartz.LightweightPollableJobExecutor}).
+   */
+  @Bean(name = "lightweightPollableJobTaskExecutor")
+  public AsyncTaskExecutor getLightweightPollableJobExecutor(
+      @Value("${l10n.quartz.lightweight.executor.poolSize:5}") int poolSize,
+      @Value("${l10n.quartz.lightweight.executor.queueCapacity:1000}") int queueCapacity) {
+    ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+    threadPoolTaskExecutor.setBeanName("lightweightPollableJob");
+    threadPoolTaskExecutor.setCorePoolSize(poolSize);
+    threadPoolTaskExecutor.setMaxPoolSize(poolSize);
+    threadPoolTaskExecutor.setQueueCapacity(queueCapacity);
+    threadPoolTaskExecutor.initialize();
+    return threadPoolTaskExecutor;
+  }
 }
@@ -0,0 +1,31 @@
+package com.box.l10n.mojito.entity;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * A row per job key that is locked while a job with that key is running, to not execute jobs with
+ * the same key concurrently across instances (see {@link
+ * com.box.l10n.mojito.quartz.JobLockService}).
+ */
+@Entity
+@Table(
+    name = "job_lock",
+    indexes = {@Index(name = "UK__JOB_LOCK__NAME", columnList = "name", unique = true)})
+public class JobLock extends BaseEntity {
+
+  @Basic(optional = false)
+  @Column(name = "name")
+  private String name;
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+}
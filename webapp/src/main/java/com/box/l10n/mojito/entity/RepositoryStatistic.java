@@ -67,6 +67,12 @@ public class RepositoryStatistic extends AuditableEntity {
   /** The number of text unit without comments */
   private Long uncommentedTextUnitCount = 0L;
 
+  /**
+   * Random id written each time the statistics are updated, an instance compares it with the id it
+   * wrote to know if its in-memory counters are still up to date
+   */
+  @JsonIgnore private String countersUpdateId;
+
   @JsonView(View.RepositorySummary.class)
   @JsonManagedReference
   @OneToMany(mappedBy = "repositoryStatistic", fetch = FetchType.EAGER)
@@ -214,4 +220,12 @@ public class RepositoryStatistic extends AuditableEntity {
   public void setUncommentedTextUnitCount(Long uncommentedTextUnitCount) {
     this.uncommentedTextUnitCount = uncommentedTextUnitCount;
   }
+
+  public String getCountersUpdateId() {
+    return countersUpdateId;
+  }
+
+  public void setCountersUpdateId(String countersUpdateId) {
+    this.countersUpdateId = countersUpdateId;
+  }
 }
@@ -0,0 +1,34 @@
+package com.box.l10n.mojito.monitoring;
+
+import com.box.l10n.mojito.okapi.asset.FilterPool;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/** Exposes the statistics of the {@link FilterPool} to size it. */
+@Component
+public class FilterPoolMetrics implements MeterBinder {
+
+  @Autowired FilterPool filterPool;
+
+  @Override
+  public void bindTo(MeterRegistry meterRegistry) {
+    FunctionCounter.builder("okapi.filterPool.created", filterPool, FilterPool::getCreatedCount)
+        .register(meterRegistry);
+
+    FunctionCounter.builder("okapi.filterPool.reused", filterPool, FilterPool::getReusedCount)
+        .register(meterRegistry);
+
+    FunctionCounter.builder("okapi.filterPool.dropped", filterPool, FilterPool::getDroppedCount)
+        .register(meterRegistry);
+
+    for (String filterConfigId : filterPool.getPooledFilterConfigIds()) {
+      Gauge.builder("okapi.filterPool.idle", filterPool, p -> p.getIdleCount(filterConfigId))
+          .tag("filterConfigId", filterConfigId)
+          .register(meterRegistry);
+    }
+  }
+}
@@ -26,12 +26,16 @@ public class QuartzPendingJobsReportingTask {
   private JdbcTemplate jdbcTemplate;
   private MeterRegistry meterRegistry;
   private Map<String, AtomicLong> queueSizes;
+  private Map<String, AtomicLong> schedulerQueueSizes;
+  private Map<String, AtomicLong> schedulerWaitTimes;
 
   public QuartzPendingJobsReportingTask(
       @Autowired DataSource dataSource, @Autowired MeterRegistry meterRegistry) {
     this.meterRegistry = meterRegistry;
     this.jdbcTemplate = new JdbcTemplate(dataSource);
     this.queueSizes = new ConcurrentHashMap<>();
+    this.schedulerQueueSizes = new ConcurrentHashMap<>();
+    this.schedulerWaitTimes = new ConcurrentHashMap<>();
   }
 
   @Scheduled(
@@ -40,6 +44,37 @@ public class QuartzPendingJobsReportingTask {
     Map<String, PendingJob> results = fetchResults();
     updateQueueSizes(results);
     results.forEach(this::registerJobQueueSize);
+    reportSchedulerQueues();
+  }
+
+  /**
+   * Reports for each scheduler (the default one and the shards, see {@link
+   * com.box.l10n.mojito.quartz.QuartzSchedulerShards}) the number of triggers that are due but not
+   * yet picked up by a worker thread, and for how long in milliseconds the oldest one has been
+   * waiting.
+   */
+  void reportSchedulerQueues() {
+    Map<String, SchedulerQueue> results = fetchSchedulerQueues(System.currentTimeMillis());
+
+    schedulerQueueSizes.forEach(
+        (key, val) -> val.set(results.containsKey(key) ? results.get(key).count : 0L));
+    schedulerWaitTimes.forEach(
+        (key, val) -> val.set(results.containsKey(key) ? results.get(key).waitTime : 0L));
+
+    results.forEach(
+        (key, schedulerQueue) -> {
+          schedulerQueueSizes
+              .computeIfAbsent(
+                  key, k -> createSchedulerGauge("quartz.scheduler.pending.triggers", k))
+              .set(schedulerQueue.count);
+          schedulerWaitTimes
+              .computeIfAbsent(key, k -> createSchedulerGauge("quartz.scheduler.pending.wait", k))
+              .set(schedulerQueue.waitTime);
+        });
+  }
+
+  private AtomicLong createSchedulerGauge(String name, String schedulerName) {
+    return meterRegistry.gauge(name, Tags.of("scheduler", schedulerName), new AtomicLong());
   }
 
   private void registerJobQueueSize(String key, PendingJob pendingJob) {
@@ -73,6 +108,17 @@ public class QuartzPendingJobsReportingTask {
     return result.stream().collect(Collectors.toMap(PendingJob::getKey, Function.identity()));
   }
 
+  Map<String, SchedulerQueue> fetchSchedulerQueues(long now) {
+    List<SchedulerQueue> result =
+        jdbcTemplate.query(
+            "SELECT sched_name, COUNT(*), MIN(next_fire_time) FROM QRTZ_TRIGGERS "
+                + "WHERE trigger_state = 'WAITING' AND next_fire_time <= ? GROUP BY sched_name",
+            (rs, num) -> new SchedulerQueue(rs.getString(1), rs.getLong(2), now - rs.getLong(3)),
+            now);
+
+    return result.stream().collect(Collectors.toMap(s -> s.schedulerName, Function.identity()));
+  }
+
   static String extractClassName(String input) {
     String[] parts = input.split("\\.");
     return parts.length > 0 ? parts[parts.length - 1] : "";
@@ -96,4 +142,19 @@ public class QuartzPendingJobsReportingTask {
       return jobClass + "-" + jobGroup;
     }
   }
+
+  /*
+   * This class represents the triggers of a scheduler that are due and waiting for a worker thread
+   * */
+  static class SchedulerQueue {
+    public String schedulerName;
+    public Long count;
+    public Long waitTime;
+
+    public SchedulerQueue(String schedulerName, Long count, Long waitTime) {
+      this.schedulerName = schedulerName;
+      this.count = count;
+      this.waitTime = waitTime;
+    }
+  }
 }
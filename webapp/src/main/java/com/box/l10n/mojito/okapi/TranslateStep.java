@@ -9,6 +9,7 @@ import com.box.l10n.mojito.okapi.steps.OutputDocumentPostProcessingAnnotation;
 import com.box.l10n.mojito.service.tm.TranslatorWithInheritance;
 import com.box.l10n.mojito.service.tm.search.StatusFilter;
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
+import com.box.l10n.mojito.service.tm.textunitdtocache.UpdateType;
 import java.util.ArrayList;
 import java.util.List;
 import net.sf.okapi.common.Event;
@@ -76,6 +77,11 @@ public class TranslateStep extends AbstractMd5ComputationStep {
         new TranslatorWithInheritance(asset, repositoryLocale, inheritanceMode, statusFilter);
   }
 
+  /** See {@link TranslatorWithInheritance#setUpdateType(UpdateType)} */
+  public void setUpdateType(UpdateType updateType) {
+    translatorWithInheritance.setUpdateType(updateType);
+  }
+
   private StatusFilter getStatusFilter(Status status) {
     StatusFilter statusFilter = StatusFilter.TRANSLATED_AND_NOT_REJECTED;
 
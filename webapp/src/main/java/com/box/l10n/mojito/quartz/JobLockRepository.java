@@ -0,0 +1,13 @@
+package com.box.l10n.mojito.quartz;
+
+import com.box.l10n.mojito.entity.JobLock;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+@RepositoryRestResource(exported = false)
+public interface JobLockRepository extends JpaRepository<JobLock, Long> {
+
+  Optional<JobLock> findByName(@Param("name") String name);
+}
@@ -0,0 +1,113 @@
+package com.box.l10n.mojito.quartz;
+
+import com.box.l10n.mojito.entity.JobLock;
+import java.util.concurrent.Callable;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.LockModeType;
+import javax.persistence.LockTimeoutException;
+import javax.persistence.PersistenceUnit;
+import javax.persistence.PessimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Executes code while holding a database lock on a {@link JobLock}, so that jobs with the same key
+ * are not executed concurrently across instances, like Quartz does for jobs annotated with {@link
+ * org.quartz.DisallowConcurrentExecution}.
+ *
+ * <p>The row is locked ("select for update") in a transaction of a dedicated {@link EntityManager}:
+ * it is not bound to the thread so the code keeps its own transactions. The database releases the
+ * lock if the instance stops.
+ */
+@Service
+public class JobLockService {
+
+  /** logger */
+  static Logger logger = LoggerFactory.getLogger(JobLockService.class);
+
+  @Autowired JobLockRepository jobLockRepository;
+
+  @PersistenceUnit EntityManagerFactory entityManagerFactory;
+
+  /**
+   * Executes the callable while holding the lock, waits for the lock if another instance holds it.
+   *
+   * @param name the name of the lock, eg. a job key
+   * @param callable the code to execute
+   * @return the result of the callable
+   * @throws Exception the exception thrown by the callable
+   */
+  public <T> T executeWithLock(String name, Callable<T> callable) throws Exception {
+    createJobLockIfMissing(name);
+
+    EntityManager entityManager = lockWhenAvailable(name);
+    try {
+      return callable.call();
+    } finally {
+      release(entityManager);
+    }
+  }
+
+  /**
+   * Waits for the lock, only the lock timeouts are retried.
+   *
+   * @return the entity manager that holds the lock, to be released with {@link
+   *     #release(EntityManager)}
+   */
+  EntityManager lockWhenAvailable(String name) {
+    while (true) {
+      EntityManager entityManager = entityManagerFactory.createEntityManager();
+      boolean locked = false;
+      try {
+        entityManager.getTransaction().begin();
+        lock(entityManager, name);
+        locked = true;
+        return entityManager;
+      } catch (PessimisticLockException | LockTimeoutException e) {
+        logger.debug("Timed out waiting for the job lock: {}, try again", name);
+      } finally {
+        if (!locked) {
+          release(entityManager);
+        }
+      }
+    }
+  }
+
+  void release(EntityManager entityManager) {
+    try {
+      // nothing is written in the transaction, rolling back just releases the lock
+      EntityTransaction transaction = entityManager.getTransaction();
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+    } finally {
+      entityManager.close();
+    }
+  }
+
+  void lock(EntityManager entityManager, String name) {
+    entityManager
+        .createQuery("select jl from JobLock jl where jl.name = :name", JobLock.class)
+        .setParameter("name", name)
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .getSingleResult();
+  }
+
+  /** The row is created once per name, the unique key on the name resolves concurrent inserts. */
+  void createJobLockIfMissing(String name) {
+    if (!jobLockRepository.findByName(name).isPresent()) {
+      try {
+        JobLock jobLock = new JobLock();
+        jobLock.setName(name);
+        jobLockRepository.save(jobLock);
+      } catch (DataIntegrityViolationException dive) {
+        logger.debug("Job lock: {} created concurrently", name);
+      }
+    }
+  }
+}
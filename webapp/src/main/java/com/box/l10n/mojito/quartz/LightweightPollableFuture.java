@@ -0,0 +1,81 @@
+package com.box.l10n.mojito.quartz;
+
+import com.box.l10n.mojito.entity.PollableTask;
+import com.box.l10n.mojito.service.pollableTask.PollableFuture;
+import com.box.l10n.mojito.service.pollableTask.PollableTaskExecutionException;
+import com.box.l10n.mojito.service.pollableTask.PollableTaskService;
+import com.box.l10n.mojito.service.pollableTask.PollableTaskTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Configurable;
+
+/**
+ * {@link PollableFuture} of a job executed by {@link LightweightPollableJobExecutor}.
+ *
+ * <p>Waits for the in-memory completion of the job instead of polling the database, then checks the
+ * {@link PollableTask} once to get the same error and sub task handling as {@link
+ * QuartzPollableFutureTask}. The output is returned from memory.
+ */
+@Configurable
+public class LightweightPollableFuture<T> implements PollableFuture<T> {
+
+  @Autowired PollableTaskService pollableTaskService;
+
+  PollableTask pollableTask;
+
+  CompletableFuture<T> output;
+
+  public LightweightPollableFuture(PollableTask pollableTask, CompletableFuture<T> output) {
+    this.pollableTask = pollableTask;
+    this.output = output;
+  }
+
+  @Override
+  public T get() throws InterruptedException, ExecutionException {
+    return get(PollableTaskService.NO_TIMEOUT);
+  }
+
+  @Override
+  public T get(long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    long milisecondeTimeout = TimeUnit.MILLISECONDS.convert(timeout, unit);
+    return get(milisecondeTimeout);
+  }
+
+  T get(long milisecondTimeout) throws InterruptedException, ExecutionException {
+    long start = System.currentTimeMillis();
+
+    T result;
+
+    if (milisecondTimeout == PollableTaskService.NO_TIMEOUT) {
+      result = output.get();
+    } else {
+      try {
+        result = output.get(milisecondTimeout, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException te) {
+        throw new PollableTaskTimeoutException(
+            "Timed out waiting for PollableTask: " + pollableTask.getId());
+      }
+    }
+
+    try {
+      long remainingTimeout =
+          milisecondTimeout == PollableTaskService.NO_TIMEOUT
+              ? PollableTaskService.NO_TIMEOUT
+              : Math.max(0, milisecondTimeout - (System.currentTimeMillis() - start));
+      pollableTaskService.waitForPollableTask(pollableTask.getId(), remainingTimeout, 100);
+    } catch (PollableTaskExecutionException e) {
+      throw new ExecutionException(e);
+    }
+
+    return result;
+  }
+
+  @Override
+  public PollableTask getPollableTask() {
+    return pollableTask;
+  }
+}
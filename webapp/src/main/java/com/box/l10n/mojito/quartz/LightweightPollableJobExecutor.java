@@ -0,0 +1,341 @@
+package com.box.l10n.mojito.quartz;
+
+import com.box.l10n.mojito.entity.PollableTask;
+import com.box.l10n.mojito.service.pollableTask.ExceptionHolder;
+import com.box.l10n.mojito.service.pollableTask.PollableTaskExecutionException;
+import com.box.l10n.mojito.service.pollableTask.PollableTaskService;
+import com.google.common.util.concurrent.Striped;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Lock;
+import org.quartz.DisallowConcurrentExecution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executes {@link QuartzPollableJob}s in the local JVM on a bounded executor, for short jobs that
+ * are scheduled very often (see {@link QuartzJobInfo#isLightweight()}).
+ *
+ * <p>The input stays in memory and there is no Quartz job or trigger, the {@link PollableTask} is
+ * only updated when the job finishes. Jobs that are not finished after {@link #recoverySaveDelay}
+ * are saved so that if the JVM stops, they are scheduled again with Quartz once their pollable task
+ * times out (see {@link LightweightPollableJobRecovery}). Most jobs finish before and are never
+ * written to the blob storage, the ones lost within that delay are marked as zombies.
+ *
+ * <p>Like Quartz with the same job key, a job that is submitted while a job with the same key is
+ * waiting to be executed replaces the input of the waiting job, or is merged with it (see {@link
+ * QuartzJobInfo#getInputMerger()}). All the pollable tasks are finished when it runs and jobs with
+ * the same key are never executed concurrently in the JVM. Jobs with a unique id whose class is
+ * annotated with {@link DisallowConcurrentExecution} also hold a database lock on their key while
+ * they run, so that they are not executed concurrently by other instances either (see {@link
+ * JobLockService}).
+ *
+ * <p>When the executor is full, jobs with a unique id are kept in memory and executed by the
+ * executor threads as they become available (see {@link #drainRejectedJobs()}). They are not handed
+ * over to Quartz, that could run them while a job with the same key is running locally.
+ */
+@Component
+public class LightweightPollableJobExecutor {
+
+  /** logger */
+  static Logger logger = LoggerFactory.getLogger(LightweightPollableJobExecutor.class);
+
+  @Autowired AutowireCapableBeanFactory beanFactory;
+
+  @Autowired PollableTaskService pollableTaskService;
+
+  @Autowired LightweightPollableJobRecovery lightweightPollableJobRecovery;
+
+  @Autowired JobLockService jobLockService;
+
+  /** To disable the database lock, eg. for a single instance */
+  @Value("${l10n.quartz.lightweight.jobLock.enabled:true}")
+  boolean jobLockEnabled = true;
+
+  @Autowired
+  @Qualifier("lightweightPollableJobTaskExecutor")
+  AsyncTaskExecutor asyncTaskExecutor;
+
+  final ConcurrentHashMap<String, LightweightJob<?, ?>> waitingJobs = new ConcurrentHashMap<>();
+
+  /**
+   * Jobs rejected by the executor, executed by the executor threads when they finish a job or when
+   * {@link #drainRejectedJobs()} runs
+   */
+  final ConcurrentLinkedDeque<LightweightJob<?, ?>> rejectedJobs = new ConcurrentLinkedDeque<>();
+
+  final Striped<Lock> keyLocks = Striped.lazyWeakLock(256);
+
+  /** Jobs submitted and not finished yet, see {@link #saveJobsForRecovery()} */
+  final Set<LightweightJob<?, ?>> pendingJobs = ConcurrentHashMap.newKeySet();
+
+  /** Min time in milliseconds before a job that is not finished is saved for recovery */
+  @Value("${l10n.quartz.lightweight.recovery.saveDelay:5000}")
+  long recoverySaveDelay = 5000;
+
+  /**
+   * Submits a job for execution.
+   *
+   * @param quartzJobInfo the job info
+   * @param pollableTask the pollable task created for the job
+   * @param keyName the job key, see {@link QuartzPollableTaskScheduler#getKeyName(Class, String)}
+   * @return the future to wait for the job output
+   * @throws RejectedExecutionException if the executor can't accept more jobs and the job has no
+   *     unique id
+   */
+  @SuppressWarnings("unchecked")
+  public <I, O> LightweightPollableFuture<O> submit(
+      QuartzJobInfo<I, O> quartzJobInfo, PollableTask pollableTask, String keyName) {
+
+    CompletableFuture<O> output = new CompletableFuture<>();
+
+    LightweightJob<?, ?> lightweightJob =
+        waitingJobs.compute(
+            keyName,
+            (k, waitingJob) -> {
+              if (waitingJob != null
+                  && ((LightweightJob<I, O>) waitingJob)
+                      .replaceInput(quartzJobInfo, pollableTask, output)) {
+                logger.debug("Job waiting for key: {}, replace its input", keyName);
+                return waitingJob;
+              }
+              return new LightweightJob<>(keyName, quartzJobInfo, pollableTask, output);
+            });
+
+    if (lightweightJob.firstPollableTask == pollableTask) {
+      pendingJobs.add(lightweightJob);
+      try {
+        asyncTaskExecutor.execute(lightweightJob);
+      } catch (RejectedExecutionException ree) {
+        if (quartzJobInfo.getUniqueId() == null) {
+          waitingJobs.remove(keyName, lightweightJob);
+          pendingJobs.remove(lightweightJob);
+          throw ree;
+        }
+        logger.debug("Lightweight executor is full, keep the job for key: {}", keyName);
+        rejectedJobs.add(lightweightJob);
+      }
+    }
+
+    return new LightweightPollableFuture<>(pollableTask, output);
+  }
+
+  /**
+   * The executor threads only execute the rejected jobs when they finish a job: a job rejected
+   * after the last running job checked for them would wait for the next submit. Submits a task to
+   * execute them, it is rejected again if the executor is still full.
+   */
+  @Scheduled(fixedDelayString = "${l10n.quartz.lightweight.drainRejectedJobs.fixedDelay:1000}")
+  public void drainRejectedJobs() {
+    if (!rejectedJobs.isEmpty()) {
+      try {
+        asyncTaskExecutor.execute(this::executeRejectedJobs);
+      } catch (RejectedExecutionException ree) {
+        logger.debug("Lightweight executor is still full, execute rejected jobs later");
+      }
+    }
+  }
+
+  /**
+   * Saves the jobs that are not finished after {@link #recoverySaveDelay} so that they can be
+   * recovered if the JVM stops, instead of saving every job when it is submitted.
+   */
+  @Scheduled(fixedDelayString = "${l10n.quartz.lightweight.recovery.saveFixedDelay:1000}")
+  public void saveJobsForRecovery() {
+    saveJobsSubmittedBefore(System.currentTimeMillis() - recoverySaveDelay);
+  }
+
+  void saveJobsSubmittedBefore(long time) {
+    for (LightweightJob<?, ?> pendingJob : pendingJobs) {
+      if (pendingJob.submitTime <= time) {
+        pendingJob.saveForRecovery();
+      }
+    }
+  }
+
+  void executeRejectedJobs() {
+    LightweightJob<?, ?> rejectedJob;
+    while ((rejectedJob = rejectedJobs.poll()) != null) {
+      rejectedJob.executeWithKeyLock();
+    }
+  }
+
+  class LightweightJob<I, O> implements Runnable {
+
+    final String keyName;
+    final QuartzJobInfo<I, O> quartzJobInfo;
+    final PollableTask firstPollableTask;
+    final long submitTime = System.currentTimeMillis();
+
+    I input;
+    final List<PollableTask> pollableTasks = new ArrayList<>();
+    final List<CompletableFuture<O>> outputs = new ArrayList<>();
+    boolean started = false;
+
+    /** Number of pollable tasks, in order, saved for recovery */
+    int savedPollableTaskCount = 0;
+
+    LightweightJob(
+        String keyName,
+        QuartzJobInfo<I, O> quartzJobInfo,
+        PollableTask pollableTask,
+        CompletableFuture<O> output) {
+      this.keyName = keyName;
+      this.quartzJobInfo = quartzJobInfo;
+      this.firstPollableTask = pollableTask;
+      this.input = quartzJobInfo.getInput();
+      this.pollableTasks.add(pollableTask);
+      this.outputs.add(output);
+    }
+
+    synchronized boolean replaceInput(
+        QuartzJobInfo<I, O> quartzJobInfo, PollableTask pollableTask, CompletableFuture<O> output) {
+      if (started) {
+        return false;
+      }
+      this.input =
+          quartzJobInfo.getInputMerger() != null
+              ? quartzJobInfo.getInputMerger().apply(this.input, quartzJobInfo.getInput())
+              : quartzJobInfo.getInput();
+      this.pollableTasks.add(pollableTask);
+      this.outputs.add(output);
+      return true;
+    }
+
+    synchronized I getInput() {
+      return input;
+    }
+
+    /** Saves the pollable tasks that were not saved yet with the current input */
+    void saveForRecovery() {
+      List<PollableTask> unsavedPollableTasks;
+      I currentInput;
+
+      synchronized (this) {
+        unsavedPollableTasks =
+            new ArrayList<>(pollableTasks.subList(savedPollableTaskCount, pollableTasks.size()));
+        currentInput = input;
+        savedPollableTaskCount = pollableTasks.size();
+      }
+
+      for (PollableTask unsavedPollableTask : unsavedPollableTasks) {
+        lightweightPollableJobRecovery.save(quartzJobInfo, unsavedPollableTask, currentInput);
+      }
+    }
+
+    @Override
+    public void run() {
+      executeWithKeyLock();
+      executeRejectedJobs();
+    }
+
+    void executeWithKeyLock() {
+      Lock lock = keyLocks.get(keyName);
+      lock.lock();
+      try {
+        synchronized (this) {
+          started = true;
+        }
+        waitingJobs.remove(keyName, this);
+
+        execute();
+      } finally {
+        lock.unlock();
+        pendingJobs.remove(this);
+      }
+    }
+
+    void execute() {
+      try {
+        if (isJobLockRequired()) {
+          jobLockService.executeWithLock(
+              keyName,
+              () -> {
+                executeJob();
+                return null;
+              });
+        } else {
+          executeJob();
+        }
+      } catch (Throwable t) {
+        logger.error("Can't execute lightweight job for key: {}", keyName, t);
+        finishUnfinishedTasks(t);
+        outputs.forEach(o -> o.completeExceptionally(t));
+      }
+    }
+
+    /**
+     * The job failed outside of the pollable aspect (eg. job creation, lock or database error), the
+     * tasks must be finished so that waiters don't hang and the recovery doesn't execute the job
+     * again.
+     */
+    void finishUnfinishedTasks(Throwable t) {
+      for (PollableTask pollableTask : pollableTasks) {
+        try {
+          if (pollableTaskService.getPollableTask(pollableTask.getId()).getFinishedDate() == null) {
+            ExceptionHolder exceptionHolder = new ExceptionHolder(pollableTask);
+            exceptionHolder.setException(
+                t instanceof Exception
+                    ? (Exception) t
+                    : new PollableTaskExecutionException(
+                        "Can't execute lightweight job: " + t.getMessage()));
+            pollableTaskService.finishTask(pollableTask.getId(), null, exceptionHolder, null);
+          }
+        } catch (RuntimeException re) {
+          logger.error("Can't finish pollable task: {}", pollableTask.getId(), re);
+        }
+      }
+    }
+
+    boolean isJobLockRequired() {
+      return jobLockEnabled
+          && quartzJobInfo.getUniqueId() != null
+          && quartzJobInfo.getClazz().isAnnotationPresent(DisallowConcurrentExecution.class);
+    }
+
+    void executeJob() throws Exception {
+      PollableTask pollableTask = pollableTasks.get(pollableTasks.size() - 1);
+
+      QuartzPollableJob<I, O> quartzPollableJob = quartzJobInfo.getClazz().newInstance();
+      beanFactory.autowireBean(quartzPollableJob);
+      O output = quartzPollableJob.execute(pollableTask, () -> input);
+      boolean failed = quartzPollableJob.getCurrentPollableTask().getErrorMessage() != null;
+
+      List<PollableTask> replacedPollableTasks = pollableTasks.subList(0, pollableTasks.size() - 1);
+      for (PollableTask replacedPollableTask : replacedPollableTasks) {
+        ExceptionHolder exceptionHolder =
+            failed ? getFailedExceptionHolder(replacedPollableTask, pollableTask) : null;
+        pollableTaskService.finishTask(
+            replacedPollableTask.getId(),
+            "Replaced by pollable task: " + pollableTask.getId(),
+            exceptionHolder,
+            null);
+      }
+
+      outputs.forEach(o -> o.complete(output));
+    }
+
+    /** The job failed, the tasks it replaced must fail too so that their waiters see the error */
+    ExceptionHolder getFailedExceptionHolder(
+        PollableTask replacedPollableTask, PollableTask pollableTask) {
+      ExceptionHolder exceptionHolder = new ExceptionHolder(replacedPollableTask);
+      exceptionHolder.setExpected(true);
+      exceptionHolder.setException(
+          new PollableTaskExecutionException(
+              "Replaced by pollable task: " + pollableTask.getId() + " that failed"));
+      return exceptionHolder;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package com.box.l10n.mojito.quartz;
+
+import com.box.l10n.mojito.entity.PollableTask;
+import com.box.l10n.mojito.json.ObjectMapper;
+import com.box.l10n.mojito.service.pollableTask.PollableFuture;
+import com.box.l10n.mojito.service.pollableTask.PollableTaskBlobStorage;
+import com.box.l10n.mojito.service.pollableTask.PollableTaskService;
+import com.google.common.reflect.TypeToken;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recovers the lightweight jobs that were lost because the JVM stopped before they finished (see
+ * {@link LightweightPollableJobExecutor}).
+ *
+ * <p>When a lightweight job is not finished shortly after it was submitted, its class, unique id
+ * and input are saved in the blob storage for its pollable tasks (see {@link
+ * LightweightPollableJobExecutor#saveJobsForRecovery()}). When a pollable task is detected as a
+ * zombie, the job is scheduled again with Quartz and the pollable task is finished with a reference
+ * to the pollable task of the new job.
+ */
+@Component
+public class LightweightPollableJobRecovery {
+
+  /** logger */
+  static Logger logger = LoggerFactory.getLogger(LightweightPollableJobRecovery.class);
+
+  @Autowired PollableTaskBlobStorage pollableTaskBlobStorage;
+
+  @Autowired PollableTaskService pollableTaskService;
+
+  @Lazy @Autowired QuartzPollableTaskScheduler quartzPollableTaskScheduler;
+
+  @Autowired
+  @Qualifier("fail_on_unknown_properties_false")
+  ObjectMapper objectMapper;
+
+  @Value("${l10n.quartz.lightweight.recovery.enabled:true}")
+  boolean enabled = true;
+
+  /**
+   * Saves the job so that it can be recovered. Failures are only logged, the job is executed
+   * anyway.
+   *
+   * @param quartzJobInfo the job info
+   * @param pollableTask a pollable task of the job
+   * @param input the input the job will be executed with, merged with the inputs of the jobs it
+   *     replaces
+   */
+  void save(QuartzJobInfo<?, ?> quartzJobInfo, PollableTask pollableTask, Object input) {
+    if (!enabled) {
+      return;
+    }
+
+    try {
+      LightweightJob lightweightJob = new LightweightJob();
+      lightweightJob.setClassName(quartzJobInfo.getClazz().getName());
+      lightweightJob.setUniqueId(quartzJobInfo.getUniqueId());
+      lightweightJob.setInputJson(objectMapper.writeValueAsStringUnchecked(input));
+      pollableTaskBlobStorage.saveLightweightJob(pollableTask.getId(), lightweightJob);
+    } catch (RuntimeException re) {
+      logger.warn(
+          "Can't save lightweight job for pollable task: {}, it can't be recovered",
+          pollableTask.getId(),
+          re);
+    }
+  }
+
+  /**
+   * Schedules again with Quartz the lightweight job of a pollable task that did not finish.
+   *
+   * @param pollableTask a zombie pollable task
+   * @return {@code true} if the job was scheduled again and the pollable task finished, {@code
+   *     false} if the pollable task is not for a lightweight job or the job can't be recovered
+   */
+  public boolean recover(PollableTask pollableTask) {
+    if (!enabled) {
+      return false;
+    }
+
+    try {
+      Optional<LightweightJob> lightweightJob =
+          pollableTaskBlobStorage.findLightweightJob(pollableTask.getId(), LightweightJob.class);
+
+      if (!lightweightJob.isPresent()) {
+        return false;
+      }
+
+      QuartzJobInfo<Object, Object> quartzJobInfo =
+          getQuartzJobInfo(pollableTask, lightweightJob.get());
+      PollableFuture<Object> pollableFuture =
+          quartzPollableTaskScheduler.scheduleJob(quartzJobInfo);
+
+      logger.info(
+          "Lightweight job of pollable task: {} recovered with pollable task: {}",
+          pollableTask.getId(),
+          pollableFuture.getPollableTask().getId());
+
+      pollableTaskService.finishTask(
+          pollableTask.getId(),
+          "Recovered by pollable task: " + pollableFuture.getPollableTask().getId(),
+          null,
+          null);
+      return true;
+    } catch (Exception e) {
+      logger.warn("Can't recover lightweight job of pollable task: {}", pollableTask.getId(), e);
+      return false;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  QuartzJobInfo<Object, Object> getQuartzJobInfo(
+      PollableTask pollableTask, LightweightJob lightweightJob) throws ClassNotFoundException {
+
+    Class<? extends QuartzPollableJob<Object, Object>> clazz =
+        (Class<? extends QuartzPollableJob<Object, Object>>)
+            Class.forName(lightweightJob.getClassName());
+
+    Class<?> inputClass =
+        TypeToken.of(clazz)
+            .resolveType(QuartzPollableJob.class.getTypeParameters()[0])
+            .getRawType();
+
+    QuartzJobInfo.Builder<Object, Object> builder =
+        QuartzJobInfo.newBuilder(clazz)
+            .withInput(objectMapper.readValueUnchecked(lightweightJob.getInputJson(), inputClass))
+            .withUniqueId(lightweightJob.getUniqueId())
+            .withParentId(
+                pollableTask.getParentTask() != null ? pollableTask.getParentTask().getId() : null)
+            .withMessage(pollableTask.getMessage());
+
+    if (pollableTask.getTimeout() != null) {
+      builder.withTimeout(pollableTask.getTimeout());
+    }
+
+    return builder.build();
+  }
+
+  public static class LightweightJob {
+
+    String className;
+
+    String uniqueId;
+
+    String inputJson;
+
+    public String getClassName() {
+      return className;
+    }
+
+    public void setClassName(String className) {
+      this.className = className;
+    }
+
+    public String getUniqueId() {
+      return uniqueId;
+    }
+
+    public void setUniqueId(String uniqueId) {
+      this.uniqueId = uniqueId;
+    }
+
+    public String getInputJson() {
+      return inputJson;
+    }
+
+    public void setInputJson(String inputJson) {
+      this.inputJson = inputJson;
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package com.box.l10n.mojito.quartz;
 
 import java.util.Date;
+import java.util.function.BinaryOperator;
 
 public class QuartzJobInfo<I, O> {
   Class<? extends QuartzPollableJob<I, O>> clazz;
@@ -12,6 +13,8 @@ public class QuartzJobInfo<I, O> {
   String uniqueId;
   boolean inlineInput;
   long timeout;
+  boolean lightweight;
+  BinaryOperator<I> inputMerger;
 
   private QuartzJobInfo(Builder<I, O> builder) {
     clazz = builder.clazz;
@@ -23,6 +26,8 @@ public class QuartzJobInfo<I, O> {
     uniqueId = builder.uniqueId;
     inlineInput = builder.inlineInput;
     timeout = builder.timeout;
+    lightweight = builder.lightweight;
+    inputMerger = builder.inputMerger;
   }
 
   public Class<? extends QuartzPollableJob<I, O>> getClazz() {
@@ -61,6 +66,14 @@ public class QuartzJobInfo<I, O> {
     return timeout;
   }
 
+  public boolean isLightweight() {
+    return lightweight;
+  }
+
+  public BinaryOperator<I> getInputMerger() {
+    return inputMerger;
+  }
+
   public static <I, O> Builder<I, O> newBuilder(Class<? extends QuartzPollableJob<I, O>> clazz) {
     Builder<I, O> builder = new Builder<I, O>();
     builder.clazz = clazz;
@@ -77,6 +90,8 @@ public class QuartzJobInfo<I, O> {
     private String uniqueId;
     private boolean inlineInput = true;
     private long timeout = 3600;
+    private boolean lightweight = false;
+    private BinaryOperator<I> inputMerger;
 
     private Builder() {}
 
@@ -120,6 +135,25 @@ public class QuartzJobInfo<I, O> {
       return this;
     }
 
+    /**
+     * Lightweight jobs are executed in the local JVM without going through Quartz, see {@link
+     * LightweightPollableJobExecutor}.
+     */
+    public Builder<I, O> withLightweight(boolean val) {
+      lightweight = val;
+      return this;
+    }
+
+    /**
+     * By default, a job scheduled while a job with the same key is waiting replaces the input of
+     * the waiting job. The merger combines them instead, it is called with the waiting input then
+     * the new input.
+     */
+    public Builder<I, O> withInputMerger(BinaryOperator<I> val) {
+      inputMerger = val;
+      return this;
+    }
+
     public QuartzJobInfo<I, O> build() {
       return new QuartzJobInfo<I, O>(this);
     }
@@ -7,6 +7,7 @@ import com.box.l10n.mojito.service.pollableTask.PollableTaskBlobStorage;
 import com.box.l10n.mojito.service.pollableTask.PollableTaskExceptionUtils;
 import com.box.l10n.mojito.service.pollableTask.PollableTaskService;
 import com.google.common.reflect.TypeToken;
+import java.util.concurrent.Callable;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
@@ -44,29 +45,48 @@ public abstract class QuartzPollableJob<I, O> implements Job {
   @Override
   public void execute(JobExecutionContext context) throws JobExecutionException {
     Long pollableTaskId = context.getMergedJobDataMap().getLong(POLLABLE_TASK_ID);
-    currentPollableTask = pollableTaskService.getPollableTask(pollableTaskId);
+    String inputStringFromJob = context.getMergedJobDataMap().getString(INPUT);
+
+    execute(
+        pollableTaskService.getPollableTask(pollableTaskId),
+        () -> {
+          I callInput;
+
+          if (inputStringFromJob != null) {
+            logger.debug("Inlined data, read from job data");
+            callInput =
+                (I)
+                    objectMapper.readValueUnchecked(
+                        inputStringFromJob, typeTokenInput.getRawType());
+          } else {
+            logger.debug("No inlined data, read from blob storage");
+            callInput =
+                (I) pollableTaskBlobStorage.getInput(pollableTaskId, typeTokenInput.getRawType());
+          }
+
+          return callInput;
+        });
+  }
+
+  /**
+   * Calls the job and finishes the pollable task. The output is saved in the blob storage (unless
+   * {@link Void}) so that it is available to any waiter.
+   *
+   * @param pollableTask the pollable task of the job
+   * @param inputSupplier provides the input of the job
+   * @return the output of the job, {@code null} if the job failed
+   */
+  O execute(PollableTask pollableTask, Callable<I> inputSupplier) {
+    currentPollableTask = pollableTask;
 
     ExceptionHolder exceptionHolder = new ExceptionHolder(currentPollableTask);
+    O callOutput = null;
 
     try {
-      I callInput;
-
-      String inputStringFromJob = context.getMergedJobDataMap().getString(INPUT);
-
-      if (inputStringFromJob != null) {
-        logger.debug("Inlined data, read from job data");
-        callInput =
-            (I) objectMapper.readValueUnchecked(inputStringFromJob, typeTokenInput.getRawType());
-      } else {
-        logger.debug("No inlined data, read from blob storage");
-        callInput =
-            (I) pollableTaskBlobStorage.getInput(pollableTaskId, typeTokenInput.getRawType());
-      }
-
-      O callOutput = call(callInput);
+      callOutput = call(inputSupplier.call());
 
       if (!typeTokenOutput.getRawType().equals(Void.class)) {
-        pollableTaskBlobStorage.saveOutput(pollableTaskId, callOutput);
+        pollableTaskBlobStorage.saveOutput(pollableTask.getId(), callOutput);
       }
     } catch (Throwable t) {
       pollableTaskExceptionUtils.processException(t, exceptionHolder);
@@ -74,6 +94,8 @@ public abstract class QuartzPollableJob<I, O> implements Job {
       currentPollableTask =
           pollableTaskService.finishTask(currentPollableTask.getId(), null, exceptionHolder, null);
     }
+
+    return callOutput;
   }
 
   public Class<? super O> getOutputType() {
@@ -7,11 +7,19 @@ import com.box.l10n.mojito.json.ObjectMapper;
 import com.box.l10n.mojito.service.pollableTask.PollableFuture;
 import com.box.l10n.mojito.service.pollableTask.PollableTaskBlobStorage;
 import com.box.l10n.mojito.service.pollableTask.PollableTaskService;
+import com.google.common.base.Throwables;
 import com.ibm.icu.text.MessageFormat;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.quartz.JobBuilder;
+import org.quartz.JobDataMap;
 import org.quartz.JobDetail;
 import org.quartz.JobKey;
 import org.quartz.Scheduler;
@@ -22,6 +30,7 @@ import org.quartz.TriggerKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -29,7 +38,7 @@ public class QuartzPollableTaskScheduler {
   /** logger */
   static Logger logger = LoggerFactory.getLogger(QuartzPollableTaskScheduler.class);
 
-  @Autowired Scheduler scheduler;
+  @Autowired QuartzSchedulerShards quartzSchedulerShards;
 
   @Autowired PollableTaskService pollableTaskService;
 
@@ -37,6 +46,18 @@ public class QuartzPollableTaskScheduler {
 
   @Autowired ObjectMapper objectMapper;
 
+  @Autowired LightweightPollableJobExecutor lightweightPollableJobExecutor;
+
+  @Value("${l10n.quartz.lightweight.enabled:true}")
+  boolean lightweightEnabled;
+
+  /**
+   * Max size of the JSON of an input inlined in the Quartz job data. Bigger inputs are saved in the
+   * blob storage even if the job asks to inline its input.
+   */
+  @Value("${l10n.quartz.inlineInput.maxSize:16384}")
+  int inlineInputMaxSize = 16384;
+
   public <I, O> PollableFuture<O> scheduleJob(
       Class<? extends QuartzPollableJob<I, O>> clazz, I input) {
     QuartzJobInfo<I, O> quartzJobInfo =
@@ -70,7 +91,8 @@ public class QuartzPollableTaskScheduler {
    * @param uniqueId optional id used to generate the job keyname. If not provided the pollable task
    *     id is used. Pollable id keeps changing, unique id can be used for recuring jobs (eg. update
    *     stats of repositry xyz)
-   * @param inlineInput to inline the input in quartz data or save it in the blobstorage
+   * @param inlineInput to inline the input in quartz data or save it in the blobstorage. Inputs
+   *     bigger than {@link #inlineInputMaxSize} are always saved in the blobstorage
    * @param <I>
    * @param <O>
    * @return
@@ -95,7 +117,18 @@ public class QuartzPollableTaskScheduler {
 
     String keyName = getKeyName(quartzJobInfo.getClazz(), uniqueId);
 
+    if (isExecutedAsLightweight(quartzJobInfo)) {
+      try {
+        logger.debug("Execute lightweight job for key: {}", keyName);
+        return lightweightPollableJobExecutor.submit(quartzJobInfo, pollableTask, keyName);
+      } catch (RejectedExecutionException ree) {
+        logger.debug("Lightweight executor is full, schedule with Quartz for key: {}", keyName);
+      }
+    }
+
     try {
+      Scheduler scheduler = quartzSchedulerShards.getScheduler(quartzJobInfo.getClazz());
+
       TriggerKey triggerKey = new TriggerKey(keyName, DYNAMIC_GROUP_NAME);
       JobKey jobKey = new JobKey(keyName, DYNAMIC_GROUP_NAME);
 
@@ -116,14 +149,17 @@ public class QuartzPollableTaskScheduler {
               .usingJobData(QuartzPollableJob.POLLABLE_TASK_ID, pollableTask.getId().toString())
               .withIdentity(triggerKey);
 
-      if (quartzJobInfo.isInlineInput()) {
+      I input = getInputMergedWithScheduledInput(scheduler, triggerKey, quartzJobInfo);
+
+      Optional<String> inlineInputJson =
+          quartzJobInfo.isInlineInput() ? getInlineInputJson(input) : Optional.empty();
+
+      if (inlineInputJson.isPresent()) {
         logger.debug("This job input is inlined into the quartz job");
-        triggerTriggerBuilder.usingJobData(
-            QuartzPollableJob.INPUT,
-            objectMapper.writeValueAsStringUnchecked(quartzJobInfo.getInput()));
+        triggerTriggerBuilder.usingJobData(QuartzPollableJob.INPUT, inlineInputJson.get());
       } else {
         logger.debug("The input data is saved into the blob storage");
-        pollableTaskBlobStorage.saveInput(pollableTask.getId(), quartzJobInfo.getInput());
+        pollableTaskBlobStorage.saveInput(pollableTask.getId(), input);
       }
 
       Trigger trigger = triggerTriggerBuilder.build();
@@ -146,6 +182,74 @@ public class QuartzPollableTaskScheduler {
     return new QuartzPollableFutureTask<O>(pollableTask, jobOutputType);
   }
 
+  /**
+   * Merges the input of the job with the input of the trigger already scheduled with the same key,
+   * if the job has an input merger (see {@link QuartzJobInfo#getInputMerger()}). Else the input of
+   * the scheduled trigger is replaced.
+   */
+  <I, O> I getInputMergedWithScheduledInput(
+      Scheduler scheduler, TriggerKey triggerKey, QuartzJobInfo<I, O> quartzJobInfo)
+      throws SchedulerException {
+
+    I input = quartzJobInfo.getInput();
+
+    if (quartzJobInfo.getInputMerger() == null || input == null) {
+      return input;
+    }
+
+    Trigger scheduledTrigger = scheduler.getTrigger(triggerKey);
+
+    if (scheduledTrigger == null) {
+      return input;
+    }
+
+    @SuppressWarnings("unchecked")
+    Class<I> inputType = (Class<I>) input.getClass();
+    JobDataMap jobDataMap = scheduledTrigger.getJobDataMap();
+    String scheduledInputJson = jobDataMap.getString(QuartzPollableJob.INPUT);
+
+    I scheduledInput =
+        scheduledInputJson != null
+            ? objectMapper.readValueUnchecked(scheduledInputJson, inputType)
+            : pollableTaskBlobStorage.getInput(
+                jobDataMap.getLongValueFromString(QuartzPollableJob.POLLABLE_TASK_ID), inputType);
+
+    logger.debug("Merge the input with the input of the scheduled trigger: {}", triggerKey);
+    return quartzJobInfo.getInputMerger().apply(scheduledInput, input);
+  }
+
+  /**
+   * Lightweight jobs are executed locally only if they can start immediately, else they are
+   * scheduled with Quartz like other jobs.
+   */
+  boolean isExecutedAsLightweight(QuartzJobInfo<?, ?> quartzJobInfo) {
+    return lightweightEnabled
+        && quartzJobInfo.isLightweight()
+        && !quartzJobInfo.getTriggerStartDate().after(new Date());
+  }
+
+  /**
+   * Gets the JSON of an input to inline in the Quartz job data if it is not bigger than {@link
+   * #inlineInputMaxSize}. The serialization stops as soon as the size is exceeded.
+   *
+   * @param input the job input
+   * @return the JSON or empty if the input is too big to be inlined
+   */
+  Optional<String> getInlineInputJson(Object input) {
+    SizeLimitedWriter sizeLimitedWriter = new SizeLimitedWriter(inlineInputMaxSize);
+    try {
+      objectMapper.writeValue(sizeLimitedWriter, input);
+      return Optional.of(sizeLimitedWriter.toString());
+    } catch (IOException ioe) {
+      if (Throwables.getCausalChain(ioe).stream()
+          .anyMatch(SizeLimitExceededException.class::isInstance)) {
+        logger.debug("Input too big to be inlined, max size: {}", inlineInputMaxSize);
+        return Optional.empty();
+      }
+      throw new UncheckedIOException(ioe);
+    }
+  }
+
   <I, O> Class<O> getJobOutputType(QuartzJobInfo<I, O> quartzJobInfo) {
     QuartzPollableJob<I, O> quartzPollableJob = null;
 
@@ -194,4 +298,36 @@ public class QuartzPollableTaskScheduler {
 
     return result;
   }
+
+  /** A {@link Writer} to a string that fails when more than a max number of chars are written. */
+  static class SizeLimitedWriter extends Writer {
+
+    final StringBuilder stringBuilder = new StringBuilder();
+    final int maxSize;
+
+    SizeLimitedWriter(int maxSize) {
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+      if (stringBuilder.length() + len > maxSize) {
+        throw new SizeLimitExceededException();
+      }
+      stringBuilder.append(cbuf, off, len);
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+
+    @Override
+    public String toString() {
+      return stringBuilder.toString();
+    }
+  }
+
+  static class SizeLimitExceededException extends IOException {}
 }
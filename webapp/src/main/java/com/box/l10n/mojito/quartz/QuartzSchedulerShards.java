@@ -0,0 +1,229 @@
+package com.box.l10n.mojito.quartz;
+
+import static com.box.l10n.mojito.quartz.QuartzConfig.DYNAMIC_GROUP_NAME;
+
+import com.box.l10n.mojito.monitoring.QuartzMetricsReportingJobListener;
+import com.box.l10n.mojito.quartz.QuartzSchedulerShardsConfigurationProperties.ShardConfigurationProperties;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.quartz.SchedulerFactoryBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Quartz schedulers dedicated to some job classes, so that a burst of jobs of a class doesn't
+ * starve the other jobs.
+ *
+ * <p>Each shard is a scheduler with its own thread pool and thread priority, created from the
+ * default Quartz properties (see {@link QuartzPropertiesConfig}) with the instance name suffixed by
+ * the shard name. When using the JDBC job store, the shards share the tables with the default
+ * scheduler and are isolated by their scheduler name.
+ *
+ * <p>Only the dynamic jobs scheduled with {@link QuartzPollableTaskScheduler} are sharded, the jobs
+ * and triggers defined in spring beans stay in the default scheduler. When a job class is mapped to
+ * a shard, its dynamic jobs still in the default scheduler are moved to the shard at startup.
+ */
+@Component
+public class QuartzSchedulerShards {
+
+  /** logger */
+  static Logger logger = LoggerFactory.getLogger(QuartzSchedulerShards.class);
+
+  static final String DEFAULT_INSTANCE_NAME = "scheduler";
+
+  static final String INSTANCE_NAME = "org.quartz.scheduler.instanceName";
+  static final String THREAD_COUNT = "org.quartz.threadPool.threadCount";
+  static final String THREAD_PRIORITY = "org.quartz.threadPool.threadPriority";
+  static final String JOB_STORE_DATA_SOURCE = "org.quartz.jobStore.dataSource";
+  static final String DATA_SOURCE_PREFIX = "org.quartz.dataSource.";
+
+  @Autowired ApplicationContext applicationContext;
+
+  @Autowired Scheduler scheduler;
+
+  @Autowired QuartzPropertiesConfig quartzPropertiesConfig;
+
+  @Autowired
+  QuartzSchedulerShardsConfigurationProperties quartzSchedulerShardsConfigurationProperties;
+
+  @Autowired(required = false)
+  QuartzMetricsReportingJobListener quartzMetricsReportingJobListener;
+
+  final Map<String, SchedulerFactoryBean> schedulerFactoryBeansByShard = new LinkedHashMap<>();
+
+  final Map<String, Scheduler> schedulersByJobClassName = new HashMap<>();
+
+  @PostConstruct
+  void startShards() throws Exception {
+    for (Map.Entry<String, ShardConfigurationProperties> shard :
+        quartzSchedulerShardsConfigurationProperties.getShards().entrySet()) {
+
+      logger.info("Create scheduler for shard: {}", shard.getKey());
+      SchedulerFactoryBean schedulerFactoryBean =
+          createSchedulerFactoryBean(shard.getKey(), shard.getValue());
+      schedulerFactoryBeansByShard.put(shard.getKey(), schedulerFactoryBean);
+
+      Scheduler shardScheduler = schedulerFactoryBean.getScheduler();
+      mapJobClassesToShard(shardScheduler, shard.getValue().getJobClasses());
+      moveDynamicJobsToShard(shard.getKey(), shardScheduler, shard.getValue().getJobClasses());
+
+      shardScheduler.startDelayed(2);
+    }
+  }
+
+  void mapJobClassesToShard(Scheduler shardScheduler, Collection<String> jobClassNames) {
+    for (String jobClassName : jobClassNames) {
+      Scheduler previous = schedulersByJobClassName.put(jobClassName, shardScheduler);
+      if (previous != null) {
+        throw new IllegalArgumentException(
+            "Job class: " + jobClassName + " can't be mapped to multiple shards");
+      }
+    }
+  }
+
+  /**
+   * Moves the dynamic jobs of the job classes, and their triggers, from the default scheduler to
+   * the shard scheduler. Jobs scheduled before the job classes were mapped to the shard would else
+   * be executed by the default scheduler, concurrently with the jobs with the same key scheduled in
+   * the shard.
+   */
+  void moveDynamicJobsToShard(
+      String shardName, Scheduler shardScheduler, Collection<String> jobClassNames)
+      throws SchedulerException {
+
+    for (JobKey jobKey : scheduler.getJobKeys(GroupMatcher.jobGroupEquals(DYNAMIC_GROUP_NAME))) {
+      JobDetail jobDetail;
+      try {
+        jobDetail = scheduler.getJobDetail(jobKey);
+      } catch (SchedulerException se) {
+        logger.warn("Can't get job: {}, don't move it", jobKey, se);
+        continue;
+      }
+
+      if (jobDetail != null && jobClassNames.contains(jobDetail.getJobClass().getName())) {
+        Set<Trigger> triggers = new HashSet<>(scheduler.getTriggersOfJob(jobKey));
+
+        if (!triggers.isEmpty()) {
+          logger.info("Move job: {} to shard: {}", jobKey, shardName);
+          shardScheduler.scheduleJob(jobDetail, triggers, true);
+        }
+
+        scheduler.deleteJob(jobKey);
+      }
+    }
+  }
+
+  @PreDestroy
+  void stopShards() throws SchedulerException {
+    for (Map.Entry<String, SchedulerFactoryBean> entry : schedulerFactoryBeansByShard.entrySet()) {
+      logger.info("Shutdown scheduler for shard: {}", entry.getKey());
+      entry.getValue().destroy();
+    }
+  }
+
+  /**
+   * Gets the scheduler that executes a job class.
+   *
+   * @param jobClass the job class
+   * @return the scheduler of the shard the job class is mapped to, else the default scheduler
+   */
+  public Scheduler getScheduler(Class<?> jobClass) {
+    return schedulersByJobClassName.getOrDefault(jobClass.getName(), scheduler);
+  }
+
+  /** @return the default scheduler followed by the schedulers of the shards */
+  public List<Scheduler> getSchedulers() throws SchedulerException {
+    List<Scheduler> schedulers = new ArrayList<>();
+    schedulers.add(scheduler);
+    for (SchedulerFactoryBean schedulerFactoryBean : schedulerFactoryBeansByShard.values()) {
+      schedulers.add(schedulerFactoryBean.getScheduler());
+    }
+    return schedulers;
+  }
+
+  SchedulerFactoryBean createSchedulerFactoryBean(
+      String shardName, ShardConfigurationProperties shardConfigurationProperties)
+      throws Exception {
+
+    AutoWiringSpringBeanJobFactory jobFactory = new AutoWiringSpringBeanJobFactory();
+    jobFactory.setApplicationContext(applicationContext);
+
+    SchedulerFactoryBean schedulerFactoryBean = new SchedulerFactoryBean();
+    schedulerFactoryBean.setQuartzProperties(
+        getShardQuartzProperties(shardName, shardConfigurationProperties));
+    schedulerFactoryBean.setJobFactory(jobFactory);
+    schedulerFactoryBean.setOverwriteExistingJobs(true);
+    schedulerFactoryBean.setAutoStartup(false);
+
+    if (quartzMetricsReportingJobListener != null) {
+      schedulerFactoryBean.setGlobalJobListeners(quartzMetricsReportingJobListener);
+    }
+
+    schedulerFactoryBean.afterPropertiesSet();
+    return schedulerFactoryBean;
+  }
+
+  /**
+   * Copies the default Quartz properties and overrides the instance name and the thread pool.
+   *
+   * <p>Quartz registers the data sources globally by name, so the data source is renamed for the
+   * shard to get its own connection pool, sized for the shard thread pool.
+   */
+  Properties getShardQuartzProperties(
+      String shardName, ShardConfigurationProperties shardConfigurationProperties) {
+
+    Properties properties = new Properties();
+    properties.putAll(quartzPropertiesConfig.getQuartzProperties());
+
+    properties.setProperty(
+        INSTANCE_NAME,
+        properties.getProperty(INSTANCE_NAME, DEFAULT_INSTANCE_NAME) + "-" + shardName);
+    properties.setProperty(
+        THREAD_COUNT, String.valueOf(shardConfigurationProperties.getThreadCount()));
+    properties.setProperty(
+        THREAD_PRIORITY, String.valueOf(shardConfigurationProperties.getThreadPriority()));
+
+    String dataSource = properties.getProperty(JOB_STORE_DATA_SOURCE);
+
+    if (dataSource != null) {
+      String shardDataSource = dataSource + "_" + shardName;
+      String dataSourcePrefix = DATA_SOURCE_PREFIX + dataSource + ".";
+      String shardDataSourcePrefix = DATA_SOURCE_PREFIX + shardDataSource + ".";
+
+      for (String name : properties.stringPropertyNames()) {
+        if (name.startsWith(dataSourcePrefix)) {
+          properties.setProperty(
+              shardDataSourcePrefix + name.substring(dataSourcePrefix.length()),
+              properties.getProperty(name));
+          properties.remove(name);
+        }
+      }
+
+      properties.setProperty(JOB_STORE_DATA_SOURCE, shardDataSource);
+      // Quartz recommends at least one connection per thread plus 2 for the scheduler
+      properties.setProperty(
+          shardDataSourcePrefix + "maxConnections",
+          String.valueOf(shardConfigurationProperties.getThreadCount() + 2));
+    }
+
+    return properties;
+  }
+}
@@ -0,0 +1,73 @@
+package com.box.l10n.mojito.quartz;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration of the Quartz scheduler shards, see {@link QuartzSchedulerShards}.
+ *
+ * <p>eg. to run the third party sync jobs in their own low priority thread pool:
+ *
+ * <pre>
+ * l10n.quartz.shards.sync.threadCount=2
+ * l10n.quartz.shards.sync.threadPriority=3
+ * l10n.quartz.shards.sync.jobClasses[0]=com.box.l10n.mojito.service.thirdparty.ThirdPartySyncJob
+ * </pre>
+ */
+@Component
+@ConfigurationProperties("l10n.quartz")
+public class QuartzSchedulerShardsConfigurationProperties {
+
+  /** Shards by name. Job classes that are not mapped to a shard use the default scheduler. */
+  Map<String, ShardConfigurationProperties> shards = new HashMap<>();
+
+  public Map<String, ShardConfigurationProperties> getShards() {
+    return shards;
+  }
+
+  public void setShards(Map<String, ShardConfigurationProperties> shards) {
+    this.shards = shards;
+  }
+
+  public static class ShardConfigurationProperties {
+
+    /** Number of threads to execute the jobs of the shard */
+    int threadCount = 5;
+
+    /**
+     * Priority of the threads, between {@link Thread#MIN_PRIORITY} and {@link Thread#MAX_PRIORITY}
+     */
+    int threadPriority = Thread.NORM_PRIORITY;
+
+    /** Fully qualified names of the job classes executed by the shard */
+    List<String> jobClasses = new ArrayList<>();
+
+    public int getThreadCount() {
+      return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+      this.threadCount = threadCount;
+    }
+
+    public int getThreadPriority() {
+      return threadPriority;
+    }
+
+    public void setThreadPriority(int threadPriority) {
+      this.threadPriority = threadPriority;
+    }
+
+    public List<String> getJobClasses() {
+      return jobClasses;
+    }
+
+    public void setJobClasses(List<String> jobClasses) {
+      this.jobClasses = jobClasses;
+    }
+  }
+}
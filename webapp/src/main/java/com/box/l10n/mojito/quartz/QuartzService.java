@@ -21,15 +21,22 @@ public class QuartzService {
   /** logger */
   static Logger logger = getLogger(QuartzService.class);
 
-  @Autowired Scheduler scheduler;
+  @Autowired QuartzSchedulerShards quartzSchedulerShards;
 
   public List<String> getDynamicJobs() throws SchedulerException {
-    Set<JobKey> jobKeys = scheduler.getJobKeys(GroupMatcher.jobGroupEquals(DYNAMIC_GROUP_NAME));
-    return jobKeys.stream().map(jobKey -> jobKey.getName()).collect(Collectors.toList());
+    List<String> dynamicJobs = new ArrayList<>();
+    for (Scheduler scheduler : quartzSchedulerShards.getSchedulers()) {
+      Set<JobKey> jobKeys = scheduler.getJobKeys(GroupMatcher.jobGroupEquals(DYNAMIC_GROUP_NAME));
+      dynamicJobs.addAll(
+          jobKeys.stream().map(jobKey -> jobKey.getName()).collect(Collectors.toList()));
+    }
+    return dynamicJobs;
   }
 
   public void deleteAllDynamicJobs() throws SchedulerException {
-    Set<JobKey> jobKeys = scheduler.getJobKeys(GroupMatcher.jobGroupEquals(DYNAMIC_GROUP_NAME));
-    scheduler.deleteJobs(new ArrayList<>(jobKeys));
+    for (Scheduler scheduler : quartzSchedulerShards.getSchedulers()) {
+      Set<JobKey> jobKeys = scheduler.getJobKeys(GroupMatcher.jobGroupEquals(DYNAMIC_GROUP_NAME));
+      scheduler.deleteJobs(new ArrayList<>(jobKeys));
+    }
   }
 }
@@ -7,14 +7,20 @@ import com.box.l10n.mojito.entity.PushRun;
 import com.box.l10n.mojito.entity.Repository;
 import com.box.l10n.mojito.entity.RepositoryLocale;
 import com.box.l10n.mojito.entity.TMXliff;
+import com.box.l10n.mojito.okapi.FilterConfigIdOverride;
+import com.box.l10n.mojito.okapi.InheritanceMode;
+import com.box.l10n.mojito.okapi.Status;
 import com.box.l10n.mojito.okapi.asset.UnsupportedAssetFilterTypeException;
 import com.box.l10n.mojito.quartz.QuartzJobInfo;
 import com.box.l10n.mojito.quartz.QuartzPollableTaskScheduler;
+import com.box.l10n.mojito.rest.EntityWithIdNotFoundException;
 import com.box.l10n.mojito.rest.View;
 import com.box.l10n.mojito.rest.repository.RepositoryWithIdNotFoundException;
 import com.box.l10n.mojito.service.NormalizationUtils;
+import com.box.l10n.mojito.service.NormalizingInputStream;
 import com.box.l10n.mojito.service.asset.AssetRepository;
 import com.box.l10n.mojito.service.asset.AssetService;
+import com.box.l10n.mojito.service.assetExtraction.AssetExtractionMd5DTO;
 import com.box.l10n.mojito.service.locale.LocaleService;
 import com.box.l10n.mojito.service.pollableTask.PollableFuture;
 import com.box.l10n.mojito.service.pushrun.PushRunRepository;
@@ -26,16 +32,24 @@ import com.box.l10n.mojito.service.tm.TMXliffRepository;
 import com.fasterxml.jackson.annotation.JsonView;
 import com.github.pnowy.nc.utils.Strings;
 import com.google.common.base.MoreObjects;
+import com.google.common.io.ByteStreams;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -92,6 +106,21 @@ public class AssetWS {
     return assetService.findAll(repositoryId, path, deleted, virtual, branchId);
   }
 
+  /**
+   * Gets the md5s of the content and filter options of the assets of a branch, so that a client can
+   * skip sending the assets that didn't change.
+   *
+   * @param repositoryId {@link Repository#id}
+   * @param branchName the branch name, not provided for the default branch
+   * @return the md5s of the assets of the branch
+   */
+  @RequestMapping(value = "/api/assets/extractionMd5s", method = RequestMethod.GET)
+  public List<AssetExtractionMd5DTO> getAssetExtractionMd5s(
+      @RequestParam(value = "repositoryId") Long repositoryId,
+      @RequestParam(value = "branchName", required = false) String branchName) {
+    return assetService.findAssetExtractionMd5s(repositoryId, branchName);
+  }
+
   /**
    * Creates the source asset and kicks off extraction process
    *
@@ -210,6 +239,147 @@ public class AssetWS {
     return localizedAssetBody;
   }
 
+  /**
+   * Same as {@link #getLocalizedAssetForContent(long, long, LocalizedAssetBody)} but the content is
+   * sent as the raw request body (UTF-8) and the localized asset is streamed in the response body
+   * (UTF-8), so that large assets are not held in memory.
+   *
+   * <p>Optional parameters of {@link LocalizedAssetBody} are passed as request parameters. Since
+   * the response is streamed, an error that happens while generating the file may result in a
+   * truncated response.
+   *
+   * @param assetId {@link Asset#id}
+   * @param localeId {@link Locale#id}
+   */
+  @RequestMapping(
+      value = "/api/assets/{assetId}/localized/{localeId}/stream",
+      method = RequestMethod.POST)
+  public void getLocalizedAssetForContentStream(
+      @PathVariable("assetId") long assetId,
+      @PathVariable("localeId") long localeId,
+      @RequestParam(value = "outputBcp47tag", required = false) String outputBcp47tag,
+      @RequestParam(value = "filterConfigIdOverride", required = false)
+          FilterConfigIdOverride filterConfigIdOverride,
+      @RequestParam(value = "filterOptions", required = false) List<String> filterOptions,
+      @RequestParam(value = "status", defaultValue = "ALL") Status status,
+      @RequestParam(value = "inheritanceMode", defaultValue = "USE_PARENT")
+          InheritanceMode inheritanceMode,
+      @RequestParam(value = "pullRunName", required = false) String pullRunName,
+      HttpServletRequest httpServletRequest,
+      HttpServletResponse httpServletResponse)
+      throws UnsupportedAssetFilterTypeException, IOException, EntityWithIdNotFoundException {
+
+    logger.debug(
+        "Localizing streamed content with asset id = {}, and locale id = {}", assetId, localeId);
+
+    Asset asset = assetRepository.getOne(assetId);
+
+    RepositoryLocale repositoryLocale =
+        repositoryLocaleRepository.findByRepositoryIdAndLocaleId(
+            asset.getRepository().getId(), localeId);
+
+    if (repositoryLocale == null) {
+      throw new EntityWithIdNotFoundException("RepositoryLocale for locale", localeId);
+    }
+
+    meterRegistry
+        .counter(
+            "assetWS.getLocalizedAssetForContentStream",
+            Tags.of("repositoryId", asset.getRepository().getId().toString()))
+        .increment();
+
+    httpServletResponse.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    httpServletResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+    try (InputStream normalizedContent =
+        new NormalizingInputStream(httpServletRequest.getInputStream())) {
+      tmService.generateLocalized(
+          asset,
+          normalizedContent,
+          httpServletResponse.getOutputStream(),
+          repositoryLocale,
+          outputBcp47tag,
+          filterConfigIdOverride,
+          filterOptions,
+          status,
+          inheritanceMode,
+          pullRunName);
+    }
+
+    httpServletResponse.flushBuffer();
+  }
+
+  /**
+   * Localizes the content for multiple locales in one request. The content is sent as the raw
+   * request body (UTF-8) and the response is a zip with one entry per locale, named with the bcp47
+   * tag of the locale, in the order of the locale ids.
+   *
+   * <p>The content is uploaded and normalized once instead of once per locale and the locales are
+   * generated in parallel, see {@link TMService#generateLocalizedZip}. Optional parameters of
+   * {@link LocalizedAssetBody} are passed as request parameters (except the output bcp47 tag).
+   *
+   * @param assetId {@link Asset#id}
+   * @param localeIds {@link Locale#id}s
+   */
+  @RequestMapping(value = "/api/assets/{assetId}/localized/zip", method = RequestMethod.POST)
+  public void getLocalizedAssetsForContentZip(
+      @PathVariable("assetId") long assetId,
+      @RequestParam(value = "localeIds") List<Long> localeIds,
+      @RequestParam(value = "filterConfigIdOverride", required = false)
+          FilterConfigIdOverride filterConfigIdOverride,
+      @RequestParam(value = "filterOptions", required = false) List<String> filterOptions,
+      @RequestParam(value = "status", defaultValue = "ALL") Status status,
+      @RequestParam(value = "inheritanceMode", defaultValue = "USE_PARENT")
+          InheritanceMode inheritanceMode,
+      @RequestParam(value = "pullRunName", required = false) String pullRunName,
+      HttpServletRequest httpServletRequest,
+      HttpServletResponse httpServletResponse)
+      throws UnsupportedAssetFilterTypeException, IOException, EntityWithIdNotFoundException {
+
+    logger.debug(
+        "Localizing content in a zip with asset id = {}, and locale ids = {}", assetId, localeIds);
+
+    Asset asset = assetRepository.getOne(assetId);
+
+    List<RepositoryLocale> repositoryLocales = new ArrayList<>();
+    for (Long localeId : localeIds) {
+      RepositoryLocale repositoryLocale =
+          repositoryLocaleRepository.findByRepositoryIdAndLocaleId(
+              asset.getRepository().getId(), localeId);
+      if (repositoryLocale == null) {
+        throw new EntityWithIdNotFoundException("RepositoryLocale for locale", localeId);
+      }
+      repositoryLocales.add(repositoryLocale);
+    }
+
+    meterRegistry
+        .counter(
+            "assetWS.getLocalizedAssetsForContentZip",
+            Tags.of("repositoryId", asset.getRepository().getId().toString()))
+        .increment(localeIds.size());
+
+    String normalizedContent;
+    try (InputStream inputStream =
+        new NormalizingInputStream(httpServletRequest.getInputStream())) {
+      normalizedContent = new String(ByteStreams.toByteArray(inputStream), StandardCharsets.UTF_8);
+    }
+
+    httpServletResponse.setContentType("application/zip");
+
+    tmService.generateLocalizedZip(
+        asset,
+        normalizedContent,
+        httpServletResponse.getOutputStream(),
+        repositoryLocales,
+        filterConfigIdOverride,
+        filterOptions,
+        status,
+        inheritanceMode,
+        pullRunName);
+
+    httpServletResponse.flushBuffer();
+  }
+
   @RequestMapping(value = "/api/assets/{assetId}/localized", method = RequestMethod.POST)
   public PollableTask getLocalizedAssetForContentAsync(
       @PathVariable("assetId") long assetId, @RequestBody LocalizedAssetBody localizedAssetBody)
@@ -4,11 +4,16 @@ import com.box.l10n.mojito.entity.PollableTask;
 import com.box.l10n.mojito.service.pollableTask.PollableTaskBlobStorage;
 import com.box.l10n.mojito.service.pollableTask.PollableTaskService;
 import com.box.l10n.mojito.service.tm.TMXliffRepository;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 /**
  * WS to get access to {@link PollableTask}s
@@ -18,6 +23,9 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class PollableTaskWS {
 
+  /** Max time a request waits for a task, to not hold a request thread too long */
+  static final long MAX_WAIT_TIMEOUT = 30000;
+
   @Autowired PollableTaskService pollableTaskService;
 
   @Autowired TMXliffRepository tmXliffRepository;
@@ -35,6 +43,76 @@ public class PollableTaskWS {
     return pollableTaskService.getPollableTask(pollableTaskId);
   }
 
+  /**
+   * Gets {@link PollableTask}s by ids, to check the status of multiple tasks with a single request.
+   *
+   * @param ids the {@link PollableTask#id}s
+   * @return the tasks that exist, in the order of the ids
+   */
+  @RequestMapping(method = RequestMethod.GET, value = "/api/pollableTasks")
+  public List<PollableTask> getPollableTasks(@RequestParam(value = "ids") List<Long> ids) {
+    return pollableTaskService.getPollableTasks(ids);
+  }
+
+  /**
+   * Long polling to wait for a {@link PollableTask}: returns when the task or one of its sub tasks
+   * finishes, or after the timeout (capped to {@link #MAX_WAIT_TIMEOUT}).
+   *
+   * <p>The request thread is released while waiting, see {@link
+   * PollableTaskService#waitForPollableTaskUpdateAsync(Long, long)}.
+   *
+   * @param pollableTaskId
+   * @param timeout max time to wait in milliseconds
+   * @return the current state of the task
+   */
+  @RequestMapping(method = RequestMethod.GET, value = "/api/pollableTasks/{pollableTaskId}/wait")
+  public DeferredResult<PollableTask> waitForPollableTaskUpdate(
+      @PathVariable Long pollableTaskId,
+      @RequestParam(value = "timeout", defaultValue = "10000") long timeout) {
+    return toDeferredResult(
+        pollableTaskService.waitForPollableTaskUpdateAsync(pollableTaskId, capTimeout(timeout)));
+  }
+
+  /**
+   * Long polling to wait for multiple {@link PollableTask}s: returns when one of the tasks or of
+   * their sub tasks finishes, or after the timeout (capped to {@link #MAX_WAIT_TIMEOUT}).
+   *
+   * <p>The request thread is released while waiting, see {@link
+   * PollableTaskService#waitForPollableTasksUpdateAsync(List, long)}.
+   *
+   * @param ids the {@link PollableTask#id}s, usually the ones that are not finished yet
+   * @param timeout max time to wait in milliseconds
+   * @return the current state of the tasks that exist, in the order of the ids
+   */
+  @RequestMapping(method = RequestMethod.GET, value = "/api/pollableTasks/wait")
+  public DeferredResult<List<PollableTask>> waitForPollableTasksUpdate(
+      @RequestParam(value = "ids") List<Long> ids,
+      @RequestParam(value = "timeout", defaultValue = "10000") long timeout) {
+    return toDeferredResult(
+        pollableTaskService.waitForPollableTasksUpdateAsync(ids, capTimeout(timeout)));
+  }
+
+  long capTimeout(long timeout) {
+    return Math.min(Math.max(timeout, 0), MAX_WAIT_TIMEOUT);
+  }
+
+  /**
+   * The service completes the wait before {@link #MAX_WAIT_TIMEOUT}, the timeout of the deferred
+   * result only overrides the default async timeout of the container that may be shorter.
+   */
+  <T> DeferredResult<T> toDeferredResult(CompletableFuture<T> waited) {
+    DeferredResult<T> deferredResult = new DeferredResult<>(MAX_WAIT_TIMEOUT * 2);
+    waited.whenComplete(
+        (result, t) -> {
+          if (t != null) {
+            deferredResult.setErrorResult(t instanceof CompletionException ? t.getCause() : t);
+          } else {
+            deferredResult.setResult(result);
+          }
+        });
+    return deferredResult;
+  }
+
   @RequestMapping(method = RequestMethod.GET, value = "/api/pollableTasks/{pollableTaskId}/output")
   public String getPollableTaskOutput(@PathVariable Long pollableTaskId) {
     String outputJson = pollableTaskBlobStorage.getOutputJson(pollableTaskId);
@@ -0,0 +1,150 @@
+package com.box.l10n.mojito.service;
+
+import com.ibm.icu.text.Normalizer2;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link InputStream} that NFC normalizes UTF-8 content (see {@link NormalizationUtils}) without
+ * reading the whole content in memory.
+ *
+ * <p>The content is normalized line by line. A line feed never combines with the characters around
+ * it so the result is the same as normalizing the whole content at once.
+ *
+ * <p>Lines longer than {@link #MAX_PENDING_CHARS} are split before a character that has a
+ * normalization boundary before it (see {@link Normalizer2#hasBoundaryBefore(int)}), which also
+ * gives the same result as normalizing the whole content at once.
+ */
+public class NormalizingInputStream extends InputStream {
+
+  static final int CHAR_BUFFER_SIZE = 8192;
+
+  static final int MAX_PENDING_CHARS = CHAR_BUFFER_SIZE * 8;
+
+  static final Normalizer2 NFC = Normalizer2.getNFCInstance();
+
+  final Reader reader;
+
+  final char[] chars = new char[CHAR_BUFFER_SIZE];
+
+  final StringBuilder pending = new StringBuilder();
+
+  byte[] buffer = new byte[0];
+
+  int position = 0;
+
+  boolean endOfInput = false;
+
+  public NormalizingInputStream(InputStream inputStream) {
+    this.reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public int read() throws IOException {
+    int read = -1;
+
+    if (fillBuffer()) {
+      read = buffer[position++] & 0xff;
+    }
+
+    return read;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int read;
+
+    if (len == 0) {
+      read = 0;
+    } else if (!fillBuffer()) {
+      read = -1;
+    } else {
+      read = Math.min(len, buffer.length - position);
+      System.arraycopy(buffer, position, b, off, read);
+      position += read;
+    }
+
+    return read;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  /**
+   * Makes sure there are bytes to be read in the buffer, reading and normalizing the next complete
+   * lines of the input if needed.
+   *
+   * <p>Only the chunk that was just read is searched for a line feed, the pending characters before
+   * it are known not to contain any.
+   *
+   * @return {@code true} if there are bytes to be read, {@code false} at the end of the input
+   * @throws IOException
+   */
+  boolean fillBuffer() throws IOException {
+    while (position == buffer.length && !endOfInput) {
+      int read = reader.read(chars);
+
+      if (read == -1) {
+        endOfInput = true;
+        setBuffer(pending.toString());
+        pending.setLength(0);
+      } else {
+        int lastLineFeed = getLastLineFeed(read);
+
+        if (lastLineFeed != -1) {
+          lastLineFeed += pending.length();
+        }
+
+        pending.append(chars, 0, read);
+
+        if (lastLineFeed != -1) {
+          flushPending(lastLineFeed + 1);
+        } else if (pending.length() > MAX_PENDING_CHARS) {
+          int boundary = getLastNormalizationBoundary();
+          if (boundary > 0) {
+            flushPending(boundary);
+          }
+        }
+      }
+    }
+
+    return position < buffer.length;
+  }
+
+  int getLastLineFeed(int read) {
+    int lastLineFeed = read - 1;
+    while (lastLineFeed >= 0 && chars[lastLineFeed] != '\n') {
+      lastLineFeed--;
+    }
+    return lastLineFeed;
+  }
+
+  /**
+   * @return the index of the last character of the pending characters that has a normalization
+   *     boundary before it, 0 if none
+   */
+  int getLastNormalizationBoundary() {
+    int boundary = pending.length() - 1;
+    while (boundary > 0
+        && (Character.isLowSurrogate(pending.charAt(boundary))
+            || !NFC.hasBoundaryBefore(pending.codePointAt(boundary)))) {
+      boundary--;
+    }
+    return boundary;
+  }
+
+  void flushPending(int end) {
+    setBuffer(pending.substring(0, end));
+    pending.delete(0, end);
+  }
+
+  void setBuffer(String lines) {
+    buffer = NormalizationUtils.normalize(lines).getBytes(StandardCharsets.UTF_8);
+    position = 0;
+  }
+}
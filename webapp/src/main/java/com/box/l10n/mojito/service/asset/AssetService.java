@@ -24,6 +24,7 @@ import com.box.l10n.mojito.quartz.QuartzJobInfo;
 import com.box.l10n.mojito.quartz.QuartzPollableTaskScheduler;
 import com.box.l10n.mojito.security.AuditorAwareImpl;
 import com.box.l10n.mojito.service.assetExtraction.AssetExtractionByBranchRepository;
+import com.box.l10n.mojito.service.assetExtraction.AssetExtractionMd5DTO;
 import com.box.l10n.mojito.service.assetExtraction.AssetExtractionRepository;
 import com.box.l10n.mojito.service.assetExtraction.AssetExtractionService;
 import com.box.l10n.mojito.service.assetcontent.AssetContentService;
@@ -40,6 +41,7 @@ import com.box.l10n.mojito.service.repository.RepositoryRepository;
 import com.box.l10n.mojito.service.security.user.UserService;
 import com.google.common.base.Joiner;
 import java.text.MessageFormat;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
@@ -464,6 +466,26 @@ public class AssetService {
     return all;
   }
 
+  /**
+   * Gets the md5s of the content and filter options of the assets of a branch. They are the md5s
+   * compared to check if an asset needs to be processed, so a client can use them to not send the
+   * assets that didn't change.
+   *
+   * @param repositoryId {@link Repository#id}
+   * @param branchName the branch name, {@code null} for the default branch
+   * @return the md5s, empty if the branch doesn't exist or is deleted
+   */
+  public List<AssetExtractionMd5DTO> findAssetExtractionMd5s(Long repositoryId, String branchName) {
+    Repository repository = repositoryRepository.findById(repositoryId).orElse(null);
+    Branch branch = branchRepository.findByNameAndRepository(branchName, repository);
+
+    if (branch == null || branch.getDeleted()) {
+      return Collections.emptyList();
+    }
+
+    return assetExtractionByBranchRepository.findMd5sByBranch(branch);
+  }
+
   public Set<Long> findAllAssetIds(
       Long repositoryId, String path, Boolean deleted, Boolean virtual, Long branchId) {
     return findAll(repositoryId, path, deleted, virtual, branchId).stream()
@@ -25,7 +25,8 @@ public class ImportTextUnitJob extends QuartzPollableJob<ImportTextUnitJobInput,
     textUnitBatchImporterService.importTextUnits(
         input.getTextUnitDTOs(),
         input.isIntegrityCheckSkipped(),
-        input.isIntegrityCheckKeepStatusIfFailedAndSameTarget());
+        input.isIntegrityCheckKeepStatusIfFailedAndSameTarget(),
+        getCurrentPollableTask());
     return null;
   }
 }
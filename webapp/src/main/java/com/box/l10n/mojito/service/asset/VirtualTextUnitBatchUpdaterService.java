@@ -26,6 +26,7 @@ import com.box.l10n.mojito.service.tm.textunitdtocache.UpdateType;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.Iterables;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -173,7 +174,8 @@ public class VirtualTextUnitBatchUpdaterService {
             assetTextUnit.setDoNotTranslate(doNotTranslate);
             assetTextUnitRepository.save(assetTextUnit);
 
-            repositoryStatisticsJobScheduler.schedule(asset.getRepository().getId());
+            repositoryStatisticsJobScheduler.schedule(
+                asset.getRepository().getId(), Collections.singleton(asset.getId()));
           }
         } else {
           logger.debug(
@@ -21,6 +21,13 @@ public interface AssetExtractionByBranchRepository
 
   Optional<AssetExtractionByBranch> findByAssetAndBranch(Asset asset, Branch branch);
 
+  @Query(
+      "select new com.box.l10n.mojito.service.assetExtraction.AssetExtractionMd5DTO(a.id, a.path, ae.contentMd5, ae.filterOptionsMd5) "
+          + "from #{#entityName} aebb join aebb.asset a join aebb.assetExtraction ae "
+          + "where aebb.branch = ?1 and aebb.deleted = false "
+          + "and a.deleted = false and a.virtual = false")
+  List<AssetExtractionMd5DTO> findMd5sByBranch(Branch branch);
+
   @Modifying
   @Query("update AssetExtractionByBranch aea set aea.deleted = true where aea.asset= ?1")
   int setDeletedTrue(Asset asset);
@@ -0,0 +1,54 @@
+package com.box.l10n.mojito.service.assetExtraction;
+
+import com.box.l10n.mojito.entity.AssetExtraction;
+
+/**
+ * The md5s of the content and the filter options of the {@link AssetExtraction} of an asset in a
+ * branch, used to check if an asset has changed without sending its content.
+ */
+public class AssetExtractionMd5DTO {
+  private Long assetId;
+  private String path;
+  private String contentMd5;
+  private String filterOptionsMd5;
+
+  public AssetExtractionMd5DTO(
+      Long assetId, String path, String contentMd5, String filterOptionsMd5) {
+    this.assetId = assetId;
+    this.path = path;
+    this.contentMd5 = contentMd5;
+    this.filterOptionsMd5 = filterOptionsMd5;
+  }
+
+  public Long getAssetId() {
+    return assetId;
+  }
+
+  public void setAssetId(Long assetId) {
+    this.assetId = assetId;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public void setPath(String path) {
+    this.path = path;
+  }
+
+  public String getContentMd5() {
+    return contentMd5;
+  }
+
+  public void setContentMd5(String contentMd5) {
+    this.contentMd5 = contentMd5;
+  }
+
+  public String getFilterOptionsMd5() {
+    return filterOptionsMd5;
+  }
+
+  public void setFilterOptionsMd5(String filterOptionsMd5) {
+    this.filterOptionsMd5 = filterOptionsMd5;
+  }
+}
@@ -50,6 +50,7 @@ import com.box.l10n.mojito.service.tm.search.StatusFilter;
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import com.box.l10n.mojito.service.tm.textunitdtocache.TextUnitDTOsCacheService;
 import com.box.l10n.mojito.service.tm.textunitdtocache.UpdateType;
+import com.box.l10n.mojito.utils.KeyedBatchExecutor;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicates;
@@ -162,6 +163,10 @@ public class AssetExtractionService {
 
   @Autowired LocalBranchToEntityBranchConverter localBranchToEntityBranchConverter;
 
+  /** Serializes and batches the state updates by asset extraction id */
+  final KeyedBatchExecutor<Long, StateUpdate, MultiBranchState> stateUpdateExecutor =
+      new KeyedBatchExecutor<>(1024);
+
   /**
    * If the asset type is supported, starts the text units extraction for the given asset.
    *
@@ -252,8 +257,62 @@ public class AssetExtractionService {
     pushRunService.associatePushRunToTextUnitIds(pushRun, asset, textUnitIds);
   }
 
+  /**
+   * Updates the asset extraction with the new state.
+   *
+   * <p>Updates of a same asset extraction are serialized within the JVM: concurrent pushes of the
+   * same asset (all the branches update the last successful asset extraction) would otherwise
+   * conflict on the asset extraction version and retry, re-fetching and re-merging the full state
+   * each time. The states submitted while an update is in progress are merged together and saved
+   * with a single update: they are merged one after the other into the base state, as if they had
+   * been saved one by one. The optimistic locking retry is kept for concurrent updates from other
+   * instances.
+   */
   MultiBranchState updateAssetExtractionWithState(
       Long assetExtractionId, MultiBranchState currentState, AssetContentMd5s assetContentMd5s) {
+    return stateUpdateExecutor.submit(
+        assetExtractionId,
+        new StateUpdate(currentState, assetContentMd5s),
+        stateUpdates -> {
+          logger.debug(
+              "Update asset extraction id: {} with {} state(s)",
+              assetExtractionId,
+              stateUpdates.size());
+          List<MultiBranchState> states =
+              stateUpdates.stream()
+                  .map(stateUpdate -> stateUpdate.state)
+                  .collect(Collectors.toList());
+          // same as applying the updates one after the other: the last md5s are kept
+          AssetContentMd5s lastAssetContentMd5s =
+              stateUpdates.get(stateUpdates.size() - 1).assetContentMd5s;
+          return updateAssetExtractionWithStateWithRetry(
+              assetExtractionId, states, lastAssetContentMd5s);
+        });
+  }
+
+  /**
+   * Merges the states into the base state in order, the same way as saving each state with its own
+   * update.
+   *
+   * <p>The states must not be combined together before being merged into the base state: a state
+   * without a text unit removes it from the branches of that state only, which can't be expressed
+   * by a combined state (eg. a push that drops a text unit followed by a push that keeps it on
+   * another branch).
+   */
+  MultiBranchState mergeStatesInOrder(List<MultiBranchState> states, MultiBranchState baseState) {
+    MultiBranchState newState = baseState;
+    for (MultiBranchState state : states) {
+      newState =
+          multiBranchStateMerger.merge(
+              state, newState, ImmutableSet.of(PRIMARY_BRANCH, NULL_BRANCH_TEXT_PLACEHOLDER));
+    }
+    return newState;
+  }
+
+  MultiBranchState updateAssetExtractionWithStateWithRetry(
+      Long assetExtractionId,
+      List<MultiBranchState> currentStates,
+      AssetContentMd5s assetContentMd5s) {
     return retryTemplate.execute(
         context -> {
           if (context.getRetryCount() > 0) {
@@ -297,11 +356,7 @@ public class AssetExtractionService {
           MultiBranchState baseState =
               multiBranchStateService.getMultiBranchStateForAssetExtractionId(
                   assetExtraction.getId(), assetExtraction.getVersion());
-          MultiBranchState newState =
-              multiBranchStateMerger.merge(
-                  currentState,
-                  baseState,
-                  ImmutableSet.of(PRIMARY_BRANCH, NULL_BRANCH_TEXT_PLACEHOLDER));
+          MultiBranchState newState = mergeStatesInOrder(currentStates, baseState);
 
           Modifications modifications = getModifications(baseState, newState);
           MultiBranchState updatedMergedState =
@@ -1265,4 +1320,14 @@ public class AssetExtractionService {
 
     return assetTextUnit;
   }
+
+  static class StateUpdate {
+    final MultiBranchState state;
+    final AssetContentMd5s assetContentMd5s;
+
+    StateUpdate(MultiBranchState state, AssetContentMd5s assetContentMd5s) {
+      this.state = state;
+      this.assetContentMd5s = assetContentMd5s;
+    }
+  }
 }
@@ -4,10 +4,13 @@ import static com.box.l10n.mojito.service.blobstorage.StructuredBlobStorage.Pref
 
 import com.box.l10n.mojito.json.ObjectMapper;
 import com.box.l10n.mojito.localtm.merger.MultiBranchState;
+import com.box.l10n.mojito.localtm.merger.MultiBranchStateBinary;
 import com.box.l10n.mojito.service.blobstorage.Retention;
 import com.box.l10n.mojito.service.blobstorage.StructuredBlobStorage;
 import com.google.common.base.Preconditions;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -17,6 +20,13 @@ public class MultiBranchStateBlobStorage {
 
   ObjectMapper objectMapper;
 
+  /**
+   * Format used when writing. Blobs are read in either format so this can be changed without
+   * invalidating existing entries.
+   */
+  @Value("${l10n.multiBranchState.blobStorage.format:JSON}")
+  MultiBranchStateBlobStorageFormat format = MultiBranchStateBlobStorageFormat.JSON;
+
   public MultiBranchStateBlobStorage(
       StructuredBlobStorage structuredBlobStorage, ObjectMapper objectMapper) {
     this.structuredBlobStorage = Preconditions.checkNotNull(structuredBlobStorage);
@@ -25,9 +35,9 @@ public class MultiBranchStateBlobStorage {
 
   public Optional<MultiBranchState> getMultiBranchStateForAssetExtractionId(
       long assetExtractionId, long version) {
-    Optional<String> string =
-        structuredBlobStorage.getString(MULTI_BRANCH_STATE, getName(assetExtractionId, version));
-    return string.map(s -> objectMapper.readValueUnchecked(s, MultiBranchState.class));
+    Optional<byte[]> bytes =
+        structuredBlobStorage.getBytes(MULTI_BRANCH_STATE, getName(assetExtractionId, version));
+    return bytes.map(this::convertToMultiBranchState);
   }
 
   public void putMultiBranchStateForAssetExtractionId(
@@ -35,7 +45,7 @@ public class MultiBranchStateBlobStorage {
     structuredBlobStorage.put(
         MULTI_BRANCH_STATE,
         getName(assetExtractionId, version),
-        objectMapper.writeValueAsStringUnchecked(multiBranchState),
+        convertToBytes(multiBranchState),
         Retention.PERMANENT);
   }
 
@@ -43,6 +53,32 @@ public class MultiBranchStateBlobStorage {
     structuredBlobStorage.delete(MULTI_BRANCH_STATE, getName(assetExtractionId, version));
   }
 
+  byte[] convertToBytes(MultiBranchState multiBranchState) {
+    byte[] bytes;
+    if (MultiBranchStateBlobStorageFormat.BINARY.equals(format)) {
+      bytes = MultiBranchStateBinary.write(multiBranchState);
+    } else {
+      bytes =
+          objectMapper
+              .writeValueAsStringUnchecked(multiBranchState)
+              .getBytes(StandardCharsets.UTF_8);
+    }
+    return bytes;
+  }
+
+  /** The content can either be in the binary format ({@link MultiBranchStateBinary}) or JSON. */
+  MultiBranchState convertToMultiBranchState(byte[] bytes) {
+    MultiBranchState multiBranchState;
+    if (MultiBranchStateBinary.isBinary(bytes)) {
+      multiBranchState = MultiBranchStateBinary.read(bytes);
+    } else {
+      multiBranchState =
+          objectMapper.readValueUnchecked(
+              new String(bytes, StandardCharsets.UTF_8), MultiBranchState.class);
+    }
+    return multiBranchState;
+  }
+
   String getName(long assetExtractionId, long version) {
     return "assetExtraction/" + assetExtractionId + "/version/" + version;
   }
@@ -0,0 +1,12 @@
+package com.box.l10n.mojito.service.assetExtraction;
+
+/**
+ * Format used to write the MultiBranchStates in the blob storage. Reading supports both formats
+ * regardless of this setting.
+ */
+public enum MultiBranchStateBlobStorageFormat {
+  /** JSON serialization of the MultiBranchState */
+  JSON,
+  /** See {@link com.box.l10n.mojito.localtm.merger.MultiBranchStateBinary} */
+  BINARY
+}
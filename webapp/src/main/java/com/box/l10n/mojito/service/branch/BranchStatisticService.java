@@ -129,21 +129,23 @@ public class BranchStatisticService {
                                 lastSuccessfulAssetExtraction.getId(),
                                 lastSuccessfulAssetExtraction.getVersion());
 
-                        return lastSuccessfulAssetExtraction.getAsset().getRepository()
-                            .getRepositoryLocales().stream()
-                            .filter(
-                                rl -> rl.getParentLocale() != null && rl.isToBeFullyTranslated())
+                        ImmutableSet<Long> localeIds =
+                            lastSuccessfulAssetExtraction.getAsset().getRepository()
+                                .getRepositoryLocales().stream()
+                                .filter(
+                                    rl ->
+                                        rl.getParentLocale() != null && rl.isToBeFullyTranslated())
+                                .map(rl -> rl.getLocale().getId())
+                                .collect(ImmutableSet.toImmutableSet());
+
+                        return textUnitDTOsCacheService
+                            .getTextUnitDTOsForAssetAndLocales(assetId, localeIds, null, updateType)
+                            .values().stream()
                             .flatMap(
-                                rl -> {
+                                textUnitDTOsForLocale -> {
                                   ImmutableMap<Long, TextUnitDTO>
                                       textUnitDTOsForLocaleByTmTextUnitIds =
-                                          textUnitDTOsCacheService
-                                              .getTextUnitDTOsForAssetAndLocale(
-                                                  assetId,
-                                                  rl.getLocale().getId(),
-                                                  false,
-                                                  updateType)
-                                              .stream()
+                                          textUnitDTOsForLocale.stream()
                                               .collect(
                                                   ImmutableMap.toImmutableMap(
                                                       TextUnitDTO::getTmTextUnitId,
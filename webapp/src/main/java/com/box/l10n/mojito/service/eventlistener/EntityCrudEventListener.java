@@ -52,6 +52,7 @@ public class EntityCrudEventListener
   @Override
   public void onPostInsert(PostInsertEvent event) {
     Repository repository = null;
+    Asset asset = null;
     Object entity = event.getEntity();
 
     if (entity instanceof RepositoryLocale) {
@@ -61,16 +62,18 @@ public class EntityCrudEventListener
     } else if (entity instanceof TMTextUnitVariant) {
       TMTextUnitVariant tmTextUnitVariant = (TMTextUnitVariant) entity;
       TMTextUnit tmTextUnit = tmTextUnitVariant.getTmTextUnit();
-      repository = tmTextUnit.getAsset().getRepository();
+      asset = tmTextUnit.getAsset();
+      repository = asset.getRepository();
       logger.debug("Repository statistics is outdated because string/translation is added");
     }
 
-    setRepositoryStatistisOutOfDate(repository);
+    setRepositoryStatistisOutOfDate(repository, asset);
   }
 
   @Override
   public void onPostUpdate(PostUpdateEvent event) {
     Repository repository = null;
+    Asset asset = null;
     Object entity = event.getEntity();
 
     if (entity instanceof RepositoryLocale) {
@@ -78,20 +81,22 @@ public class EntityCrudEventListener
       repository = repositoryLocale.getRepository();
       logger.debug("Repository statistics is outdated because locale is updated");
     } else if (entity instanceof Asset) {
-      Asset asset = (Asset) entity;
+      asset = (Asset) entity;
       repository = asset.getRepository();
       logger.debug("Repository statistics is outdated because asset is updated");
     } else if (entity instanceof TMTextUnitCurrentVariant) {
       TMTextUnitCurrentVariant tmTextUnitCurrentVariant = (TMTextUnitCurrentVariant) entity;
-      repository = tmTextUnitCurrentVariant.getTmTextUnit().getAsset().getRepository();
+      asset = tmTextUnitCurrentVariant.getTmTextUnit().getAsset();
+      repository = asset.getRepository();
       logger.debug("Repository statistics is outdated because translation is deleted");
     } else if (entity instanceof AssetExtraction) {
       AssetExtraction assetExtraction = (AssetExtraction) entity;
-      repository = assetExtraction.getAsset().getRepository();
+      asset = assetExtraction.getAsset();
+      repository = asset.getRepository();
       logger.debug("Repository statistics is outdated because asset extraction has changed");
     }
 
-    setRepositoryStatistisOutOfDate(repository);
+    setRepositoryStatistisOutOfDate(repository, asset);
   }
 
   @Override
@@ -105,12 +110,18 @@ public class EntityCrudEventListener
       logger.debug("Repository statistics is outdated because locale is deleted");
     }
 
-    setRepositoryStatistisOutOfDate(repository);
+    setRepositoryStatistisOutOfDate(repository, null);
   }
 
-  private void setRepositoryStatistisOutOfDate(Repository repository) {
+  /**
+   * @param repository the repository with outdated statistics, nothing is done if {@code null}
+   * @param asset the asset that changed, {@code null} if all the assets of the repository are
+   *     outdated (eg. locale changes)
+   */
+  private void setRepositoryStatistisOutOfDate(Repository repository, Asset asset) {
     if (repository != null) {
-      repositoryStatisticsUpdatedReactor.generateEvent(repository.getId());
+      repositoryStatisticsUpdatedReactor.generateEvent(
+          repository.getId(), asset == null ? null : asset.getId());
     }
   }
 
@@ -21,6 +21,8 @@ public class HibernateEventListenerConfig {
 
   @Autowired EntityCrudEventListener entityCrudEventListener;
 
+  @Autowired TextUnitDTOsCacheEventListener textUnitDTOsCacheEventListener;
+
   @PostConstruct
   public void registerListeners() {
     SessionFactoryImpl sessionFactory = emf.unwrap(SessionFactoryImpl.class);
@@ -36,5 +38,14 @@ public class HibernateEventListenerConfig {
     registry
         .getEventListenerGroup(EventType.POST_COMMIT_DELETE)
         .appendListener(entityCrudEventListener);
+    registry
+        .getEventListenerGroup(EventType.POST_COMMIT_INSERT)
+        .appendListener(textUnitDTOsCacheEventListener);
+    registry
+        .getEventListenerGroup(EventType.POST_COMMIT_UPDATE)
+        .appendListener(textUnitDTOsCacheEventListener);
+    registry
+        .getEventListenerGroup(EventType.POST_COMMIT_DELETE)
+        .appendListener(textUnitDTOsCacheEventListener);
   }
 }
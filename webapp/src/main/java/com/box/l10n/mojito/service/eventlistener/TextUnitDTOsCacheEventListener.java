@@ -0,0 +1,65 @@
+package com.box.l10n.mojito.service.eventlistener;
+
+import com.box.l10n.mojito.entity.TMTextUnitCurrentVariant;
+import com.box.l10n.mojito.service.tm.textunitdtocache.TextUnitDTOsCacheHotTier;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidates the {@link TextUnitDTOsCacheHotTier} entry of an asset and locale when one of its
+ * current variants changes.
+ */
+@Component
+public class TextUnitDTOsCacheEventListener
+    implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+  @Autowired TextUnitDTOsCacheHotTier textUnitDTOsCacheHotTier;
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    invalidate(event.getEntity());
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    invalidate(event.getEntity());
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    invalidate(event.getEntity());
+  }
+
+  void invalidate(Object entity) {
+    if (entity instanceof TMTextUnitCurrentVariant) {
+      TMTextUnitCurrentVariant tmTextUnitCurrentVariant = (TMTextUnitCurrentVariant) entity;
+      textUnitDTOsCacheHotTier.invalidate(
+          tmTextUnitCurrentVariant.getAsset().getId(),
+          tmTextUnitCurrentVariant.getLocale().getId());
+    }
+  }
+
+  @Override
+  public boolean requiresPostCommitHanding(EntityPersister ep) {
+    return textUnitDTOsCacheHotTier.isEnabled()
+        && TMTextUnitCurrentVariant.class.getName().equals(ep.getEntityName());
+  }
+
+  @Override
+  public void onPostInsertCommitFailed(PostInsertEvent pie) {}
+
+  @Override
+  public void onPostUpdateCommitFailed(PostUpdateEvent pue) {}
+
+  @Override
+  public void onPostDeleteCommitFailed(PostDeleteEvent pde) {}
+}
@@ -11,8 +11,22 @@ import com.box.l10n.mojito.service.tm.TMService;
 import com.box.l10n.mojito.service.tm.TMTextUnitVariantCommentService;
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import com.box.l10n.mojito.service.tm.search.TextUnitSearcher;
+import com.box.l10n.mojito.service.tm.search.TextUnitSearcherParameters;
+import com.google.common.base.CharMatcher;
+import com.google.common.collect.Lists;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,6 +50,9 @@ public abstract class AbstractLeverager {
 
   @Autowired TMTextUnitVariantCommentService tmTextUnitVariantCommentService;
 
+  /** Max number of {@link TMTextUnit}s whose candidates are fetched with a single search */
+  static final int BATCH_SIZE = 500;
+
   /**
    * Gets {@link TextUnitDTO}s that matches the {@link TMTextUnit} based on different criteria
    * defined by the implementing class.
@@ -67,6 +84,23 @@ public abstract class AbstractLeverager {
    */
   public abstract String getType();
 
+  /**
+   * Gets, with set-based searches, the leveraging candidates of a batch of {@link TMTextUnit}s.
+   *
+   * <p>This avoids running one search per text unit when most of them have no match. The default
+   * implementation returns {@code null}, in which case {@link #getLeveragingMatches(TMTextUnit,
+   * Long, Long)} is called for each text unit.
+   *
+   * @param tmTextUnits the batch of {@link TMTextUnit}s
+   * @param sourceTmId the {@link TM#id} of TM to use to look for matches into (can be null)
+   * @param sourceAssetId the {@link Asset#id} to use to look for matches into (can be null)
+   * @return the candidates or {@code null} if they can't be fetched in batch
+   */
+  protected LeveragingCandidates getLeveragingCandidates(
+      List<TMTextUnit> tmTextUnits, Long sourceTmId, Long sourceAssetId) {
+    return null;
+  }
+
   /**
    * Performs leveraging for a list of {@link TMTextUnit}s.
    *
@@ -75,6 +109,12 @@ public abstract class AbstractLeverager {
    * translations will come from a unique {@link TMTextUnit}s and then copies them. The TMTextUnits
    * for which translations were added are removed from the list to prevent further processing.
    *
+   * <p>Candidates are fetched per batch of {@link TMTextUnit}s (see {@link
+   * #getLeveragingCandidates(List, Long, Long)}) but text units are still processed in order. A
+   * text unit that received translations can become a match for the next text units, so if a
+   * previous text unit of the batch with the same key was leveraged, the matches are searched
+   * individually as they would have been without batching.
+   *
    * @param tmTextUnits mutable list of {@link TMTextUnit}s that needs to be processed. {@link
    *     TMTextUnit}s for which leveraged translations were found are removed from the list to
    *     prevent further processing.
@@ -85,39 +125,104 @@ public abstract class AbstractLeverager {
 
     logger.debug("Perform leveraging: {}", getType());
 
-    for (Iterator<TMTextUnit> tmTextUnitsIterator = tmTextUnits.iterator();
-        tmTextUnitsIterator.hasNext(); ) {
+    Set<TMTextUnit> leveragedTmTextUnits = Collections.newSetFromMap(new IdentityHashMap<>());
 
-      TMTextUnit tmTextUnit = tmTextUnitsIterator.next();
+    for (List<TMTextUnit> batch : Lists.partition(new ArrayList<>(tmTextUnits), BATCH_SIZE)) {
 
-      logger.debug(
-          "Get list of TextUnitDTOs (contains translations to be copied) for name: {}",
-          tmTextUnit.getName());
-      List<TextUnitDTO> textUnitDTOsForLeveraging =
-          getLeveragingMatches(tmTextUnit, sourceTmId, assetId);
+      LeveragingCandidates leveragingCandidates =
+          getLeveragingCandidates(batch, sourceTmId, assetId);
+      Set<Object> leveragedKeys = new HashSet<>();
 
-      if (!textUnitDTOsForLeveraging.isEmpty()) {
+      for (TMTextUnit tmTextUnit : batch) {
 
         logger.debug(
-            "Match found for this TMTextUnit with name: {}, remove from the list of TMTextUnit that needs leveraging",
+            "Get list of TextUnitDTOs (contains translations to be copied) for name: {}",
             tmTextUnit.getName());
-        tmTextUnitsIterator.remove();
 
-        logger.debug("Filters the translations and check for uniqueness of the matches");
-        int textUnitDTOsForLeveragingSize = textUnitDTOsForLeveraging.size();
-        filterTextUnitDTOWithSameTMTextUnitId(textUnitDTOsForLeveraging);
-        boolean uniqueTMTextUnitMatched =
-            textUnitDTOsForLeveragingSize == textUnitDTOsForLeveraging.size();
+        Object key = null;
+        List<TextUnitDTO> textUnitDTOsForLeveraging;
+
+        if (leveragingCandidates == null) {
+          textUnitDTOsForLeveraging = getLeveragingMatches(tmTextUnit, sourceTmId, assetId);
+        } else {
+          key = leveragingCandidates.getKey(tmTextUnit);
+          textUnitDTOsForLeveraging = leveragingCandidates.getCandidates(key);
+
+          if (leveragedKeys.contains(key)
+              || (!leveragingCandidates.isExact() && !textUnitDTOsForLeveraging.isEmpty())) {
+            logger.debug("Candidates can't be used as matches, search for: {}", tmTextUnit.getId());
+            textUnitDTOsForLeveraging = getLeveragingMatches(tmTextUnit, sourceTmId, assetId);
+          }
+        }
 
-        logger.debug("Determine if re-translation is needed for the strings that will be copied");
-        boolean translationNeeded = isTranslationNeededIfUniqueMatch() || !uniqueTMTextUnitMatched;
+        if (!textUnitDTOsForLeveraging.isEmpty()) {
 
-        addLeveragedTranslations(
-            tmTextUnit, textUnitDTOsForLeveraging, translationNeeded, uniqueTMTextUnitMatched);
-      } else {
-        logger.debug("No Match found for this TMTextUnit with name: {}", tmTextUnit.getName());
+          logger.debug(
+              "Match found for this TMTextUnit with name: {}, remove from the list of TMTextUnit that needs leveraging",
+              tmTextUnit.getName());
+          leveragedTmTextUnits.add(tmTextUnit);
+          leveragedKeys.add(key);
+
+          logger.debug("Filters the translations and check for uniqueness of the matches");
+          int textUnitDTOsForLeveragingSize = textUnitDTOsForLeveraging.size();
+          filterTextUnitDTOWithSameTMTextUnitId(textUnitDTOsForLeveraging);
+          boolean uniqueTMTextUnitMatched =
+              textUnitDTOsForLeveragingSize == textUnitDTOsForLeveraging.size();
+
+          logger.debug("Determine if re-translation is needed for the strings that will be copied");
+          boolean translationNeeded =
+              isTranslationNeededIfUniqueMatch() || !uniqueTMTextUnitMatched;
+
+          addLeveragedTranslations(
+              tmTextUnit, textUnitDTOsForLeveraging, translationNeeded, uniqueTMTextUnitMatched);
+        } else {
+          logger.debug("No Match found for this TMTextUnit with name: {}", tmTextUnit.getName());
+        }
       }
     }
+
+    tmTextUnits.removeIf(leveragedTmTextUnits::contains);
+  }
+
+  /**
+   * Runs one search per asset of the {@link TMTextUnit}s, for leveragers that look for matches in
+   * the asset of each text unit.
+   *
+   * @param tmTextUnits the {@link TMTextUnit}s
+   * @param textUnitSearcherParametersFunction creates the search parameters for an asset id and the
+   *     text units of that asset
+   * @return the results of all the searches
+   */
+  protected List<TextUnitDTO> searchByAsset(
+      List<TMTextUnit> tmTextUnits,
+      BiFunction<Long, List<TMTextUnit>, TextUnitSearcherParameters>
+          textUnitSearcherParametersFunction) {
+
+    Map<Long, List<TMTextUnit>> tmTextUnitsByAssetId =
+        tmTextUnits.stream()
+            .collect(
+                Collectors.groupingBy(
+                    tmTextUnit -> tmTextUnit.getAsset().getId(),
+                    LinkedHashMap::new,
+                    Collectors.toList()));
+
+    List<TextUnitDTO> textUnitDTOs = new ArrayList<>();
+    tmTextUnitsByAssetId.forEach(
+        (assetId, tmTextUnitsOfAsset) ->
+            textUnitDTOs.addAll(
+                textUnitSearcher.search(
+                    textUnitSearcherParametersFunction.apply(assetId, tmTextUnitsOfAsset))));
+    return textUnitDTOs;
+  }
+
+  /**
+   * Normalizes a text unit name so that names that may be equal for the database collation (case,
+   * accents and trailing spaces insensitive) have the same key.
+   */
+  protected String getNameKey(String name) {
+    String withoutAccents =
+        Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    return CharMatcher.is(' ').trimTrailingFrom(withoutAccents).toLowerCase(Locale.ROOT);
   }
 
   /**
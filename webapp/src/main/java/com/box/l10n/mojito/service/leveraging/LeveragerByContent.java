@@ -4,7 +4,9 @@ import com.box.l10n.mojito.entity.TMTextUnit;
 import com.box.l10n.mojito.service.tm.search.StatusFilter;
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import com.box.l10n.mojito.service.tm.search.TextUnitSearcherParameters;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -39,6 +41,33 @@ public class LeveragerByContent extends AbstractLeverager {
     return textUnitSearcher.search(textUnitSearcherParameters);
   }
 
+  /**
+   * The plural form filter can't be applied to a batch of text units with different plural forms,
+   * instead the plural form is part of the key (a text unit without plural form only matches
+   * candidates without plural form).
+   */
+  @Override
+  protected LeveragingCandidates getLeveragingCandidates(
+      List<TMTextUnit> tmTextUnits, Long sourceTmId, Long sourceAssetId) {
+    logger.debug(
+        "Get TextUnitDTOs for leveraging by content for {} text units", tmTextUnits.size());
+
+    TextUnitSearcherParameters textUnitSearcherParameters = new TextUnitSearcherParameters();
+    textUnitSearcherParameters.setTmId(sourceTmId);
+    textUnitSearcherParameters.setAssetId(sourceAssetId);
+    textUnitSearcherParameters.setSources(
+        tmTextUnits.stream().map(TMTextUnit::getContent).collect(Collectors.toList()));
+    textUnitSearcherParameters.setStatusFilter(StatusFilter.TRANSLATED);
+
+    return LeveragingCandidates.exact(
+        textUnitSearcher.search(textUnitSearcherParameters),
+        textUnitDTO -> Arrays.asList(textUnitDTO.getSource(), textUnitDTO.getPluralForm()),
+        tmTextUnit ->
+            Arrays.asList(
+                tmTextUnit.getContent(),
+                tmTextUnit.getPluralForm() == null ? null : tmTextUnit.getPluralForm().getName()));
+  }
+
   @Override
   public boolean isTranslationNeededIfUniqueMatch() {
     return true;
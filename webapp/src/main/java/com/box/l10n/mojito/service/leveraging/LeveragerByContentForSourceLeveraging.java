@@ -7,7 +7,9 @@ import com.box.l10n.mojito.service.tm.search.StatusFilter;
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import com.box.l10n.mojito.service.tm.search.TextUnitSearcherParameters;
 import com.box.l10n.mojito.service.tm.search.UsedFilter;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
 
 /**
@@ -45,6 +47,45 @@ public class LeveragerByContentForSourceLeveraging extends AbstractLeverager {
     return textUnitSearcher.search(textUnitSearcherParameters);
   }
 
+  /**
+   * Searches in the asset of each text unit. The plural form is part of the key instead of being
+   * filtered in the search (see {@link LeveragerByContent}).
+   */
+  @Override
+  protected LeveragingCandidates getLeveragingCandidates(
+      List<TMTextUnit> tmTextUnits, Long sourceTmId, Long sourceAssetId) {
+
+    logger.debug(
+        "Get TextUnitDTOs for leveraging by content for {} text units", tmTextUnits.size());
+
+    List<TextUnitDTO> candidates =
+        searchByAsset(
+            tmTextUnits,
+            (assetId, tmTextUnitsOfAsset) -> {
+              TextUnitSearcherParameters textUnitSearcherParameters =
+                  new TextUnitSearcherParameters();
+              textUnitSearcherParameters.setSources(
+                  tmTextUnitsOfAsset.stream()
+                      .map(TMTextUnit::getContent)
+                      .collect(Collectors.toList()));
+              textUnitSearcherParameters.setStatusFilter(StatusFilter.TRANSLATED);
+              textUnitSearcherParameters.setUsedFilter(UsedFilter.USED);
+              textUnitSearcherParameters.setAssetId(assetId);
+              return textUnitSearcherParameters;
+            });
+
+    return LeveragingCandidates.exact(
+        candidates,
+        textUnitDTO ->
+            Arrays.asList(
+                textUnitDTO.getAssetId(), textUnitDTO.getSource(), textUnitDTO.getPluralForm()),
+        tmTextUnit ->
+            Arrays.asList(
+                tmTextUnit.getAsset().getId(),
+                tmTextUnit.getContent(),
+                tmTextUnit.getPluralForm() == null ? null : tmTextUnit.getPluralForm().getName()));
+  }
+
   @Override
   public boolean isTranslationNeededIfUniqueMatch() {
     return false;
@@ -5,6 +5,7 @@ import com.box.l10n.mojito.service.tm.search.StatusFilter;
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import com.box.l10n.mojito.service.tm.search.TextUnitSearcherParameters;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -30,6 +31,24 @@ public class LeveragerByMd5 extends AbstractLeverager {
     return textUnitSearcher.search(textUnitSearcherParameters);
   }
 
+  @Override
+  protected LeveragingCandidates getLeveragingCandidates(
+      List<TMTextUnit> tmTextUnits, Long sourceTmId, Long sourceAssetId) {
+    logger.debug("Get TextUnitDTOs for leveraging by MD5 for {} text units", tmTextUnits.size());
+
+    TextUnitSearcherParameters textUnitSearcherParameters = new TextUnitSearcherParameters();
+    textUnitSearcherParameters.setMd5s(
+        tmTextUnits.stream().map(TMTextUnit::getMd5).distinct().collect(Collectors.toList()));
+    textUnitSearcherParameters.setTmId(sourceTmId);
+    textUnitSearcherParameters.setAssetId(sourceAssetId);
+    textUnitSearcherParameters.setStatusFilter(StatusFilter.TRANSLATED);
+
+    return LeveragingCandidates.exact(
+        textUnitSearcher.search(textUnitSearcherParameters),
+        TextUnitDTO::getMd5,
+        TMTextUnit::getMd5);
+  }
+
   @Override
   public boolean isTranslationNeededIfUniqueMatch() {
     return false;
@@ -8,6 +8,7 @@ import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import com.box.l10n.mojito.service.tm.search.TextUnitSearcherParameters;
 import com.box.l10n.mojito.service.tm.search.UsedFilter;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
 
 /**
@@ -43,6 +44,28 @@ public class LeveragerByNameAndContent extends AbstractLeverager {
     return textUnitSearcher.search(textUnitSearcherParameters);
   }
 
+  /**
+   * Only the content is used to skip the text units that have no candidate, see {@link
+   * LeveragerByNameAndContentForSourceLeveraging}.
+   */
+  @Override
+  protected LeveragingCandidates getLeveragingCandidates(
+      List<TMTextUnit> tmTextUnits, Long sourceTmId, Long sourceAssetId) {
+
+    TextUnitSearcherParameters textUnitSearcherParameters = new TextUnitSearcherParameters();
+    textUnitSearcherParameters.setTmId(sourceTmId);
+    textUnitSearcherParameters.setAssetId(sourceAssetId);
+    textUnitSearcherParameters.setSources(
+        tmTextUnits.stream().map(TMTextUnit::getContent).collect(Collectors.toList()));
+    textUnitSearcherParameters.setStatusFilter(StatusFilter.TRANSLATED);
+    textUnitSearcherParameters.setUsedFilter(UsedFilter.USED);
+
+    return LeveragingCandidates.superset(
+        textUnitSearcher.search(textUnitSearcherParameters),
+        TextUnitDTO::getSource,
+        TMTextUnit::getContent);
+  }
+
   @Override
   public boolean isTranslationNeededIfUniqueMatch() {
     return false;
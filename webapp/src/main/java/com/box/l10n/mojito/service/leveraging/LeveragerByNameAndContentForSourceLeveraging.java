@@ -7,7 +7,9 @@ import com.box.l10n.mojito.service.tm.search.StatusFilter;
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import com.box.l10n.mojito.service.tm.search.TextUnitSearcherParameters;
 import com.box.l10n.mojito.service.tm.search.UsedFilter;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
 
 /**
@@ -42,6 +44,36 @@ public class LeveragerByNameAndContentForSourceLeveraging extends AbstractLevera
     return textUnitSearcher.search(textUnitSearcherParameters);
   }
 
+  /**
+   * The name match depends on the database collation so it can't be reproduced in memory. Only the
+   * content (exact match on its MD5) is used to skip the text units that have no candidate.
+   */
+  @Override
+  protected LeveragingCandidates getLeveragingCandidates(
+      List<TMTextUnit> tmTextUnits, Long sourceTmId, Long sourceAssetId) {
+
+    List<TextUnitDTO> candidates =
+        searchByAsset(
+            tmTextUnits,
+            (assetId, tmTextUnitsOfAsset) -> {
+              TextUnitSearcherParameters textUnitSearcherParameters =
+                  new TextUnitSearcherParameters();
+              textUnitSearcherParameters.setSources(
+                  tmTextUnitsOfAsset.stream()
+                      .map(TMTextUnit::getContent)
+                      .collect(Collectors.toList()));
+              textUnitSearcherParameters.setStatusFilter(StatusFilter.TRANSLATED);
+              textUnitSearcherParameters.setUsedFilter(UsedFilter.USED);
+              textUnitSearcherParameters.setAssetId(assetId);
+              return textUnitSearcherParameters;
+            });
+
+    return LeveragingCandidates.superset(
+        candidates,
+        textUnitDTO -> Arrays.asList(textUnitDTO.getAssetId(), textUnitDTO.getSource()),
+        tmTextUnit -> Arrays.asList(tmTextUnit.getAsset().getId(), tmTextUnit.getContent()));
+  }
+
   @Override
   public boolean isTranslationNeededIfUniqueMatch() {
     return false;
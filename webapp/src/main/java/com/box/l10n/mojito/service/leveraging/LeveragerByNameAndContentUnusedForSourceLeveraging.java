@@ -5,7 +5,9 @@ import com.box.l10n.mojito.service.tm.search.StatusFilter;
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import com.box.l10n.mojito.service.tm.search.TextUnitSearcherParameters;
 import com.box.l10n.mojito.service.tm.search.UsedFilter;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
 
 /**
@@ -40,6 +42,36 @@ public class LeveragerByNameAndContentUnusedForSourceLeveraging extends Abstract
     return textUnitSearcher.search(textUnitSearcherParameters);
   }
 
+  /**
+   * Only the content is used to skip the text units that have no candidate, see {@link
+   * LeveragerByNameAndContentForSourceLeveraging}.
+   */
+  @Override
+  protected LeveragingCandidates getLeveragingCandidates(
+      List<TMTextUnit> tmTextUnits, Long sourceTmId, Long sourceAssetId) {
+
+    List<TextUnitDTO> candidates =
+        searchByAsset(
+            tmTextUnits,
+            (assetId, tmTextUnitsOfAsset) -> {
+              TextUnitSearcherParameters textUnitSearcherParameters =
+                  new TextUnitSearcherParameters();
+              textUnitSearcherParameters.setSources(
+                  tmTextUnitsOfAsset.stream()
+                      .map(TMTextUnit::getContent)
+                      .collect(Collectors.toList()));
+              textUnitSearcherParameters.setStatusFilter(StatusFilter.TRANSLATED);
+              textUnitSearcherParameters.setUsedFilter(UsedFilter.UNUSED);
+              textUnitSearcherParameters.setAssetId(assetId);
+              return textUnitSearcherParameters;
+            });
+
+    return LeveragingCandidates.superset(
+        candidates,
+        textUnitDTO -> Arrays.asList(textUnitDTO.getAssetId(), textUnitDTO.getSource()),
+        tmTextUnit -> Arrays.asList(tmTextUnit.getAsset().getId(), tmTextUnit.getContent()));
+  }
+
   @Override
   public boolean isTranslationNeededIfUniqueMatch() {
     return false;
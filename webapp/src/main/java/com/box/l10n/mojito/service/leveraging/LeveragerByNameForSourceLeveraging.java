@@ -7,7 +7,11 @@ import com.box.l10n.mojito.service.tm.search.StatusFilter;
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import com.box.l10n.mojito.service.tm.search.TextUnitSearcherParameters;
 import com.box.l10n.mojito.service.tm.search.UsedFilter;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
 
 /**
@@ -41,6 +45,56 @@ public class LeveragerByNameForSourceLeveraging extends AbstractLeverager {
     return textUnitSearcher.search(textUnitSearcherParameters);
   }
 
+  /**
+   * The name match depends on the database collation, the candidates are grouped by a normalized
+   * name (see {@link #getNameKey(String)}) to skip the text units that have no candidate.
+   *
+   * <p>If a candidate returned by the database doesn't have the key of any of the searched names,
+   * the collation is not covered by the normalization and the batch falls back to searching each
+   * text unit.
+   */
+  @Override
+  protected LeveragingCandidates getLeveragingCandidates(
+      List<TMTextUnit> tmTextUnits, Long sourceTmId, Long sourceAssetId) {
+
+    List<TextUnitDTO> candidates =
+        searchByAsset(
+            tmTextUnits,
+            (assetId, tmTextUnitsOfAsset) -> {
+              TextUnitSearcherParameters textUnitSearcherParameters =
+                  new TextUnitSearcherParameters();
+              textUnitSearcherParameters.setNames(
+                  tmTextUnitsOfAsset.stream()
+                      .map(TMTextUnit::getName)
+                      .distinct()
+                      .collect(Collectors.toList()));
+              textUnitSearcherParameters.setStatusFilter(StatusFilter.TRANSLATED);
+              textUnitSearcherParameters.setUsedFilter(UsedFilter.USED);
+              textUnitSearcherParameters.setAssetId(assetId);
+              return textUnitSearcherParameters;
+            });
+
+    Function<TMTextUnit, Object> tmTextUnitKeyFunction =
+        tmTextUnit ->
+            Arrays.asList(tmTextUnit.getAsset().getId(), getNameKey(tmTextUnit.getName()));
+
+    LeveragingCandidates leveragingCandidates =
+        LeveragingCandidates.superset(
+            candidates,
+            textUnitDTO ->
+                Arrays.asList(textUnitDTO.getAssetId(), getNameKey(textUnitDTO.getName())),
+            tmTextUnitKeyFunction);
+
+    Set<Object> keys = tmTextUnits.stream().map(tmTextUnitKeyFunction).collect(Collectors.toSet());
+
+    if (!keys.containsAll(leveragingCandidates.candidatesByKey.keySet())) {
+      logger.debug("Name collation not covered by the name key, search text units individually");
+      leveragingCandidates = null;
+    }
+
+    return leveragingCandidates;
+  }
+
   @Override
   public boolean isTranslationNeededIfUniqueMatch() {
     return true;
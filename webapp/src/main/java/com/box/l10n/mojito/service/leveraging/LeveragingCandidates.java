@@ -0,0 +1,89 @@
+package com.box.l10n.mojito.service.leveraging;
+
+import com.box.l10n.mojito.entity.TMTextUnit;
+import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Leveraging candidates of a batch of {@link TMTextUnit}s, fetched with a set-based search and
+ * grouped by a key computed by the leverager.
+ *
+ * <p>If the candidates are "exact", the candidates of a key are the matches that {@link
+ * AbstractLeverager#getLeveragingMatches(TMTextUnit, Long, Long)} would return for a text unit with
+ * that key. Else they are a superset that can only be used to skip the text units without any
+ * candidate, the others must still be searched individually.
+ */
+public class LeveragingCandidates {
+
+  final Map<Object, List<TextUnitDTO>> candidatesByKey = new LinkedHashMap<>();
+
+  final Function<TMTextUnit, Object> tmTextUnitKeyFunction;
+
+  final boolean exact;
+
+  LeveragingCandidates(
+      List<TextUnitDTO> candidates,
+      Function<TextUnitDTO, Object> textUnitDTOKeyFunction,
+      Function<TMTextUnit, Object> tmTextUnitKeyFunction,
+      boolean exact) {
+    this.tmTextUnitKeyFunction = tmTextUnitKeyFunction;
+    this.exact = exact;
+
+    for (TextUnitDTO candidate : candidates) {
+      candidatesByKey
+          .computeIfAbsent(textUnitDTOKeyFunction.apply(candidate), k -> new ArrayList<>())
+          .add(candidate);
+    }
+  }
+
+  /**
+   * Creates candidates that are the exact matches of the text units with the same key.
+   *
+   * @param candidates the candidates, in search result order
+   * @param textUnitDTOKeyFunction computes the key of a candidate
+   * @param tmTextUnitKeyFunction computes the key of a text unit to leverage
+   */
+  public static LeveragingCandidates exact(
+      List<TextUnitDTO> candidates,
+      Function<TextUnitDTO, Object> textUnitDTOKeyFunction,
+      Function<TMTextUnit, Object> tmTextUnitKeyFunction) {
+    return new LeveragingCandidates(
+        candidates, textUnitDTOKeyFunction, tmTextUnitKeyFunction, true);
+  }
+
+  /**
+   * Creates candidates that are a superset of the matches of the text units with the same key.
+   *
+   * @param candidates the candidates, in search result order
+   * @param textUnitDTOKeyFunction computes the key of a candidate
+   * @param tmTextUnitKeyFunction computes the key of a text unit to leverage
+   */
+  public static LeveragingCandidates superset(
+      List<TextUnitDTO> candidates,
+      Function<TextUnitDTO, Object> textUnitDTOKeyFunction,
+      Function<TMTextUnit, Object> tmTextUnitKeyFunction) {
+    return new LeveragingCandidates(
+        candidates, textUnitDTOKeyFunction, tmTextUnitKeyFunction, false);
+  }
+
+  public Object getKey(TMTextUnit tmTextUnit) {
+    return tmTextUnitKeyFunction.apply(tmTextUnit);
+  }
+
+  /**
+   * @param key the key of a text unit
+   * @return a new mutable list with the candidates for the key (empty if none)
+   */
+  public List<TextUnitDTO> getCandidates(Object key) {
+    return new ArrayList<>(candidatesByKey.getOrDefault(key, Collections.emptyList()));
+  }
+
+  public boolean isExact() {
+    return exact;
+  }
+}
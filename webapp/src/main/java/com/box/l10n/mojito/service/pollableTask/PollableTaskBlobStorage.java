@@ -5,10 +5,34 @@ import static com.box.l10n.mojito.service.blobstorage.StructuredBlobStorage.Pref
 import com.box.l10n.mojito.json.ObjectMapper;
 import com.box.l10n.mojito.service.blobstorage.Retention;
 import com.box.l10n.mojito.service.blobstorage.StructuredBlobStorage;
+import com.box.l10n.mojito.utils.BytesGZIP;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Stores the input and output of pollable tasks in the blob storage.
+ *
+ * <p>The JSON can be serialized straight into a gzip stream (enabled with {@code
+ * l10n.pollableTaskBlobStorage.compress}) so that large inputs, like lists of text units, don't
+ * need to be materialized as an uncompressed string. Blobs are read based on the gzip magic number
+ * so uncompressed blobs written by older versions can still be read.
+ *
+ * <p>Compression is disabled by default since versions prior to the gzip support can't read
+ * compressed blobs: during a rolling deploy, those nodes may process tasks created by upgraded
+ * nodes. Enable it once all nodes run a version that reads gzip blobs.
+ */
 @Component
 public class PollableTaskBlobStorage {
 
@@ -18,43 +42,79 @@ public class PollableTaskBlobStorage {
   @Qualifier("fail_on_unknown_properties_false")
   ObjectMapper objectMapper;
 
+  @Value("${l10n.pollableTaskBlobStorage.compress:false}")
+  boolean compress = false;
+
   public void saveInput(Long pollableTaskId, Object input) {
-    String inputName = getInputName(pollableTaskId);
-    String inputJson = objectMapper.writeValueAsStringUnchecked(input);
-    structuredBlobStorage.put(POLLABLE_TASK, inputName, inputJson, Retention.MIN_1_DAY);
+    save(getInputName(pollableTaskId), input);
   }
 
   public void saveOutput(Long pollableTaskId, Object output) {
-    String outputName = getOutputName(pollableTaskId);
-    String outputJson = objectMapper.writeValueAsStringUnchecked(output);
-    structuredBlobStorage.put(POLLABLE_TASK, outputName, outputJson, Retention.MIN_1_DAY);
+    save(getOutputName(pollableTaskId), output);
+  }
+
+  /**
+   * Saves what is needed to schedule again a job that is executed in memory, in case the JVM stops
+   * before it finishes.
+   */
+  public void saveLightweightJob(Long pollableTaskId, Object lightweightJob) {
+    save(getLightweightJobName(pollableTaskId), lightweightJob);
+  }
+
+  public <T> Optional<T> findLightweightJob(Long pollableTaskId, Class<T> clazz) {
+    return structuredBlobStorage
+        .getBytes(POLLABLE_TASK, getLightweightJobName(pollableTaskId))
+        .map(bytes -> read(bytes, clazz));
   }
 
   public <T> T getInput(Long pollableTaskId, Class<T> clazz) {
-    String inputName = getInputName(pollableTaskId);
-    String inputJson =
+    byte[] bytes =
         structuredBlobStorage
-            .getString(POLLABLE_TASK, inputName)
+            .getBytes(POLLABLE_TASK, getInputName(pollableTaskId))
             .orElseThrow(
                 () -> new RuntimeException("Can't get the input json for: " + pollableTaskId));
-    T t = objectMapper.readValueUnchecked(inputJson, clazz);
-    return t;
+    return read(bytes, clazz);
   }
 
   public String getOutputJson(Long pollableTaskId) {
-    String outputName = getOutputName(pollableTaskId);
-    String outputJson =
-        structuredBlobStorage
-            .getString(POLLABLE_TASK, outputName)
-            .orElseThrow(
-                () -> new RuntimeException("Can't get the output json for: " + pollableTaskId));
-    return outputJson;
+    byte[] bytes = getOutputBytes(pollableTaskId);
+    return new String(BytesGZIP.decompressOrOriginal(bytes), StandardCharsets.UTF_8);
   }
 
   public <T> T getOutput(Long pollableTaskId, Class<T> clazz) {
-    String outputJson = getOutputJson(pollableTaskId);
-    T t = objectMapper.readValueUnchecked(outputJson, clazz);
-    return t;
+    return read(getOutputBytes(pollableTaskId), clazz);
+  }
+
+  byte[] getOutputBytes(Long pollableTaskId) {
+    return structuredBlobStorage
+        .getBytes(POLLABLE_TASK, getOutputName(pollableTaskId))
+        .orElseThrow(
+            () -> new RuntimeException("Can't get the output json for: " + pollableTaskId));
+  }
+
+  void save(String name, Object content) {
+    try {
+      ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+      try (OutputStream outputStream =
+          compress ? new GZIPOutputStream(byteArrayOutputStream) : byteArrayOutputStream) {
+        objectMapper.writeValue(outputStream, content);
+      }
+      structuredBlobStorage.put(
+          POLLABLE_TASK, name, byteArrayOutputStream.toByteArray(), Retention.MIN_1_DAY);
+    } catch (IOException ioe) {
+      throw new UncheckedIOException("Can't save pollable task blob: " + name, ioe);
+    }
+  }
+
+  <T> T read(byte[] bytes, Class<T> clazz) {
+    try (InputStream inputStream =
+        BytesGZIP.hasGZipMagicNumber(bytes)
+            ? new GZIPInputStream(new ByteArrayInputStream(bytes))
+            : new ByteArrayInputStream(bytes)) {
+      return objectMapper.readValue(inputStream, clazz);
+    } catch (IOException ioe) {
+      throw new UncheckedIOException("Can't read pollable task blob", ioe);
+    }
   }
 
   String getInputName(long pollableTaskId) {
@@ -64,4 +124,8 @@ public class PollableTaskBlobStorage {
   String getOutputName(long pollableTaskId) {
     return pollableTaskId + "/output";
   }
+
+  String getLightweightJobName(long pollableTaskId) {
+    return pollableTaskId + "/lightweightJob";
+  }
 }
@@ -3,6 +3,7 @@ package com.box.l10n.mojito.service.pollableTask;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import com.box.l10n.mojito.entity.PollableTask;
+import com.box.l10n.mojito.quartz.LightweightPollableJobRecovery;
 import java.util.List;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,9 +21,14 @@ public class PollableTaskCleanupService {
 
   @Autowired PollableTaskService pollableTaskService;
 
+  @Autowired LightweightPollableJobRecovery lightweightPollableJobRecovery;
+
   /**
    * Marks zombie tasks as finished with error. A zombie task can be defined as a task that did not
    * complete before its given timeout period.
+   *
+   * <p>Lightweight jobs that were lost because the JVM stopped are scheduled again instead, see
+   * {@link LightweightPollableJobRecovery}.
    */
   public void finishZombieTasksWithError() {
 
@@ -37,7 +43,9 @@ public class PollableTaskCleanupService {
       zombiePollableTasks = pollableTaskRepository.findZombiePollableTasks(pageable);
 
       for (PollableTask zombiePollableTask : zombiePollableTasks) {
-        markAsFinishedWithError(zombiePollableTask);
+        if (!lightweightPollableJobRecovery.recover(zombiePollableTask)) {
+          markAsFinishedWithError(zombiePollableTask);
+        }
       }
     } while (!zombiePollableTasks.isEmpty());
   }
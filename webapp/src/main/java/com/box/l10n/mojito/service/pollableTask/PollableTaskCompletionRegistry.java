@@ -0,0 +1,111 @@
+package com.box.l10n.mojito.service.pollableTask;
+
+import com.box.l10n.mojito.entity.PollableTask;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Notifies the waiters of a {@link PollableTask} in this JVM when the task or one of its sub tasks
+ * finishes, so that they don't have to wait for the next poll of the database.
+ *
+ * <p>Only finishes that happen in this JVM are notified, waiters must still check the database
+ * periodically for tasks processed by other instances.
+ *
+ * <p>Entries are counted by waiter and removed when the last waiter releases them (see {@link
+ * #release(Long, CompletableFuture)}), so that tasks that never finish in this JVM don't stay in
+ * the registry.
+ */
+@Component
+public class PollableTaskCompletionRegistry {
+
+  final ConcurrentHashMap<Long, NextFinish> nextFinishes = new ConcurrentHashMap<>();
+
+  /**
+   * Gets a future that is completed the next time the task or one of its sub tasks finishes.
+   *
+   * <p>To not miss a notification, it must be called before reading the state of the task. The
+   * future must be released with {@link #release(Long, CompletableFuture)} when the caller stops
+   * waiting.
+   *
+   * @param pollableTaskId {@link PollableTask#id}
+   * @return the future
+   */
+  public CompletableFuture<Void> getNextFinish(Long pollableTaskId) {
+    return nextFinishes.compute(
+            pollableTaskId,
+            (id, nextFinish) -> {
+              if (nextFinish == null) {
+                nextFinish = new NextFinish();
+              }
+              nextFinish.waiters++;
+              return nextFinish;
+            })
+        .future;
+  }
+
+  /**
+   * Releases a future returned by {@link #getNextFinish(Long)}, the entry of the task is removed
+   * when it has no more waiters.
+   *
+   * @param pollableTaskId {@link PollableTask#id}
+   * @param future the future returned by {@link #getNextFinish(Long)}
+   */
+  public void release(Long pollableTaskId, CompletableFuture<Void> future) {
+    nextFinishes.computeIfPresent(
+        pollableTaskId,
+        (id, nextFinish) -> {
+          if (nextFinish.future != future) {
+            // already completed and replaced by a new entry
+            return nextFinish;
+          }
+          nextFinish.waiters--;
+          return nextFinish.waiters > 0 ? nextFinish : null;
+        });
+  }
+
+  /**
+   * Notifies the waiters of the task and of its parent tasks. If called in a transaction, the
+   * waiters are notified after the commit so that they can read the finished task.
+   *
+   * @param pollableTask the task that finished
+   */
+  public void notifyFinished(PollableTask pollableTask) {
+    List<Long> pollableTaskIds = new ArrayList<>();
+    for (PollableTask current = pollableTask; current != null; current = current.getParentTask()) {
+      pollableTaskIds.add(current.getId());
+    }
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              complete(pollableTaskIds);
+            }
+          });
+    } else {
+      complete(pollableTaskIds);
+    }
+  }
+
+  void complete(List<Long> pollableTaskIds) {
+    for (Long pollableTaskId : pollableTaskIds) {
+      NextFinish nextFinish = nextFinishes.remove(pollableTaskId);
+      if (nextFinish != null) {
+        nextFinish.future.complete(null);
+      }
+    }
+  }
+
+  /** {@link #waiters} is only accessed in the atomic operations of the map */
+  static class NextFinish {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    int waiters;
+  }
+}
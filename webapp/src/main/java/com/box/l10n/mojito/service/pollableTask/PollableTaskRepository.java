@@ -18,6 +18,7 @@ public interface PollableTaskRepository extends JpaRepository<PollableTask, Long
   @Query(
       "select pt from #{#entityName} pt "
           + "where pt.finishedDate is null "
-          + "and (unix_timestamp(pt.createdDate) + pt.timeout) < unix_timestamp()")
+          + "and (unix_timestamp(pt.createdDate) + pt.timeout) < unix_timestamp() "
+          + "order by pt.id")
   List<PollableTask> findZombiePollableTasks(Pageable pageable);
 }
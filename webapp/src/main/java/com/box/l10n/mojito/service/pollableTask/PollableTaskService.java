@@ -3,13 +3,32 @@ package com.box.l10n.mojito.service.pollableTask;
 import com.box.l10n.mojito.entity.PollableTask;
 import com.box.l10n.mojito.json.ObjectMapper;
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -38,11 +57,100 @@ public class PollableTaskService {
 
   @Autowired PollableTaskRepository pollableTaskRepository;
 
+  @Autowired PollableTaskCompletionRegistry pollableTaskCompletionRegistry;
+
+  @PersistenceUnit EntityManagerFactory entityManagerFactory;
+
+  /**
+   * Max time between 2 checks of the database when waiting for a task. Finishes in this JVM are
+   * notified right away, this bounds the latency for tasks processed by other instances.
+   */
+  @Value("${l10n.pollableTask.wait.maxSleepTime:2000}")
+  long maxSleepTime = 2000;
+
+  /**
+   * Checks the database for the long polling requests, so that they don't hold a request thread
+   * while waiting. A check is short (a single query), a few threads serve all the waiters.
+   */
+  @Value("${l10n.pollableTask.wait.poolSize:2}")
+  int waitPoolSize = 2;
+
+  ScheduledExecutorService waitExecutor;
+
+  @PostConstruct
+  void createWaitExecutor() {
+    waitExecutor =
+        Executors.newScheduledThreadPool(
+            waitPoolSize,
+            new ThreadFactoryBuilder()
+                .setNameFormat("pollable-task-wait-%d")
+                .setDaemon(true)
+                .build());
+  }
+
+  @PreDestroy
+  void shutdownWaitExecutor() {
+    waitExecutor.shutdownNow();
+  }
+
   @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
   public PollableTask getPollableTask(long id) {
     return pollableTaskRepository.findById(id).orElse(null);
   }
 
+  /**
+   * Gets {@link PollableTask}s with a single query.
+   *
+   * @param ids the {@link PollableTask#id}s
+   * @return the tasks that exist, in the order of the ids
+   */
+  @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+  public List<PollableTask> getPollableTasks(List<Long> ids) {
+    return orderByIds(ids, pollableTaskRepository.findAllById(ids));
+  }
+
+  /**
+   * Reads {@link PollableTask}s in a new persistence context, to check if they changed while
+   * waiting.
+   *
+   * <p>With open in view, {@link #getPollableTask(long)} re-uses the persistence context bound to
+   * the request even in a new transaction: it keeps returning the entities of the first read and
+   * never sees the tasks finished by other transactions. The sub tasks are fetched eagerly so the
+   * detached entities can be serialized.
+   *
+   * @param ids the {@link PollableTask#id}s
+   * @return the tasks that exist, in the order of the ids
+   */
+  List<PollableTask> readPollableTasks(List<Long> ids) {
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    try {
+      return orderByIds(
+          ids,
+          entityManager
+              .createQuery("select pt from PollableTask pt where pt.id in :ids", PollableTask.class)
+              .setParameter("ids", ids)
+              .getResultList());
+    } finally {
+      entityManager.close();
+    }
+  }
+
+  /** See {@link #readPollableTasks(List)} */
+  PollableTask readPollableTask(Long id) {
+    List<PollableTask> pollableTasks = readPollableTasks(Arrays.asList(id));
+    return pollableTasks.isEmpty() ? null : pollableTasks.get(0);
+  }
+
+  List<PollableTask> orderByIds(List<Long> ids, List<PollableTask> pollableTasks) {
+    Map<Long, PollableTask> pollableTasksById =
+        pollableTasks.stream().collect(Collectors.toMap(PollableTask::getId, Function.identity()));
+
+    return ids.stream()
+        .map(pollableTasksById::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
   public PollableTask createPollableTask(
       Long parentId, String name, String message, int expectedSubTaskNumber) {
     return createPollableTask(parentId, name, message, expectedSubTaskNumber, NO_TIMEOUT);
@@ -101,7 +209,9 @@ public class PollableTaskService {
       pollableTask.setExpectedSubTaskNumber(expectedSubTaskNumberOverride);
     }
 
-    return pollableTaskRepository.save(pollableTask);
+    PollableTask saved = pollableTaskRepository.save(pollableTask);
+    pollableTaskCompletionRegistry.notifyFinished(saved);
+    return saved;
   }
 
   @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -157,9 +267,17 @@ public class PollableTaskService {
    * Waits for a list of {@link PollableTask}s to be all finished (see {@link
    * PollableTask#isAllFinished() }).
    *
+   * <p>The wait is interrupted as soon as the task or one of its sub tasks finishes in this JVM
+   * (see {@link PollableTaskCompletionRegistry}). Without notification, the sleep time doubles up
+   * to {@link #maxSleepTime} to not overload the database with long running tasks.
+   *
+   * <p>When a sub task fails while the task is not finished, the error is usually being propagated
+   * to the parent tasks: wait for one more finish (or sleep time) before throwing so that the
+   * caller sees the parent tasks finished.
+   *
    * @param pollableIds a list of {@link PollableTask#id}
    * @param timeout timeout in milliseconds.
-   * @param sleepTime time to sleep before checking the status again
+   * @param sleepTime initial time to sleep before checking the status again
    * @throws InterruptedException
    * @throws PollableTaskException
    */
@@ -175,29 +293,46 @@ public class PollableTaskService {
     for (Long pollableId : pollableIds) {
 
       boolean isAllFinished = false;
+      boolean errorSeen = false;
+      long currentSleepTime = sleepTime;
 
-      while (!isAllFinished && (timeout == NO_TIMEOUT || currentTime <= timeoutTime)) {
+      // once an error is seen, the next check throws even if timed out
+      while (!isAllFinished && (errorSeen || timeout == NO_TIMEOUT || currentTime <= timeoutTime)) {
 
         logger.debug("Waiting for PollableTask id: {} to finish", pollableId);
 
-        PollableTask pollableTask = getPollableTask(pollableId);
-        isAllFinished = pollableTask.isAllFinished();
-
-        List<PollableTask> pollableTaskWithErrors = getAllPollableTasksWithError(pollableTask);
-        if (!pollableTaskWithErrors.isEmpty()) {
-          for (PollableTask pollableTaskWithError : pollableTaskWithErrors) {
-            logger.error(
-                "Error happened in PollableTask: {}\n{}",
-                pollableTaskWithError.getId(),
-                pollableTaskWithError.getErrorStack());
+        CompletableFuture<Void> nextFinish =
+            pollableTaskCompletionRegistry.getNextFinish(pollableId);
+        try {
+          PollableTask pollableTask = readPollableTask(pollableId);
+          isAllFinished = pollableTask.isAllFinished();
+
+          List<PollableTask> pollableTaskWithErrors = getAllPollableTasksWithError(pollableTask);
+          if (!pollableTaskWithErrors.isEmpty()
+              && !errorSeen
+              && pollableTask.getFinishedDate() == null) {
+            errorSeen = true;
+          } else if (!pollableTaskWithErrors.isEmpty()) {
+            for (PollableTask pollableTaskWithError : pollableTaskWithErrors) {
+              logger.error(
+                  "Error happened in PollableTask: {}\n{}",
+                  pollableTaskWithError.getId(),
+                  pollableTaskWithError.getErrorStack());
+            }
+            throw new PollableTaskExecutionException(
+                "Error happened in PollableTask or sub tasks: " + pollableTask.getId());
           }
-          throw new PollableTaskExecutionException(
-              "Error happened in PollableTask or sub tasks: " + pollableTask.getId());
-        }
 
-        if (!isAllFinished) {
-          Thread.sleep(sleepTime);
-          currentTime = System.currentTimeMillis();
+          if (!isAllFinished) {
+            if (waitForNextFinish(nextFinish, currentSleepTime)) {
+              currentSleepTime = sleepTime;
+            } else {
+              currentSleepTime = Math.min(Math.max(sleepTime, maxSleepTime), currentSleepTime * 2);
+            }
+            currentTime = System.currentTimeMillis();
+          }
+        } finally {
+          pollableTaskCompletionRegistry.release(pollableId, nextFinish);
         }
       }
 
@@ -208,12 +343,193 @@ public class PollableTaskService {
         throw new PollableTaskTimeoutException("Timed out waiting for PollableTask: " + pollableId);
       }
 
-      pollableTasks.add(getPollableTask(pollableId));
+      pollableTasks.add(readPollableTask(pollableId));
     }
 
     return pollableTasks;
   }
 
+  /**
+   * Waits for the {@link PollableTask} to change, for long polling.
+   *
+   * <p>Blocking version of {@link #waitForPollableTaskUpdateAsync(Long, long)}.
+   *
+   * @param pollableId the {@link PollableTask#id}
+   * @param timeout max time to wait in milliseconds
+   * @return the current state of the task
+   * @throws InterruptedException
+   */
+  public PollableTask waitForPollableTaskUpdate(Long pollableId, long timeout)
+      throws InterruptedException {
+    return getWaited(waitForPollableTaskUpdateAsync(pollableId, timeout));
+  }
+
+  /**
+   * Waits for the {@link PollableTask} to change, for long polling.
+   *
+   * <p>Completes as soon as the task or one of its sub tasks finishes in this JVM, or when the
+   * database shows that the task is all finished or has errors, or after the timeout.
+   *
+   * <p>No thread is blocked while waiting: the database is checked on the {@link #waitExecutor}.
+   *
+   * @param pollableId the {@link PollableTask#id}
+   * @param timeout max time to wait in milliseconds
+   * @return the current state of the task, {@code null} if it doesn't exist
+   */
+  public CompletableFuture<PollableTask> waitForPollableTaskUpdateAsync(
+      Long pollableId, long timeout) {
+    return waitForPollableTasksUpdateAsync(Arrays.asList(pollableId), timeout)
+        .thenApply(pollableTasks -> pollableTasks.isEmpty() ? null : pollableTasks.get(0));
+  }
+
+  /**
+   * Waits for any of the {@link PollableTask}s to change, for long polling on multiple tasks.
+   *
+   * <p>Blocking version of {@link #waitForPollableTasksUpdateAsync(List, long)}.
+   *
+   * @param pollableTaskIds the {@link PollableTask#id}s
+   * @param timeout max time to wait in milliseconds
+   * @return the current state of the tasks that exist, in the order of the ids
+   * @throws InterruptedException
+   */
+  public List<PollableTask> waitForPollableTasksUpdate(List<Long> pollableTaskIds, long timeout)
+      throws InterruptedException {
+    return getWaited(waitForPollableTasksUpdateAsync(pollableTaskIds, timeout));
+  }
+
+  /**
+   * Waits for any of the {@link PollableTask}s to change, for long polling on multiple tasks.
+   *
+   * <p>Completes as soon as one of the tasks or of their sub tasks finishes in this JVM, or when
+   * the database shows that one of the tasks is all finished or has errors, or after the timeout.
+   * The caller is expected to pass only the tasks that are not finished yet.
+   *
+   * <p>No thread is blocked while waiting: the database is checked on the {@link #waitExecutor}.
+   *
+   * @param pollableTaskIds the {@link PollableTask#id}s
+   * @param timeout max time to wait in milliseconds
+   * @return the current state of the tasks that exist, in the order of the ids
+   */
+  public CompletableFuture<List<PollableTask>> waitForPollableTasksUpdateAsync(
+      List<Long> pollableTaskIds, long timeout) {
+    CompletableFuture<List<PollableTask>> pollableTasks = new CompletableFuture<>();
+    checkPollableTasksUpdate(pollableTaskIds, System.currentTimeMillis() + timeout, pollableTasks);
+    return pollableTasks;
+  }
+
+  /**
+   * Checks the tasks in the database, completes the result if one of them changed or if timed out,
+   * else checks again when a task finishes in this JVM or after {@link #maxSleepTime}.
+   */
+  void checkPollableTasksUpdate(
+      List<Long> pollableTaskIds, long timeoutTime, CompletableFuture<List<PollableTask>> result) {
+
+    List<CompletableFuture<Void>> nextFinishes =
+        pollableTaskIds.stream()
+            .map(pollableTaskCompletionRegistry::getNextFinish)
+            .collect(Collectors.toList());
+
+    boolean waiting = false;
+    List<PollableTask> pollableTasks = null;
+    RuntimeException exception = null;
+
+    try {
+      pollableTasks = readPollableTasks(pollableTaskIds);
+
+      long remaining = timeoutTime - System.currentTimeMillis();
+
+      if (pollableTasks.size() < pollableTaskIds.size()
+          || pollableTasks.stream()
+              .anyMatch(
+                  pollableTask ->
+                      pollableTask.isAllFinished()
+                          || !getAllPollableTasksWithError(pollableTask).isEmpty())
+          || remaining <= 0) {
+        return;
+      }
+
+      CompletableFuture<Object> nextFinish =
+          CompletableFuture.anyOf(nextFinishes.toArray(new CompletableFuture[0]));
+
+      CompletableFuture<Boolean> finishedOrTimedOut =
+          finishedOrTimedOut(nextFinish, Math.min(remaining, maxSleepTime));
+
+      waiting = true;
+      finishedOrTimedOut
+          .thenAcceptAsync(
+              finished -> {
+                releaseNextFinishes(pollableTaskIds, nextFinishes);
+                if (finished) {
+                  result.complete(readPollableTasks(pollableTaskIds));
+                } else {
+                  checkPollableTasksUpdate(pollableTaskIds, timeoutTime, result);
+                }
+              },
+              waitExecutor)
+          .exceptionally(
+              t -> {
+                result.completeExceptionally(t instanceof CompletionException ? t.getCause() : t);
+                return null;
+              });
+    } catch (RuntimeException re) {
+      exception = re;
+    } finally {
+      // release before completing so that the next finishes are gone once the result is visible
+      if (!waiting) {
+        releaseNextFinishes(pollableTaskIds, nextFinishes);
+      }
+      if (exception != null) {
+        result.completeExceptionally(exception);
+      } else if (!waiting) {
+        result.complete(pollableTasks);
+      }
+    }
+  }
+
+  void releaseNextFinishes(List<Long> pollableTaskIds, List<CompletableFuture<Void>> nextFinishes) {
+    for (int i = 0; i < pollableTaskIds.size(); i++) {
+      pollableTaskCompletionRegistry.release(pollableTaskIds.get(i), nextFinishes.get(i));
+    }
+  }
+
+  /**
+   * @return a future completed with {@code true} when a task finishes, or with {@code false} after
+   *     the wait time
+   */
+  CompletableFuture<Boolean> finishedOrTimedOut(CompletableFuture<?> nextFinish, long waitTime) {
+    CompletableFuture<Boolean> finished = new CompletableFuture<>();
+    ScheduledFuture<?> timeout =
+        waitExecutor.schedule(() -> finished.complete(false), waitTime, TimeUnit.MILLISECONDS);
+    nextFinish.whenComplete(
+        (v, t) -> {
+          timeout.cancel(false);
+          finished.complete(true);
+        });
+    return finished;
+  }
+
+  <T> T getWaited(CompletableFuture<T> waited) throws InterruptedException {
+    try {
+      return waited.get();
+    } catch (ExecutionException ee) {
+      Throwables.throwIfUnchecked(ee.getCause());
+      throw new RuntimeException(ee.getCause());
+    }
+  }
+
+  /** @return {@code true} if a task finished before the wait time, {@code false} otherwise */
+  boolean waitForNextFinish(CompletableFuture<?> nextFinish, long waitTime)
+      throws InterruptedException {
+    try {
+      nextFinish.get(waitTime, TimeUnit.MILLISECONDS);
+      return true;
+    } catch (TimeoutException te) {
+      return false;
+    } catch (ExecutionException ee) {
+      throw new RuntimeException(ee);
+    }
+  }
+
   /**
    * Get all the PollableTasks with error (traverses all the PollableTask's subtasks)
    *
@@ -15,6 +15,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -43,10 +44,23 @@ public class PullRunAssetService {
     return pullRunAssetRepository.save(pullRunAsset);
   }
 
+  /**
+   * Gets or creates the pull run asset, see {@link PullRunService#getOrCreate(String, Repository)}
+   * for concurrent creations.
+   */
   public PullRunAsset getOrCreate(PullRun pullRun, Asset asset) {
     return pullRunAssetRepository
         .findByPullRunAndAsset(pullRun, asset)
-        .orElseGet(() -> createPullRunAsset(pullRun, asset));
+        .orElseGet(
+            () -> {
+              try {
+                return createPullRunAsset(pullRun, asset);
+              } catch (DataIntegrityViolationException dive) {
+                return pullRunAssetRepository
+                    .findByPullRunAndAsset(pullRun, asset)
+                    .orElseThrow(() -> dive);
+              }
+            });
   }
 
   @Transactional
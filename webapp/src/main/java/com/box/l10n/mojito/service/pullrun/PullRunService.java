@@ -9,6 +9,7 @@ import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 /**
@@ -32,6 +33,10 @@ public class PullRunService {
 
   @Autowired PullRunTextUnitVariantRepository pullRunTextUnitVariantRepository;
 
+  /**
+   * Gets or creates the pull run. Requests for the same pull run (eg. files pulled in parallel) can
+   * race to create it, the loser of the race gets the pull run created by the other request.
+   */
   public PullRun getOrCreate(String pullRunName, Repository repository) {
     return pullRunRepository
         .findByName(pullRunName)
@@ -40,7 +45,12 @@ public class PullRunService {
               PullRun pullRun = new PullRun();
               pullRun.setName(pullRunName);
               pullRun.setRepository(repository);
-              pullRunRepository.save(pullRun);
+              try {
+                pullRunRepository.save(pullRun);
+              } catch (DataIntegrityViolationException dive) {
+                logger.debug("Pull run: {} created concurrently, get it", pullRunName);
+                return pullRunRepository.findByName(pullRunName).orElseThrow(() -> dive);
+              }
               return pullRun;
             });
   }
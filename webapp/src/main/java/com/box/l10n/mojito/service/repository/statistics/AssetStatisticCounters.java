@@ -0,0 +1,197 @@
+package com.box.l10n.mojito.service.repository.statistics;
+
+import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Counts the text units, and their words, that match a list of predicates for an asset and a
+ * locale.
+ *
+ * <p>The counters are updated incrementally. The state of each text unit (the predicates it matches
+ * and its word count) is kept so that an update only applies the deltas: new and removed text units
+ * and text units whose state changed (status transition, used to unused, etc).
+ *
+ * <p>The word count of a text unit is computed only once since the source of a text unit can't
+ * change.
+ *
+ * <p>The states are kept in primitive arrays sorted by text unit id, an update is a merge of the
+ * previous states with the current text units sorted by id.
+ */
+class AssetStatisticCounters {
+
+  /** Approximate size of the counters without the arrays (object and array headers, fields) */
+  static final int OBJECT_OVERHEAD_BYTES = 128;
+
+  final ImmutableList<Predicate<TextUnitDTO>> predicates;
+
+  final long[] textUnitCounts;
+
+  final long[] wordCounts;
+
+  /** Ids of the text units tracked, sorted, only the first {@link #size} entries are used */
+  long[] tmTextUnitIds = new long[0];
+
+  /**
+   * State of each text unit of {@link #tmTextUnitIds}: word count in the high bits, matching
+   * predicates in the low bits
+   */
+  long[] states = new long[0];
+
+  /** Number of text units tracked */
+  int size = 0;
+
+  /**
+   * Arrays swapped with {@link #tmTextUnitIds} and {@link #states} on each update so that they are
+   * reused instead of allocating new arrays for each update
+   */
+  long[] spareTmTextUnitIds = new long[0];
+
+  long[] spareStates = new long[0];
+
+  AssetStatisticCounters(List<Predicate<TextUnitDTO>> predicates) {
+    Preconditions.checkArgument(predicates.size() < Integer.SIZE, "Too many predicates");
+    this.predicates = ImmutableList.copyOf(predicates);
+    this.textUnitCounts = new long[predicates.size()];
+    this.wordCounts = new long[predicates.size()];
+  }
+
+  /**
+   * Updates the counters with the current text units of the asset and locale.
+   *
+   * @param textUnitDTOs the current text units
+   * @param wordCountFunction computes the word count of a text unit
+   */
+  synchronized void update(
+      Collection<TextUnitDTO> textUnitDTOs, ToLongFunction<TextUnitDTO> wordCountFunction) {
+
+    // text units usually come sorted by id already, sorting is then linear
+    TextUnitDTO[] sortedTextUnitDTOs = textUnitDTOs.toArray(new TextUnitDTO[0]);
+    Arrays.sort(sortedTextUnitDTOs, Comparator.comparingLong(TextUnitDTO::getTmTextUnitId));
+
+    int newSize = sortedTextUnitDTOs.length;
+
+    if (spareTmTextUnitIds.length < newSize || spareTmTextUnitIds.length > 2 * newSize) {
+      spareTmTextUnitIds = new long[newSize];
+      spareStates = new long[newSize];
+    }
+
+    long[] newTmTextUnitIds = spareTmTextUnitIds;
+    long[] newStates = spareStates;
+    int previous = 0;
+
+    for (int i = 0; i < newSize; i++) {
+      TextUnitDTO textUnitDTO = sortedTextUnitDTOs[i];
+      long tmTextUnitId = textUnitDTO.getTmTextUnitId();
+
+      while (previous < size && tmTextUnitIds[previous] < tmTextUnitId) {
+        apply(states[previous++], -1);
+      }
+
+      boolean tracked = previous < size && tmTextUnitIds[previous] == tmTextUnitId;
+
+      long wordCount =
+          tracked
+              ? getStateWordCount(states[previous])
+              : wordCountFunction.applyAsLong(textUnitDTO);
+      long state = getState(wordCount, getMatches(textUnitDTO));
+
+      if (!tracked) {
+        apply(state, 1);
+      } else {
+        if (states[previous] != state) {
+          apply(states[previous], -1);
+          apply(state, 1);
+        }
+        previous++;
+      }
+
+      newTmTextUnitIds[i] = tmTextUnitId;
+      newStates[i] = state;
+    }
+
+    while (previous < size) {
+      apply(states[previous++], -1);
+    }
+
+    spareTmTextUnitIds = tmTextUnitIds;
+    spareStates = states;
+    tmTextUnitIds = newTmTextUnitIds;
+    states = newStates;
+    size = newSize;
+  }
+
+  synchronized long getTextUnitCount(int predicateIndex) {
+    return textUnitCounts[predicateIndex];
+  }
+
+  synchronized long getWordCount(int predicateIndex) {
+    return wordCounts[predicateIndex];
+  }
+
+  /** @return the number of text units tracked */
+  synchronized int size() {
+    return size;
+  }
+
+  /** @return the approximate number of bytes retained by the counters */
+  synchronized long getRetainedBytes() {
+    long arrayLengths =
+        tmTextUnitIds.length
+            + states.length
+            + spareTmTextUnitIds.length
+            + spareStates.length
+            + textUnitCounts.length
+            + wordCounts.length;
+    return Long.BYTES * arrayLengths + OBJECT_OVERHEAD_BYTES;
+  }
+
+  /**
+   * @param other counters with the same predicates
+   * @return {@code true} if both counters have the same counts
+   */
+  synchronized boolean hasSameCounts(AssetStatisticCounters other) {
+    boolean sameCounts = true;
+    for (int i = 0; i < textUnitCounts.length && sameCounts; i++) {
+      sameCounts =
+          textUnitCounts[i] == other.getTextUnitCount(i) && wordCounts[i] == other.getWordCount(i);
+    }
+    return sameCounts;
+  }
+
+  int getMatches(TextUnitDTO textUnitDTO) {
+    int matches = 0;
+    for (int i = 0; i < predicates.size(); i++) {
+      if (predicates.get(i).test(textUnitDTO)) {
+        matches |= 1 << i;
+      }
+    }
+    return matches;
+  }
+
+  void apply(long state, int sign) {
+    int matches = (int) state;
+    long wordCount = getStateWordCount(state);
+
+    for (int i = 0; i < textUnitCounts.length; i++) {
+      if ((matches & (1 << i)) != 0) {
+        textUnitCounts[i] += sign;
+        wordCounts[i] += sign * wordCount;
+      }
+    }
+  }
+
+  static long getState(long wordCount, int matches) {
+    return (wordCount << Integer.SIZE) | (matches & 0xFFFFFFFFL);
+  }
+
+  static long getStateWordCount(long state) {
+    return state >>> Integer.SIZE;
+  }
+}
@@ -0,0 +1,141 @@
+package com.box.l10n.mojito.service.repository.statistics;
+
+import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the {@link AssetStatisticCounters} of the assets and locales in memory so that the
+ * statistics can be updated incrementally.
+ *
+ * <p>The cache is bounded by the memory retained by the counters (64MB by default, see {@link
+ * AssetStatisticCounters#getRetainedBytes()}). An evicted entry is just recomputed from scratch on
+ * the next update, as is the case when statistics are computed on a node for the first time.
+ *
+ * <p>The counters of an asset that is updated on another node become outdated on this node. The
+ * {@link com.box.l10n.mojito.entity.RepositoryStatistic#getCountersUpdateId()} written by this node
+ * is kept per repository: if the persisted id is different, another node updated the statistics in
+ * between and the counters of the repository must not be reused (see {@link #isUpToDate(Long,
+ * String)}).
+ */
+@Component
+public class AssetStatisticCountersCache {
+
+  final Cache<Key, AssetStatisticCounters> cache;
+
+  final Map<Long, String> countersUpdateIdsByRepositoryId = new ConcurrentHashMap<>();
+
+  public AssetStatisticCountersCache(
+      @Value("${l10n.repositoryStatistics.counters.maximumBytes:67108864}") long maximumBytes,
+      @Value("${l10n.repositoryStatistics.counters.expireAfterWrite:PT10M}")
+          Duration expireAfterWrite,
+      MeterRegistry meterRegistry) {
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumWeight(maximumBytes)
+            .expireAfterWrite(expireAfterWrite.toMillis(), TimeUnit.MILLISECONDS)
+            .<Key, AssetStatisticCounters>weigher(
+                (key, value) -> (int) Math.min(Integer.MAX_VALUE, value.getRetainedBytes()))
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "AssetStatisticCountersCache");
+  }
+
+  /**
+   * Gets the counters of an asset and a locale, creating them if missing.
+   *
+   * <p>The base counters are stored under the default locale which can also be a target locale of a
+   * repository with another source locale: {@code isRootLocale} keeps both kinds of counters apart.
+   *
+   * @param assetId
+   * @param localeId
+   * @param isRootLocale {@code true} for the base counters, {@code false} for the locale counters
+   * @param predicates the predicates of the counters, must always be the same for an asset, a
+   *     locale and {@code isRootLocale}
+   * @return the counters
+   */
+  AssetStatisticCounters get(
+      Long assetId, Long localeId, boolean isRootLocale, List<Predicate<TextUnitDTO>> predicates) {
+    return cache.get(
+        new Key(assetId, localeId, isRootLocale), k -> new AssetStatisticCounters(predicates));
+  }
+
+  AssetStatisticCounters getIfPresent(Long assetId, Long localeId, boolean isRootLocale) {
+    return cache.getIfPresent(new Key(assetId, localeId, isRootLocale));
+  }
+
+  /**
+   * Puts the counters of an asset and a locale. Must be called after updating the counters so that
+   * the weight of the entry is right.
+   */
+  void put(
+      Long assetId,
+      Long localeId,
+      boolean isRootLocale,
+      AssetStatisticCounters assetStatisticCounters) {
+    cache.put(new Key(assetId, localeId, isRootLocale), assetStatisticCounters);
+  }
+
+  /**
+   * Indicates if the counters of a repository are up to date, ie. the statistics were last updated
+   * by this node.
+   *
+   * @param repositoryId
+   * @param countersUpdateId the persisted {@link
+   *     com.box.l10n.mojito.entity.RepositoryStatistic#getCountersUpdateId()}
+   * @return {@code true} if the counters can be reused
+   */
+  boolean isUpToDate(Long repositoryId, String countersUpdateId) {
+    return countersUpdateId != null
+        && countersUpdateId.equals(countersUpdateIdsByRepositoryId.get(repositoryId));
+  }
+
+  /**
+   * Records the id written by this node once all the counters of a repository have been updated.
+   */
+  void setCountersUpdateId(Long repositoryId, String countersUpdateId) {
+    countersUpdateIdsByRepositoryId.put(repositoryId, countersUpdateId);
+  }
+
+  static class Key {
+    Long assetId;
+    Long localeId;
+    boolean isRootLocale;
+
+    Key(Long assetId, Long localeId, boolean isRootLocale) {
+      this.assetId = assetId;
+      this.localeId = localeId;
+      this.isRootLocale = isRootLocale;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return isRootLocale == key.isRootLocale
+          && Objects.equals(assetId, key.assetId)
+          && Objects.equals(localeId, key.localeId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(assetId, localeId, isRootLocale);
+    }
+  }
+}
@@ -1,7 +1,5 @@
 package com.box.l10n.mojito.service.repository.statistics;
 
-import static com.box.l10n.mojito.utils.Predicates.not;
-
 import com.box.l10n.mojito.entity.Repository;
 import com.box.l10n.mojito.entity.RepositoryLocale;
 import com.box.l10n.mojito.entity.RepositoryLocaleStatistic;
@@ -28,14 +26,23 @@ import com.box.l10n.mojito.service.tm.textunitdtocache.UpdateType;
 import com.google.common.collect.ImmutableList;
 import com.ibm.icu.text.PluralRules;
 import com.ibm.icu.util.ULocale;
-import java.util.Map;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
 /**
@@ -49,6 +56,33 @@ public class RepositoryStatisticService {
   /** logger */
   static Logger logger = LoggerFactory.getLogger(RepositoryStatisticService.class);
 
+  /** Indexes of the predicates used to compute the base statistics */
+  static final int USED = 0;
+
+  static final int UNUSED = 1;
+
+  static final int UNCOMMENTED = 2;
+
+  static final int PLURAL = 3;
+
+  static final ImmutableList<Predicate<TextUnitDTO>> BASE_PREDICATES =
+      ImmutableList.of(
+          TextUnitDTO::isUsed,
+          t -> !t.isUsed(),
+          t -> t.getComment() == null,
+          t -> t.getPluralForm() != null);
+
+  /** Indexes of the predicates used to compute the locale statistics */
+  static final int TRANSLATED = 0;
+
+  static final int TRANSLATION_NEEDED = 1;
+
+  static final int REVIEW_NEEDED = 2;
+
+  static final int INCLUDE_IN_FILE = 3;
+
+  static final int FOR_TRANSLATION = 4;
+
   @Autowired RepositoryRepository repositoryRepository;
 
   @Autowired RepositoryStatisticRepository repositoryStatisticRepository;
@@ -81,6 +115,16 @@ public class RepositoryStatisticService {
 
   @Autowired LocaleService localeService;
 
+  @Autowired AssetStatisticCountersCache assetStatisticCountersCache;
+
+  @Autowired MeterRegistry meterRegistry;
+
+  @Autowired RepositoryStatisticsUpdatedReactor repositoryStatisticsUpdatedReactor;
+
+  @Autowired
+  @Qualifier("repositoryStatisticsExecutor")
+  AsyncTaskExecutor repositoryStatisticsExecutor;
+
   @Value("${l10n.repositoryStatistics.computeOutOfSla:false}")
   boolean computeOutOfSla;
 
@@ -90,6 +134,25 @@ public class RepositoryStatisticService {
    * @param repositoryId {@link Repository#id}
    */
   public void updateStatistics(Long repositoryId) {
+    updateStatistics(repositoryId, null, false);
+  }
+
+  /**
+   * Updates the {@link RepositoryStatistic} of a given repository.
+   *
+   * <p>Only the text units of the assets that changed are read, the counters of the other assets
+   * are reused if they are in the {@link AssetStatisticCountersCache}. If the statistics were last
+   * updated by another node, the counters of this node may be outdated and all the assets are
+   * updated.
+   *
+   * @param repositoryId {@link Repository#id}
+   * @param assetIds the assets that changed, {@code null} to update all the assets. When
+   *     reconciling, all the assets are updated and these are the assets whose changes are not yet
+   *     in the counters ({@code null} if unknown)
+   * @param reconcile to recompute the statistics of all the assets from scratch and correct the
+   *     incremental counters if they drifted
+   */
+  public void updateStatistics(Long repositoryId, Set<Long> assetIds, boolean reconcile) {
 
     Repository repository = repositoryRepository.findById(repositoryId).orElse(null);
 
@@ -102,8 +165,16 @@ public class RepositoryStatisticService {
       repositoryStatistic = new RepositoryStatistic();
     }
 
+    if (assetIds != null
+        && !assetStatisticCountersCache.isUpToDate(
+            repositoryId, repositoryStatistic.getCountersUpdateId())) {
+      logger.debug("Statistics last updated by another node, update all the assets");
+      assetIds = null;
+    }
+
     logger.debug("Update current entity with new statitsitcs");
-    RepositoryStatistic newRepositoryStatistics = computeBaseStatistics(repositoryId);
+    RepositoryStatistic newRepositoryStatistics =
+        computeBaseStatistics(repositoryId, assetIds, reconcile);
 
     repositoryStatistic.setUsedTextUnitCount(newRepositoryStatistics.getUsedTextUnitCount());
     repositoryStatistic.setUsedTextUnitWordCount(
@@ -122,14 +193,19 @@ public class RepositoryStatisticService {
     // TODO(P1) This should be updated by spring but it's not, needs review
     repositoryStatistic.setLastModifiedDate(DateTime.now());
 
+    String countersUpdateId = UUID.randomUUID().toString();
+    repositoryStatistic.setCountersUpdateId(countersUpdateId);
+
     repositoryStatisticRepository.save(repositoryStatistic);
 
     logger.debug("Update locale statistics");
     for (RepositoryLocale repositoryLocale :
         repositoryService.getRepositoryLocalesWithoutRootLocale(repository)) {
-      updateLocaleStatistics(repositoryLocale, repositoryStatistic);
+      updateLocaleStatistics(repositoryLocale, repositoryStatistic, assetIds, reconcile);
     }
 
+    assetStatisticCountersCache.setCountersUpdateId(repositoryId, countersUpdateId);
+
     logger.debug("Update branch statistics");
     branchStatisticService.computeAndSaveBranchStatistics(repositoryId, UpdateType.NEVER);
 
@@ -141,9 +217,14 @@ public class RepositoryStatisticService {
    *
    * @param repositoryLocale the repository locale
    * @param repositoryStatistic the parent entity that old the repository statistics
+   * @param assetIds see {@link #updateStatistics(Long, Set, boolean)}
+   * @param reconcile see {@link #updateStatistics(Long, Set, boolean)}
    */
   void updateLocaleStatistics(
-      RepositoryLocale repositoryLocale, RepositoryStatistic repositoryStatistic) {
+      RepositoryLocale repositoryLocale,
+      RepositoryStatistic repositoryStatistic,
+      Set<Long> assetIds,
+      boolean reconcile) {
 
     logger.debug(
         "Get current statistics for locale: {}", repositoryLocale.getLocale().getBcp47Tag());
@@ -161,7 +242,7 @@ public class RepositoryStatisticService {
     logger.debug(
         "Compute new statistics for locale: {}", repositoryLocale.getLocale().getBcp47Tag());
     RepositoryLocaleStatistic newRepositoryLocaleStatistic =
-        computeLocaleStatistics(repositoryLocale);
+        computeLocaleStatistics(repositoryLocale, assetIds, reconcile);
 
     repositoryLocaleStatistic.setIncludeInFileCount(
         newRepositoryLocaleStatistic.getIncludeInFileCount());
@@ -195,85 +276,47 @@ public class RepositoryStatisticService {
    * @return the base statistic of the repository
    */
   public RepositoryStatistic computeBaseStatistics(Long repositoryId) {
+    return computeBaseStatistics(repositoryId, null, false);
+  }
+
+  /**
+   * Computes base statistics (used/unused text unit count, word count, ...) for a repository.
+   *
+   * <p>The statistics are updated incrementally from the changes in the text units, see {@link
+   * AssetStatisticCounters}.
+   *
+   * @param repositoryId {@link Repository#id}
+   * @param assetIds see {@link #updateStatistics(Long, Set, boolean)}
+   * @param reconcile see {@link #updateStatistics(Long, Set, boolean)}
+   * @return the base statistic of the repository
+   */
+  RepositoryStatistic computeBaseStatistics(
+      Long repositoryId, Set<Long> assetIds, boolean reconcile) {
 
     logger.debug("computeBaseStatistics for repository id: {}", repositoryId);
-    RepositoryStatistic repositoryStatistic =
-        assetRepository.findIdByRepositoryIdAndDeleted(repositoryId, false).stream()
-            .map(
-                assetId -> {
-                  ImmutableList<TextUnitDTO> textUnitDTOsForAssetAndLocale =
-                      textUnitDTOsCacheService.getTextUnitDTOsForAssetAndLocale(
-                          assetId,
-                          localeService.getDefaultLocale().getId(),
-                          true,
-                          UpdateType.ALWAYS);
-
-                  logger.debug(
-                      "computeBaseStatistics, text unit dto size: {}",
-                      textUnitDTOsForAssetAndLocale.size());
-
-                  RepositoryStatistic assetRepositoryStatistic = new RepositoryStatistic();
-
-                  assetRepositoryStatistic.setUsedTextUnitCount(
-                      textUnitDTOsForAssetAndLocale.stream()
-                          .filter(TextUnitDTO::isUsed)
-                          .peek(t -> logger.trace("used: {}", t.getName()))
-                          .count());
-                  assetRepositoryStatistic.setUsedTextUnitWordCount(
-                      textUnitDTOsForAssetAndLocale.stream()
-                          .filter(TextUnitDTO::isUsed)
-                          .mapToLong(wordCountFunction())
-                          .sum());
-
-                  assetRepositoryStatistic.setUnusedTextUnitCount(
-                      textUnitDTOsForAssetAndLocale.stream()
-                          .filter(not(TextUnitDTO::isUsed))
-                          .peek(t -> logger.trace("unused: {}", t.getName()))
-                          .count());
-                  assetRepositoryStatistic.setUnusedTextUnitWordCount(
-                      textUnitDTOsForAssetAndLocale.stream()
-                          .filter(not(TextUnitDTO::isUsed))
-                          .mapToLong(wordCountFunction())
-                          .sum());
-
-                  assetRepositoryStatistic.setUncommentedTextUnitCount(
-                      textUnitDTOsForAssetAndLocale.stream()
-                          .filter(t -> t.getComment() == null)
-                          .peek(t -> logger.trace("uncommented: {}", t.getName()))
-                          .count());
-
-                  assetRepositoryStatistic.setPluralTextUnitCount(
-                      textUnitDTOsForAssetAndLocale.stream()
-                          .filter(t -> t.getPluralForm() != null)
-                          .peek(t -> logger.trace("plural: {}", t.getName()))
-                          .count());
-                  assetRepositoryStatistic.setPluralTextUnitWordCount(
-                      textUnitDTOsForAssetAndLocale.stream()
-                          .filter(t -> t.getPluralForm() != null)
-                          .mapToLong(wordCountFunction())
-                          .sum());
-
-                  return assetRepositoryStatistic;
-                })
-            .reduce(
-                new RepositoryStatistic(),
-                (r1, r2) -> {
-                  RepositoryStatistic sum = new RepositoryStatistic();
-                  sum.setUsedTextUnitCount(r1.getUsedTextUnitCount() + r2.getUsedTextUnitCount());
-                  sum.setUsedTextUnitWordCount(
-                      r1.getUsedTextUnitWordCount() + r2.getUsedTextUnitWordCount());
-                  sum.setUncommentedTextUnitCount(
-                      r1.getUncommentedTextUnitCount() + r2.getUncommentedTextUnitCount());
-                  sum.setPluralTextUnitCount(
-                      r1.getPluralTextUnitCount() + r2.getPluralTextUnitCount());
-                  sum.setPluralTextUnitWordCount(
-                      r1.getPluralTextUnitWordCount() + r2.getPluralTextUnitWordCount());
-                  sum.setUnusedTextUnitCount(
-                      r1.getUnusedTextUnitCount() + r2.getUnusedTextUnitCount());
-                  sum.setUnusedTextUnitWordCount(
-                      r1.getUnusedTextUnitWordCount() + r2.getUnusedTextUnitWordCount());
-                  return sum;
-                });
+    Long rootLocaleId = localeService.getDefaultLocale().getId();
+
+    RepositoryStatistic repositoryStatistic = new RepositoryStatistic();
+
+    for (AssetStatisticCounters counters :
+        updateCountersOfAssets(
+            repositoryId, rootLocaleId, true, BASE_PREDICATES, assetIds, reconcile)) {
+      repositoryStatistic.setUsedTextUnitCount(
+          repositoryStatistic.getUsedTextUnitCount() + counters.getTextUnitCount(USED));
+      repositoryStatistic.setUsedTextUnitWordCount(
+          repositoryStatistic.getUsedTextUnitWordCount() + counters.getWordCount(USED));
+      repositoryStatistic.setUnusedTextUnitCount(
+          repositoryStatistic.getUnusedTextUnitCount() + counters.getTextUnitCount(UNUSED));
+      repositoryStatistic.setUnusedTextUnitWordCount(
+          repositoryStatistic.getUnusedTextUnitWordCount() + counters.getWordCount(UNUSED));
+      repositoryStatistic.setUncommentedTextUnitCount(
+          repositoryStatistic.getUncommentedTextUnitCount()
+              + counters.getTextUnitCount(UNCOMMENTED));
+      repositoryStatistic.setPluralTextUnitCount(
+          repositoryStatistic.getPluralTextUnitCount() + counters.getTextUnitCount(PLURAL));
+      repositoryStatistic.setPluralTextUnitWordCount(
+          repositoryStatistic.getPluralTextUnitWordCount() + counters.getWordCount(PLURAL));
+    }
 
     // we don't re-implement OOSLA for now, thinking of removing that feature
     // updateRepositoryStatisticWithOutOfSla(repositoryId, repositoryStatistic);
@@ -288,160 +331,194 @@ public class RepositoryStatisticService {
    * @return the statistics of the repository locale
    */
   public RepositoryLocaleStatistic computeLocaleStatistics(RepositoryLocale repositoryLocale) {
+    return computeLocaleStatistics(repositoryLocale, null, false);
+  }
+
+  /**
+   * Computes the locale statistics for a repository and a locale.
+   *
+   * <p>The statistics are updated incrementally from the changes in the text units, see {@link
+   * AssetStatisticCounters}.
+   *
+   * @param repositoryLocale
+   * @param assetIds see {@link #updateStatistics(Long, Set, boolean)}
+   * @param reconcile see {@link #updateStatistics(Long, Set, boolean)}
+   * @return the statistics of the repository locale
+   */
+  RepositoryLocaleStatistic computeLocaleStatistics(
+      RepositoryLocale repositoryLocale, Set<Long> assetIds, boolean reconcile) {
 
     logger.debug("Compute locale statistic for repositoryLocale id: {}", repositoryLocale.getId());
 
     long repositoryId = repositoryLocale.getRepository().getId();
+    Long localeId = repositoryLocale.getLocale().getId();
+
+    RepositoryLocaleStatistic repositoryLocaleStatisticNew = new RepositoryLocaleStatistic();
+    ImmutableList<Predicate<TextUnitDTO>> localePredicates = getLocalePredicates();
+
+    for (AssetStatisticCounters counters :
+        updateCountersOfAssets(
+            repositoryId, localeId, false, localePredicates, assetIds, reconcile)) {
+      RepositoryLocaleStatistic r = repositoryLocaleStatisticNew;
+      r.setTranslatedCount(r.getTranslatedCount() + counters.getTextUnitCount(TRANSLATED));
+      r.setTranslatedWordCount(r.getTranslatedWordCount() + counters.getWordCount(TRANSLATED));
+      r.setTranslationNeededCount(
+          r.getTranslationNeededCount() + counters.getTextUnitCount(TRANSLATION_NEEDED));
+      r.setTranslationNeededWordCount(
+          r.getTranslationNeededWordCount() + counters.getWordCount(TRANSLATION_NEEDED));
+      r.setReviewNeededCount(r.getReviewNeededCount() + counters.getTextUnitCount(REVIEW_NEEDED));
+      r.setReviewNeededWordCount(
+          r.getReviewNeededWordCount() + counters.getWordCount(REVIEW_NEEDED));
+      r.setIncludeInFileCount(
+          r.getIncludeInFileCount() + counters.getTextUnitCount(INCLUDE_IN_FILE));
+      r.setIncludeInFileWordCount(
+          r.getIncludeInFileWordCount() + counters.getWordCount(INCLUDE_IN_FILE));
+      r.setForTranslationCount(
+          r.getForTranslationCount() + counters.getTextUnitCount(FOR_TRANSLATION));
+      r.setForTranslationWordCount(
+          r.getForTranslationWordCount() + counters.getWordCount(FOR_TRANSLATION));
+    }
+
+    repositoryLocaleStatisticNew.setDiffToSourcePluralCount(
+        computeDiffToSourceLocaleCount(repositoryLocale.getLocale().getBcp47Tag()));
+    repositoryLocaleStatisticNew.setLocale(repositoryLocale.getLocale());
+    return repositoryLocaleStatisticNew;
+  }
+
+  /**
+   * Updates the counters of each asset of a repository for a locale.
+   *
+   * <p>Only the assets that changed are updated, the cached counters of the other assets are
+   * reused. An asset without cached counters (first computation on this node or evicted entry) is
+   * updated too.
+   *
+   * <p>The assets are processed in parallel with the {@link #repositoryStatisticsExecutor}. Each
+   * asset is aggregated in a single pass over its cached TextUnitDTOs, see {@link
+   * AssetStatisticCounters#update(Collection, ToLongFunction)}.
+   *
+   * @param assetIds the assets that changed, {@code null} to update all the assets
+   * @param reconcile see {@link #updateCounters(Long, Long, boolean, List, Collection, boolean,
+   *     boolean)}
+   * @return the counters of each asset
+   */
+  List<AssetStatisticCounters> updateCountersOfAssets(
+      Long repositoryId,
+      Long localeId,
+      boolean isRootLocale,
+      List<Predicate<TextUnitDTO>> predicates,
+      Set<Long> assetIds,
+      boolean reconcile) {
 
-    RepositoryLocaleStatistic repositoryLocaleStatisticNew =
+    boolean updateAllAssets = assetIds == null || reconcile;
+
+    List<CompletableFuture<AssetStatisticCounters>> futures =
         assetRepository.findIdByRepositoryIdAndDeleted(repositoryId, false).stream()
             .map(
                 assetId -> {
-                  Map<String, TextUnitDTO> textUnitDTOsForLocaleByMD5 =
-                      textUnitDTOsCacheService.getTextUnitDTOsForAssetAndLocaleByMD5(
-                          assetId,
-                          repositoryLocale.getLocale().getId(),
-                          null,
-                          false,
-                          UpdateType.ALWAYS);
-
-                  RepositoryLocaleStatistic repositoryLocaleStatistic =
-                      new RepositoryLocaleStatistic();
-
-                  repositoryLocaleStatistic.setTranslatedCount(
-                      textUnitDTOsForLocaleByMD5.values().stream()
-                          .filter(TextUnitDTO::isTranslated)
-                          .filter(TextUnitDTO::isUsed)
-                          .peek(
-                              t ->
-                                  logger.debug(
-                                      "translated for {}: {}", t.getTargetLocale(), t.getName()))
-                          .count());
-
-                  repositoryLocaleStatistic.setTranslatedWordCount(
-                      textUnitDTOsForLocaleByMD5.values().stream()
-                          .filter(TextUnitDTO::isTranslated)
-                          .filter(TextUnitDTO::isUsed)
-                          .mapToLong(wordCountFunction())
-                          .sum());
-
-                  repositoryLocaleStatistic.setTranslationNeededCount(
-                      textUnitDTOsForLocaleByMD5.values().stream()
-                          .filter(TextUnitDTO::isUsed)
-                          .filter(
-                              textUnitDTOsCacheService.statusPredicate(
-                                  StatusFilter.TRANSLATION_NEEDED))
-                          .peek(
-                              t ->
-                                  logger.debug(
-                                      "translation needed for {}: {}",
-                                      t.getTargetLocale(),
-                                      t.getName()))
-                          .count());
-
-                  repositoryLocaleStatistic.setTranslationNeededWordCount(
-                      textUnitDTOsForLocaleByMD5.values().stream()
-                          .filter(TextUnitDTO::isUsed)
-                          .filter(
-                              textUnitDTOsCacheService.statusPredicate(
-                                  StatusFilter.TRANSLATION_NEEDED))
-                          .mapToLong(wordCountFunction())
-                          .sum());
-
-                  repositoryLocaleStatistic.setReviewNeededCount(
-                      textUnitDTOsForLocaleByMD5.values().stream()
-                          .filter(TextUnitDTO::isUsed)
-                          .filter(
-                              textUnitDTOsCacheService.statusPredicate(StatusFilter.REVIEW_NEEDED))
-                          .peek(
-                              t ->
-                                  logger.debug(
-                                      "review needed for {}: {}", t.getTargetLocale(), t.getName()))
-                          .count());
-
-                  repositoryLocaleStatistic.setReviewNeededWordCount(
-                      textUnitDTOsForLocaleByMD5.values().stream()
-                          .filter(TextUnitDTO::isUsed)
-                          .filter(
-                              textUnitDTOsCacheService.statusPredicate(StatusFilter.REVIEW_NEEDED))
-                          .mapToLong(wordCountFunction())
-                          .sum());
-
-                  repositoryLocaleStatistic.setIncludeInFileCount(
-                      textUnitDTOsForLocaleByMD5.values().stream()
-                          .filter(TextUnitDTO::isUsed)
-                          .filter(TextUnitDTO::isIncludedInLocalizedFile)
-                          .peek(
-                              t ->
-                                  logger.debug(
-                                      "include in file for {}: {}",
-                                      t.getTargetLocale(),
-                                      t.getName()))
-                          .count());
-
-                  repositoryLocaleStatistic.setIncludeInFileWordCount(
-                      textUnitDTOsForLocaleByMD5.values().stream()
-                          .filter(TextUnitDTO::isUsed)
-                          .filter(TextUnitDTO::isIncludedInLocalizedFile)
-                          .mapToLong(wordCountFunction())
-                          .sum());
-
-                  repositoryLocaleStatistic.setForTranslationCount(
-                      textUnitDTOsForLocaleByMD5.values().stream()
-                          .filter(TextUnitDTO::isUsed)
-                          .filter(not(TextUnitDTO::isDoNotTranslate))
-                          .filter(
-                              textUnitDTOsCacheService.statusPredicate(
-                                  StatusFilter.FOR_TRANSLATION))
-                          .peek(
-                              t ->
-                                  logger.debug(
-                                      "for translation for {}: {}",
-                                      t.getTargetLocale(),
-                                      t.getName()))
-                          .count());
-
-                  repositoryLocaleStatistic.setForTranslationWordCount(
-                      textUnitDTOsForLocaleByMD5.values().stream()
-                          .filter(TextUnitDTO::isUsed)
-                          .filter(not(TextUnitDTO::isDoNotTranslate))
-                          .filter(
-                              textUnitDTOsCacheService.statusPredicate(
-                                  StatusFilter.FOR_TRANSLATION))
-                          .mapToLong(wordCountFunction())
-                          .sum());
-
-                  return repositoryLocaleStatistic;
+                  AssetStatisticCounters unchanged =
+                      updateAllAssets || assetIds.contains(assetId)
+                          ? null
+                          : assetStatisticCountersCache.getIfPresent(
+                              assetId, localeId, isRootLocale);
+
+                  if (unchanged != null) {
+                    return CompletableFuture.completedFuture(unchanged);
+                  }
+
+                  return CompletableFuture.supplyAsync(
+                      () -> {
+                        ImmutableList<TextUnitDTO> textUnitDTOs =
+                            textUnitDTOsCacheService.getTextUnitDTOsForAssetAndLocale(
+                                assetId, localeId, isRootLocale, UpdateType.ALWAYS);
+
+                        logger.debug(
+                            "updateCountersOfAssets, asset id: {}, locale id: {}, size: {}",
+                            assetId,
+                            localeId,
+                            textUnitDTOs.size());
+
+                        boolean pendingUpdate =
+                            assetIds == null
+                                || assetIds.contains(assetId)
+                                || repositoryStatisticsUpdatedReactor.isPending(
+                                    repositoryId, assetId);
+
+                        return updateCounters(
+                            assetId,
+                            localeId,
+                            isRootLocale,
+                            predicates,
+                            textUnitDTOs,
+                            reconcile,
+                            pendingUpdate);
+                      },
+                      repositoryStatisticsExecutor);
                 })
-            .reduce(
-                new RepositoryLocaleStatistic(),
-                (r1, r2) -> {
-                  RepositoryLocaleStatistic sum = new RepositoryLocaleStatistic();
-                  sum.setTranslatedCount(r1.getTranslatedCount() + r2.getTranslatedCount());
-                  sum.setTranslatedWordCount(
-                      r1.getTranslatedWordCount() + r2.getTranslatedWordCount());
-                  sum.setTranslationNeededCount(
-                      r1.getTranslationNeededCount() + r2.getTranslationNeededCount());
-                  sum.setTranslationNeededWordCount(
-                      r1.getTranslationNeededWordCount() + r2.getTranslationNeededWordCount());
-                  sum.setReviewNeededCount(r1.getReviewNeededCount() + r2.getReviewNeededCount());
-                  sum.setReviewNeededWordCount(
-                      r1.getReviewNeededWordCount() + r2.getReviewNeededWordCount());
-                  sum.setIncludeInFileCount(
-                      r1.getIncludeInFileCount() + r2.getIncludeInFileCount());
-                  sum.setIncludeInFileWordCount(
-                      r1.getIncludeInFileWordCount() + r2.getIncludeInFileWordCount());
-                  sum.setForTranslationCount(
-                      r1.getForTranslationCount() + r2.getForTranslationCount());
-                  sum.setForTranslationWordCount(
-                      r1.getForTranslationWordCount() + r2.getForTranslationWordCount());
-                  return sum;
-                });
+            .collect(Collectors.toList());
 
-    repositoryLocaleStatisticNew.setDiffToSourcePluralCount(
-        computeDiffToSourceLocaleCount(repositoryLocale.getLocale().getBcp47Tag()));
-    repositoryLocaleStatisticNew.setLocale(repositoryLocale.getLocale());
-    return repositoryLocaleStatisticNew;
+    return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+  }
+
+  /**
+   * Updates the counters of an asset and a locale with the current text units.
+   *
+   * <p>When reconciling, the counters are recomputed from scratch and replace the incremental ones.
+   * The incremental counters are compared as they are, before applying the current text units: a
+   * difference means that the statistics were outdated (eg. a change without event or counters
+   * updated on another node). The drift is logged and counted, unless an update is pending for the
+   * asset: the counters then just lag behind the changes.
+   */
+  AssetStatisticCounters updateCounters(
+      Long assetId,
+      Long localeId,
+      boolean isRootLocale,
+      List<Predicate<TextUnitDTO>> predicates,
+      Collection<TextUnitDTO> textUnitDTOs,
+      boolean reconcile,
+      boolean pendingUpdate) {
+
+    AssetStatisticCounters counters;
+
+    if (reconcile) {
+      counters = new AssetStatisticCounters(predicates);
+      counters.update(textUnitDTOs, wordCountFunction());
+
+      AssetStatisticCounters incremental =
+          assetStatisticCountersCache.getIfPresent(assetId, localeId, isRootLocale);
+
+      if (incremental != null && !pendingUpdate) {
+        if (!incremental.hasSameCounts(counters)) {
+          logger.warn(
+              "Incremental statistics drifted for asset id: {} and locale id: {}, correct them",
+              assetId,
+              localeId);
+          meterRegistry.counter("RepositoryStatisticService.drift").increment();
+        }
+      }
+    } else {
+      counters = assetStatisticCountersCache.get(assetId, localeId, isRootLocale, predicates);
+      counters.update(textUnitDTOs, wordCountFunction());
+    }
+
+    assetStatisticCountersCache.put(assetId, localeId, isRootLocale, counters);
+    return counters;
+  }
+
+  /** Only text units that are used are counted for the locale statistics. */
+  ImmutableList<Predicate<TextUnitDTO>> getLocalePredicates() {
+    Predicate<TextUnitDTO> translationNeeded =
+        textUnitDTOsCacheService.statusPredicate(StatusFilter.TRANSLATION_NEEDED);
+    Predicate<TextUnitDTO> reviewNeeded =
+        textUnitDTOsCacheService.statusPredicate(StatusFilter.REVIEW_NEEDED);
+    Predicate<TextUnitDTO> forTranslation =
+        textUnitDTOsCacheService.statusPredicate(StatusFilter.FOR_TRANSLATION);
+
+    return ImmutableList.of(
+        t -> t.isUsed() && t.isTranslated(),
+        t -> t.isUsed() && translationNeeded.test(t),
+        t -> t.isUsed() && reviewNeeded.test(t),
+        t -> t.isUsed() && t.isIncludedInLocalizedFile(),
+        t -> t.isUsed() && !t.isDoNotTranslate() && forTranslation.test(t));
   }
 
   private ToLongFunction<TextUnitDTO> wordCountFunction() {
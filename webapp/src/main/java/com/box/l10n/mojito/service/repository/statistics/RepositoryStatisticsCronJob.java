@@ -30,6 +30,10 @@ import org.springframework.stereotype.Component;
  * statistics and have them recomputed automatically. Before we'd to wait for a change in the
  * repository.
  *
+ * <p>Statistics are otherwise updated incrementally, this job also reconciles them: they are
+ * recomputed from scratch and any drift is corrected. Reconciling reads the text units of every
+ * asset and locale of every repository, so the job is only enabled when its cron is configured.
+ *
  * @author jaurambault
  */
 @Profile("!disablescheduling")
@@ -54,7 +58,7 @@ public class RepositoryStatisticsCronJob implements Job {
     logger.debug("Sets repository stats as out of date");
     List<Repository> repositories = repositoryRepository.findByDeletedFalseOrderByNameAsc();
     for (Repository repository : repositories) {
-      repositoryStatisticsJobScheduler.schedule(repository.getId());
+      repositoryStatisticsJobScheduler.schedule(repository.getId(), true);
     }
   }
 
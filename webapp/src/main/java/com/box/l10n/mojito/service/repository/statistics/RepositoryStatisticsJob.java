@@ -27,8 +27,9 @@ public class RepositoryStatisticsJob extends QuartzPollableJob<RepositoryStatist
   public Void call(RepositoryStatisticsJobInput input) throws Exception {
     Long repositoryId = input.getRepositoryId();
     Preconditions.checkNotNull(repositoryId);
-    logger.debug("Execute for repositoryId: {}", repositoryId);
-    repositoryStatisticService.updateStatistics(repositoryId);
+    logger.debug("Execute for repositoryId: {}, reconcile: {}", repositoryId, input.isReconcile());
+    repositoryStatisticService.updateStatistics(
+        repositoryId, input.getAssetIds(), input.isReconcile());
     return null;
   }
 }
@@ -1,8 +1,15 @@
 package com.box.l10n.mojito.service.repository.statistics;
 
+import java.util.Set;
+
 public class RepositoryStatisticsJobInput {
   Long repositoryId;
 
+  /** Ids of the assets that changed, {@code null} to update all the assets */
+  Set<Long> assetIds;
+
+  boolean reconcile;
+
   public Long getRepositoryId() {
     return repositoryId;
   }
@@ -10,4 +17,20 @@ public class RepositoryStatisticsJobInput {
   public void setRepositoryId(Long repositoryId) {
     this.repositoryId = repositoryId;
   }
+
+  public Set<Long> getAssetIds() {
+    return assetIds;
+  }
+
+  public void setAssetIds(Set<Long> assetIds) {
+    this.assetIds = assetIds;
+  }
+
+  public boolean isReconcile() {
+    return reconcile;
+  }
+
+  public void setReconcile(boolean reconcile) {
+    this.reconcile = reconcile;
+  }
 }
@@ -3,6 +3,8 @@ package com.box.l10n.mojito.service.repository.statistics;
 import com.box.l10n.mojito.quartz.QuartzJobInfo;
 import com.box.l10n.mojito.quartz.QuartzPollableTaskScheduler;
 import com.google.common.base.Preconditions;
+import java.util.HashSet;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -12,16 +14,76 @@ public class RepositoryStatisticsJobScheduler {
   @Autowired QuartzPollableTaskScheduler quartzPollableTaskScheduler;
 
   public void schedule(Long repositoryId) {
+    schedule(repositoryId, null, false);
+  }
+
+  /**
+   * Schedules the update of the statistics of some assets of a repository.
+   *
+   * @param repositoryId {@link com.box.l10n.mojito.entity.Repository#id}
+   * @param assetIds the assets that changed, {@code null} to update all the assets
+   */
+  public void schedule(Long repositoryId, Set<Long> assetIds) {
+    schedule(repositoryId, assetIds, false);
+  }
+
+  /**
+   * Schedules the update of the statistics of all the assets of a repository.
+   *
+   * <p>A reconciliation starts without asset that changed, the assets of the regular updates that
+   * are merged into it are kept so that their changes are not reported as drift.
+   *
+   * @param repositoryId {@link com.box.l10n.mojito.entity.Repository#id}
+   * @param reconcile to recompute the statistics from scratch
+   */
+  public void schedule(Long repositoryId, boolean reconcile) {
+    schedule(repositoryId, reconcile ? new HashSet<>() : null, reconcile);
+  }
+
+  /**
+   * Schedules the update of the statistics of a repository.
+   *
+   * <p>Regular updates and reconciliations use the same job key so that they are never executed
+   * concurrently for a repository. A reconciliation that is waiting to be executed is kept when a
+   * regular update is scheduled (the inputs are merged instead of replaced), so are the assets that
+   * changed.
+   *
+   * <p>The job is short and scheduled very often, it is executed as a lightweight job.
+   *
+   * @param repositoryId {@link com.box.l10n.mojito.entity.Repository#id}
+   * @param assetIds the assets that changed, {@code null} to update all the assets
+   * @param reconcile to recompute the statistics from scratch, see {@link
+   *     RepositoryStatisticService#updateStatistics(Long, Set, boolean)}
+   */
+  void schedule(Long repositoryId, Set<Long> assetIds, boolean reconcile) {
     Preconditions.checkNotNull(repositoryId);
 
     RepositoryStatisticsJobInput repositoryStatisticsJobInput = new RepositoryStatisticsJobInput();
     repositoryStatisticsJobInput.setRepositoryId(repositoryId);
+    repositoryStatisticsJobInput.setAssetIds(assetIds);
+    repositoryStatisticsJobInput.setReconcile(reconcile);
 
     QuartzJobInfo.Builder<RepositoryStatisticsJobInput, Void> quartzInfo =
         QuartzJobInfo.newBuilder(RepositoryStatisticsJob.class)
             .withUniqueId(String.valueOf(repositoryId))
-            .withInput(repositoryStatisticsJobInput);
+            .withInput(repositoryStatisticsJobInput)
+            .withInputMerger(this::mergeInputs)
+            .withLightweight(true);
 
     quartzPollableTaskScheduler.scheduleJob(quartzInfo.build());
   }
+
+  RepositoryStatisticsJobInput mergeInputs(
+      RepositoryStatisticsJobInput waitingInput, RepositoryStatisticsJobInput input) {
+    RepositoryStatisticsJobInput merged = new RepositoryStatisticsJobInput();
+    merged.setRepositoryId(input.getRepositoryId());
+    merged.setReconcile(waitingInput.isReconcile() || input.isReconcile());
+
+    if (waitingInput.getAssetIds() != null && input.getAssetIds() != null) {
+      Set<Long> assetIds = new HashSet<>(waitingInput.getAssetIds());
+      assetIds.addAll(input.getAssetIds());
+      merged.setAssetIds(assetIds);
+    }
+    return merged;
+  }
 }
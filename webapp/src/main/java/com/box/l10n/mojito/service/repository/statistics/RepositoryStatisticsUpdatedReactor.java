@@ -1,16 +1,43 @@
 package com.box.l10n.mojito.service.repository.statistics;
 
-import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import reactor.core.publisher.ReplayProcessor;
 
 /**
- * This class aggregates events that requires repository statistics re-computation and saves at most
- * one record for a repository per second.
+ * This class aggregates events that requires repository statistics re-computation and schedules at
+ * most one update for a repository per window (one second by default).
+ *
+ * <p>Events are coalesced in a bounded map of pending repository ids. When the map is full, the
+ * asset ids of the events for new repositories are dropped (and counted): only the repository id is
+ * kept and all the assets of the repository are updated with the next window.
+ *
+ * <p>The ids of the assets that changed are collected with the events so that only the statistics
+ * of those assets are recomputed. An event without asset id (eg. a locale added to the repository)
+ * requires to recompute the statistics of all the assets.
+ *
+ * <p>The window adapts to the load: if the number of events received during a window is above a
+ * threshold the next window is doubled (up to a maximum), else it goes back to the initial value.
+ * Burst imports then schedule fewer jobs (and pollable tasks).
  *
  * @author jaurambault
  */
@@ -22,30 +49,149 @@ public class RepositoryStatisticsUpdatedReactor {
 
   RepositoryStatisticsJobScheduler repositoryStatisticsJobScheduler;
 
-  ReplayProcessor<Long> replayProcessor;
+  /** Assets with outdated statistics by repository id, a map to coalesce events of a repository */
+  final Map<Long, PendingAssetIds> pendingAssetIdsByRepositoryId = new ConcurrentHashMap<>();
+
+  /** Repositories whose events were dropped, all their assets must be updated */
+  final Set<Long> droppedRepositoryIds = ConcurrentHashMap.newKeySet();
+
+  final AtomicLong eventsInWindow = new AtomicLong();
+
+  final ScheduledExecutorService scheduledExecutorService =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder()
+              .setNameFormat("repository-statistics-reactor")
+              .setDaemon(true)
+              .build());
+
+  final int maxPending;
+
+  final long highLoadEventsPerWindow;
+
+  final Duration maxWindow;
+
+  Duration initialWindow;
+
+  Duration window;
+
+  ScheduledFuture<?> nextFlush;
+
+  Counter receivedCounter;
+
+  Counter coalescedCounter;
+
+  Counter droppedCounter;
+
+  Counter scheduledCounter;
 
   @Autowired
   public RepositoryStatisticsUpdatedReactor(
-      RepositoryStatisticsJobScheduler repositoryStatisticsJobScheduler) {
-    this(repositoryStatisticsJobScheduler, Duration.ofSeconds(1));
+      RepositoryStatisticsJobScheduler repositoryStatisticsJobScheduler,
+      MeterRegistry meterRegistry,
+      @Value("${l10n.repositoryStatistics.reactor.maxPending:10000}") int maxPending,
+      @Value("${l10n.repositoryStatistics.reactor.highLoadEventsPerWindow:1000}")
+          long highLoadEventsPerWindow,
+      @Value("${l10n.repositoryStatistics.reactor.maxWindow:PT30S}") Duration maxWindow) {
+    this.repositoryStatisticsJobScheduler = repositoryStatisticsJobScheduler;
+    this.maxPending = maxPending;
+    this.highLoadEventsPerWindow = highLoadEventsPerWindow;
+    this.maxWindow = maxWindow;
+    createMeters(meterRegistry);
+    createProcessor(Duration.ofSeconds(1));
   }
 
   RepositoryStatisticsUpdatedReactor(
-      RepositoryStatisticsJobScheduler repositoryStatisticsJobScheduler, Duration duration) {
-    this.repositoryStatisticsJobScheduler = repositoryStatisticsJobScheduler;
-    createProcessor(duration);
+      RepositoryStatisticsJobScheduler repositoryStatisticsJobScheduler) {
+    this(
+        repositoryStatisticsJobScheduler,
+        new SimpleMeterRegistry(),
+        10000,
+        1000,
+        Duration.ofSeconds(30));
   }
 
-  void createProcessor(Duration duration) {
-    replayProcessor = ReplayProcessor.create();
-    replayProcessor
-        .buffer(duration)
-        .subscribe(
-            repositoryIds -> {
-              for (Long repositoryId : Sets.newHashSet(repositoryIds)) {
-                repositoryStatisticsJobScheduler.schedule(repositoryId);
-              }
-            });
+  void createMeters(MeterRegistry meterRegistry) {
+    meterRegistry.gaugeMapSize(
+        "RepositoryStatisticsUpdatedReactor.pending", Tags.empty(), pendingAssetIdsByRepositoryId);
+    receivedCounter = meterRegistry.counter("RepositoryStatisticsUpdatedReactor.received");
+    coalescedCounter = meterRegistry.counter("RepositoryStatisticsUpdatedReactor.coalesced");
+    droppedCounter = meterRegistry.counter("RepositoryStatisticsUpdatedReactor.dropped");
+    scheduledCounter = meterRegistry.counter("RepositoryStatisticsUpdatedReactor.scheduled");
+  }
+
+  /**
+   * (Re)starts processing the pending events with the given initial window.
+   *
+   * @param duration the initial window
+   */
+  synchronized void createProcessor(Duration duration) {
+    initialWindow = duration;
+    window = duration;
+    if (nextFlush != null) {
+      nextFlush.cancel(false);
+    }
+    scheduleNextFlush();
+  }
+
+  synchronized void scheduleNextFlush() {
+    nextFlush =
+        scheduledExecutorService.schedule(this::flush, window.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Schedules the statistics update of the pending repositories and adapts the next window to the
+   * number of events received during this window.
+   */
+  void flush() {
+    long events = eventsInWindow.getAndSet(0);
+
+    try {
+      for (Long repositoryId : new ArrayList<>(pendingAssetIdsByRepositoryId.keySet())) {
+        PendingAssetIds pendingAssetIds = pendingAssetIdsByRepositoryId.remove(repositoryId);
+        if (pendingAssetIds != null) {
+          schedule(repositoryId, pendingAssetIds);
+        }
+      }
+
+      for (Long repositoryId : new ArrayList<>(droppedRepositoryIds)) {
+        if (droppedRepositoryIds.remove(repositoryId)) {
+          PendingAssetIds allAssetIds = new PendingAssetIds();
+          allAssetIds.add(null);
+          schedule(repositoryId, allAssetIds);
+        }
+      }
+    } finally {
+      updateWindow(events);
+      scheduleNextFlush();
+    }
+  }
+
+  void schedule(Long repositoryId, PendingAssetIds pendingAssetIds) {
+    try {
+      repositoryStatisticsJobScheduler.schedule(repositoryId, pendingAssetIds.assetIds);
+      scheduledCounter.increment();
+    } catch (RuntimeException re) {
+      logger.error(
+          "Can't schedule statistics update for repository id: {}, retry next window",
+          repositoryId,
+          re);
+      pendingAssetIdsByRepositoryId.merge(repositoryId, pendingAssetIds, PendingAssetIds::addAll);
+    }
+  }
+
+  synchronized void updateWindow(long events) {
+    Duration previousWindow = window;
+
+    if (events > highLoadEventsPerWindow) {
+      Duration doubled = window.multipliedBy(2);
+      window = doubled.compareTo(maxWindow) < 0 ? doubled : maxWindow;
+    } else {
+      window = initialWindow;
+    }
+
+    if (!window.equals(previousWindow)) {
+      logger.debug("Events in window: {}, next window: {}", events, window);
+    }
   }
 
   /**
@@ -54,6 +200,93 @@ public class RepositoryStatisticsUpdatedReactor {
    * @param repositoryId
    */
   public void generateEvent(Long repositoryId) {
-    replayProcessor.onNext(repositoryId);
+    generateEvent(repositoryId, null);
+  }
+
+  /**
+   * Generates event that the statistics of an asset of a repository are outdated and need
+   * re-computation.
+   *
+   * @param repositoryId
+   * @param assetId the asset that changed, {@code null} if all the assets must be recomputed
+   */
+  public void generateEvent(Long repositoryId, Long assetId) {
+    receivedCounter.increment();
+    eventsInWindow.incrementAndGet();
+
+    if (!pendingAssetIdsByRepositoryId.containsKey(repositoryId)
+        && pendingAssetIdsByRepositoryId.size() >= maxPending) {
+      logger.warn("Too many pending repositories, drop event for repository: {}", repositoryId);
+      droppedCounter.increment();
+      droppedRepositoryIds.add(repositoryId);
+      return;
+    }
+
+    pendingAssetIdsByRepositoryId.compute(
+        repositoryId,
+        (id, pendingAssetIds) -> {
+          if (pendingAssetIds == null) {
+            pendingAssetIds = new PendingAssetIds();
+          } else {
+            coalescedCounter.increment();
+          }
+          pendingAssetIds.add(assetId);
+          return pendingAssetIds;
+        });
+  }
+
+  /**
+   * Indicates if an event of an asset is waiting for the next window on this node.
+   *
+   * @param repositoryId
+   * @param assetId
+   * @return {@code true} if the statistics of the asset will be updated with the next window
+   */
+  public boolean isPending(Long repositoryId, Long assetId) {
+    if (droppedRepositoryIds.contains(repositoryId)) {
+      return true;
+    }
+    // read under the map lock, the asset ids are mutated under that lock
+    boolean[] pending = new boolean[1];
+    pendingAssetIdsByRepositoryId.computeIfPresent(
+        repositoryId,
+        (id, pendingAssetIds) -> {
+          pending[0] = pendingAssetIds.contains(assetId);
+          return pendingAssetIds;
+        });
+    return pending[0];
+  }
+
+  @PreDestroy
+  void shutdown() {
+    scheduledExecutorService.shutdownNow();
+  }
+
+  /** Ids of the assets to recompute for a repository, only mutated under the map lock */
+  static class PendingAssetIds {
+
+    /** {@code null} to recompute all the assets */
+    Set<Long> assetIds = new HashSet<>();
+
+    void add(Long assetId) {
+      if (assetId == null) {
+        assetIds = null;
+      } else if (assetIds != null) {
+        assetIds.add(assetId);
+      }
+    }
+
+    boolean contains(Long assetId) {
+      return assetIds == null || assetIds.contains(assetId);
+    }
+
+    PendingAssetIds addAll(PendingAssetIds other) {
+      if (assetIds == null || other.assetIds == null) {
+        assetIds = null;
+      } else {
+        assetIds.addAll(other.assetIds);
+      }
+      return this;
+    }
   }
 }
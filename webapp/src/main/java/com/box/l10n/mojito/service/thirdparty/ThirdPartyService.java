@@ -19,6 +19,7 @@ import com.box.l10n.mojito.service.repository.RepositoryRepository;
 import com.box.l10n.mojito.service.screenshot.ScreenshotRepository;
 import com.box.l10n.mojito.service.tm.TMTextUnitRepository;
 import com.box.l10n.mojito.service.tm.TextUnitBatchMatcher;
+import com.box.l10n.mojito.service.tm.TextUnitBatchMatcherIndex;
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import com.box.l10n.mojito.service.tm.search.TextUnitSearcher;
 import com.box.l10n.mojito.service.tm.textunitdtocache.TextUnitDTOsCacheService;
@@ -304,6 +305,9 @@ public class ThirdPartyService {
               .collect(ImmutableList.toImmutableList());
     }
 
+    TextUnitBatchMatcherIndex notMappedTextUnitDTOsIndex =
+        textUnitBatchMatcher.createIndex(notMappedTextUnitDTOs, pluralSeparator);
+
     ImmutableMap<ThirdPartyTextUnit, ImmutableList<Long>> thirdPartyTextUnitToTmTextUnitIdMap =
         thirdPartyTextUnitsToMap.stream()
             .filter(t -> !alreadyMappedTmTextUnitId.contains(t.getTmTextUnitId()))
@@ -314,8 +318,8 @@ public class ThirdPartyService {
                         t.getTmTextUnitId() != null
                             ? ImmutableList.of(t.getTmTextUnitId())
                             : textUnitBatchMatcher
-                                .matchByNameAndPluralPrefix(notMappedTextUnitDTOs, pluralSeparator)
-                                .apply(t).stream()
+                                .matchByNameAndPluralPrefix(notMappedTextUnitDTOsIndex).apply(t)
+                                .stream()
                                 .map(TextUnitDTO::getTmTextUnitId)
                                 .collect(ImmutableList.toImmutableList())));
 
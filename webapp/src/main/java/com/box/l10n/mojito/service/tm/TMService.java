@@ -31,6 +31,7 @@ import com.box.l10n.mojito.okapi.TextUnitUtils;
 import com.box.l10n.mojito.okapi.TranslateStep;
 import com.box.l10n.mojito.okapi.XLIFFWriter;
 import com.box.l10n.mojito.okapi.asset.AssetPathToFilterConfigMapper;
+import com.box.l10n.mojito.okapi.asset.FilterPool;
 import com.box.l10n.mojito.okapi.asset.UnsupportedAssetFilterTypeException;
 import com.box.l10n.mojito.okapi.extractor.AssetExtractor;
 import com.box.l10n.mojito.okapi.filters.CopyFormsOnImport;
@@ -39,6 +40,7 @@ import com.box.l10n.mojito.okapi.qualitycheck.Parameters;
 import com.box.l10n.mojito.okapi.qualitycheck.QualityCheckStep;
 import com.box.l10n.mojito.okapi.steps.CheckForDoNotTranslateStep;
 import com.box.l10n.mojito.okapi.steps.FilterEventsToInMemoryRawDocumentStep;
+import com.box.l10n.mojito.okapi.steps.FilterEventsToOutputStreamStep;
 import com.box.l10n.mojito.quartz.QuartzJobInfo;
 import com.box.l10n.mojito.quartz.QuartzPollableTaskScheduler;
 import com.box.l10n.mojito.security.AuditorAwareImpl;
@@ -54,20 +56,35 @@ import com.box.l10n.mojito.service.pullrun.PullRunAssetService;
 import com.box.l10n.mojito.service.pullrun.PullRunService;
 import com.box.l10n.mojito.service.repository.RepositoryLocaleRepository;
 import com.box.l10n.mojito.service.repository.RepositoryRepository;
+import com.box.l10n.mojito.service.tm.textunitdtocache.TextUnitDTOsCacheService;
+import com.box.l10n.mojito.service.tm.textunitdtocache.UpdateType;
 import com.box.l10n.mojito.xliff.XliffUtils;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.io.FileBackedOutputStream;
 import com.ibm.icu.text.MessageFormat;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import javax.persistence.EntityManager;
 import net.sf.okapi.common.LocaleId;
 import net.sf.okapi.common.exceptions.OkapiBadFilterInputException;
+import net.sf.okapi.common.filters.IFilter;
 import net.sf.okapi.common.filters.IFilterConfigurationMapper;
 import net.sf.okapi.common.pipeline.BasePipelineStep;
 import net.sf.okapi.common.pipelinedriver.IPipelineDriver;
@@ -80,6 +97,8 @@ import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -99,6 +118,8 @@ public class TMService {
   /** logger */
   static Logger logger = LoggerFactory.getLogger(TMService.class);
 
+  static final int GENERATE_LOCALIZED_SPOOL_MEMORY_THRESHOLD = 1024 * 1024;
+
   @Autowired TMTextUnitRepository tmTextUnitRepository;
 
   @Autowired TMTextUnitVariantRepository tmTextUnitVariantRepository;
@@ -135,12 +156,20 @@ public class TMService {
 
   @Autowired AssetPathToFilterConfigMapper assetPathToFilterConfigMapper;
 
+  @Autowired FilterPool filterPool;
+
+  @Autowired
+  @Qualifier("generateLocalizedExecutor")
+  AsyncTaskExecutor generateLocalizedExecutor;
+
   @Autowired MeterRegistry meterRegistry;
 
   @Autowired PullRunService pullRunService;
 
   @Autowired PullRunAssetService pullRunAssetService;
 
+  @Autowired TextUnitDTOsCacheService textUnitDTOsCacheService;
+
   /**
    * Adds a {@link TMTextUnit} in a {@link TM}.
    *
@@ -1017,16 +1046,7 @@ public class TMService {
       String pullRunName)
       throws UnsupportedAssetFilterTypeException {
 
-    String bcp47Tag;
-
-    if (outputBcp47tag == null) {
-      bcp47Tag = repositoryLocale.getLocale().getBcp47Tag();
-    } else {
-      logger.debug(
-          "An output bcp47 tag: {} is specified (won't use the default tag (from the repository locale)",
-          outputBcp47tag);
-      bcp47Tag = outputBcp47tag;
-    }
+    String bcp47Tag = getOutputBcp47Tag(repositoryLocale, outputBcp47tag);
 
     logger.debug("Configuring pipeline for localized XLIFF generation");
 
@@ -1049,20 +1069,312 @@ public class TMService {
     return generateLocalizedBase;
   }
 
+  /**
+   * Same as {@link #generateLocalized(Asset, String, RepositoryLocale, String,
+   * FilterConfigIdOverride, List, Status, InheritanceMode, String)} but the content is read from a
+   * stream and the localized asset is written into a stream, so that the full content is never held
+   * in memory (except for formats that need post processing of the whole document).
+   *
+   * @param asset The {@link Asset} used to get translations
+   * @param content The content to be localized, UTF-8 is assumed if no encoding is detected
+   * @param output where the localized asset is written (with the encoding of the content), not
+   *     closed by this method
+   * @param repositoryLocale the repository locale used to fetch the translation. Also used for the
+   *     output tag if outputBcp47tag is null.
+   * @param outputBcp47tag Optional, can be null, see {@link #generateLocalized(Asset, String,
+   *     RepositoryLocale, String, FilterConfigIdOverride, List, Status, InheritanceMode, String)}
+   * @param filterConfigIdOverride
+   * @param filterOptions
+   * @param status
+   * @param inheritanceMode
+   * @param pullRunName
+   */
+  public void generateLocalized(
+      Asset asset,
+      InputStream content,
+      OutputStream output,
+      RepositoryLocale repositoryLocale,
+      String outputBcp47tag,
+      FilterConfigIdOverride filterConfigIdOverride,
+      List<String> filterOptions,
+      Status status,
+      InheritanceMode inheritanceMode,
+      String pullRunName)
+      throws UnsupportedAssetFilterTypeException {
+
+    List<Long> usedTmTextUnitVariantIds =
+        generateLocalizedInStream(
+            asset,
+            content,
+            output,
+            repositoryLocale,
+            outputBcp47tag,
+            filterConfigIdOverride,
+            filterOptions,
+            status,
+            inheritanceMode,
+            pullRunName != null,
+            UpdateType.ALWAYS);
+
+    if (pullRunName != null) {
+      replaceUsedTmTextUnitVariantIds(
+          asset, pullRunName, repositoryLocale.getLocale(), usedTmTextUnitVariantIds);
+    }
+  }
+
+  /**
+   * @param updateType how the cached TextUnitDTOs are updated, see {@link
+   *     TranslatorWithInheritance#setUpdateType(UpdateType)}
+   * @return the used {@link TMTextUnitVariant} ids if requested, {@code null} otherwise
+   */
+  List<Long> generateLocalizedInStream(
+      Asset asset,
+      InputStream content,
+      OutputStream output,
+      RepositoryLocale repositoryLocale,
+      String outputBcp47tag,
+      FilterConfigIdOverride filterConfigIdOverride,
+      List<String> filterOptions,
+      Status status,
+      InheritanceMode inheritanceMode,
+      boolean replaceUsedTmTextUnitVariantIds,
+      UpdateType updateType)
+      throws UnsupportedAssetFilterTypeException {
+
+    String bcp47Tag = getOutputBcp47Tag(repositoryLocale, outputBcp47tag);
+
+    logger.debug("Configuring pipeline for streamed localized asset generation");
+
+    TranslateStep translateStep =
+        new TranslateStep(
+            asset, repositoryLocale, inheritanceMode, status, replaceUsedTmTextUnitVariantIds);
+    translateStep.setUpdateType(updateType);
+
+    RawDocument rawDocument =
+        new RawDocument(content, LocaleId.ENGLISH, LocaleId.fromBCP47(bcp47Tag));
+
+    processLocalizationPipeline(
+        asset,
+        rawDocument,
+        filterConfigIdOverride,
+        filterOptions,
+        translateStep,
+        new FilterEventsToOutputStreamStep(output, StandardCharsets.UTF_8.name()));
+
+    return replaceUsedTmTextUnitVariantIds ? translateStep.getUsedTmTextUnitVariantIds() : null;
+  }
+
+  /**
+   * Generates the localized assets of multiple locales for the same content and writes them in a
+   * zip, one entry per locale named with the bcp47 tag of the repository locale and in the order of
+   * the given repository locales.
+   *
+   * <p>The content is normalized and loaded once, then each locale is generated in parallel with
+   * {@link #generateLocalized(Asset, InputStream, OutputStream, RepositoryLocale, String,
+   * FilterConfigIdOverride, List, Status, InheritanceMode, String)}. The content is still parsed
+   * once per locale since some filters (eg. PO, Android) generate plural forms based on the target
+   * locale while parsing.
+   *
+   * <p>Generated assets are spooled (in memory then in temporary files for large assets) until they
+   * can be written in the zip.
+   *
+   * <p>The pull run and its asset are created before generating the locales so that the parallel
+   * generations don't race to create them. The cached TextUnitDTOs of all the locales (and their
+   * parent locales) are also updated at once so that the state of the asset is read from the
+   * database only once, see {@link TextUnitDTOsCacheService#getTextUnitDTOsForAssetAndLocales}.
+   *
+   * @param asset The {@link Asset} used to get translations
+   * @param content The content to be localized
+   * @param output where the zip is written, not closed by this method
+   * @param repositoryLocales the repository locales to generate
+   * @param filterConfigIdOverride
+   * @param filterOptions
+   * @param status
+   * @param inheritanceMode
+   * @param pullRunName
+   */
+  public void generateLocalizedZip(
+      Asset asset,
+      String content,
+      OutputStream output,
+      List<RepositoryLocale> repositoryLocales,
+      FilterConfigIdOverride filterConfigIdOverride,
+      List<String> filterOptions,
+      Status status,
+      InheritanceMode inheritanceMode,
+      String pullRunName)
+      throws UnsupportedAssetFilterTypeException, IOException {
+
+    if (filterConfigIdOverride == null) {
+      // fail before starting the generation if the asset type is not supported
+      assetPathToFilterConfigMapper.getFilterConfigIdFromPath(asset.getPath());
+    }
+
+    byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8);
+
+    PullRunAsset pullRunAsset =
+        pullRunName == null ? null : getOrCreatePullRunAsset(asset, pullRunName);
+
+    textUnitDTOsCacheService.getTextUnitDTOsForAssetAndLocales(
+        asset.getId(), getLocaleIdsForTranslation(repositoryLocales), null, UpdateType.ALWAYS);
+
+    List<CompletableFuture<FileBackedOutputStream>> localizedAssets =
+        repositoryLocales.stream()
+            .map(
+                repositoryLocale ->
+                    CompletableFuture.supplyAsync(
+                        () ->
+                            generateLocalizedInSpool(
+                                asset,
+                                contentBytes,
+                                repositoryLocale,
+                                filterConfigIdOverride,
+                                filterOptions,
+                                status,
+                                inheritanceMode,
+                                pullRunAsset),
+                        generateLocalizedExecutor))
+            .collect(Collectors.toList());
+
+    int written = 0;
+
+    try {
+      ZipOutputStream zipOutputStream = new ZipOutputStream(output);
+
+      for (; written < localizedAssets.size(); written++) {
+        FileBackedOutputStream localizedAsset = joinLocalizedAsset(localizedAssets.get(written));
+        try {
+          String bcp47Tag = repositoryLocales.get(written).getLocale().getBcp47Tag();
+          zipOutputStream.putNextEntry(new ZipEntry(bcp47Tag));
+          localizedAsset.asByteSource().copyTo(zipOutputStream);
+          zipOutputStream.closeEntry();
+        } finally {
+          localizedAsset.reset();
+        }
+      }
+
+      zipOutputStream.finish();
+    } finally {
+      for (int i = written + 1; i < localizedAssets.size(); i++) {
+        localizedAssets.get(i).thenAccept(this::resetLocalizedAsset);
+      }
+    }
+  }
+
+  /**
+   * Gets the ids of the locales used to translate the repository locales: the locales and their
+   * parent locales, excluding the root locale (see {@link TranslatorWithInheritance}).
+   */
+  Set<Long> getLocaleIdsForTranslation(List<RepositoryLocale> repositoryLocales) {
+    Set<Long> localeIds = new LinkedHashSet<>();
+    for (RepositoryLocale repositoryLocale : repositoryLocales) {
+      localeIds.add(repositoryLocale.getLocale().getId());
+      RepositoryLocale parentLocale = repositoryLocale.getParentLocale();
+      while (parentLocale != null && parentLocale.getParentLocale() != null) {
+        localeIds.add(parentLocale.getLocale().getId());
+        parentLocale = parentLocale.getParentLocale();
+      }
+    }
+    return localeIds;
+  }
+
+  FileBackedOutputStream generateLocalizedInSpool(
+      Asset asset,
+      byte[] content,
+      RepositoryLocale repositoryLocale,
+      FilterConfigIdOverride filterConfigIdOverride,
+      List<String> filterOptions,
+      Status status,
+      InheritanceMode inheritanceMode,
+      PullRunAsset pullRunAsset) {
+
+    FileBackedOutputStream localizedAsset =
+        new FileBackedOutputStream(GENERATE_LOCALIZED_SPOOL_MEMORY_THRESHOLD, true);
+
+    try {
+      List<Long> usedTmTextUnitVariantIds =
+          generateLocalizedInStream(
+              asset,
+              new ByteArrayInputStream(content),
+              localizedAsset,
+              repositoryLocale,
+              null,
+              filterConfigIdOverride,
+              filterOptions,
+              status,
+              inheritanceMode,
+              pullRunAsset != null,
+              UpdateType.IF_MISSING);
+
+      if (pullRunAsset != null) {
+        replaceUsedTmTextUnitVariantIds(
+            pullRunAsset, repositoryLocale.getLocale(), usedTmTextUnitVariantIds);
+      }
+    } catch (UnsupportedAssetFilterTypeException | RuntimeException e) {
+      resetLocalizedAsset(localizedAsset);
+      Throwables.throwIfUnchecked(e);
+      throw new RuntimeException(e);
+    }
+
+    return localizedAsset;
+  }
+
+  FileBackedOutputStream joinLocalizedAsset(
+      CompletableFuture<FileBackedOutputStream> localizedAsset) {
+    try {
+      return localizedAsset.join();
+    } catch (CompletionException ce) {
+      Throwables.throwIfUnchecked(ce.getCause());
+      throw new RuntimeException(ce.getCause());
+    }
+  }
+
+  void resetLocalizedAsset(FileBackedOutputStream localizedAsset) {
+    try {
+      localizedAsset.reset();
+    } catch (IOException ioe) {
+      logger.warn("Can't reset the spooled localized asset", ioe);
+    }
+  }
+
+  String getOutputBcp47Tag(RepositoryLocale repositoryLocale, String outputBcp47tag) {
+    String bcp47Tag;
+
+    if (outputBcp47tag == null) {
+      bcp47Tag = repositoryLocale.getLocale().getBcp47Tag();
+    } else {
+      logger.debug(
+          "An output bcp47 tag: {} is specified (won't use the default tag (from the repository locale)",
+          outputBcp47tag);
+      bcp47Tag = outputBcp47tag;
+    }
+
+    return bcp47Tag;
+  }
+
   void replaceUsedTmTextUnitVariantIds(
       Asset asset, String pullRunName, Locale locale, List<Long> usedTmTextUnitVariantIds) {
+    replaceUsedTmTextUnitVariantIds(
+        getOrCreatePullRunAsset(asset, pullRunName), locale, usedTmTextUnitVariantIds);
+  }
+
+  void replaceUsedTmTextUnitVariantIds(
+      PullRunAsset pullRunAsset, Locale locale, List<Long> usedTmTextUnitVariantIds) {
     logger.debug(
-        "Replace used TmTextUnitVariantIds for pull run name: {} and locale: {}",
-        pullRunName,
+        "Replace used TmTextUnitVariantIds for pull run asset id: {} and locale: {}",
+        pullRunAsset.getId(),
         locale.getBcp47Tag());
-    PullRun pullRun = pullRunService.getOrCreate(pullRunName, asset.getRepository());
-    PullRunAsset pullRunAsset = pullRunAssetService.getOrCreate(pullRun, asset);
     List<Long> uniqueUsedTmTextUnitVariantIds =
         usedTmTextUnitVariantIds.stream().distinct().collect(Collectors.toList());
     pullRunAssetService.replaceTextUnitVariants(
         pullRunAsset, locale.getId(), uniqueUsedTmTextUnitVariantIds);
   }
 
+  PullRunAsset getOrCreatePullRunAsset(Asset asset, String pullRunName) {
+    PullRun pullRun = pullRunService.getOrCreate(pullRunName, asset.getRepository());
+    return pullRunAssetService.getOrCreate(pullRun, asset);
+  }
+
   /**
    * Parses the given content and adds the pseudo localization for every text unit. Returns the
    * pseudolocalized content.
@@ -1108,26 +1420,48 @@ public class TMService {
       String outputBcp47tag)
       throws UnsupportedAssetFilterTypeException {
 
-    try (Timer.ResourceSample timer =
-        Timer.resource(meterRegistry, "TMService.generateLocalizedBase")
-            .tags(Tags.of("repositoryId", Objects.toString(asset.getRepository().getId())))) {
+    FilterEventsToInMemoryRawDocumentStep filterEventsToInMemoryRawDocumentStep =
+        new FilterEventsToInMemoryRawDocumentStep();
 
-      IPipelineDriver driver = new PipelineDriver();
+    LocaleId targetLocaleId = LocaleId.fromBCP47(outputBcp47tag);
+    RawDocument rawDocument = new RawDocument(content, LocaleId.ENGLISH, targetLocaleId);
 
-      driver.addStep(new RawDocumentToFilterEventsStep());
-      driver.addStep(new CheckForDoNotTranslateStep());
-      driver.addStep(step);
+    processLocalizationPipeline(
+        asset,
+        rawDocument,
+        filterConfigIdOverride,
+        filterOptions,
+        step,
+        filterEventsToInMemoryRawDocumentStep);
 
-      // TODO(P1) see assetExtractor comments
-      logger.debug("Adding all supported filters to the pipeline driver");
-      driver.setFilterConfigurationMapper(filterConfigurationMapper);
+    String localizedContent = filterEventsToInMemoryRawDocumentStep.getOutput(rawDocument);
 
-      FilterEventsToInMemoryRawDocumentStep filterEventsToInMemoryRawDocumentStep =
-          new FilterEventsToInMemoryRawDocumentStep();
-      driver.addStep(filterEventsToInMemoryRawDocumentStep);
+    return localizedContent;
+  }
+
+  /**
+   * Runs the pipeline that parses the document, applies the given step on the text units and writes
+   * the document with the output step.
+   *
+   * @param asset
+   * @param rawDocument the document to process
+   * @param filterConfigIdOverride
+   * @param filterOptions
+   * @param step the step applied on the text units
+   * @param outputStep the step that writes the document
+   */
+  void processLocalizationPipeline(
+      Asset asset,
+      RawDocument rawDocument,
+      FilterConfigIdOverride filterConfigIdOverride,
+      List<String> filterOptions,
+      BasePipelineStep step,
+      BasePipelineStep outputStep)
+      throws UnsupportedAssetFilterTypeException {
 
-      LocaleId targetLocaleId = LocaleId.fromBCP47(outputBcp47tag);
-      RawDocument rawDocument = new RawDocument(content, LocaleId.ENGLISH, targetLocaleId);
+    try (Timer.ResourceSample timer =
+        Timer.resource(meterRegistry, "TMService.generateLocalizedBase")
+            .tags(Tags.of("repositoryId", Objects.toString(asset.getRepository().getId())))) {
 
       // TODO(P1) see assetExtractor comments
       String filterConfigId;
@@ -1138,6 +1472,23 @@ public class TMService {
         filterConfigId = assetPathToFilterConfigMapper.getFilterConfigIdFromPath(asset.getPath());
       }
 
+      IPipelineDriver driver = new PipelineDriver();
+
+      IFilter filter = filterPool.borrowFilter(filterConfigId);
+      // the filter must not be set when not pooled, else the step won't create it from its config
+      driver.addStep(
+          filter == null
+              ? new RawDocumentToFilterEventsStep()
+              : new RawDocumentToFilterEventsStep(filter));
+      driver.addStep(new CheckForDoNotTranslateStep());
+      driver.addStep(step);
+
+      // TODO(P1) see assetExtractor comments
+      logger.debug("Adding all supported filters to the pipeline driver");
+      driver.setFilterConfigurationMapper(filterConfigurationMapper);
+
+      driver.addStep(outputStep);
+
       rawDocument.setFilterConfigId(filterConfigId);
       logger.debug("Set filter config {} for asset {}", filterConfigId, asset.getPath());
 
@@ -1147,11 +1498,17 @@ public class TMService {
       driver.addBatchItem(rawDocument);
 
       logger.debug("Start processing batch");
-      driver.processBatch();
-
-      String localizedContent = filterEventsToInMemoryRawDocumentStep.getOutput(rawDocument);
-
-      return localizedContent;
+      boolean processed = false;
+      try {
+        driver.processBatch();
+        processed = true;
+      } finally {
+        if (processed) {
+          filterPool.returnFilter(filterConfigId, filter);
+        } else {
+          filterPool.discardFilter(filter);
+        }
+      }
     }
   }
 
@@ -1,6 +1,7 @@
 package com.box.l10n.mojito.service.tm;
 
 public class TMTextUnitCurrentVariantDTO {
+  Long tmTextUnitCurrentVariantId;
   Long tmTextUnitId;
   Long tmTextUnitVariantId;
 
@@ -9,6 +10,21 @@ public class TMTextUnitCurrentVariantDTO {
     this.tmTextUnitVariantId = tmTextUnitVariantId;
   }
 
+  public TMTextUnitCurrentVariantDTO(
+      Long tmTextUnitCurrentVariantId, Long tmTextUnitId, Long tmTextUnitVariantId) {
+    this.tmTextUnitCurrentVariantId = tmTextUnitCurrentVariantId;
+    this.tmTextUnitId = tmTextUnitId;
+    this.tmTextUnitVariantId = tmTextUnitVariantId;
+  }
+
+  public Long getTmTextUnitCurrentVariantId() {
+    return tmTextUnitCurrentVariantId;
+  }
+
+  public void setTmTextUnitCurrentVariantId(Long tmTextUnitCurrentVariantId) {
+    this.tmTextUnitCurrentVariantId = tmTextUnitCurrentVariantId;
+  }
+
   public Long getTmTextUnitId() {
     return tmTextUnitId;
   }
@@ -1,6 +1,7 @@
 package com.box.l10n.mojito.service.tm;
 
 import com.box.l10n.mojito.entity.TMTextUnitCurrentVariant;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -17,8 +18,21 @@ public interface TMTextUnitCurrentVariantRepository
 
   List<TMTextUnitCurrentVariant> findByTmTextUnit_Tm_IdAndLocale_Id(Long tmId, Long localeId);
 
+  /**
+   * Gets current variants of a locale for multiple text units, fetching the entities that are
+   * eagerly loaded to avoid one query per row.
+   */
   @Query(
-      "select new com.box.l10n.mojito.service.tm.TMTextUnitCurrentVariantDTO(ttucv.tmTextUnit.id, ttucv.tmTextUnitVariant.id) "
+      "select distinct ttucv from #{#entityName} ttucv "
+          + "join fetch ttucv.tmTextUnit "
+          + "left join fetch ttucv.tmTextUnitVariant tuv "
+          + "left join fetch tuv.tmTextUnitVariantComments "
+          + "where ttucv.locale.id = ?1 and ttucv.tmTextUnit.id in ?2")
+  List<TMTextUnitCurrentVariant> findByLocale_IdAndTmTextUnit_IdIn(
+      Long localeId, Collection<Long> tmTextUnitIds);
+
+  @Query(
+      "select new com.box.l10n.mojito.service.tm.TMTextUnitCurrentVariantDTO(ttucv.id, ttucv.tmTextUnit.id, ttucv.tmTextUnitVariant.id) "
           + "from #{#entityName} ttucv where ttucv.asset.id = ?1 and ttucv.locale.id = ?2")
   List<TMTextUnitCurrentVariantDTO> findByAsset_idAndLocale_Id(Long assetId, Long localeId);
 }
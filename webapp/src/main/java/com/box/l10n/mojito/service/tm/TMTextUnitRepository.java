@@ -38,5 +38,34 @@ public interface TMTextUnitRepository extends JpaRepository<TMTextUnit, Long> {
   @Query("select tu.id from TMTextUnit tu where tu.asset.id = ?1")
   List<Long> getTextUnitIdsByAssetId(Long assetId);
 
+  /**
+   * Gets the state of all the text units of an asset for a locale in a single query: current
+   * translation and whether the text unit is used/do not translate in the given asset extraction
+   * (which can be null).
+   */
+  @Query(
+      "select new com.box.l10n.mojito.service.tm.TMTextUnitStateDTO(tu.id, ttucv.id, ttucv.tmTextUnitVariant.id, atuttu.id, atu.doNotTranslate) "
+          + "from TMTextUnit tu "
+          + "left join TMTextUnitCurrentVariant ttucv on ttucv.tmTextUnit.id = tu.id and ttucv.locale.id = ?2 "
+          + "left join AssetTextUnitToTMTextUnit atuttu on atuttu.tmTextUnit.id = tu.id and atuttu.assetExtraction.id = ?3 "
+          + "left join atuttu.assetTextUnit atu "
+          + "where tu.asset.id = ?1 "
+          + "order by tu.id")
+  List<TMTextUnitStateDTO> getTextUnitStatesByAssetIdAndLocaleId(
+      Long assetId, Long localeId, Long assetExtractionId);
+
+  /**
+   * Same as {@link #getTextUnitStatesByAssetIdAndLocaleId(Long, Long, Long)} without the current
+   * translation, ie. only the state that doesn't depend on the locale.
+   */
+  @Query(
+      "select new com.box.l10n.mojito.service.tm.TMTextUnitStateDTO(tu.id, atuttu.id, atu.doNotTranslate) "
+          + "from TMTextUnit tu "
+          + "left join AssetTextUnitToTMTextUnit atuttu on atuttu.tmTextUnit.id = tu.id and atuttu.assetExtraction.id = ?2 "
+          + "left join atuttu.assetTextUnit atu "
+          + "where tu.asset.id = ?1 "
+          + "order by tu.id")
+  List<TMTextUnitStateDTO> getTextUnitStatesByAssetId(Long assetId, Long assetExtractionId);
+
   TMTextUnit findByMd5AndTmIdAndAssetId(String contentMd5, Long tmId, Long assetId);
 }
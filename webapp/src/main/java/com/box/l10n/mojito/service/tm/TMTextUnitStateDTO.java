@@ -0,0 +1,95 @@
+package com.box.l10n.mojito.service.tm;
+
+/**
+ * State of a text unit for a given locale and asset extraction: the current translation, if the
+ * text unit is used and if it must not be translated.
+ *
+ * <p>This is what is needed to detect changes compared to a cached TextUnitDTO.
+ */
+public class TMTextUnitStateDTO {
+  Long tmTextUnitId;
+  Long tmTextUnitCurrentVariantId;
+  Long tmTextUnitVariantId;
+  boolean used;
+  boolean doNotTranslate;
+
+  public TMTextUnitStateDTO(
+      Long tmTextUnitId,
+      Long tmTextUnitCurrentVariantId,
+      Long tmTextUnitVariantId,
+      boolean used,
+      boolean doNotTranslate) {
+    this.tmTextUnitId = tmTextUnitId;
+    this.tmTextUnitCurrentVariantId = tmTextUnitCurrentVariantId;
+    this.tmTextUnitVariantId = tmTextUnitVariantId;
+    this.used = used;
+    this.doNotTranslate = doNotTranslate;
+  }
+
+  /**
+   * Constructor used by the JPQL query, assetTextUnitToTMTextUnitId and doNotTranslate come from a
+   * left join so they are null if the text unit is not in the asset extraction.
+   */
+  public TMTextUnitStateDTO(
+      Long tmTextUnitId,
+      Long tmTextUnitCurrentVariantId,
+      Long tmTextUnitVariantId,
+      Long assetTextUnitToTMTextUnitId,
+      Boolean doNotTranslate) {
+    this(
+        tmTextUnitId,
+        tmTextUnitCurrentVariantId,
+        tmTextUnitVariantId,
+        assetTextUnitToTMTextUnitId != null,
+        Boolean.TRUE.equals(doNotTranslate));
+  }
+
+  /**
+   * Constructor used by the JPQL query that gets the state independent of the locale (no
+   * information about the current translation).
+   */
+  public TMTextUnitStateDTO(
+      Long tmTextUnitId, Long assetTextUnitToTMTextUnitId, Boolean doNotTranslate) {
+    this(tmTextUnitId, null, null, assetTextUnitToTMTextUnitId, doNotTranslate);
+  }
+
+  public Long getTmTextUnitId() {
+    return tmTextUnitId;
+  }
+
+  public void setTmTextUnitId(Long tmTextUnitId) {
+    this.tmTextUnitId = tmTextUnitId;
+  }
+
+  public Long getTmTextUnitCurrentVariantId() {
+    return tmTextUnitCurrentVariantId;
+  }
+
+  public void setTmTextUnitCurrentVariantId(Long tmTextUnitCurrentVariantId) {
+    this.tmTextUnitCurrentVariantId = tmTextUnitCurrentVariantId;
+  }
+
+  public Long getTmTextUnitVariantId() {
+    return tmTextUnitVariantId;
+  }
+
+  public void setTmTextUnitVariantId(Long tmTextUnitVariantId) {
+    this.tmTextUnitVariantId = tmTextUnitVariantId;
+  }
+
+  public boolean isUsed() {
+    return used;
+  }
+
+  public void setUsed(boolean used) {
+    this.used = used;
+  }
+
+  public boolean isDoNotTranslate() {
+    return doNotTranslate;
+  }
+
+  public void setDoNotTranslate(boolean doNotTranslate) {
+    this.doNotTranslate = doNotTranslate;
+  }
+}
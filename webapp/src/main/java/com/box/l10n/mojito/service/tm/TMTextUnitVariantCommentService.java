@@ -72,6 +72,19 @@ public class TMTextUnitVariantCommentService {
     return tmTextUnitVariantComment;
   }
 
+  /**
+   * Adds comments in bulk, each comment must have its {@link TMTextUnitVariant} set.
+   *
+   * @param tmTextUnitVariantComments comments to add
+   * @return the saved comments
+   */
+  @Transactional
+  public List<TMTextUnitVariantComment> addComments(
+      List<TMTextUnitVariantComment> tmTextUnitVariantComments) {
+    logger.debug("Add {} comments", tmTextUnitVariantComments.size());
+    return tmTextUnitVariantCommentRepository.saveAll(tmTextUnitVariantComments);
+  }
+
   @Transactional
   public TMTextUnitVariantComment addComment(
       TMTextUnitVariant tmTextUnitVariant,
@@ -1,20 +1,18 @@
 package com.box.l10n.mojito.service.tm;
 
-import static com.box.l10n.mojito.utils.Predicates.not;
-import static java.util.stream.Collectors.groupingBy;
+import static com.box.l10n.mojito.service.tm.TextUnitBatchMatcherIndex.NO_SLOT;
+import static com.box.l10n.mojito.service.tm.TextUnitBatchMatcherIndex.NO_SLOTS;
 
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
-import com.box.l10n.mojito.utils.Optionals;
 import com.google.common.collect.ImmutableList;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import org.apache.mina.util.ConcurrentHashSet;
+import java.util.function.ToIntFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +26,34 @@ public class TextUnitBatchMatcher {
 
   @Autowired PluralNameParser pluralNameParser;
 
+  /**
+   * Creates an index of the provided text units that can be used to create multiple matching
+   * functions without re-processing the text units.
+   *
+   * @param existingTextUnits
+   * @return
+   */
+  public TextUnitBatchMatcherIndex createIndex(List<TextUnitDTO> existingTextUnits) {
+    return createIndex(existingTextUnits, null);
+  }
+
+  /**
+   * Same as {@link #createIndex(List)} but also indexes the plural text units by prefix, see {@link
+   * #matchByNameAndPluralPrefix(TextUnitBatchMatcherIndex)}.
+   *
+   * @param existingTextUnits
+   * @param pluralSeparator
+   * @return
+   */
+  public TextUnitBatchMatcherIndex createIndex(
+      List<TextUnitDTO> existingTextUnits, String pluralSeparator) {
+    logger.debug("Create the index to match {} text units", existingTextUnits.size());
+    return new TextUnitBatchMatcherIndex(
+        existingTextUnits,
+        pluralSeparator,
+        t -> pluralNameParser.getPrefix(t.getPluralFormOther(), pluralSeparator));
+  }
+
   /**
    * Creates a function that matches a text unit to one of the provided text units.
    *
@@ -41,70 +67,93 @@ public class TextUnitBatchMatcher {
    */
   public Function<TextUnitForBatchMatcher, Optional<TextUnitDTO>> match(
       List<TextUnitDTO> existingTextUnits) {
+    return match(createIndex(existingTextUnits));
+  }
 
-    Function<TextUnitForBatchMatcher, Optional<TextUnitDTO>> matchByTmTextUnitId =
-        createMatchByTmTextUnitId(existingTextUnits);
-    Function<TextUnitForBatchMatcher, Optional<TextUnitDTO>> matchByNameAndUsed =
-        createMatchByNameAndUsed(existingTextUnits);
-    Function<TextUnitForBatchMatcher, Optional<TextUnitDTO>> matchByNameAndUnused =
-        createMatchByNameAndUnused(existingTextUnits);
-    Predicate<TextUnitDTO> notAlreadyMatched = notAlreadyMatched("global");
+  /**
+   * Same as {@link #match(List)} but with an index that was already built.
+   *
+   * @param index
+   * @return
+   */
+  public Function<TextUnitForBatchMatcher, Optional<TextUnitDTO>> match(
+      TextUnitBatchMatcherIndex index) {
+
+    ImmutableList<ToIntFunction<TextUnitForBatchMatcher>> matchers =
+        ImmutableList.of(
+            createMatchByTmTextUnitId(index),
+            createMatchByNameAndUsed(index),
+            createMatchByNameAndUnused(index));
+    IntPredicate notAlreadyMatched = notAlreadyMatched("global");
 
     return textUnitForBatchMatcher -> {
-      return Optionals.or(
-          textUnitForBatchMatcher,
-          notAlreadyMatched,
-          matchByTmTextUnitId,
-          matchByNameAndUsed,
-          matchByNameAndUnused);
+      int slot = NO_SLOT;
+
+      for (int i = 0; slot == NO_SLOT && i < matchers.size(); i++) {
+        int candidate = matchers.get(i).applyAsInt(textUnitForBatchMatcher);
+        if (candidate != NO_SLOT && notAlreadyMatched.test(candidate)) {
+          slot = candidate;
+        }
+      }
+
+      return slot == NO_SLOT ? Optional.empty() : Optional.of(index.getTextUnitDTO(slot));
     };
   }
 
   public Function<TextUnitForBatchMatcher, List<TextUnitDTO>> matchByNameAndPluralPrefix(
       List<TextUnitDTO> existingTextUnits, String pluralSeparator) {
-    Function<TextUnitForBatchMatcher, Optional<List<TextUnitDTO>>> matchByPluralPrefixAndUsed =
-        createMatchByPluralPrefixAndUsed(existingTextUnits, pluralSeparator);
-    Function<TextUnitForBatchMatcher, Optional<List<TextUnitDTO>>> matchByNameAndUsed =
-        createMatchByNameAndUsed(existingTextUnits).andThen(Optionals::optionalToOptionalList);
-    Function<TextUnitForBatchMatcher, Optional<List<TextUnitDTO>>> matchByPluralPrefixAndUnused =
-        createMatchByPluralPrefixAndUnused(existingTextUnits, pluralSeparator);
-    Function<TextUnitForBatchMatcher, Optional<List<TextUnitDTO>>> matchByNameAndUnused =
-        createMatchByNameAndUnused(existingTextUnits).andThen(Optionals::optionalToOptionalList);
-    Predicate<List<TextUnitDTO>> notAlreadyMatchedInList = notAlreadyMatchedInList("global");
+    return matchByNameAndPluralPrefix(createIndex(existingTextUnits, pluralSeparator));
+  }
+
+  /**
+   * Same as {@link #matchByNameAndPluralPrefix(List, String)} but with an index that was already
+   * built with a plural separator.
+   *
+   * @param index
+   * @return
+   */
+  public Function<TextUnitForBatchMatcher, List<TextUnitDTO>> matchByNameAndPluralPrefix(
+      TextUnitBatchMatcherIndex index) {
+
+    if (index.getPluralSeparator() == null) {
+      throw new IllegalArgumentException("The index must be created with a plural separator");
+    }
+
+    ToIntFunction<TextUnitForBatchMatcher> matchByNameAndUsed = createMatchByNameAndUsed(index);
+    ToIntFunction<TextUnitForBatchMatcher> matchByNameAndUnused = createMatchByNameAndUnused(index);
+
+    ImmutableList<Function<TextUnitForBatchMatcher, int[]>> matchers =
+        ImmutableList.of(
+            createMatchByPluralPrefixAndUsed(index),
+            t -> toSlots(matchByNameAndUsed.applyAsInt(t)),
+            createMatchByPluralPrefixAndUnused(index),
+            t -> toSlots(matchByNameAndUnused.applyAsInt(t)));
+    Predicate<int[]> notAlreadyMatchedInList = notAlreadyMatchedInList("global");
 
     return textUnitForBatchMatcher -> {
-      ImmutableList<TextUnitDTO> textUnitDTOs =
-          Stream.of(
-                  matchByPluralPrefixAndUsed,
-                  matchByNameAndUsed,
-                  matchByPluralPrefixAndUnused,
-                  matchByNameAndUnused)
-              .map(f -> f.apply(textUnitForBatchMatcher))
-              .filter(Optional::isPresent)
-              .map(Optional::get)
-              .filter(notAlreadyMatchedInList)
-              .flatMap(textUnitDTOS -> textUnitDTOS.stream())
-              .collect(ImmutableList.toImmutableList());
-      return textUnitDTOs;
+      ImmutableList.Builder<TextUnitDTO> textUnitDTOs = ImmutableList.builder();
+
+      for (Function<TextUnitForBatchMatcher, int[]> matcher : matchers) {
+        int[] slots = matcher.apply(textUnitForBatchMatcher);
+        if (slots.length > 0 && notAlreadyMatchedInList.test(slots)) {
+          textUnitDTOs.addAll(index.getTextUnitDTOs(slots));
+        }
+      }
+
+      return textUnitDTOs.build();
     };
   }
 
-  Function<TextUnitForBatchMatcher, Optional<TextUnitDTO>> createMatchByTmTextUnitId(
-      List<TextUnitDTO> existingTextUnits) {
-
-    logger.debug("Create the map to match by id");
-    Map<Long, TextUnitDTO> tmTextUnitIdToTextUnitDTO =
-        existingTextUnits.stream()
-            .collect(Collectors.toMap(TextUnitDTO::getTmTextUnitId, Function.identity()));
+  ToIntFunction<TextUnitForBatchMatcher> createMatchByTmTextUnitId(
+      TextUnitBatchMatcherIndex index) {
 
     logger.debug("createMatchByTmTextUnitId function");
     return (textUnitForBatchMatcher) -> {
-      Optional<TextUnitDTO> textUnitDTO =
-          Optional.ofNullable(
-              tmTextUnitIdToTextUnitDTO.get(textUnitForBatchMatcher.getTmTextUnitId()));
-      textUnitDTO.ifPresent(
-          t -> logger.debug("Got match by tmTextUnitId: {}", t.getTmTextUnitId()));
-      return textUnitDTO;
+      int slot = index.getSlotByTmTextUnitId(textUnitForBatchMatcher.getTmTextUnitId());
+      if (slot != NO_SLOT) {
+        logger.debug("Got match by tmTextUnitId: {}", textUnitForBatchMatcher.getTmTextUnitId());
+      }
+      return slot;
     };
   }
 
@@ -115,28 +164,20 @@ public class TextUnitBatchMatcher {
    * preserved and that it will match to the right text units. This is flakey and should be avoided
    * by providing "id"s for matching.
    *
-   * @param existingTextUnits
+   * @param index
    * @return
    */
-  Function<TextUnitForBatchMatcher, Optional<TextUnitDTO>> createMatchByNameAndUsed(
-      List<TextUnitDTO> existingTextUnits) {
+  ToIntFunction<TextUnitForBatchMatcher> createMatchByNameAndUsed(TextUnitBatchMatcherIndex index) {
 
-    logger.debug("Create the map to match by name and used text units");
-    Map<String, List<TextUnitDTO>> nameToUsedTextUnitDTO =
-        existingTextUnits.stream()
-            .filter(TextUnitDTO::isUsed)
-            .collect(groupingBy(TextUnitDTO::getName));
-    Predicate<TextUnitDTO> byNameAndUsedNotAlreadyMatched = notAlreadyMatched("byNameAndUsed");
+    IntPredicate byNameAndUsedNotAlreadyMatched = notAlreadyMatched("byNameAndUsed");
 
     logger.debug("createMatchByNameAndUsed");
     return (textUnitForBatchImport) -> {
-      List<TextUnitDTO> textUnitDTOS =
-          Optional.ofNullable(nameToUsedTextUnitDTO.get(textUnitForBatchImport.getName()))
-              .orElseGet(ArrayList::new);
+      int[] slots = index.getUsedSlotsByName(textUnitForBatchImport.getName());
 
-      if (textUnitDTOS.size() == 1) {
+      if (slots.length == 1) {
         logger.debug("Unique match by name: {} and used", textUnitForBatchImport.getName());
-      } else if (textUnitDTOS.size() > 1) {
+      } else if (slots.length > 1) {
         logger.debug(
             "Multiple matches by name: {} and used\nFlakey, this will randomly (hoping order will "
                 + "put the translations for the right text units) select where the translation is "
@@ -145,7 +186,13 @@ public class TextUnitBatchMatcher {
             textUnitForBatchImport.getName());
       }
 
-      return textUnitDTOS.stream().filter(byNameAndUsedNotAlreadyMatched).findFirst();
+      int slot = NO_SLOT;
+      for (int i = 0; slot == NO_SLOT && i < slots.length; i++) {
+        if (byNameAndUsedNotAlreadyMatched.test(slots[i])) {
+          slot = slots[i];
+        }
+      }
+      return slot;
     };
   }
 
@@ -155,83 +202,50 @@ public class TextUnitBatchMatcher {
    * <p>Plural text units are grouped by prefix. The plural separator is assumed to be: "_" at the
    * very end of the string
    *
-   * @param existingTextUnits
-   * @param pluralSeparator
-   * @return
+   * @param index must be created with a plural separator
+   * @return the slots of the matched text units, empty if no match
    */
-  Function<TextUnitForBatchMatcher, Optional<List<TextUnitDTO>>> createMatchByPluralPrefixAndUsed(
-      List<TextUnitDTO> existingTextUnits, String pluralSeparator) {
-
-    logger.debug("Create the map to match by prefix and used text units");
-    Map<String, List<TextUnitDTO>> pluralPrefixToUsedTextUnitDTOsMap =
-        existingTextUnits.stream()
-            .filter(TextUnitDTO::isUsed)
-            .filter(t -> t.getPluralForm() != null)
-            .collect(
-                groupingBy(
-                    o -> pluralNameParser.getPrefix(o.getPluralFormOther(), pluralSeparator)));
+  Function<TextUnitForBatchMatcher, int[]> createMatchByPluralPrefixAndUsed(
+      TextUnitBatchMatcherIndex index) {
 
-    Predicate<TextUnitDTO> byPluralPreifxNotAlreadyMatched =
-        notAlreadyMatched("byPluralPrefixAndUsed");
+    IntPredicate byPluralPreifxNotAlreadyMatched = notAlreadyMatched("byPluralPrefixAndUsed");
 
     logger.debug("createMatchByPluralPrefixAndUsed");
     return (textUnitForBatchMatcher) -> {
-      Optional<List<TextUnitDTO>> optionalTextUnitDTOS = Optional.empty();
+      int[] filtered = NO_SLOTS;
       if (textUnitForBatchMatcher.isNamePluralPrefix()) {
-        List<TextUnitDTO> textUnitDTOS =
-            Optional.ofNullable(
-                    pluralPrefixToUsedTextUnitDTOsMap.get(textUnitForBatchMatcher.getName()))
-                .orElseGet(ArrayList::new);
-        List<TextUnitDTO> filtered =
-            textUnitDTOS.stream()
-                .filter(byPluralPreifxNotAlreadyMatched)
-                .collect(Collectors.toList());
-
-        if (!filtered.isEmpty()) {
-          optionalTextUnitDTOS = Optional.of(filtered);
-        }
+        filtered =
+            filterSlots(
+                index.getUsedSlotsByPluralPrefix(textUnitForBatchMatcher.getName()),
+                byPluralPreifxNotAlreadyMatched);
       }
-      return optionalTextUnitDTOS;
+      return filtered;
     };
   }
 
-  Function<TextUnitForBatchMatcher, Optional<List<TextUnitDTO>>> createMatchByPluralPrefixAndUnused(
-      List<TextUnitDTO> existingTextUnits, String pluralSeparator) {
-
-    logger.debug("Create the map to match by prefix and not used text units");
-    Map<String, List<TextUnitDTO>> pluralPrefixToUsedTextUnitDTOsMap =
-        existingTextUnits.stream()
-            .filter(not(TextUnitDTO::isUsed))
-            .filter(t -> t.getPluralForm() != null)
-            .collect(
-                groupingBy(
-                    o -> pluralNameParser.getPrefix(o.getPluralFormOther(), pluralSeparator)));
+  Function<TextUnitForBatchMatcher, int[]> createMatchByPluralPrefixAndUnused(
+      TextUnitBatchMatcherIndex index) {
 
-    Predicate<TextUnitDTO> byPluralPreifxNotAlreadyMatched =
-        notAlreadyMatched("byPluralPrefixAndUnused");
+    IntPredicate byPluralPreifxNotAlreadyMatched = notAlreadyMatched("byPluralPrefixAndUnused");
 
     logger.debug("createMatchByPluralPrefixAndUnused");
     return (textUnitForBatchMatcher) -> {
-      Optional<List<TextUnitDTO>> optionalTextUnitDTOS = Optional.empty();
+      int[] result = NO_SLOTS;
       if (textUnitForBatchMatcher.isNamePluralPrefix()) {
-        List<TextUnitDTO> textUnitDTOS =
-            Optional.ofNullable(
-                    pluralPrefixToUsedTextUnitDTOsMap.get(textUnitForBatchMatcher.getName()))
-                .orElseGet(ArrayList::new);
-        List<TextUnitDTO> filtered =
-            textUnitDTOS.stream()
-                .filter(byPluralPreifxNotAlreadyMatched)
-                .collect(Collectors.toList());
-
-        if (filtered.size() == 0 || filtered.size() > 6) {
+        int[] filtered =
+            filterSlots(
+                index.getUnusedSlotsByPluralPrefix(textUnitForBatchMatcher.getName()),
+                byPluralPreifxNotAlreadyMatched);
+
+        if (filtered.length == 0 || filtered.length > 6) {
           logger.debug("No unique match in unused, skip");
         } else {
           logger.debug("Unique match by name: {} and unused", textUnitForBatchMatcher.getName());
-          optionalTextUnitDTOS = Optional.of(filtered);
+          result = filtered;
         }
       }
 
-      return optionalTextUnitDTOS;
+      return result;
     };
   }
 
@@ -240,39 +254,32 @@ public class TextUnitBatchMatcher {
    *
    * <p>Only return a match by name from unused text units if it is unique.
    *
-   * @param existingTextUnits
+   * @param index
    * @return
    */
-  Function<TextUnitForBatchMatcher, Optional<TextUnitDTO>> createMatchByNameAndUnused(
-      List<TextUnitDTO> existingTextUnits) {
-
-    logger.debug("Create the map to match by name and unused text units");
-    Map<String, List<TextUnitDTO>> nameToUnusedTextUnitDTO =
-        existingTextUnits.stream()
-            .filter(not(TextUnitDTO::isUsed))
-            .collect(groupingBy(TextUnitDTO::getName));
+  ToIntFunction<TextUnitForBatchMatcher> createMatchByNameAndUnused(
+      TextUnitBatchMatcherIndex index) {
 
     logger.debug("createMatchByNameAndUnused");
     return (textUnitForBatchMatcher) -> {
-      List<TextUnitDTO> candidates =
-          Optional.ofNullable(nameToUnusedTextUnitDTO.get(textUnitForBatchMatcher.getName()))
-              .orElseGet(ArrayList::new);
+      int[] candidates = index.getUnusedSlotsByName(textUnitForBatchMatcher.getName());
 
-      Optional<TextUnitDTO> textUnitDTO = Optional.empty();
+      int slot = NO_SLOT;
 
-      if (candidates.size() == 1) {
+      if (candidates.length == 1) {
         logger.debug("Unique match by name: {} and unused", textUnitForBatchMatcher.getName());
-        textUnitDTO = Optional.of(candidates.get(0));
-      } else if (candidates.size() > 1) {
+        slot = candidates[0];
+      } else if (candidates.length > 1) {
         logger.debug("No unique match in unused, skip");
       }
 
-      return textUnitDTO;
+      return slot;
     };
   }
 
   /**
-   * Predicate that make sure that text units are matched only once.
+   * Predicate that make sure that text units (identified by their slot in the index) are matched
+   * only once.
    *
    * <p>Matching multiple times the same text unit would break the batch import with constraint
    * violation.
@@ -280,23 +287,17 @@ public class TextUnitBatchMatcher {
    * @param context to distinguish in which context the predicate is used when logging
    * @return
    */
-  Predicate<TextUnitDTO> notAlreadyMatched(String context) {
-    ConcurrentHashSet<Long> alreadyMappedTmTextUnitIds = new ConcurrentHashSet<>();
-    return (textUnitDTO) -> {
-      boolean notAlreadyMatched =
-          !alreadyMappedTmTextUnitIds.contains(textUnitDTO.getTmTextUnitId());
+  IntPredicate notAlreadyMatched(String context) {
+    BitSet alreadyMatchedSlots = new BitSet();
+    return (slot) -> {
+      boolean notAlreadyMatched = !alreadyMatchedSlots.get(slot);
       if (notAlreadyMatched) {
-        logger.debug(
-            "Text unit: {} ({}) not matched yet in context: {}",
-            textUnitDTO.getTmTextUnitId(),
-            textUnitDTO.getName(),
-            context);
-        alreadyMappedTmTextUnitIds.add(textUnitDTO.getTmTextUnitId());
+        logger.debug("Text unit in slot: {} not matched yet in context: {}", slot, context);
+        alreadyMatchedSlots.set(slot);
       } else {
         logger.debug(
-            "Text unit: {}, ({}) is already matched in context: {}, can't used it",
-            textUnitDTO.getTmTextUnitId(),
-            textUnitDTO.getName(),
+            "Text unit in slot: {} is already matched in context: {}, can't used it",
+            slot,
             context);
       }
       return notAlreadyMatched;
@@ -310,16 +311,19 @@ public class TextUnitBatchMatcher {
    * @param context
    * @return
    */
-  Predicate<List<TextUnitDTO>> notAlreadyMatchedInList(String context) {
-    ConcurrentHashSet<Long> alreadyMappedTmTextUnitIds = new ConcurrentHashSet<>();
-    return (textUnitDTOs) -> {
-      boolean notAlreadyMatched =
-          textUnitDTOs.stream()
-              .noneMatch(t -> alreadyMappedTmTextUnitIds.contains(t.getTmTextUnitId()));
+  Predicate<int[]> notAlreadyMatchedInList(String context) {
+    BitSet alreadyMatchedSlots = new BitSet();
+    return (slots) -> {
+      boolean notAlreadyMatched = true;
+      for (int i = 0; notAlreadyMatched && i < slots.length; i++) {
+        notAlreadyMatched = !alreadyMatchedSlots.get(slots[i]);
+      }
+
       if (notAlreadyMatched) {
         logger.debug("Text units: not matched yet in context: {}", context);
-        alreadyMappedTmTextUnitIds.addAll(
-            textUnitDTOs.stream().map(TextUnitDTO::getTmTextUnitId).collect(Collectors.toList()));
+        for (int slot : slots) {
+          alreadyMatchedSlots.set(slot);
+        }
       } else {
         logger.debug(
             "List contains a text unit that is already matched in context: {}, can't used it",
@@ -328,4 +332,19 @@ public class TextUnitBatchMatcher {
       return notAlreadyMatched;
     };
   }
+
+  int[] filterSlots(int[] slots, IntPredicate filter) {
+    int[] filtered = new int[slots.length];
+    int count = 0;
+    for (int slot : slots) {
+      if (filter.test(slot)) {
+        filtered[count++] = slot;
+      }
+    }
+    return count == slots.length ? filtered : Arrays.copyOf(filtered, count);
+  }
+
+  int[] toSlots(int slot) {
+    return slot == NO_SLOT ? NO_SLOTS : new int[] {slot};
+  }
 }
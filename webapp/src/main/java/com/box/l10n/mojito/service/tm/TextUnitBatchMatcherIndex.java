@@ -0,0 +1,207 @@
+package com.box.l10n.mojito.service.tm;
+
+import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Index of existing text units used by {@link TextUnitBatchMatcher}.
+ *
+ * <p>Text units are referenced by their "slot", their position in the list used to build the index.
+ * The index is immutable: it can be built once for an asset and locale and then shared by multiple
+ * matching functions (each function keeps track of what it matched on its own).
+ */
+public class TextUnitBatchMatcherIndex {
+
+  static final int NO_SLOT = -1;
+
+  static final int[] NO_SLOTS = new int[0];
+
+  final ImmutableList<TextUnitDTO> textUnitDTOs;
+
+  /** Open addressing table: tmTextUnitId to slot + 1 (0 marks an empty bucket) */
+  final long[] tmTextUnitIdTableKeys;
+
+  final int[] tmTextUnitIdTableSlots;
+
+  final int tmTextUnitIdTableMask;
+
+  final ImmutableMap<String, int[]> nameToUsedSlots;
+
+  final ImmutableMap<String, int[]> nameToUnusedSlots;
+
+  final String pluralSeparator;
+
+  final ImmutableMap<String, int[]> pluralPrefixToUsedSlots;
+
+  final ImmutableMap<String, int[]> pluralPrefixToUnusedSlots;
+
+  /**
+   * @param textUnitDTOs text units to index
+   * @param pluralSeparator optional, if {@code null} plural prefixes are not indexed
+   * @param pluralPrefixFunction computes the plural prefix of a plural text unit, only used if a
+   *     plural separator is provided
+   */
+  TextUnitBatchMatcherIndex(
+      List<TextUnitDTO> textUnitDTOs,
+      String pluralSeparator,
+      Function<TextUnitDTO, String> pluralPrefixFunction) {
+
+    this.textUnitDTOs = ImmutableList.copyOf(textUnitDTOs);
+    this.pluralSeparator = pluralSeparator;
+
+    int capacity = Integer.highestOneBit(Math.max(this.textUnitDTOs.size(), 1) * 2 - 1) << 1;
+    tmTextUnitIdTableKeys = new long[capacity];
+    tmTextUnitIdTableSlots = new int[capacity];
+    tmTextUnitIdTableMask = capacity - 1;
+
+    for (int slot = 0; slot < this.textUnitDTOs.size(); slot++) {
+      Long tmTextUnitId = this.textUnitDTOs.get(slot).getTmTextUnitId();
+      if (tmTextUnitId != null) {
+        putTmTextUnitId(tmTextUnitId, slot);
+      }
+    }
+
+    nameToUsedSlots = indexSlots(TextUnitDTO::isUsed, TextUnitDTO::getName);
+    nameToUnusedSlots = indexSlots(t -> !t.isUsed(), TextUnitDTO::getName);
+
+    if (pluralSeparator != null) {
+      pluralPrefixToUsedSlots =
+          indexSlots(t -> t.isUsed() && t.getPluralForm() != null, pluralPrefixFunction);
+      pluralPrefixToUnusedSlots =
+          indexSlots(t -> !t.isUsed() && t.getPluralForm() != null, pluralPrefixFunction);
+    } else {
+      pluralPrefixToUsedSlots = ImmutableMap.of();
+      pluralPrefixToUnusedSlots = ImmutableMap.of();
+    }
+  }
+
+  public int size() {
+    return textUnitDTOs.size();
+  }
+
+  public String getPluralSeparator() {
+    return pluralSeparator;
+  }
+
+  TextUnitDTO getTextUnitDTO(int slot) {
+    return textUnitDTOs.get(slot);
+  }
+
+  ImmutableList<TextUnitDTO> getTextUnitDTOs(int[] slots) {
+    ImmutableList.Builder<TextUnitDTO> builder =
+        ImmutableList.builderWithExpectedSize(slots.length);
+    for (int slot : slots) {
+      builder.add(textUnitDTOs.get(slot));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Gets the slot of a text unit by its tmTextUnitId.
+   *
+   * @param tmTextUnitId the tmTextUnitId to look for, can be {@code null}
+   * @return the slot or {@link #NO_SLOT} if there is no text unit with that id
+   */
+  int getSlotByTmTextUnitId(Long tmTextUnitId) {
+    int slot = NO_SLOT;
+
+    if (tmTextUnitId != null) {
+      long key = tmTextUnitId;
+      int i = bucket(key);
+      while (slot == NO_SLOT && tmTextUnitIdTableSlots[i] != 0) {
+        if (tmTextUnitIdTableKeys[i] == key) {
+          slot = tmTextUnitIdTableSlots[i] - 1;
+        }
+        i = (i + 1) & tmTextUnitIdTableMask;
+      }
+    }
+
+    return slot;
+  }
+
+  int[] getUsedSlotsByName(String name) {
+    return nameToUsedSlots.getOrDefault(name, NO_SLOTS);
+  }
+
+  int[] getUnusedSlotsByName(String name) {
+    return nameToUnusedSlots.getOrDefault(name, NO_SLOTS);
+  }
+
+  int[] getUsedSlotsByPluralPrefix(String pluralPrefix) {
+    return pluralPrefixToUsedSlots.getOrDefault(pluralPrefix, NO_SLOTS);
+  }
+
+  int[] getUnusedSlotsByPluralPrefix(String pluralPrefix) {
+    return pluralPrefixToUnusedSlots.getOrDefault(pluralPrefix, NO_SLOTS);
+  }
+
+  /**
+   * Keeps the first slot if the same tmTextUnitId is present multiple times in the list.
+   *
+   * @param tmTextUnitId
+   * @param slot
+   */
+  void putTmTextUnitId(long tmTextUnitId, int slot) {
+    int i = bucket(tmTextUnitId);
+    while (tmTextUnitIdTableSlots[i] != 0) {
+      if (tmTextUnitIdTableKeys[i] == tmTextUnitId) {
+        return;
+      }
+      i = (i + 1) & tmTextUnitIdTableMask;
+    }
+    tmTextUnitIdTableKeys[i] = tmTextUnitId;
+    tmTextUnitIdTableSlots[i] = slot + 1;
+  }
+
+  int bucket(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & tmTextUnitIdTableMask;
+  }
+
+  /**
+   * Groups the slots of the text units by key, preserving the order of the text units in each
+   * group.
+   *
+   * <p>Slots are counted first so that each group is directly allocated with the right size.
+   *
+   * @param filter text units to be indexed
+   * @param keyFunction computes the key of a text unit
+   * @return the map of key to slots
+   */
+  ImmutableMap<String, int[]> indexSlots(
+      Predicate<TextUnitDTO> filter, Function<TextUnitDTO, String> keyFunction) {
+
+    String[] keys = new String[textUnitDTOs.size()];
+    Map<String, int[]> counts = new HashMap<>();
+
+    for (int slot = 0; slot < keys.length; slot++) {
+      TextUnitDTO textUnitDTO = textUnitDTOs.get(slot);
+      if (filter.test(textUnitDTO)) {
+        keys[slot] = keyFunction.apply(textUnitDTO);
+        counts.computeIfAbsent(keys[slot], k -> new int[1])[0]++;
+      }
+    }
+
+    Map<String, int[]> keyToSlots = new HashMap<>(counts.size() * 2);
+    counts.forEach(
+        (key, count) -> {
+          keyToSlots.put(key, new int[count[0]]);
+          count[0] = 0;
+        });
+
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != null) {
+        int[] count = counts.get(keys[slot]);
+        keyToSlots.get(keys[slot])[count[0]++] = slot;
+      }
+    }
+
+    return ImmutableMap.copyOf(keyToSlots);
+  }
+}
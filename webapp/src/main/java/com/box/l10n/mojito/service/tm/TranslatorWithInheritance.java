@@ -49,6 +49,9 @@ public class TranslatorWithInheritance {
 
   private StatusFilter statusFilter;
 
+  /** How the cached TextUnitDTOs are updated from the database, see {@link #setUpdateType} */
+  UpdateType updateType = UpdateType.ALWAYS;
+
   public TranslatorWithInheritance(
       Asset asset, RepositoryLocale repositoryLocale, InheritanceMode inheritanceMode) {
     this(asset, repositoryLocale, inheritanceMode, StatusFilter.TRANSLATED_AND_NOT_REJECTED);
@@ -65,6 +68,17 @@ public class TranslatorWithInheritance {
     this.statusFilter = statusFilter;
   }
 
+  /**
+   * Sets how the cached TextUnitDTOs are updated from the database. By default they are always
+   * updated, {@link UpdateType#IF_MISSING} can be used when the cache was just updated for all the
+   * locales of the asset, see {@link TextUnitDTOsCacheService#getTextUnitDTOsForAssetAndLocales}.
+   *
+   * @param updateType
+   */
+  public void setUpdateType(UpdateType updateType) {
+    this.updateType = updateType;
+  }
+
   public String getTranslation(String source, String md5) {
 
     TextUnitDTO textUnitDTO = getTextUnitDTO(md5);
@@ -197,6 +211,6 @@ public class TranslatorWithInheritance {
    */
   private Map<String, TextUnitDTO> getTextUnitDTOsForLocaleByMD5(Long localeId) {
     return textUnitDTOsCacheService.getTextUnitDTOsForAssetAndLocaleByMD5(
-        asset.getId(), localeId, statusFilter, false, UpdateType.ALWAYS);
+        asset.getId(), localeId, statusFilter, false, updateType);
   }
 }
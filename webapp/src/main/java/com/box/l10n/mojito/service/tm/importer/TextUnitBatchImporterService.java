@@ -5,8 +5,10 @@ import static com.box.l10n.mojito.utils.Predicates.logIfFalse;
 
 import com.box.l10n.mojito.entity.Asset;
 import com.box.l10n.mojito.entity.Locale;
+import com.box.l10n.mojito.entity.PollableTask;
 import com.box.l10n.mojito.entity.Repository;
 import com.box.l10n.mojito.entity.TMTextUnitCurrentVariant;
+import com.box.l10n.mojito.entity.TMTextUnitVariant;
 import com.box.l10n.mojito.entity.TMTextUnitVariant.Status;
 import com.box.l10n.mojito.entity.TMTextUnitVariantComment;
 import com.box.l10n.mojito.entity.TMTextUnitVariantComment.Severity;
@@ -21,8 +23,12 @@ import com.box.l10n.mojito.service.assetintegritychecker.integritychecker.Integr
 import com.box.l10n.mojito.service.assetintegritychecker.integritychecker.IntegrityCheckerFactory;
 import com.box.l10n.mojito.service.assetintegritychecker.integritychecker.TextUnitIntegrityChecker;
 import com.box.l10n.mojito.service.locale.LocaleService;
+import com.box.l10n.mojito.service.pollableTask.MsgArg;
+import com.box.l10n.mojito.service.pollableTask.ParentTask;
+import com.box.l10n.mojito.service.pollableTask.Pollable;
 import com.box.l10n.mojito.service.pollableTask.PollableFuture;
 import com.box.l10n.mojito.service.pollableTask.PollableFutureTaskResult;
+import com.box.l10n.mojito.service.pollableTask.PollableTaskService;
 import com.box.l10n.mojito.service.repository.RepositoryRepository;
 import com.box.l10n.mojito.service.tm.AddTMTextUnitCurrentVariantResult;
 import com.box.l10n.mojito.service.tm.TMService;
@@ -34,14 +40,19 @@ import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import com.box.l10n.mojito.service.tm.search.TextUnitSearcher;
 import com.box.l10n.mojito.service.tm.textunitdtocache.TextUnitDTOsCacheService;
 import com.box.l10n.mojito.service.tm.textunitdtocache.UpdateType;
+import com.google.common.base.Throwables;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.codec.digest.DigestUtils;
@@ -49,6 +60,8 @@ import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -59,6 +72,8 @@ public class TextUnitBatchImporterService {
   /** logger */
   static Logger logger = LoggerFactory.getLogger(TextUnitBatchImporterService.class);
 
+  static final int CURRENT_VARIANT_FETCH_BATCH_SIZE = 1000;
+
   @Autowired TextUnitSearcher textUnitSearcher;
 
   @Autowired RepositoryRepository repositoryRepository;
@@ -83,6 +98,12 @@ public class TextUnitBatchImporterService {
 
   @Autowired TMTextUnitVariantCommentService tmMTextUnitVariantCommentService;
 
+  @Autowired PollableTaskService pollableTaskService;
+
+  @Autowired
+  @Qualifier("textUnitBatchImporterExecutor")
+  AsyncTaskExecutor textUnitBatchImporterExecutor;
+
   /**
    * Imports a batch of text units.
    *
@@ -119,6 +140,30 @@ public class TextUnitBatchImporterService {
       List<TextUnitDTO> textUnitDTOs,
       boolean integrityCheckSkipped,
       boolean integrityCheckKeepStatusIfFailedAndSameTarget) {
+    return importTextUnits(
+        textUnitDTOs, integrityCheckSkipped, integrityCheckKeepStatusIfFailedAndSameTarget, null);
+  }
+
+  /**
+   * Imports a batch of text units, see {@link #asyncImportTextUnits(List, boolean, boolean)}.
+   *
+   * <p>Text units are grouped by locale and asset and the groups are imported concurrently with the
+   * "textUnitBatchImporterExecutor". A group only touches the current variants of its own locale
+   * for text units of its own asset so groups never write the same rows.
+   *
+   * <p>If a parent task is provided, each group is tracked as a sub task of it.
+   *
+   * @param textUnitDTOs text units to import
+   * @param integrityCheckSkipped
+   * @param integrityCheckKeepStatusIfFailedAndSameTarget
+   * @param parentTask optional, the task under which to create a sub task per group
+   * @return
+   */
+  public PollableFuture<Void> importTextUnits(
+      List<TextUnitDTO> textUnitDTOs,
+      boolean integrityCheckSkipped,
+      boolean integrityCheckKeepStatusIfFailedAndSameTarget,
+      PollableTask parentTask) {
 
     logger.debug("Import {} text units", textUnitDTOs.size());
     List<TextUnitForBatchMatcherImport> textUnitForBatchImports =
@@ -132,24 +177,82 @@ public class TextUnitBatchImporterService {
                     TextUnitForBatchMatcherImport::getLocale,
                     Collectors.groupingBy(TextUnitForBatchMatcherImport::getAsset)));
 
+    if (parentTask != null) {
+      int groupCount = groupedByLocaleAndAsset.values().stream().mapToInt(Map::size).sum();
+      logger.debug("Import {} groups as sub tasks of: {}", groupCount, parentTask.getId());
+      pollableTaskService.updateExpectedSubTaskNumber(parentTask.getId(), groupCount);
+    }
+
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+
     groupedByLocaleAndAsset.forEach(
         (locale, assetMap) -> {
           assetMap.forEach(
               (asset, textUnitsForBatchImport) -> {
-                mapTextUnitsToImportWithExistingTextUnits(locale, asset, textUnitsForBatchImport);
-                if (!integrityCheckSkipped) {
-                  applyIntegrityChecks(
-                      asset,
-                      textUnitsForBatchImport,
-                      integrityCheckKeepStatusIfFailedAndSameTarget);
-                }
-                importTextUnitsOfLocaleAndAsset(locale, asset, textUnitsForBatchImport);
+                futures.add(
+                    CompletableFuture.runAsync(
+                        () -> {
+                          if (parentTask != null) {
+                            importTextUnitsOfLocaleAndAssetAsSubTask(
+                                locale,
+                                asset,
+                                textUnitsForBatchImport,
+                                integrityCheckSkipped,
+                                integrityCheckKeepStatusIfFailedAndSameTarget,
+                                parentTask);
+                          } else {
+                            importGroupOfLocaleAndAsset(
+                                locale,
+                                asset,
+                                textUnitsForBatchImport,
+                                integrityCheckSkipped,
+                                integrityCheckKeepStatusIfFailedAndSameTarget);
+                          }
+                        },
+                        textUnitBatchImporterExecutor));
               });
         });
 
+    try {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    } catch (CompletionException ce) {
+      Throwables.throwIfUnchecked(ce.getCause());
+      throw new RuntimeException(ce.getCause());
+    }
+
     return new PollableFutureTaskResult<>();
   }
 
+  @Pollable(message = "Import text units for asset: {assetPath} and locale: {bcp47Tag}")
+  void importTextUnitsOfLocaleAndAssetAsSubTask(
+      @MsgArg(name = "bcp47Tag", accessor = "getBcp47Tag") Locale locale,
+      @MsgArg(name = "assetPath", accessor = "getPath") Asset asset,
+      List<TextUnitForBatchMatcherImport> textUnitsForBatchImport,
+      boolean integrityCheckSkipped,
+      boolean integrityCheckKeepStatusIfFailedAndSameTarget,
+      @ParentTask PollableTask parentTask) {
+    importGroupOfLocaleAndAsset(
+        locale,
+        asset,
+        textUnitsForBatchImport,
+        integrityCheckSkipped,
+        integrityCheckKeepStatusIfFailedAndSameTarget);
+  }
+
+  void importGroupOfLocaleAndAsset(
+      Locale locale,
+      Asset asset,
+      List<TextUnitForBatchMatcherImport> textUnitsForBatchImport,
+      boolean integrityCheckSkipped,
+      boolean integrityCheckKeepStatusIfFailedAndSameTarget) {
+    mapTextUnitsToImportWithExistingTextUnits(locale, asset, textUnitsForBatchImport);
+    if (!integrityCheckSkipped) {
+      applyIntegrityChecks(
+          asset, textUnitsForBatchImport, integrityCheckKeepStatusIfFailedAndSameTarget);
+    }
+    importTextUnitsOfLocaleAndAsset(locale, asset, textUnitsForBatchImport);
+  }
+
   /**
    * Maps text units to import with existing text units by first looking up by the tm text unit id
    * then the name of used text unit and finally the name of unused text unit (if there is only one
@@ -170,6 +273,18 @@ public class TextUnitBatchImporterService {
     textUnitsToImport.forEach(tu -> match.apply(tu).ifPresent(m -> tu.setCurrentTextUnit(m)));
   }
 
+  /**
+   * Imports the text units of a locale and asset.
+   *
+   * <p>Updates are computed in memory against the current text units, then the current variants of
+   * the text units to update are fetched in bulk (instead of one lookup per text unit) and comments
+   * are saved together at the end. Entities are still written through JPA in a single transaction
+   * so the audit rows are the same as when adding translations one by one.
+   *
+   * @param locale
+   * @param asset
+   * @param textUnitsToImport
+   */
   @Transactional
   void importTextUnitsOfLocaleAndAsset(
       Locale locale, Asset asset, List<TextUnitForBatchMatcherImport> textUnitsToImport) {
@@ -179,75 +294,108 @@ public class TextUnitBatchImporterService {
         asset.getPath(),
         locale.getBcp47Tag());
 
-    textUnitsToImport.stream()
-        .filter(
-            logIfFalse(
-                t -> t.getCurrentTextUnit() != null,
-                logger,
-                "No current text unit, skip: {}",
-                TextUnitForBatchMatcherImport::getName))
-        .filter(
-            logIfFalse(
-                t -> t.getContent() != null,
-                logger,
-                "Content can't be null, skip: {}",
-                TextUnitForBatchMatcherImport::getName))
-        .filter(
-            logIfFalse(
-                this::isUpdateNeeded,
-                logger,
-                "Update not needed, skip: {}",
-                TextUnitForBatchMatcherImport::getName))
-        .forEach(
-            textUnitForBatchImport -> {
-              logger.debug(
-                  "Add translation: {} --> {}",
-                  textUnitForBatchImport.getName(),
-                  textUnitForBatchImport.getContent());
-
-              TextUnitDTO currentTextUnit = textUnitForBatchImport.getCurrentTextUnit();
-
-              TMTextUnitCurrentVariant tmTextUnitCurrentVariant = null;
-              if (currentTextUnit.getTmTextUnitCurrentVariantId() != null) {
-                logger.debug("Looking up current variant");
-                tmTextUnitCurrentVariant =
-                    tmTextUnitCurrentVariantRepository.findByLocale_IdAndTmTextUnit_Id(
-                        currentTextUnit.getLocaleId(), currentTextUnit.getTmTextUnitId());
-              }
+    List<TextUnitForBatchMatcherImport> textUnitsToUpdate =
+        textUnitsToImport.stream()
+            .filter(
+                logIfFalse(
+                    t -> t.getCurrentTextUnit() != null,
+                    logger,
+                    "No current text unit, skip: {}",
+                    TextUnitForBatchMatcherImport::getName))
+            .filter(
+                logIfFalse(
+                    t -> t.getContent() != null,
+                    logger,
+                    "Content can't be null, skip: {}",
+                    TextUnitForBatchMatcherImport::getName))
+            .filter(
+                logIfFalse(
+                    this::isUpdateNeeded,
+                    logger,
+                    "Update not needed, skip: {}",
+                    TextUnitForBatchMatcherImport::getName))
+            .collect(Collectors.toList());
+
+    Map<Long, TMTextUnitCurrentVariant> currentVariantsByTmTextUnitId =
+        getCurrentVariantsByTmTextUnitId(locale, textUnitsToUpdate);
+
+    User importedBy = auditorAwareImpl.getCurrentAuditor().orElse(null);
+    List<TMTextUnitVariantComment> tmTextUnitVariantCommentsToAdd = new ArrayList<>();
+
+    for (TextUnitForBatchMatcherImport textUnitForBatchImport : textUnitsToUpdate) {
+      logger.debug(
+          "Add translation: {} --> {}",
+          textUnitForBatchImport.getName(),
+          textUnitForBatchImport.getContent());
 
-              User importedBy = auditorAwareImpl.getCurrentAuditor().orElse(null);
-              AddTMTextUnitCurrentVariantResult addTMTextUnitCurrentVariantResult =
-                  tmService.addTMTextUnitCurrentVariantWithResult(
-                      tmTextUnitCurrentVariant,
-                      asset.getRepository().getTm().getId(),
-                      asset.getId(),
-                      currentTextUnit.getTmTextUnitId(),
-                      locale.getId(),
-                      textUnitForBatchImport.getContent(),
-                      textUnitForBatchImport.getComment(),
-                      textUnitForBatchImport.getStatus(),
-                      textUnitForBatchImport.isIncludedInLocalizedFile(),
-                      importTime,
-                      importedBy);
-
-              if (addTMTextUnitCurrentVariantResult.isTmTextUnitCurrentVariantUpdated()) {
-
-                Long tmTextUnitVariantId =
-                    addTMTextUnitCurrentVariantResult
-                        .getTmTextUnitCurrentVariant()
-                        .getTmTextUnitVariant()
-                        .getId();
-
-                for (TMTextUnitVariantComment tmTextUnitVariantComment :
-                    textUnitForBatchImport.getTmTextUnitVariantComments()) {
-                  tmMTextUnitVariantCommentService.addComment(
-                      tmTextUnitVariantId,
-                      tmTextUnitVariantComment.getType(),
-                      tmTextUnitVariantComment.getSeverity(),
-                      tmTextUnitVariantComment.getContent());
-                }
-              }
-            });
+      TextUnitDTO currentTextUnit = textUnitForBatchImport.getCurrentTextUnit();
+
+      AddTMTextUnitCurrentVariantResult addTMTextUnitCurrentVariantResult =
+          tmService.addTMTextUnitCurrentVariantWithResult(
+              currentVariantsByTmTextUnitId.get(currentTextUnit.getTmTextUnitId()),
+              asset.getRepository().getTm().getId(),
+              asset.getId(),
+              currentTextUnit.getTmTextUnitId(),
+              locale.getId(),
+              textUnitForBatchImport.getContent(),
+              textUnitForBatchImport.getComment(),
+              textUnitForBatchImport.getStatus(),
+              textUnitForBatchImport.isIncludedInLocalizedFile(),
+              importTime,
+              importedBy);
+
+      if (addTMTextUnitCurrentVariantResult.isTmTextUnitCurrentVariantUpdated()) {
+        TMTextUnitVariant tmTextUnitVariant =
+            addTMTextUnitCurrentVariantResult.getTmTextUnitCurrentVariant().getTmTextUnitVariant();
+
+        for (TMTextUnitVariantComment tmTextUnitVariantComment :
+            textUnitForBatchImport.getTmTextUnitVariantComments()) {
+          TMTextUnitVariantComment toAdd = new TMTextUnitVariantComment();
+          toAdd.setTmTextUnitVariant(tmTextUnitVariant);
+          toAdd.setType(tmTextUnitVariantComment.getType());
+          toAdd.setSeverity(tmTextUnitVariantComment.getSeverity());
+          toAdd.setContent(tmTextUnitVariantComment.getContent());
+          tmTextUnitVariantCommentsToAdd.add(toAdd);
+        }
+      }
+    }
+
+    if (!tmTextUnitVariantCommentsToAdd.isEmpty()) {
+      tmMTextUnitVariantCommentService.addComments(tmTextUnitVariantCommentsToAdd);
+    }
+  }
+
+  /**
+   * Gets the current variants of the text units that have one, fetched by batch of {@link
+   * #CURRENT_VARIANT_FETCH_BATCH_SIZE}.
+   *
+   * @param locale
+   * @param textUnitsToUpdate
+   * @return
+   */
+  Map<Long, TMTextUnitCurrentVariant> getCurrentVariantsByTmTextUnitId(
+      Locale locale, List<TextUnitForBatchMatcherImport> textUnitsToUpdate) {
+
+    List<Long> tmTextUnitIdsWithCurrentVariant =
+        textUnitsToUpdate.stream()
+            .map(TextUnitForBatchMatcherImport::getCurrentTextUnit)
+            .filter(t -> t.getTmTextUnitCurrentVariantId() != null)
+            .map(TextUnitDTO::getTmTextUnitId)
+            .distinct()
+            .collect(Collectors.toList());
+
+    logger.debug("Looking up {} current variants", tmTextUnitIdsWithCurrentVariant.size());
+
+    return Lists.partition(tmTextUnitIdsWithCurrentVariant, CURRENT_VARIANT_FETCH_BATCH_SIZE)
+        .stream()
+        .flatMap(
+            tmTextUnitIds ->
+                tmTextUnitCurrentVariantRepository
+                    .findByLocale_IdAndTmTextUnit_IdIn(locale.getId(), tmTextUnitIds).stream())
+        .collect(
+            Collectors.toMap(
+                tmTextUnitCurrentVariant -> tmTextUnitCurrentVariant.getTmTextUnit().getId(),
+                Function.identity()));
   }
 
   boolean isUpdateNeeded(TextUnitForBatchMatcherImport textUnitForBatchImport) {
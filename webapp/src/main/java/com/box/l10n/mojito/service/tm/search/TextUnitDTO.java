@@ -34,6 +34,7 @@ public class TextUnitDTO {
   private Long assetTextUnitId;
   private DateTime tmTextUnitCreatedDate;
   private boolean doNotTranslate;
+  private String md5;
 
   public Long getTmTextUnitId() {
     return tmTextUnitId;
@@ -242,4 +243,12 @@ public class TextUnitDTO {
   public void setDoNotTranslate(boolean doNotTranslate) {
     this.doNotTranslate = doNotTranslate;
   }
+
+  public String getMd5() {
+    return md5;
+  }
+
+  public void setMd5(String md5) {
+    this.md5 = md5;
+  }
 }
@@ -53,6 +53,7 @@ public class TextUnitDTONativeObjectMapper implements NativeObjectMapper<TextUni
 
     String doNotTranslate = cr.getString(idx++);
     t.setDoNotTranslate(Boolean.valueOf(doNotTranslate));
+    t.setMd5(cr.getString(idx++));
 
     return t;
   }
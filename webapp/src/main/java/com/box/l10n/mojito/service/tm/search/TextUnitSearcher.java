@@ -24,6 +24,7 @@ import com.github.pnowy.nc.core.mappers.CriteriaResultTransformer;
 import com.google.common.base.Preconditions;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -219,7 +220,8 @@ public class TextUnitSearcher {
             .addProjection("a.path", "assetPath")
             .addProjection("atu.id", "assetTextUnitId")
             .addProjection("tu.created_date", "tmTextUnitCreatedDate")
-            .addProjection("atu.do_not_translate", "doNotTranslate"));
+            .addProjection("atu.do_not_translate", "doNotTranslate")
+            .addProjection("tu.md5", "md5"));
 
     logger.debug("Add search filters");
     NativeJunctionExp conjunction = NativeExps.conjunction();
@@ -260,6 +262,24 @@ public class TextUnitSearcher {
       conjunction.add(new NativeEqExpFix("tu.md5", searchParameters.getMd5()));
     }
 
+    if (searchParameters.getNames() != null && !searchParameters.getNames().isEmpty()) {
+      conjunction.add(new NativeInExpFix("tu.name", searchParameters.getNames()));
+    }
+
+    if (searchParameters.getSources() != null && !searchParameters.getSources().isEmpty()) {
+      conjunction.add(
+          new NativeInExpFix(
+              "tu.content_md5",
+              searchParameters.getSources().stream()
+                  .map(DigestUtils::md5Hex)
+                  .distinct()
+                  .collect(Collectors.toList())));
+    }
+
+    if (searchParameters.getMd5s() != null && !searchParameters.getMd5s().isEmpty()) {
+      conjunction.add(new NativeInExpFix("tu.md5", searchParameters.getMd5s()));
+    }
+
     if (searchParameters.getPluralFormOther() != null) {
       conjunction.add(
           getSearchTypeNativeExp(
@@ -33,6 +33,9 @@ public class TextUnitSearcherParameters {
   Long assetId;
   Long tmId;
   String md5;
+  List<String> names;
+  List<String> sources;
+  List<String> md5s;
   boolean forRootLocale = false;
   boolean rootLocaleExcluded = true;
   Boolean toBeFullyTranslatedFilter;
@@ -164,6 +167,46 @@ public class TextUnitSearcherParameters {
     this.md5 = md5;
   }
 
+  public List<String> getNames() {
+    return names;
+  }
+
+  /**
+   * Exact match on any of the names, to search for multiple text units at once.
+   *
+   * @param names the names to match
+   */
+  public void setNames(List<String> names) {
+    this.names = names;
+  }
+
+  public List<String> getSources() {
+    return sources;
+  }
+
+  /**
+   * Exact match on any of the sources (uses the content MD5 like an exact match on {@link
+   * #source}), to search for multiple text units at once.
+   *
+   * @param sources the sources to match
+   */
+  public void setSources(List<String> sources) {
+    this.sources = sources;
+  }
+
+  public List<String> getMd5s() {
+    return md5s;
+  }
+
+  /**
+   * Match on any of the text unit MD5s, to search for multiple text units at once.
+   *
+   * @param md5s the text unit MD5s to match
+   */
+  public void setMd5s(List<String> md5s) {
+    this.md5s = md5s;
+  }
+
   public boolean isRootLocaleExcluded() {
     return rootLocaleExcluded;
   }
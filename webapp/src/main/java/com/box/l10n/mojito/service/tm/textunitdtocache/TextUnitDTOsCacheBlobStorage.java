@@ -8,11 +8,13 @@ import com.box.l10n.mojito.service.blobstorage.StructuredBlobStorage;
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import com.google.common.collect.ImmutableList;
 import io.micrometer.core.annotation.Timed;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -26,11 +28,21 @@ class TextUnitDTOsCacheBlobStorage {
   @Qualifier("fail_on_unknown_properties_false")
   ObjectMapper objectMapper;
 
+  /**
+   * Format used when writing. Blobs are read in either format so this can be changed without
+   * invalidating existing entries.
+   */
+  @Value("${l10n.textUnitDTOsCache.blobStorage.format:JSON}")
+  TextUnitDTOsCacheBlobStorageFormat format = TextUnitDTOsCacheBlobStorageFormat.JSON;
+
   /**
    * For a given an asset and a locale, read the list of TextUnitDTOs. If there are no reccord for
    * that asset and locale, it returns an empty list. If the content in the StructuredBlobStorage
    * can't be convert it will also return an empty list.
    *
+   * <p>The content can either be in the binary format ({@link TextUnitDTOsCacheBlobStorageBinary})
+   * or in the JSON format ({@link TextUnitDTOsCacheBlobStorageJson}).
+   *
    * @param assetId
    * @param localeId
    * @return
@@ -39,9 +51,9 @@ class TextUnitDTOsCacheBlobStorage {
   public Optional<ImmutableList<TextUnitDTO>> getTextUnitDTOs(Long assetId, Long localeId) {
     logger.debug(
         "Get TextUnitDTOs from Blob Storage for assetId: {}, localeId: {}", assetId, localeId);
-    Optional<String> asString =
-        structuredBlobStorage.getString(TEXT_UNIT_DTOS_CACHE, getName(assetId, localeId));
-    return asString.map(this::convertToListOrEmptyList);
+    Optional<byte[]> asBytes =
+        structuredBlobStorage.getBytes(TEXT_UNIT_DTOS_CACHE, getName(assetId, localeId));
+    return asBytes.map(this::convertToListOrEmptyList);
   }
 
   @Timed("TextUnitDTOsCacheBlobStorage.putTextUnitDTOs")
@@ -52,18 +64,46 @@ class TextUnitDTOsCacheBlobStorage {
         assetId,
         localeId,
         textUnitDTOs.size());
-    TextUnitDTOsCacheBlobStorageJson textUnitDTOsCacheBlobStorageJson =
-        new TextUnitDTOsCacheBlobStorageJson();
-    textUnitDTOsCacheBlobStorageJson.setTextUnitDTOs(textUnitDTOs);
-    String asString = objectMapper.writeValueAsStringUnchecked(textUnitDTOsCacheBlobStorageJson);
     structuredBlobStorage.put(
-        TEXT_UNIT_DTOS_CACHE, getName(assetId, localeId), asString, Retention.PERMANENT);
+        TEXT_UNIT_DTOS_CACHE,
+        getName(assetId, localeId),
+        convertToBytes(textUnitDTOs),
+        Retention.PERMANENT);
+  }
+
+  byte[] convertToBytes(ImmutableList<TextUnitDTO> textUnitDTOs) {
+    byte[] bytes;
+    if (TextUnitDTOsCacheBlobStorageFormat.BINARY.equals(format)) {
+      bytes = TextUnitDTOsCacheBlobStorageBinary.write(textUnitDTOs);
+    } else {
+      TextUnitDTOsCacheBlobStorageJson textUnitDTOsCacheBlobStorageJson =
+          new TextUnitDTOsCacheBlobStorageJson();
+      textUnitDTOsCacheBlobStorageJson.setTextUnitDTOs(textUnitDTOs);
+      bytes =
+          objectMapper
+              .writeValueAsStringUnchecked(textUnitDTOsCacheBlobStorageJson)
+              .getBytes(StandardCharsets.UTF_8);
+    }
+    return bytes;
   }
 
   String getName(Long assetId, Long localeId) {
     return "asset/" + assetId + "/locale/" + localeId;
   }
 
+  ImmutableList<TextUnitDTO> convertToListOrEmptyList(byte[] bytes) {
+    if (TextUnitDTOsCacheBlobStorageBinary.isBinary(bytes)) {
+      try {
+        return TextUnitDTOsCacheBlobStorageBinary.read(bytes);
+      } catch (Exception e) {
+        logger.error(
+            "Can't convert the binary content into TextUnitDTOs, return an empty list instead", e);
+        return ImmutableList.of();
+      }
+    }
+    return convertToListOrEmptyList(new String(bytes, StandardCharsets.UTF_8));
+  }
+
   ImmutableList<TextUnitDTO> convertToListOrEmptyList(String s) {
     try {
       return ImmutableList.copyOf(
@@ -0,0 +1,390 @@
+package com.box.l10n.mojito.service.tm.textunitdtocache;
+
+import com.box.l10n.mojito.entity.TMTextUnitVariant;
+import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
+import com.google.common.collect.ImmutableList;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Compact binary format for the list of {@link TextUnitDTO}s stored in the blob storage.
+ *
+ * <p>The JSON representation repeats every property name and many values (locale, repository name,
+ * asset path, plural forms, etc.) for each text unit. This format is columnar: it starts with a
+ * versioned header, followed by a string table that holds each distinct string once, then one
+ * column per property. Ids are delta encoded as zig-zag varints, strings are varint indexes into
+ * the string table, statuses are encoded against a dictionary written in the blob (so that
+ * re-ordering the enum doesn't break existing blobs) and booleans/nulls are stored as bitsets.
+ *
+ * <p>Blobs written in this format start with {@link #MAGIC} which can't be the first bytes of a
+ * JSON document, so readers can fallback to JSON for older blobs, see {@link #isBinary(byte[])}.
+ * Blobs of a previous version are rejected, the cache is then rebuilt from the database.
+ */
+class TextUnitDTOsCacheBlobStorageBinary {
+
+  static final byte[] MAGIC = {'M', 'T', 'U', 'C'};
+
+  /** Version 2 adds the md5 column */
+  static final int VERSION = 2;
+
+  static boolean isBinary(byte[] bytes) {
+    if (bytes.length < MAGIC.length) {
+      return false;
+    }
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (bytes[i] != MAGIC[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static byte[] write(List<TextUnitDTO> textUnitDTOs) {
+    try {
+      ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(byteArrayOutputStream);
+
+      out.write(MAGIC);
+      writeVarInt(out, VERSION);
+      writeVarInt(out, textUnitDTOs.size());
+
+      StringTable stringTable = new StringTable();
+      for (TextUnitDTO textUnitDTO : textUnitDTOs) {
+        stringTable.add(textUnitDTO.getName());
+        stringTable.add(textUnitDTO.getSource());
+        stringTable.add(textUnitDTO.getComment());
+        stringTable.add(textUnitDTO.getTarget());
+        stringTable.add(textUnitDTO.getTargetLocale());
+        stringTable.add(textUnitDTO.getTargetComment());
+        stringTable.add(textUnitDTO.getPluralForm());
+        stringTable.add(textUnitDTO.getPluralFormOther());
+        stringTable.add(textUnitDTO.getRepositoryName());
+        stringTable.add(textUnitDTO.getAssetPath());
+        stringTable.add(textUnitDTO.getMd5());
+      }
+      stringTable.write(out);
+
+      writeLongColumn(out, textUnitDTOs, TextUnitDTO::getTmTextUnitId);
+      writeLongColumn(out, textUnitDTOs, TextUnitDTO::getTmTextUnitVariantId);
+      writeLongColumn(out, textUnitDTOs, TextUnitDTO::getLocaleId);
+      writeLongColumn(out, textUnitDTOs, TextUnitDTO::getAssetId);
+      writeLongColumn(out, textUnitDTOs, TextUnitDTO::getLastSuccessfulAssetExtractionId);
+      writeLongColumn(out, textUnitDTOs, TextUnitDTO::getAssetExtractionId);
+      writeLongColumn(out, textUnitDTOs, TextUnitDTO::getTmTextUnitCurrentVariantId);
+      writeLongColumn(out, textUnitDTOs, TextUnitDTO::getAssetTextUnitId);
+      writeLongColumn(out, textUnitDTOs, t -> toMillis(t.getCreatedDate()));
+      writeLongColumn(out, textUnitDTOs, t -> toMillis(t.getTmTextUnitCreatedDate()));
+
+      writeStringColumn(out, stringTable, textUnitDTOs, TextUnitDTO::getName);
+      writeStringColumn(out, stringTable, textUnitDTOs, TextUnitDTO::getSource);
+      writeStringColumn(out, stringTable, textUnitDTOs, TextUnitDTO::getComment);
+      writeStringColumn(out, stringTable, textUnitDTOs, TextUnitDTO::getTarget);
+      writeStringColumn(out, stringTable, textUnitDTOs, TextUnitDTO::getTargetLocale);
+      writeStringColumn(out, stringTable, textUnitDTOs, TextUnitDTO::getTargetComment);
+      writeStringColumn(out, stringTable, textUnitDTOs, TextUnitDTO::getPluralForm);
+      writeStringColumn(out, stringTable, textUnitDTOs, TextUnitDTO::getPluralFormOther);
+      writeStringColumn(out, stringTable, textUnitDTOs, TextUnitDTO::getRepositoryName);
+      writeStringColumn(out, stringTable, textUnitDTOs, TextUnitDTO::getAssetPath);
+      writeStringColumn(out, stringTable, textUnitDTOs, TextUnitDTO::getMd5);
+
+      writeStatusColumn(out, textUnitDTOs);
+
+      writeBooleanColumn(out, textUnitDTOs, TextUnitDTO::isIncludedInLocalizedFile);
+      writeBooleanColumn(out, textUnitDTOs, TextUnitDTO::isAssetDeleted);
+      writeBooleanColumn(out, textUnitDTOs, TextUnitDTO::isDoNotTranslate);
+
+      out.flush();
+      return byteArrayOutputStream.toByteArray();
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+  }
+
+  static ImmutableList<TextUnitDTO> read(byte[] bytes) {
+    if (!isBinary(bytes)) {
+      throw new IllegalArgumentException("Content is not in the binary TextUnitDTOs format");
+    }
+
+    try {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+      in.skipBytes(MAGIC.length);
+
+      int version = readVarInt(in);
+      if (version != VERSION) {
+        throw new IllegalArgumentException(
+            "Unsupported version of the binary TextUnitDTOs format: " + version);
+      }
+
+      int size = readVarInt(in);
+      List<TextUnitDTO> textUnitDTOs = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        textUnitDTOs.add(new TextUnitDTO());
+      }
+
+      String[] stringTable = StringTable.read(in);
+
+      readLongColumn(in, textUnitDTOs, TextUnitDTO::setTmTextUnitId);
+      readLongColumn(in, textUnitDTOs, TextUnitDTO::setTmTextUnitVariantId);
+      readLongColumn(in, textUnitDTOs, TextUnitDTO::setLocaleId);
+      readLongColumn(in, textUnitDTOs, TextUnitDTO::setAssetId);
+      readLongColumn(in, textUnitDTOs, TextUnitDTO::setLastSuccessfulAssetExtractionId);
+      readLongColumn(in, textUnitDTOs, TextUnitDTO::setAssetExtractionId);
+      readLongColumn(in, textUnitDTOs, TextUnitDTO::setTmTextUnitCurrentVariantId);
+      readLongColumn(in, textUnitDTOs, TextUnitDTO::setAssetTextUnitId);
+      readLongColumn(in, textUnitDTOs, (t, v) -> t.setCreatedDate(toDateTime(v)));
+      readLongColumn(in, textUnitDTOs, (t, v) -> t.setTmTextUnitCreatedDate(toDateTime(v)));
+
+      readStringColumn(in, stringTable, textUnitDTOs, TextUnitDTO::setName);
+      readStringColumn(in, stringTable, textUnitDTOs, TextUnitDTO::setSource);
+      readStringColumn(in, stringTable, textUnitDTOs, TextUnitDTO::setComment);
+      readStringColumn(in, stringTable, textUnitDTOs, TextUnitDTO::setTarget);
+      readStringColumn(in, stringTable, textUnitDTOs, TextUnitDTO::setTargetLocale);
+      readStringColumn(in, stringTable, textUnitDTOs, TextUnitDTO::setTargetComment);
+      readStringColumn(in, stringTable, textUnitDTOs, TextUnitDTO::setPluralForm);
+      readStringColumn(in, stringTable, textUnitDTOs, TextUnitDTO::setPluralFormOther);
+      readStringColumn(in, stringTable, textUnitDTOs, TextUnitDTO::setRepositoryName);
+      readStringColumn(in, stringTable, textUnitDTOs, TextUnitDTO::setAssetPath);
+      readStringColumn(in, stringTable, textUnitDTOs, TextUnitDTO::setMd5);
+
+      readStatusColumn(in, textUnitDTOs);
+
+      readBooleanColumn(in, textUnitDTOs, TextUnitDTO::setIncludedInLocalizedFile);
+      readBooleanColumn(in, textUnitDTOs, TextUnitDTO::setAssetDeleted);
+      readBooleanColumn(in, textUnitDTOs, TextUnitDTO::setDoNotTranslate);
+
+      return ImmutableList.copyOf(textUnitDTOs);
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+  }
+
+  /**
+   * Writes a null bitset followed by the non-null values, each one encoded as the zig-zag varint of
+   * the difference with the previous non-null value. Ids are mostly sorted and close to each other
+   * so the differences usually fit in 1 or 2 bytes.
+   */
+  static void writeLongColumn(
+      DataOutputStream out, List<TextUnitDTO> textUnitDTOs, Function<TextUnitDTO, Long> getter)
+      throws IOException {
+    BitSet nonNulls = new BitSet(textUnitDTOs.size());
+    for (int i = 0; i < textUnitDTOs.size(); i++) {
+      nonNulls.set(i, getter.apply(textUnitDTOs.get(i)) != null);
+    }
+    writeBitSet(out, nonNulls);
+
+    long previous = 0;
+    for (TextUnitDTO textUnitDTO : textUnitDTOs) {
+      Long value = getter.apply(textUnitDTO);
+      if (value != null) {
+        writeVarLong(out, zigZagEncode(value - previous));
+        previous = value;
+      }
+    }
+  }
+
+  static void readLongColumn(
+      DataInputStream in, List<TextUnitDTO> textUnitDTOs, BiConsumer<TextUnitDTO, Long> setter)
+      throws IOException {
+    BitSet nonNulls = readBitSet(in);
+
+    long previous = 0;
+    for (int i = 0; i < textUnitDTOs.size(); i++) {
+      if (nonNulls.get(i)) {
+        previous = previous + zigZagDecode(readVarLong(in));
+        setter.accept(textUnitDTOs.get(i), previous);
+      }
+    }
+  }
+
+  /** Strings are stored as index + 1 in the string table, 0 is used for null. */
+  static void writeStringColumn(
+      DataOutputStream out,
+      StringTable stringTable,
+      List<TextUnitDTO> textUnitDTOs,
+      Function<TextUnitDTO, String> getter)
+      throws IOException {
+    for (TextUnitDTO textUnitDTO : textUnitDTOs) {
+      String value = getter.apply(textUnitDTO);
+      writeVarInt(out, value == null ? 0 : stringTable.indexOf(value) + 1);
+    }
+  }
+
+  static void readStringColumn(
+      DataInputStream in,
+      String[] stringTable,
+      List<TextUnitDTO> textUnitDTOs,
+      BiConsumer<TextUnitDTO, String> setter)
+      throws IOException {
+    for (TextUnitDTO textUnitDTO : textUnitDTOs) {
+      int index = readVarInt(in);
+      if (index != 0) {
+        setter.accept(textUnitDTO, stringTable[index - 1]);
+      }
+    }
+  }
+
+  static void writeStatusColumn(DataOutputStream out, List<TextUnitDTO> textUnitDTOs)
+      throws IOException {
+    TMTextUnitVariant.Status[] statuses = TMTextUnitVariant.Status.values();
+    writeVarInt(out, statuses.length);
+    for (TMTextUnitVariant.Status status : statuses) {
+      writeString(out, status.name());
+    }
+
+    for (TextUnitDTO textUnitDTO : textUnitDTOs) {
+      TMTextUnitVariant.Status status = textUnitDTO.getStatus();
+      out.writeByte(status == null ? 0 : status.ordinal() + 1);
+    }
+  }
+
+  static void readStatusColumn(DataInputStream in, List<TextUnitDTO> textUnitDTOs)
+      throws IOException {
+    int dictionarySize = readVarInt(in);
+    TMTextUnitVariant.Status[] dictionary = new TMTextUnitVariant.Status[dictionarySize];
+    for (int i = 0; i < dictionarySize; i++) {
+      dictionary[i] = TMTextUnitVariant.Status.valueOf(readString(in));
+    }
+
+    for (TextUnitDTO textUnitDTO : textUnitDTOs) {
+      int index = in.readUnsignedByte();
+      if (index != 0) {
+        textUnitDTO.setStatus(dictionary[index - 1]);
+      }
+    }
+  }
+
+  static void writeBooleanColumn(
+      DataOutputStream out, List<TextUnitDTO> textUnitDTOs, Function<TextUnitDTO, Boolean> getter)
+      throws IOException {
+    BitSet bitSet = new BitSet(textUnitDTOs.size());
+    for (int i = 0; i < textUnitDTOs.size(); i++) {
+      bitSet.set(i, getter.apply(textUnitDTOs.get(i)));
+    }
+    writeBitSet(out, bitSet);
+  }
+
+  static void readBooleanColumn(
+      DataInputStream in, List<TextUnitDTO> textUnitDTOs, BiConsumer<TextUnitDTO, Boolean> setter)
+      throws IOException {
+    BitSet bitSet = readBitSet(in);
+    for (int i = 0; i < textUnitDTOs.size(); i++) {
+      setter.accept(textUnitDTOs.get(i), bitSet.get(i));
+    }
+  }
+
+  static void writeBitSet(DataOutputStream out, BitSet bitSet) throws IOException {
+    byte[] bytes = bitSet.toByteArray();
+    writeVarInt(out, bytes.length);
+    out.write(bytes);
+  }
+
+  static BitSet readBitSet(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[readVarInt(in)];
+    in.readFully(bytes);
+    return BitSet.valueOf(bytes);
+  }
+
+  static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(out, bytes.length);
+    out.write(bytes);
+  }
+
+  static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[readVarInt(in)];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  static void writeVarInt(DataOutputStream out, int value) throws IOException {
+    writeVarLong(out, value & 0xFFFFFFFFL);
+  }
+
+  static int readVarInt(DataInputStream in) throws IOException {
+    return (int) readVarLong(in);
+  }
+
+  static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  static long readVarLong(DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  static long zigZagEncode(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  static long zigZagDecode(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  static Long toMillis(DateTime dateTime) {
+    return dateTime == null ? null : dateTime.getMillis();
+  }
+
+  /** Same as what the JodaModule does when reading a timestamp from the JSON format. */
+  static DateTime toDateTime(Long millis) {
+    return millis == null ? null : new DateTime(millis, DateTimeZone.UTC);
+  }
+
+  static class StringTable {
+
+    Map<String, Integer> indexes = new HashMap<>();
+
+    List<String> strings = new ArrayList<>();
+
+    void add(String value) {
+      if (value != null && !indexes.containsKey(value)) {
+        indexes.put(value, strings.size());
+        strings.add(value);
+      }
+    }
+
+    int indexOf(String value) {
+      return indexes.get(value);
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      writeVarInt(out, strings.size());
+      for (String string : strings) {
+        writeString(out, string);
+      }
+    }
+
+    static String[] read(DataInputStream in) throws IOException {
+      String[] strings = new String[readVarInt(in)];
+      for (int i = 0; i < strings.length; i++) {
+        strings[i] = readString(in);
+      }
+      return strings;
+    }
+  }
+}
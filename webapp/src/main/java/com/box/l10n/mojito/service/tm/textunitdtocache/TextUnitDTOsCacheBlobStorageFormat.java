@@ -0,0 +1,12 @@
+package com.box.l10n.mojito.service.tm.textunitdtocache;
+
+/**
+ * Format used to write the TextUnitDTOs in the blob storage. Reading supports both formats
+ * regardless of this setting.
+ */
+public enum TextUnitDTOsCacheBlobStorageFormat {
+  /** See {@link TextUnitDTOsCacheBlobStorageJson} */
+  JSON,
+  /** See {@link TextUnitDTOsCacheBlobStorageBinary} */
+  BINARY
+}
@@ -0,0 +1,98 @@
+package com.box.l10n.mojito.service.tm.textunitdtocache;
+
+import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableList;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Objects;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory tier in front of {@link TextUnitDTOsCacheBlobStorage}, to serve repeated reads of the
+ * same asset and locale (eg. parallel pulls) without reading and parsing the blob.
+ *
+ * <p>The cache is bounded by the number of TextUnitDTOs it holds. Entries are invalidated when a
+ * current variant changes for the asset and locale (see {@link #invalidate(Long, Long)}), and
+ * expire after a TTL to bound staleness across nodes.
+ *
+ * <p>TextUnitDTOs returned from this cache are shared, they must not be modified by callers.
+ */
+@Component
+public class TextUnitDTOsCacheHotTier {
+
+  static Logger logger = LoggerFactory.getLogger(TextUnitDTOsCacheHotTier.class);
+
+  final TextUnitDTOsCacheHotTierConfigurationProperties configurationProperties;
+
+  final Cache<Key, ImmutableList<TextUnitDTO>> cache;
+
+  public TextUnitDTOsCacheHotTier(
+      TextUnitDTOsCacheHotTierConfigurationProperties configurationProperties,
+      MeterRegistry meterRegistry) {
+    this.configurationProperties = configurationProperties;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumWeight(configurationProperties.getMaximumWeight())
+            .<Key, ImmutableList<TextUnitDTO>>weigher((key, value) -> value.size() + 1)
+            .expireAfterWrite(configurationProperties.getTtl())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "TextUnitDTOsCacheHotTier");
+  }
+
+  public boolean isEnabled() {
+    return configurationProperties.isEnabled();
+  }
+
+  Optional<ImmutableList<TextUnitDTO>> get(Long assetId, Long localeId) {
+    if (!isEnabled()) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(cache.getIfPresent(new Key(assetId, localeId)));
+  }
+
+  void put(Long assetId, Long localeId, ImmutableList<TextUnitDTO> textUnitDTOs) {
+    if (isEnabled()) {
+      cache.put(new Key(assetId, localeId), textUnitDTOs);
+    }
+  }
+
+  public void invalidate(Long assetId, Long localeId) {
+    if (isEnabled()) {
+      logger.debug("Invalidate hot tier for assetId: {}, localeId: {}", assetId, localeId);
+      cache.invalidate(new Key(assetId, localeId));
+    }
+  }
+
+  static class Key {
+    final Long assetId;
+    final Long localeId;
+
+    Key(Long assetId, Long localeId) {
+      this.assetId = assetId;
+      this.localeId = localeId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return Objects.equals(assetId, key.assetId) && Objects.equals(localeId, key.localeId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(assetId, localeId);
+    }
+  }
+}
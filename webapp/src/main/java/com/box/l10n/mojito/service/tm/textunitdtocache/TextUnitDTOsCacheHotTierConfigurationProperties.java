@@ -0,0 +1,45 @@
+package com.box.l10n.mojito.service.tm.textunitdtocache;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("l10n.text-unit-dtos-cache.hot-tier")
+public class TextUnitDTOsCacheHotTierConfigurationProperties {
+
+  boolean enabled = false;
+
+  /** Maximum number of TextUnitDTOs kept in memory across all assets and locales */
+  long maximumWeight = 2_000_000;
+
+  /**
+   * Entries are only invalidated on the node where the translations are changed. This bounds how
+   * long another node can serve an entry without checking the blob storage.
+   */
+  Duration ttl = Duration.ofMinutes(10);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  public void setMaximumWeight(long maximumWeight) {
+    this.maximumWeight = maximumWeight;
+  }
+
+  public Duration getTtl() {
+    return ttl;
+  }
+
+  public void setTtl(Duration ttl) {
+    this.ttl = ttl;
+  }
+}
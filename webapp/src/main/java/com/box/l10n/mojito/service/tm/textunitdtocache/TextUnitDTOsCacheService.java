@@ -4,30 +4,35 @@ import com.box.l10n.mojito.entity.Asset;
 import com.box.l10n.mojito.entity.TMTextUnitVariant;
 import com.box.l10n.mojito.okapi.TextUnitUtils;
 import com.box.l10n.mojito.service.asset.AssetRepository;
-import com.box.l10n.mojito.service.assetExtraction.AssetTextUnitToTMTextUnitRepository;
 import com.box.l10n.mojito.service.tm.TMTextUnitCurrentVariantDTO;
 import com.box.l10n.mojito.service.tm.TMTextUnitCurrentVariantRepository;
 import com.box.l10n.mojito.service.tm.TMTextUnitRepository;
+import com.box.l10n.mojito.service.tm.TMTextUnitStateDTO;
 import com.box.l10n.mojito.service.tm.search.StatusFilter;
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import com.box.l10n.mojito.service.tm.search.TextUnitSearcher;
 import com.box.l10n.mojito.service.tm.search.TextUnitSearcherParameters;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Streams;
 import io.micrometer.core.annotation.Timed;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Component;
 
 /**
@@ -49,17 +54,21 @@ public class TextUnitDTOsCacheService {
 
   @Autowired TextUnitDTOsCacheBlobStorage textUnitDTOsCacheBlobStorage;
 
+  @Autowired TextUnitDTOsCacheHotTier textUnitDTOsCacheHotTier;
+
   @Autowired TextUnitSearcher textUnitSearcher;
 
   @Autowired TMTextUnitRepository tmTextUnitRepository;
 
   @Autowired TextUnitUtils textUnitUtils;
 
-  @Autowired TMTextUnitCurrentVariantRepository tmTextUnitCurrentVariantRepository;
+  @Autowired AssetRepository assetRepository;
 
-  @Autowired AssetTextUnitToTMTextUnitRepository assetTextUnitToTMTextUnitRepository;
+  @Autowired TMTextUnitCurrentVariantRepository tmTextUnitCurrentVariantRepository;
 
-  @Autowired AssetRepository assetRepository;
+  @Autowired
+  @Qualifier("textUnitDTOsCacheExecutor")
+  AsyncTaskExecutor textUnitDTOsCacheExecutor;
 
   public ImmutableMap<String, TextUnitDTO> getTextUnitDTOsForAssetAndLocaleByMD5(
       Long assetId,
@@ -86,7 +95,7 @@ public class TextUnitDTOsCacheService {
       Long assetId, Long localeId, boolean isRootLocale, UpdateType updateType) {
 
     Optional<ImmutableList<TextUnitDTO>> optionalTextUnitDTOs =
-        textUnitDTOsCacheBlobStorage.getTextUnitDTOs(assetId, localeId);
+        getTextUnitDTOsFromHotTierOrBlobStorage(assetId, localeId);
 
     ImmutableList<TextUnitDTO> textUnitDTOs = optionalTextUnitDTOs.orElse(ImmutableList.of());
 
@@ -99,9 +108,102 @@ public class TextUnitDTOsCacheService {
     return textUnitDTOs;
   }
 
+  /**
+   * Same as {@link #getTextUnitDTOsForAssetAndLocale(Long, Long, boolean, UpdateType)} but for
+   * multiple locales of an asset.
+   *
+   * <p>The state of the text units that doesn't depend on the locale (ids, used and do not
+   * translate) is fetched only once for the asset, then each locale is processed in parallel with
+   * the {@link #textUnitDTOsCacheExecutor}.
+   *
+   * @param assetId
+   * @param localeIds
+   * @param rootLocaleId id of the root locale, can be null if not in localeIds
+   * @param updateType
+   * @return the TextUnitDTOs by locale id
+   */
+  @Timed("TextUnitDTOsCacheService.getTextUnitDTOsForAssetAndLocales")
+  public ImmutableMap<Long, ImmutableList<TextUnitDTO>> getTextUnitDTOsForAssetAndLocales(
+      Long assetId, Set<Long> localeIds, Long rootLocaleId, UpdateType updateType) {
+
+    Supplier<Asset> asset = Suppliers.memoize(() -> getAssetById(assetId));
+    Supplier<ImmutableList<TMTextUnitStateDTO>> assetTextUnitStates =
+        Suppliers.memoize(() -> getTextUnitStates(asset.get()));
+
+    ImmutableMap<Long, CompletableFuture<ImmutableList<TextUnitDTO>>> futuresByLocaleId =
+        localeIds.stream()
+            .collect(
+                ImmutableMap.toImmutableMap(
+                    Function.identity(),
+                    localeId ->
+                        CompletableFuture.supplyAsync(
+                            () ->
+                                getTextUnitDTOsForAssetAndLocale(
+                                    assetId,
+                                    asset,
+                                    assetTextUnitStates,
+                                    localeId,
+                                    localeId.equals(rootLocaleId),
+                                    updateType),
+                            textUnitDTOsCacheExecutor)));
+
+    return futuresByLocaleId.entrySet().stream()
+        .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, entry -> entry.getValue().join()));
+  }
+
+  ImmutableList<TextUnitDTO> getTextUnitDTOsForAssetAndLocale(
+      Long assetId,
+      Supplier<Asset> asset,
+      Supplier<ImmutableList<TMTextUnitStateDTO>> assetTextUnitStates,
+      Long localeId,
+      boolean isRootLocale,
+      UpdateType updateType) {
+
+    Optional<ImmutableList<TextUnitDTO>> optionalTextUnitDTOs =
+        getTextUnitDTOsFromHotTierOrBlobStorage(assetId, localeId);
+
+    ImmutableList<TextUnitDTO> textUnitDTOs = optionalTextUnitDTOs.orElse(ImmutableList.of());
+
+    if (UpdateType.ALWAYS.equals(updateType)
+        || (UpdateType.IF_MISSING.equals(updateType) && !optionalTextUnitDTOs.isPresent())) {
+      textUnitDTOs =
+          updateTextUnitDTOsWithDeltaFromDatabase(
+              textUnitDTOs,
+              asset.get(),
+              localeId,
+              isRootLocale,
+              getTextUnitStates(asset.get(), assetTextUnitStates.get(), localeId));
+    }
+
+    return textUnitDTOs;
+  }
+
+  /**
+   * The hot tier is checked first to avoid reading and parsing the blob. On miss, what is read from
+   * the blob storage is added to the hot tier.
+   */
+  Optional<ImmutableList<TextUnitDTO>> getTextUnitDTOsFromHotTierOrBlobStorage(
+      Long assetId, Long localeId) {
+    Optional<ImmutableList<TextUnitDTO>> fromHotTier =
+        textUnitDTOsCacheHotTier.get(assetId, localeId);
+
+    if (fromHotTier.isPresent()) {
+      return fromHotTier;
+    }
+
+    Optional<ImmutableList<TextUnitDTO>> fromBlobStorage =
+        textUnitDTOsCacheBlobStorage.getTextUnitDTOs(assetId, localeId);
+    fromBlobStorage.ifPresent(
+        textUnitDTOs -> textUnitDTOsCacheHotTier.put(assetId, localeId, textUnitDTOs));
+    return fromBlobStorage;
+  }
+
   /**
    * - Looks for updated translations - Make sure all text units in the database have an entry in
-   * the cache - Update "used" status as needed
+   * the cache - Update "used" status as needed - Update "do not translate" status as needed
+   *
+   * <p>The state needed to detect changes is fetched with a single query, then only the text units
+   * that changed are fetched with the {@link TextUnitSearcher}.
    *
    * @param toUpdate
    * @param assetId
@@ -115,12 +217,18 @@ public class TextUnitDTOsCacheService {
 
     Asset asset = getAssetById(assetId);
 
-    ImmutableList<TMTextUnitCurrentVariantDTO> currentTranslations =
-        getCurrentTranslationsOfAllTextUnits(assetId, localeId);
-    ImmutableList<Long> idsOfAllTextUnits = getIdsOfAllTextUnits(assetId);
-    ImmutableSet<Long> idsOfUsedTextUnits = getIdsOfUsedTextUnits(asset);
-    ImmutableSet<Long> tmTextUnitIdsOfDoNotTranslateTextUnits =
-        getTmTextUnitIdsOfDoNotTranslateUnits(asset);
+    return updateTextUnitDTOsWithDeltaFromDatabase(
+        toUpdate, asset, localeId, isRootLocale, getTextUnitStates(asset, localeId));
+  }
+
+  ImmutableList<TextUnitDTO> updateTextUnitDTOsWithDeltaFromDatabase(
+      ImmutableList<TextUnitDTO> toUpdate,
+      Asset asset,
+      Long localeId,
+      boolean isRootLocale,
+      ImmutableList<TMTextUnitStateDTO> textUnitStates) {
+
+    Long assetId = asset.getId();
 
     ImmutableMap<Long, TextUnitDTO> toUpdateByTmTextUnitIds =
         toUpdate.stream()
@@ -128,28 +236,29 @@ public class TextUnitDTOsCacheService {
                 ImmutableMap.toImmutableMap(TextUnitDTO::getTmTextUnitId, Function.identity()));
 
     ImmutableSet<Long> textUnitIdsToFetch =
-        Streams.concat(
-                getTmTextUnitIdsForNewTranslations(currentTranslations, toUpdateByTmTextUnitIds),
-                getTmTextUnitIdsOfMissingTextUnits(idsOfAllTextUnits, toUpdateByTmTextUnitIds),
-                getTmTextUnitIdsForChangedUsedStatus(idsOfUsedTextUnits, toUpdate),
-                getTmTextUnitIdsForChangedTranslateStatus(
-                    tmTextUnitIdsOfDoNotTranslateTextUnits, toUpdate))
-            .collect(ImmutableSet.toImmutableSet());
+        getTmTextUnitIdsToFetch(textUnitStates, toUpdateByTmTextUnitIds);
 
     logger.debug(
         "Number of text units to fetch: {} (of total: {})",
         textUnitIdsToFetch.size(),
-        idsOfAllTextUnits.size());
+        textUnitStates.size());
 
     ImmutableMap<Long, TextUnitDTO> fetchedByTmTextUnitId =
         fetchTextUnitDTOForTmTextUnitIds(assetId, localeId, isRootLocale, textUnitIdsToFetch);
 
+    ImmutableList<Long> idsOfAllTextUnits =
+        textUnitStates.stream()
+            .map(TMTextUnitStateDTO::getTmTextUnitId)
+            .distinct()
+            .collect(ImmutableList.toImmutableList());
+
     ImmutableList<TextUnitDTO> textUnitDTOsForAllTextUnits =
         getTextUnitDTOsForAllTextUnits(
             asset, idsOfAllTextUnits, toUpdateByTmTextUnitIds, fetchedByTmTextUnitId);
 
     if (!toUpdate.equals(textUnitDTOsForAllTextUnits)) {
       textUnitDTOsCacheBlobStorage.putTextUnitDTOs(assetId, localeId, textUnitDTOsForAllTextUnits);
+      textUnitDTOsCacheHotTier.put(assetId, localeId, textUnitDTOsForAllTextUnits);
     } else {
       logger.debug("No change in text units, don't write blob");
     }
@@ -157,6 +266,33 @@ public class TextUnitDTOsCacheService {
     return textUnitDTOsForAllTextUnits;
   }
 
+  /**
+   * A text unit must be fetched if it is missing from the previous entries, if it has a new
+   * translation or if its "used" or "do not translate" status changed.
+   *
+   * @param textUnitStates
+   * @param previousTextUnitDTOsByTmTextUnitIds
+   * @return
+   */
+  ImmutableSet<Long> getTmTextUnitIdsToFetch(
+      ImmutableList<TMTextUnitStateDTO> textUnitStates,
+      ImmutableMap<Long, TextUnitDTO> previousTextUnitDTOsByTmTextUnitIds) {
+    return textUnitStates.stream()
+        .filter(
+            state -> {
+              TextUnitDTO previous =
+                  previousTextUnitDTOsByTmTextUnitIds.get(state.getTmTextUnitId());
+              return previous == null
+                  || (state.getTmTextUnitCurrentVariantId() != null
+                      && !Objects.equals(
+                          previous.getTmTextUnitVariantId(), state.getTmTextUnitVariantId()))
+                  || previous.isUsed() != state.isUsed()
+                  || previous.isDoNotTranslate() != state.isDoNotTranslate();
+            })
+        .map(TMTextUnitStateDTO::getTmTextUnitId)
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
   /**
    * First look into what has just been fetch (to get updated and a newly fetch entries and then
    * look for what was in the old cache (unchanged entries)
@@ -184,14 +320,27 @@ public class TextUnitDTOsCacheService {
             })
         .filter(
             Objects::nonNull) // plural forms won't have a match for some language so need to skip
-        .map(
-            textUnitDTO -> {
-              textUnitDTO.setAssetDeleted(asset.getDeleted()); // this has side effects...
-              return textUnitDTO;
-            })
+        .map(textUnitDTO -> withAssetDeleted(textUnitDTO, asset.getDeleted()))
         .collect(ImmutableList.toImmutableList());
   }
 
+  /**
+   * TextUnitDTOs from the previous entries are shared through the {@link TextUnitDTOsCacheHotTier}
+   * so they must not be mutated. A copy is made if the "asset deleted" flag changed, else the same
+   * instance is returned so that unchanged entries are still detected.
+   */
+  TextUnitDTO withAssetDeleted(TextUnitDTO textUnitDTO, boolean assetDeleted) {
+    TextUnitDTO withAssetDeleted = textUnitDTO;
+
+    if (textUnitDTO.isAssetDeleted() != assetDeleted) {
+      withAssetDeleted = new TextUnitDTO();
+      BeanUtils.copyProperties(textUnitDTO, withAssetDeleted);
+      withAssetDeleted.setAssetDeleted(assetDeleted);
+    }
+
+    return withAssetDeleted;
+  }
+
   ImmutableMap<Long, TextUnitDTO> fetchTextUnitDTOForTmTextUnitIds(
       Long assetId, Long localeId, boolean isRootLocale, ImmutableSet<Long> textUnitIdsToFetch) {
     return Lists.partition(textUnitIdsToFetch.asList(), FETCH_BATCH_SIZE).stream()
@@ -216,109 +365,79 @@ public class TextUnitDTOsCacheService {
         .collect(ImmutableMap.toImmutableMap(TextUnitDTO::getTmTextUnitId, Function.identity()));
   }
 
-  Stream<Long> getTmTextUnitIdsForChangedUsedStatus(
-      Set<Long> idsOfUsedTextUnits, ImmutableList<TextUnitDTO> textUnitDTOsToUpdate) {
-    return textUnitDTOsToUpdate.stream()
-        .filter(
-            t -> {
-              boolean newUsed = idsOfUsedTextUnits.contains(t.getTmTextUnitId());
-              return newUsed != t.isUsed();
-            })
-        .map(TextUnitDTO::getTmTextUnitId);
-  }
-
-  Stream<Long> getTmTextUnitIdsOfMissingTextUnits(
-      List<Long> idsOfAllTextUnits,
-      ImmutableMap<Long, TextUnitDTO> textUnitDTOsToUpdateByTmTextUnitIds) {
-    return idsOfAllTextUnits.stream()
-        .filter(tmTextUnitId -> !textUnitDTOsToUpdateByTmTextUnitIds.containsKey(tmTextUnitId));
-  }
-
-  Stream<Long> getTmTextUnitIdsForNewTranslations(
-      List<TMTextUnitCurrentVariantDTO> currentTranslations,
-      ImmutableMap<Long, TextUnitDTO> previousTextUnitDTOsByTmTextUnitIds) {
-    return currentTranslations.stream()
-        .filter(
-            current -> {
-              TextUnitDTO previous =
-                  previousTextUnitDTOsByTmTextUnitIds.get(current.getTmTextUnitId());
-              return previous == null
-                  || !Objects.equals(
-                      previous.getTmTextUnitVariantId(), current.getTmTextUnitVariantId());
-            })
-        .map(TMTextUnitCurrentVariantDTO::getTmTextUnitId);
-  }
-
-  Stream<Long> getTmTextUnitIdsForChangedTranslateStatus(
-      ImmutableSet<Long> idsOfDoNotTranslateTextUnits,
-      ImmutableList<TextUnitDTO> textUnitDTOsToUpdate) {
-    return textUnitDTOsToUpdate.stream()
-        .filter(
-            t -> {
-              boolean newDoNotTranslate =
-                  idsOfDoNotTranslateTextUnits.contains(t.getTmTextUnitId());
-              return newDoNotTranslate != t.isDoNotTranslate();
-            })
-        .map(TextUnitDTO::getTmTextUnitId);
-  }
-
   Asset getAssetById(Long assetId) {
     return assetRepository
         .findById(assetId)
         .orElseThrow(() -> new IllegalArgumentException("Asset missing for given id: " + assetId));
   }
 
-  ImmutableSet<Long> getIdsOfUsedTextUnits(Asset asset) {
-    ImmutableSet<Long> ids = ImmutableSet.of();
-    if (asset.getLastSuccessfulAssetExtraction() != null) {
-      ids =
-          ImmutableSet.copyOf(
-              assetTextUnitToTMTextUnitRepository.findTmTextUnitIdsByAssetExtractionId(
-                  asset.getLastSuccessfulAssetExtraction().getId()));
-    }
-    return ids;
-  }
-
-  ImmutableSet<Long> getTmTextUnitIdsOfDoNotTranslateUnits(Asset asset) {
-    ImmutableSet<Long> idsOfDoNotTranslateTextUnits = ImmutableSet.of();
-    if (asset.getLastSuccessfulAssetExtraction() != null) {
-      idsOfDoNotTranslateTextUnits =
-          ImmutableSet.copyOf(
-              assetTextUnitToTMTextUnitRepository
-                  .getTmTextUnitIdsOfDoNotTranslateUnitsByAssetExtractionId(
-                      asset.getLastSuccessfulAssetExtraction().getId()));
-    }
-    return idsOfDoNotTranslateTextUnits;
+  /**
+   * Gets the state of all the text units of an asset for a locale, regardless if those text units
+   * are used or not.
+   *
+   * @param asset
+   * @param localeId
+   * @return
+   */
+  @Timed("TextUnitDTOsCacheService.getTextUnitStates")
+  ImmutableList<TMTextUnitStateDTO> getTextUnitStates(Asset asset, Long localeId) {
+    return ImmutableList.copyOf(
+        tmTextUnitRepository.getTextUnitStatesByAssetIdAndLocaleId(
+            asset.getId(), localeId, getLastSuccessfulAssetExtractionId(asset)));
   }
 
   /**
-   * Gets the ids of all the text unit in an asset regardless if those text units are used or not.
+   * Gets the state of all the text units of an asset that doesn't depend on the locale.
    *
-   * @param assetId
+   * @param asset
    * @return
    */
-  @Timed("TextUnitDTOsCacheService.getIdsOfAllTextUnits")
-  ImmutableList<Long> getIdsOfAllTextUnits(Long assetId) {
-    return ImmutableList.copyOf(tmTextUnitRepository.getTextUnitIdsByAssetId(assetId));
+  @Timed("TextUnitDTOsCacheService.getTextUnitStatesForAsset")
+  ImmutableList<TMTextUnitStateDTO> getTextUnitStates(Asset asset) {
+    return ImmutableList.copyOf(
+        tmTextUnitRepository.getTextUnitStatesByAssetId(
+            asset.getId(), getLastSuccessfulAssetExtractionId(asset)));
   }
 
   /**
-   * This provides the current translations of all text units (regardless if they are used or not).
+   * Combines the state of the text units that doesn't depend on the locale with the current
+   * translations of a locale.
    *
-   * <p>Can be used to check if the current translation has changed and to refresh part of the
-   * cache.
-   *
-   * <p>
-   *
-   * @param assetId
+   * @param asset
+   * @param assetTextUnitStates
    * @param localeId
    * @return
    */
-  @Timed("TextUnitDTOsCacheService.getCurrentTranslationsOfAllTextUnits")
-  ImmutableList<TMTextUnitCurrentVariantDTO> getCurrentTranslationsOfAllTextUnits(
-      Long assetId, Long localeId) {
-    return ImmutableList.copyOf(
-        tmTextUnitCurrentVariantRepository.findByAsset_idAndLocale_Id(assetId, localeId));
+  @Timed("TextUnitDTOsCacheService.getTextUnitStatesForLocale")
+  ImmutableList<TMTextUnitStateDTO> getTextUnitStates(
+      Asset asset, ImmutableList<TMTextUnitStateDTO> assetTextUnitStates, Long localeId) {
+
+    ImmutableMap<Long, TMTextUnitCurrentVariantDTO> currentVariantsByTmTextUnitId =
+        tmTextUnitCurrentVariantRepository.findByAsset_idAndLocale_Id(asset.getId(), localeId)
+            .stream()
+            .collect(
+                ImmutableMap.toImmutableMap(
+                    TMTextUnitCurrentVariantDTO::getTmTextUnitId, Function.identity()));
+
+    return assetTextUnitStates.stream()
+        .map(
+            state -> {
+              TMTextUnitCurrentVariantDTO currentVariant =
+                  currentVariantsByTmTextUnitId.get(state.getTmTextUnitId());
+              return new TMTextUnitStateDTO(
+                  state.getTmTextUnitId(),
+                  currentVariant != null ? currentVariant.getTmTextUnitCurrentVariantId() : null,
+                  currentVariant != null ? currentVariant.getTmTextUnitVariantId() : null,
+                  state.isUsed(),
+                  state.isDoNotTranslate());
+            })
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  Long getLastSuccessfulAssetExtractionId(Asset asset) {
+    return asset.getLastSuccessfulAssetExtraction() != null
+        ? asset.getLastSuccessfulAssetExtraction().getId()
+        : null;
   }
 
   /**
@@ -55,7 +55,7 @@ public class BytesGZIP {
   }
 
   /** See {@link GZIPInputStream#GZIP_MAGIC} */
-  static boolean hasGZipMagicNumber(byte[] bytes) {
+  public static boolean hasGZipMagicNumber(byte[] bytes) {
     return bytes.length > 1 && bytes[0] == 0x1f && bytes[1] == (byte) 0x8b;
   }
 }
@@ -0,0 +1,120 @@
+package com.box.l10n.mojito.utils;
+
+import com.google.common.util.concurrent.Striped;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+
+/**
+ * Serializes the processing of values submitted for a same key and batches the values that are
+ * submitted while a batch is being processed.
+ *
+ * <p>The submitting thread enqueues its value and waits for the lock of the key. The thread that
+ * gets the lock processes all the values pending for that key in one batch (in submission order)
+ * and completes them with the result of the batch. Threads whose value was processed by another
+ * thread just return that result. There is no dedicated thread, so this only serializes within a
+ * JVM.
+ *
+ * @param <K> the key type
+ * @param <T> the value type
+ * @param <R> the result type
+ */
+public class KeyedBatchExecutor<K, T, R> {
+
+  final ConcurrentHashMap<K, Queue<Pending<T, R>>> pendingByKey = new ConcurrentHashMap<>();
+
+  final Striped<Lock> locks;
+
+  public KeyedBatchExecutor(int lockStripes) {
+    this.locks = Striped.lazyWeakLock(lockStripes);
+  }
+
+  /**
+   * Submits a value and waits for the result of the batch that processed it.
+   *
+   * @param key the key, values of a same key are never processed concurrently
+   * @param value the value to process
+   * @param batchProcessor processes a batch of values, in submission order
+   * @return the result of the batch that contained the value
+   */
+  public R submit(K key, T value, Function<List<T>, R> batchProcessor) {
+    Pending<T, R> pending = new Pending<>(value);
+
+    pendingByKey.compute(
+        key,
+        (k, queue) -> {
+          if (queue == null) {
+            queue = new ConcurrentLinkedQueue<>();
+          }
+          queue.add(pending);
+          return queue;
+        });
+
+    Lock lock = locks.get(key);
+    lock.lock();
+    try {
+      if (!pending.result.isDone()) {
+        processBatch(key, batchProcessor);
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    try {
+      return pending.result.join();
+    } catch (CompletionException ce) {
+      if (ce.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ce.getCause();
+      }
+      if (ce.getCause() instanceof Error) {
+        throw (Error) ce.getCause();
+      }
+      throw ce;
+    }
+  }
+
+  /** Must be called with the lock of the key. */
+  void processBatch(K key, Function<List<T>, R> batchProcessor) {
+    List<Pending<T, R>> batch = new ArrayList<>();
+
+    Queue<Pending<T, R>> queue = pendingByKey.get(key);
+    Pending<T, R> next;
+    while ((next = queue.poll()) != null) {
+      batch.add(next);
+    }
+    pendingByKey.computeIfPresent(key, (k, q) -> q.isEmpty() ? null : q);
+
+    List<T> values = new ArrayList<>(batch.size());
+    for (Pending<T, R> pending : batch) {
+      values.add(pending.value);
+    }
+
+    try {
+      R result = batchProcessor.apply(values);
+      batch.forEach(p -> p.result.complete(result));
+    } catch (Throwable t) {
+      // complete the whole batch, other threads of the batch won't process it again
+      batch.forEach(p -> p.result.completeExceptionally(t));
+    }
+  }
+
+  /** @return the number of keys with values waiting to be processed */
+  public int getPendingKeyCount() {
+    return pendingByKey.size();
+  }
+
+  static class Pending<T, R> {
+    final T value;
+    final CompletableFuture<R> result = new CompletableFuture<>();
+
+    Pending(T value) {
+      this.value = value;
+    }
+  }
+}
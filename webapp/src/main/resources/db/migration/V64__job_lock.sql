@@ -0,0 +1,2 @@
+create table job_lock (id bigint not null auto_increment, name varchar(255) not null, primary key (id));
+alter table job_lock add constraint UK__JOB_LOCK__NAME unique (name);
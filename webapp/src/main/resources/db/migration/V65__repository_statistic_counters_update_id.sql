@@ -0,0 +1 @@
+alter table repository_statistic add column counters_update_id varchar(255);
@@ -381,6 +381,47 @@ public class QuartzPendingJobsReportingTaskTest extends ServiceTestBase {
     assertThat(pendingJob2.count).isEqualTo(5L);
   }
 
+  @Test
+  public void testFetchSchedulerQueues() throws Exception {
+
+    scheduler.standby();
+    try {
+      for (int i = 1; i <= 3; i++) {
+        JobDetail job =
+            newJob(Test1Job.class)
+                .withIdentity(testIdWatcher.getEntityName("Test1Job_" + i), DYNAMIC_GROUP_NAME)
+                .build();
+        TriggerBuilder<Trigger> builder =
+            TriggerBuilder.newTrigger()
+                .forJob(job)
+                .startAt(Date.from(ZonedDateTime.now().minusSeconds(10 * i).toInstant()));
+        scheduler.scheduleJob(job, builder.build());
+      }
+
+      JobDetail job =
+          newJob(Test2Job.class)
+              .withIdentity(testIdWatcher.getEntityName("Test2Job"), DYNAMIC_GROUP_NAME)
+              .build();
+      TriggerBuilder<Trigger> builder =
+          TriggerBuilder.newTrigger()
+              .forJob(job)
+              .startAt(Date.from(ZonedDateTime.now().plusHours(1).toInstant()));
+      scheduler.scheduleJob(job, builder.build());
+
+      Map<String, QuartzPendingJobsReportingTask.SchedulerQueue> schedulerQueues =
+          task.fetchSchedulerQueues(System.currentTimeMillis());
+
+      QuartzPendingJobsReportingTask.SchedulerQueue schedulerQueue =
+          schedulerQueues.get(scheduler.getSchedulerName());
+      assertThat(schedulerQueue).isNotNull();
+      assertThat(schedulerQueue.count).isEqualTo(3L);
+      assertThat(schedulerQueue.waitTime).isGreaterThanOrEqualTo(30000L);
+    } finally {
+      scheduler.clear();
+      scheduler.start();
+    }
+  }
+
   @Test
   public void testExtractClassName() {
     assertThat(extractClassName(".")).isEqualTo("");
@@ -0,0 +1,76 @@
+package com.box.l10n.mojito.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.box.l10n.mojito.service.assetExtraction.ServiceTestBase;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class JobLockServiceTest extends ServiceTestBase {
+
+  @Autowired JobLockService jobLockService;
+
+  @Autowired JobLockRepository jobLockRepository;
+
+  @Test
+  public void testExecuteWithLock() throws Exception {
+    String name = "testExecuteWithLock-" + UUID.randomUUID();
+
+    assertEquals("result", jobLockService.executeWithLock(name, () -> "result"));
+    assertTrue(jobLockRepository.findByName(name).isPresent());
+
+    assertEquals("again", jobLockService.executeWithLock(name, () -> "again"));
+  }
+
+  @Test
+  public void testExecuteWithLockIsExclusive() throws Exception {
+    String name = "testExecuteWithLockIsExclusive-" + UUID.randomUUID();
+    jobLockService.createJobLockIfMissing(name);
+
+    CountDownLatch firstLocked = new CountDownLatch(1);
+    CountDownLatch releaseFirst = new CountDownLatch(1);
+
+    CompletableFuture<String> first =
+        CompletableFuture.supplyAsync(
+            () ->
+                executeWithLockUnchecked(
+                    name,
+                    () -> {
+                      firstLocked.countDown();
+                      releaseFirst.await(30, TimeUnit.SECONDS);
+                      return "first";
+                    }));
+
+    assertTrue(firstLocked.await(10, TimeUnit.SECONDS));
+
+    CompletableFuture<String> second =
+        CompletableFuture.supplyAsync(() -> executeWithLockUnchecked(name, () -> "second"));
+
+    try {
+      second.get(1, TimeUnit.SECONDS);
+      fail("the second call must wait for the lock");
+    } catch (TimeoutException te) {
+      // expected, the first call holds the lock
+    }
+
+    releaseFirst.countDown();
+    assertEquals("first", first.get(10, TimeUnit.SECONDS));
+    assertEquals("second", second.get(10, TimeUnit.SECONDS));
+  }
+
+  String executeWithLockUnchecked(String name, Callable<String> callable) {
+    try {
+      return jobLockService.executeWithLock(name, callable);
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -1,13 +1,23 @@
 package com.box.l10n.mojito.quartz;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import com.box.l10n.mojito.entity.PollableTask;
 import com.box.l10n.mojito.service.assetExtraction.ServiceTestBase;
 import com.box.l10n.mojito.service.pollableTask.PollableFuture;
 import com.box.l10n.mojito.service.pollableTask.PollableTaskBlobStorage;
+import com.box.l10n.mojito.service.pollableTask.PollableTaskService;
+import com.google.common.base.Strings;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -17,6 +27,12 @@ public class QuartzPollableTaskSchedulerTest extends ServiceTestBase {
 
   @Autowired PollableTaskBlobStorage pollableTaskBlobStorage;
 
+  @Autowired PollableTaskService pollableTaskService;
+
+  @Autowired LightweightPollableJobRecovery lightweightPollableJobRecovery;
+
+  @Autowired LightweightPollableJobExecutor lightweightPollableJobExecutor;
+
   @Test
   public void test() throws ExecutionException, InterruptedException {
     PollableFuture<AQuartzPollableJobOutput> pollableFuture =
@@ -45,6 +61,173 @@ public class QuartzPollableTaskSchedulerTest extends ServiceTestBase {
     }
   }
 
+  @Test
+  public void testLightweight() throws ExecutionException, InterruptedException {
+    QuartzJobInfo<Long, AQuartzPollableJobOutput> quartzJobInfo =
+        QuartzJobInfo.newBuilder(AQuartzPollableJob.class)
+            .withInput(10L)
+            .withLightweight(true)
+            .build();
+
+    PollableFuture<AQuartzPollableJobOutput> pollableFuture =
+        quartzPollableTaskScheduler.scheduleJob(quartzJobInfo);
+    assertTrue(pollableFuture instanceof LightweightPollableFuture);
+    assertEquals("output: 10", pollableFuture.get().getOutput());
+
+    PollableTask pollableTask =
+        pollableTaskService.getPollableTask(pollableFuture.getPollableTask().getId());
+    assertNotNull(pollableTask.getFinishedDate());
+    assertTrue(
+        pollableTaskBlobStorage
+            .getOutputJson(pollableFuture.getPollableTask().getId())
+            .contains("output: 10"));
+  }
+
+  @Test
+  public void testInputMerger() throws ExecutionException, InterruptedException {
+    QuartzJobInfo.Builder<Long, AQuartzPollableJobOutput> quartzJobInfoBuilder =
+        QuartzJobInfo.newBuilder(AQuartzPollableJob.class)
+            .withUniqueId("testInputMerger-" + UUID.randomUUID())
+            .withTriggerStartDate(new Date(System.currentTimeMillis() + 2000))
+            .withInputMerger(Long::sum);
+
+    quartzPollableTaskScheduler.scheduleJob(quartzJobInfoBuilder.withInput(10L).build());
+    PollableFuture<AQuartzPollableJobOutput> pollableFuture =
+        quartzPollableTaskScheduler.scheduleJob(quartzJobInfoBuilder.withInput(5L).build());
+
+    assertEquals("output: 15", pollableFuture.get().getOutput());
+  }
+
+  @Test
+  public void testLightweightReplacedTasksFailWithTheJob() {
+    QuartzJobInfo<Long, Void> quartzJobInfo =
+        QuartzJobInfo.newBuilder(FailingQuartzPollableJob.class)
+            .withInput(10L)
+            .withUniqueId("testLightweightReplacedTasksFailWithTheJob-" + UUID.randomUUID())
+            .withLightweight(true)
+            .build();
+
+    PollableTask replacedPollableTask =
+        pollableTaskService.createPollableTask(null, "replaced", null, 0);
+    PollableTask pollableTask = pollableTaskService.createPollableTask(null, "replacing", null, 0);
+
+    LightweightPollableJobExecutor.LightweightJob<Long, Void> lightweightJob =
+        lightweightPollableJobExecutor
+        .new LightweightJob<>(
+            "testLightweightReplacedTasksFailWithTheJob",
+            quartzJobInfo,
+            replacedPollableTask,
+            new CompletableFuture<>());
+    assertTrue(lightweightJob.replaceInput(quartzJobInfo, pollableTask, new CompletableFuture<>()));
+    lightweightJob.executeWithKeyLock();
+
+    assertNotNull(pollableTaskService.getPollableTask(pollableTask.getId()).getErrorMessage());
+
+    PollableTask replaced = pollableTaskService.getPollableTask(replacedPollableTask.getId());
+    assertNotNull(replaced.getFinishedDate());
+    assertNotNull(replaced.getErrorMessage());
+  }
+
+  @Test
+  public void testDrainRejectedJobs() throws Exception {
+    QuartzJobInfo<Long, AQuartzPollableJobOutput> quartzJobInfo =
+        QuartzJobInfo.newBuilder(AQuartzPollableJob.class)
+            .withInput(10L)
+            .withUniqueId("testDrainRejectedJobs-" + UUID.randomUUID())
+            .withLightweight(true)
+            .build();
+
+    PollableTask pollableTask = pollableTaskService.createPollableTask(null, "rejected", null, 0);
+    CompletableFuture<AQuartzPollableJobOutput> output = new CompletableFuture<>();
+
+    lightweightPollableJobExecutor.rejectedJobs.add(
+        lightweightPollableJobExecutor
+        .new LightweightJob<>("testDrainRejectedJobs", quartzJobInfo, pollableTask, output));
+    lightweightPollableJobExecutor.drainRejectedJobs();
+
+    assertEquals("output: 10", output.get(10, TimeUnit.SECONDS).getOutput());
+  }
+
+  @Test
+  public void testSaveJobsForRecovery() {
+    QuartzJobInfo<Long, AQuartzPollableJobOutput> quartzJobInfo =
+        QuartzJobInfo.newBuilder(AQuartzPollableJob.class)
+            .withInput(10L)
+            .withUniqueId("testSaveJobsForRecovery-" + UUID.randomUUID())
+            .withLightweight(true)
+            .build();
+
+    PollableTask pollableTask = pollableTaskService.createPollableTask(null, "pending", null, 0);
+
+    LightweightPollableJobExecutor.LightweightJob<Long, AQuartzPollableJobOutput> lightweightJob =
+        lightweightPollableJobExecutor
+        .new LightweightJob<>(
+            "testSaveJobsForRecovery", quartzJobInfo, pollableTask, new CompletableFuture<>());
+
+    lightweightPollableJobExecutor.pendingJobs.add(lightweightJob);
+    try {
+      lightweightPollableJobExecutor.saveJobsSubmittedBefore(lightweightJob.submitTime - 1);
+      assertFalse(
+          pollableTaskBlobStorage
+              .findLightweightJob(
+                  pollableTask.getId(), LightweightPollableJobRecovery.LightweightJob.class)
+              .isPresent());
+
+      lightweightPollableJobExecutor.saveJobsSubmittedBefore(lightweightJob.submitTime);
+      assertEquals(
+          "10",
+          pollableTaskBlobStorage
+              .findLightweightJob(
+                  pollableTask.getId(), LightweightPollableJobRecovery.LightweightJob.class)
+              .get()
+              .getInputJson());
+    } finally {
+      lightweightPollableJobExecutor.pendingJobs.remove(lightweightJob);
+    }
+  }
+
+  @Test
+  public void testRecoverLightweightJob() throws Exception {
+    QuartzJobInfo<Long, AQuartzPollableJobOutput> quartzJobInfo =
+        QuartzJobInfo.newBuilder(AQuartzPollableJob.class)
+            .withInput(10L)
+            .withUniqueId("testRecoverLightweightJob-" + UUID.randomUUID())
+            .withLightweight(true)
+            .build();
+
+    PollableTask lostPollableTask =
+        pollableTaskService.createPollableTask(null, "lost", null, 0, 3600);
+    lightweightPollableJobRecovery.save(quartzJobInfo, lostPollableTask, 15L);
+
+    assertTrue(lightweightPollableJobRecovery.recover(lostPollableTask));
+
+    PollableTask recoveredPollableTask =
+        pollableTaskService.getPollableTask(lostPollableTask.getId());
+    assertNotNull(recoveredPollableTask.getFinishedDate());
+    assertTrue(recoveredPollableTask.getMessage().startsWith("Recovered by pollable task: "));
+
+    Long newPollableTaskId =
+        Long.valueOf(
+            recoveredPollableTask.getMessage().substring("Recovered by pollable task: ".length()));
+    pollableTaskService.waitForPollableTask(newPollableTaskId, 10000);
+    assertTrue(pollableTaskBlobStorage.getOutputJson(newPollableTaskId).contains("output: 15"));
+  }
+
+  @Test
+  public void testRecoverNotLightweightJob() {
+    PollableTask pollableTask =
+        pollableTaskService.createPollableTask(null, "notLightweight", null, 0, 3600);
+    assertFalse(lightweightPollableJobRecovery.recover(pollableTask));
+  }
+
+  @Test
+  public void testGetInlineInputJson() {
+    assertEquals(Optional.of("10"), quartzPollableTaskScheduler.getInlineInputJson(10L));
+
+    String bigInput = Strings.repeat("a", quartzPollableTaskScheduler.inlineInputMaxSize + 1);
+    assertFalse(quartzPollableTaskScheduler.getInlineInputJson(bigInput).isPresent());
+  }
+
   @Test
   public void testGetShortClassName() {
     assertEquals(
@@ -88,6 +271,13 @@ public class QuartzPollableTaskSchedulerTest extends ServiceTestBase {
     }
   }
 
+  public static class FailingQuartzPollableJob extends QuartzPollableJob<Long, Void> {
+    @Override
+    public Void call(Long input) throws Exception {
+      throw new IllegalStateException("failing job for input: " + input);
+    }
+  }
+
   static
   class ALongLongLongLongLongLongLongLongLongLongLongLongLongLongLongLongLongLongLongLongLongLongLongLongLongLongLongLongNameClassForTest {}
 }
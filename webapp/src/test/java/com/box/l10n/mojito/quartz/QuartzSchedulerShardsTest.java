@@ -0,0 +1,151 @@
+package com.box.l10n.mojito.quartz;
+
+import static com.box.l10n.mojito.quartz.QuartzConfig.DYNAMIC_GROUP_NAME;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.box.l10n.mojito.quartz.QuartzPollableTaskSchedulerTest.AQuartzPollableJob;
+import com.box.l10n.mojito.quartz.QuartzPollableTaskSchedulerTest.VoidQuartzPollableJob;
+import com.box.l10n.mojito.quartz.QuartzSchedulerShardsConfigurationProperties.ShardConfigurationProperties;
+import com.google.common.collect.ImmutableSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import org.junit.Test;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+
+public class QuartzSchedulerShardsTest {
+
+  @Test
+  public void testGetShardQuartzProperties() {
+    Properties quartzProperties = new Properties();
+    quartzProperties.setProperty("org.quartz.scheduler.instanceName", "mojito");
+    quartzProperties.setProperty("org.quartz.threadPool.threadCount", "10");
+    quartzProperties.setProperty("org.quartz.jobStore.dataSource", "myDS");
+    quartzProperties.setProperty("org.quartz.dataSource.myDS.URL", "jdbc:mysql://localhost/db");
+    quartzProperties.setProperty("org.quartz.dataSource.myDS.maxConnections", "12");
+    quartzProperties.setProperty("org.quartz.dataSource.myDSOther.URL", "jdbc:other");
+
+    QuartzSchedulerShards quartzSchedulerShards = new QuartzSchedulerShards();
+    quartzSchedulerShards.quartzPropertiesConfig = mock(QuartzPropertiesConfig.class);
+    when(quartzSchedulerShards.quartzPropertiesConfig.getQuartzProperties())
+        .thenReturn(quartzProperties);
+
+    ShardConfigurationProperties shardConfigurationProperties = new ShardConfigurationProperties();
+    shardConfigurationProperties.setThreadCount(3);
+    shardConfigurationProperties.setThreadPriority(2);
+
+    Properties shardProperties =
+        quartzSchedulerShards.getShardQuartzProperties("sync", shardConfigurationProperties);
+
+    assertEquals("mojito-sync", shardProperties.getProperty("org.quartz.scheduler.instanceName"));
+    assertEquals("3", shardProperties.getProperty("org.quartz.threadPool.threadCount"));
+    assertEquals("2", shardProperties.getProperty("org.quartz.threadPool.threadPriority"));
+    assertEquals("myDS_sync", shardProperties.getProperty("org.quartz.jobStore.dataSource"));
+    assertEquals(
+        "jdbc:mysql://localhost/db",
+        shardProperties.getProperty("org.quartz.dataSource.myDS_sync.URL"));
+    assertEquals(
+        "5", shardProperties.getProperty("org.quartz.dataSource.myDS_sync.maxConnections"));
+    assertFalse(shardProperties.containsKey("org.quartz.dataSource.myDS.URL"));
+    assertEquals("jdbc:other", shardProperties.getProperty("org.quartz.dataSource.myDSOther.URL"));
+
+    assertEquals(
+        "the default properties must not be modified",
+        "myDS",
+        quartzProperties.getProperty("org.quartz.jobStore.dataSource"));
+  }
+
+  @Test
+  public void testGetShardQuartzPropertiesWithoutDataSource() {
+    QuartzSchedulerShards quartzSchedulerShards = new QuartzSchedulerShards();
+    quartzSchedulerShards.quartzPropertiesConfig = mock(QuartzPropertiesConfig.class);
+    when(quartzSchedulerShards.quartzPropertiesConfig.getQuartzProperties())
+        .thenReturn(new Properties());
+
+    Properties shardProperties =
+        quartzSchedulerShards.getShardQuartzProperties("sync", new ShardConfigurationProperties());
+
+    assertEquals(
+        "scheduler-sync", shardProperties.getProperty("org.quartz.scheduler.instanceName"));
+    assertEquals("5", shardProperties.getProperty("org.quartz.threadPool.threadCount"));
+    assertFalse(shardProperties.containsKey("org.quartz.jobStore.dataSource"));
+  }
+
+  @Test
+  public void testGetScheduler() {
+    QuartzSchedulerShards quartzSchedulerShards = new QuartzSchedulerShards();
+    quartzSchedulerShards.scheduler = mock(Scheduler.class);
+    Scheduler shardScheduler = mock(Scheduler.class);
+
+    quartzSchedulerShards.mapJobClassesToShard(
+        shardScheduler, Collections.singletonList(AQuartzPollableJob.class.getName()));
+
+    assertSame(shardScheduler, quartzSchedulerShards.getScheduler(AQuartzPollableJob.class));
+    assertSame(
+        quartzSchedulerShards.scheduler,
+        quartzSchedulerShards.getScheduler(VoidQuartzPollableJob.class));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMapJobClassToMultipleShards() {
+    QuartzSchedulerShards quartzSchedulerShards = new QuartzSchedulerShards();
+    List<String> jobClassNames = Collections.singletonList(AQuartzPollableJob.class.getName());
+    quartzSchedulerShards.mapJobClassesToShard(mock(Scheduler.class), jobClassNames);
+    quartzSchedulerShards.mapJobClassesToShard(mock(Scheduler.class), jobClassNames);
+  }
+
+  @Test
+  public void testMoveDynamicJobsToShard() throws Exception {
+    QuartzSchedulerShards quartzSchedulerShards = new QuartzSchedulerShards();
+    quartzSchedulerShards.scheduler = mock(Scheduler.class);
+    Scheduler shardScheduler = mock(Scheduler.class);
+
+    JobDetail movedJob = createJobDetail(AQuartzPollableJob.class, "moved");
+    Trigger movedTrigger = TriggerBuilder.newTrigger().forJob(movedJob).build();
+    JobDetail keptJob = createJobDetail(VoidQuartzPollableJob.class, "kept");
+    JobDetail jobWithoutTrigger = createJobDetail(AQuartzPollableJob.class, "withoutTrigger");
+
+    when(quartzSchedulerShards.scheduler.getJobKeys(any()))
+        .thenReturn(
+            ImmutableSet.of(movedJob.getKey(), keptJob.getKey(), jobWithoutTrigger.getKey()));
+    for (JobDetail jobDetail : Arrays.asList(movedJob, keptJob, jobWithoutTrigger)) {
+      when(quartzSchedulerShards.scheduler.getJobDetail(jobDetail.getKey())).thenReturn(jobDetail);
+    }
+    when(quartzSchedulerShards.scheduler.getTriggersOfJob(movedJob.getKey()))
+        .then(invocation -> Collections.singletonList(movedTrigger));
+    when(quartzSchedulerShards.scheduler.getTriggersOfJob(jobWithoutTrigger.getKey()))
+        .then(invocation -> Collections.emptyList());
+
+    quartzSchedulerShards.moveDynamicJobsToShard(
+        "sync", shardScheduler, Collections.singletonList(AQuartzPollableJob.class.getName()));
+
+    verify(shardScheduler).scheduleJob(movedJob, ImmutableSet.of(movedTrigger), true);
+    verify(quartzSchedulerShards.scheduler).deleteJob(movedJob.getKey());
+    verify(quartzSchedulerShards.scheduler).deleteJob(jobWithoutTrigger.getKey());
+    verify(quartzSchedulerShards.scheduler, never()).deleteJob(keptJob.getKey());
+    verify(shardScheduler, times(1)).scheduleJob(any(JobDetail.class), anySet(), anyBoolean());
+  }
+
+  JobDetail createJobDetail(Class<? extends QuartzPollableJob<?, ?>> clazz, String name) {
+    return JobBuilder.newJob()
+        .ofType(clazz)
+        .withIdentity(new JobKey(name, DYNAMIC_GROUP_NAME))
+        .build();
+  }
+}
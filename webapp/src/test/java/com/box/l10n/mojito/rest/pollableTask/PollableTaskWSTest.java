@@ -3,13 +3,21 @@ package com.box.l10n.mojito.rest.pollableTask;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import com.box.l10n.mojito.entity.PollableTask;
 import com.box.l10n.mojito.rest.WSTestBase;
 import com.box.l10n.mojito.rest.client.PollableTaskClient;
+import com.box.l10n.mojito.rest.client.exception.PollableTaskException;
 import com.box.l10n.mojito.service.pollableTask.PollableTaskService;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 /** @author jaurambault */
 public class PollableTaskWSTest extends WSTestBase {
@@ -18,6 +26,8 @@ public class PollableTaskWSTest extends WSTestBase {
 
   @Autowired PollableTaskClient pollableTaskClient;
 
+  @Autowired JdbcTemplate jdbcTemplate;
+
   @Test
   public void testGetPollableTask() throws Exception {
 
@@ -31,4 +41,110 @@ public class PollableTaskWSTest extends WSTestBase {
     assertNull(pollableTask.getFinishedDate());
     assertFalse(pollableTask.isAllFinished());
   }
+
+  @Test(expected = PollableTaskException.class)
+  public void testGetPollableTasksUnknownId() {
+    PollableTask pollableTask =
+        pollableTaskService.createPollableTask(null, "testGetPollableTasksUnknownId", null, 0);
+    pollableTaskClient.getPollableTasks(Arrays.asList(pollableTask.getId(), Long.MAX_VALUE));
+  }
+
+  @Test(expected = PollableTaskException.class)
+  public void testWaitForPollableTasksUnknownId() {
+    PollableTask pollableTask =
+        pollableTaskService.createPollableTask(null, "testWaitForPollableTasksUnknownId", null, 0);
+    pollableTaskClient.waitForPollableTasks(
+        Arrays.asList(pollableTask.getId(), Long.MAX_VALUE), 60000);
+  }
+
+  @Test
+  public void testWaitForPollableTaskUpdateFinishedInOtherTransaction() throws Exception {
+    PollableTask pollableTask =
+        pollableTaskService.createPollableTask(
+            null, "testWaitForPollableTaskUpdateFinishedInOtherTransaction", null, 0);
+
+    CompletableFuture<com.box.l10n.mojito.rest.entity.PollableTask> waited =
+        CompletableFuture.supplyAsync(
+            () -> pollableTaskClient.waitForPollableTaskUpdate(pollableTask.getId(), 20000));
+
+    Thread.sleep(500);
+    finishWithoutNotification(pollableTask.getId());
+
+    assertTrue(waited.get(10, TimeUnit.SECONDS).isAllFinished());
+  }
+
+  @Test
+  public void testWaitForPollableTaskUpdateNotified() throws Exception {
+    PollableTask pollableTask =
+        pollableTaskService.createPollableTask(
+            null, "testWaitForPollableTaskUpdateNotified", null, 0);
+
+    CompletableFuture<com.box.l10n.mojito.rest.entity.PollableTask> waited =
+        CompletableFuture.supplyAsync(
+            () -> pollableTaskClient.waitForPollableTaskUpdate(pollableTask.getId(), 20000));
+
+    Thread.sleep(500);
+    pollableTaskService.finishTask(pollableTask.getId(), null, null, null);
+
+    assertTrue(waited.get(10, TimeUnit.SECONDS).isAllFinished());
+  }
+
+  @Test
+  public void testWaitForPollableTasksUpdateFinishedInOtherTransaction() throws Exception {
+    PollableTask first =
+        pollableTaskService.createPollableTask(
+            null, "testWaitForPollableTasksUpdateFinishedInOtherTransaction-1", null, 0);
+    PollableTask second =
+        pollableTaskService.createPollableTask(
+            null, "testWaitForPollableTasksUpdateFinishedInOtherTransaction-2", null, 0);
+
+    CompletableFuture<List<com.box.l10n.mojito.rest.entity.PollableTask>> waited =
+        CompletableFuture.supplyAsync(
+            () ->
+                pollableTaskClient.waitForPollableTasksUpdate(
+                    Arrays.asList(first.getId(), second.getId()), 20000));
+
+    Thread.sleep(500);
+    finishWithoutNotification(second.getId());
+
+    List<com.box.l10n.mojito.rest.entity.PollableTask> pollableTasks =
+        waited.get(10, TimeUnit.SECONDS);
+    assertFalse(pollableTasks.get(0).isAllFinished());
+    assertTrue(pollableTasks.get(1).isAllFinished());
+  }
+
+  @Test
+  public void testWaitForPollableTasksUpdateNotified() throws Exception {
+    PollableTask first =
+        pollableTaskService.createPollableTask(
+            null, "testWaitForPollableTasksUpdateNotified-1", null, 0);
+    PollableTask second =
+        pollableTaskService.createPollableTask(
+            null, "testWaitForPollableTasksUpdateNotified-2", null, 0);
+
+    CompletableFuture<List<com.box.l10n.mojito.rest.entity.PollableTask>> waited =
+        CompletableFuture.supplyAsync(
+            () ->
+                pollableTaskClient.waitForPollableTasksUpdate(
+                    Arrays.asList(first.getId(), second.getId()), 20000));
+
+    Thread.sleep(500);
+    pollableTaskService.finishTask(second.getId(), null, null, null);
+
+    List<com.box.l10n.mojito.rest.entity.PollableTask> pollableTasks =
+        waited.get(10, TimeUnit.SECONDS);
+    assertFalse(pollableTasks.get(0).isAllFinished());
+    assertTrue(pollableTasks.get(1).isAllFinished());
+  }
+
+  /**
+   * Finishes the task like another instance would: in another transaction and without notifying the
+   * waiters of this JVM.
+   */
+  void finishWithoutNotification(Long pollableTaskId) {
+    jdbcTemplate.update(
+        "update pollable_task set finished_date = ? where id = ?",
+        new Timestamp(System.currentTimeMillis()),
+        pollableTaskId);
+  }
 }
@@ -0,0 +1,63 @@
+package com.box.l10n.mojito.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class NormalizingInputStreamTest {
+
+  @Test
+  public void testNormalizeLines() throws IOException {
+    String content = "é\r\nline without accent\nlast line with accent: é";
+    assertEquals(NormalizationUtils.normalize(content), readNormalized(content));
+  }
+
+  @Test
+  public void testNormalizeLongLine() throws IOException {
+    String content = Strings.repeat("é", NormalizingInputStream.CHAR_BUFFER_SIZE) + "\né";
+    assertEquals(NormalizationUtils.normalize(content), readNormalized(content));
+  }
+
+  @Test
+  public void testNormalizeLongLineWithoutLineFeed() throws IOException {
+    String content =
+        Strings.repeat("e\u0301\uD83D\uDE00\u0301", NormalizingInputStream.MAX_PENDING_CHARS);
+    assertEquals(NormalizationUtils.normalize(content), readNormalized(content));
+  }
+
+  @Test
+  public void testLongLineWithoutLineFeedIsNotKeptInMemory() throws IOException {
+    String content = Strings.repeat("e\u0301", NormalizingInputStream.MAX_PENDING_CHARS);
+
+    try (NormalizingInputStream normalizingInputStream =
+        new NormalizingInputStream(
+            new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)))) {
+      normalizingInputStream.read();
+      assertFalse(normalizingInputStream.endOfInput);
+      int maxPendingChars =
+          NormalizingInputStream.MAX_PENDING_CHARS + NormalizingInputStream.CHAR_BUFFER_SIZE;
+      assertTrue(normalizingInputStream.pending.length() <= maxPendingChars);
+    }
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    assertEquals("", readNormalized(""));
+  }
+
+  String readNormalized(String content) throws IOException {
+    try (InputStream inputStream =
+        new NormalizingInputStream(
+            new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)))) {
+      return new String(ByteStreams.toByteArray(inputStream), StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -13,6 +13,7 @@ import com.box.l10n.mojito.entity.AssetContent;
 import com.box.l10n.mojito.entity.AssetTextUnit;
 import com.box.l10n.mojito.entity.Branch;
 import com.box.l10n.mojito.entity.Repository;
+import com.box.l10n.mojito.localtm.merger.BranchData;
 import com.box.l10n.mojito.localtm.merger.BranchStateTextUnit;
 import com.box.l10n.mojito.localtm.merger.MultiBranchState;
 import com.box.l10n.mojito.okapi.FilterConfigIdOverride;
@@ -35,6 +36,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import org.assertj.core.api.Assertions;
+import org.joda.time.DateTime;
 import org.junit.Rule;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -1485,6 +1487,86 @@ public class AssetExtractionServiceTest extends ServiceTestBase {
             ImmutableSet.of("master")));
   }
 
+  @Test
+  public void testMergeStatesInOrderRemovedOnOtherBranch() {
+    com.box.l10n.mojito.localtm.merger.Branch branchA = createMergerBranch("a");
+    com.box.l10n.mojito.localtm.merger.Branch branchB = createMergerBranch("b");
+
+    MultiBranchState baseState =
+        createMultiBranchState(
+            ImmutableSet.of(branchA, branchB),
+            createBranchStateTextUnit("u", ImmutableSet.of("a", "b")));
+    // a push on "b" drops the text unit, then a push on "a" keeps it
+    MultiBranchState pushOnB = createMultiBranchState(ImmutableSet.of(branchB));
+    MultiBranchState pushOnA =
+        createMultiBranchState(
+            ImmutableSet.of(branchA), createBranchStateTextUnit("u", ImmutableSet.of("a")));
+
+    checkMergeStatesInOrder(baseState, ImmutableList.of(pushOnB, pushOnA), ImmutableSet.of("a"));
+  }
+
+  @Test
+  public void testMergeStatesInOrderRemovedOnSameBranch() {
+    com.box.l10n.mojito.localtm.merger.Branch branchA = createMergerBranch("a");
+
+    MultiBranchState baseState =
+        createMultiBranchState(
+            ImmutableSet.of(branchA), createBranchStateTextUnit("u", ImmutableSet.of("a")));
+    // a first push on "a" keeps the text unit, a second push on "a" drops it
+    MultiBranchState firstPush =
+        createMultiBranchState(
+            ImmutableSet.of(branchA), createBranchStateTextUnit("u", ImmutableSet.of("a")));
+    MultiBranchState secondPush = createMultiBranchState(ImmutableSet.of(branchA));
+
+    checkMergeStatesInOrder(baseState, ImmutableList.of(firstPush, secondPush), ImmutableSet.of());
+  }
+
+  /** Checks that merging the states in a batch gives the same result as merging them one by one */
+  void checkMergeStatesInOrder(
+      MultiBranchState baseState,
+      ImmutableList<MultiBranchState> states,
+      ImmutableSet<String> expectedBranchNames) {
+    MultiBranchState sequentialState = baseState;
+    for (MultiBranchState state : states) {
+      sequentialState =
+          assetExtractionService.mergeStatesInOrder(ImmutableList.of(state), sequentialState);
+    }
+
+    MultiBranchState batchedState = assetExtractionService.mergeStatesInOrder(states, baseState);
+
+    assertEquals(sequentialState, batchedState);
+    assertEquals(1, batchedState.getBranchStateTextUnits().size());
+    assertEquals(
+        expectedBranchNames,
+        batchedState.getBranchStateTextUnits().get(0).getBranchNameToBranchDatas().keySet());
+  }
+
+  com.box.l10n.mojito.localtm.merger.Branch createMergerBranch(String name) {
+    return com.box.l10n.mojito.localtm.merger.Branch.builder()
+        .name(name)
+        .createdAt(new DateTime(2020, 7, 10, 0, 0))
+        .build();
+  }
+
+  MultiBranchState createMultiBranchState(
+      ImmutableSet<com.box.l10n.mojito.localtm.merger.Branch> branches,
+      BranchStateTextUnit... branchStateTextUnits) {
+    return MultiBranchState.of()
+        .withBranches(branches)
+        .withBranchStateTextUnits(ImmutableList.copyOf(branchStateTextUnits));
+  }
+
+  BranchStateTextUnit createBranchStateTextUnit(String name, ImmutableSet<String> branchNames) {
+    return BranchStateTextUnit.builder()
+        .md5(name + "-md5")
+        .name(name)
+        .branchNameToBranchDatas(
+            branchNames.stream()
+                .collect(
+                    ImmutableMap.toImmutableMap(branchName -> branchName, b -> BranchData.of())))
+        .build();
+  }
+
   void checkLastSuccessfulMultiBranchState(
       Asset asset,
       ImmutableList<String> branches,
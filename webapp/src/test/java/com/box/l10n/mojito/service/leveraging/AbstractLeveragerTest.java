@@ -2,11 +2,23 @@ package com.box.l10n.mojito.service.leveraging;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import com.box.l10n.mojito.entity.TMTextUnit;
+import com.box.l10n.mojito.entity.TMTextUnitCurrentVariant;
+import com.box.l10n.mojito.entity.TMTextUnitVariant;
+import com.box.l10n.mojito.service.tm.AddTMTextUnitCurrentVariantResult;
+import com.box.l10n.mojito.service.tm.TMService;
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.junit.Test;
 
 /** @author jaurambault */
@@ -64,4 +76,128 @@ public class AbstractLeveragerTest {
     assertEquals(textUnitDTO, textUnitDTOs.get(0));
     assertEquals(textUnitDTO3, textUnitDTOs.get(1));
   }
+
+  @Test
+  public void testGetNameKey() {
+    AbstractLeverager leverager = getLeveragingImpl();
+    assertEquals("cafe", leverager.getNameKey("Café  "));
+    assertEquals(leverager.getNameKey("CAFÉ"), leverager.getNameKey("cafe"));
+    assertTrue(!leverager.getNameKey("cafe").equals(leverager.getNameKey("cafes")));
+  }
+
+  @Test
+  public void testPerformLeveragingForBatchSameAsSequential() {
+    List<String> sequential = new ArrayList<>();
+    List<TMTextUnit> notLeveragedSequential = performLeveragingInMemory(false, sequential);
+
+    List<String> batch = new ArrayList<>();
+    List<TMTextUnit> notLeveragedBatch = performLeveragingInMemory(true, batch);
+
+    assertEquals(
+        Arrays.asList(
+            "10: translation of 1, APPROVED",
+            // 12 also matches 10, leveraged before in the same batch, so the match is not unique
+            "12: translation of 1, TRANSLATION_NEEDED"),
+        sequential);
+    assertEquals(sequential, batch);
+    assertEquals(Arrays.asList(11L), getIds(notLeveragedSequential));
+    assertEquals(Arrays.asList(11L), getIds(notLeveragedBatch));
+  }
+
+  List<Long> getIds(List<TMTextUnit> tmTextUnits) {
+    return tmTextUnits.stream().map(TMTextUnit::getId).collect(Collectors.toList());
+  }
+
+  /**
+   * Performs leveraging by content against an in memory TM, the leveraged translations are added to
+   * the TM so that they can be matched by the next text units.
+   *
+   * @param batch to fetch the candidates in batch or search for each text unit
+   * @param addedTranslations receives the translations added by the leveraging
+   * @return the text units that were not leveraged
+   */
+  List<TMTextUnit> performLeveragingInMemory(boolean batch, List<String> addedTranslations) {
+    List<TextUnitDTO> tm = new ArrayList<>();
+    tm.add(createTextUnitDTO(1L, "a", "translation of 1", TMTextUnitVariant.Status.APPROVED));
+
+    List<TMTextUnit> tmTextUnits =
+        Arrays.asList(
+            createTMTextUnit(10L, "a"), createTMTextUnit(11L, "b"), createTMTextUnit(12L, "a"));
+    Map<Long, String> contentsByTmTextUnitId = new HashMap<>();
+    tmTextUnits.forEach(tu -> contentsByTmTextUnitId.put(tu.getId(), tu.getContent()));
+
+    AbstractLeverager leverager =
+        new AbstractLeverager() {
+          @Override
+          public List<TextUnitDTO> getLeveragingMatches(
+              TMTextUnit tmTextUnit, Long sourceTmId, Long sourceAssetId) {
+            return tm.stream()
+                .filter(textUnitDTO -> textUnitDTO.getSource().equals(tmTextUnit.getContent()))
+                .collect(Collectors.toList());
+          }
+
+          @Override
+          protected LeveragingCandidates getLeveragingCandidates(
+              List<TMTextUnit> tmTextUnits, Long sourceTmId, Long sourceAssetId) {
+            if (!batch) {
+              return null;
+            }
+            Set<String> contents =
+                tmTextUnits.stream().map(TMTextUnit::getContent).collect(Collectors.toSet());
+            return LeveragingCandidates.exact(
+                tm.stream()
+                    .filter(textUnitDTO -> contents.contains(textUnitDTO.getSource()))
+                    .collect(Collectors.toList()),
+                TextUnitDTO::getSource,
+                TMTextUnit::getContent);
+          }
+
+          @Override
+          public boolean isTranslationNeededIfUniqueMatch() {
+            return false;
+          }
+
+          @Override
+          public String getType() {
+            return "in memory";
+          }
+        };
+
+    leverager.tmService = mock(TMService.class);
+    when(leverager.tmService.addTMTextUnitCurrentVariantWithResult(
+            any(), any(), any(), any(), any(), any(Boolean.class), any()))
+        .then(
+            invocation -> {
+              Long tmTextUnitId = invocation.getArgument(0);
+              String target = invocation.getArgument(2);
+              TMTextUnitVariant.Status status = invocation.getArgument(4);
+              tm.add(
+                  createTextUnitDTO(
+                      tmTextUnitId, contentsByTmTextUnitId.get(tmTextUnitId), target, status));
+              addedTranslations.add(tmTextUnitId + ": " + target + ", " + status);
+              return new AddTMTextUnitCurrentVariantResult(false, new TMTextUnitCurrentVariant());
+            });
+
+    List<TMTextUnit> notLeveraged = new ArrayList<>(tmTextUnits);
+    leverager.performLeveragingFor(notLeveraged, null, null);
+    return notLeveraged;
+  }
+
+  TMTextUnit createTMTextUnit(Long id, String content) {
+    TMTextUnit tmTextUnit = new TMTextUnit();
+    tmTextUnit.setId(id);
+    tmTextUnit.setContent(content);
+    return tmTextUnit;
+  }
+
+  TextUnitDTO createTextUnitDTO(
+      Long tmTextUnitId, String source, String target, TMTextUnitVariant.Status status) {
+    TextUnitDTO textUnitDTO = new TextUnitDTO();
+    textUnitDTO.setTmTextUnitId(tmTextUnitId);
+    textUnitDTO.setLocaleId(1L);
+    textUnitDTO.setSource(source);
+    textUnitDTO.setTarget(target);
+    textUnitDTO.setStatus(status);
+    return textUnitDTO;
+  }
 }
@@ -1,14 +1,19 @@
 package com.box.l10n.mojito.service.pollableTask;
 
+import static com.box.l10n.mojito.service.blobstorage.StructuredBlobStorage.Prefix.POLLABLE_TASK;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import com.box.l10n.mojito.entity.PollableTask;
 import com.box.l10n.mojito.service.assetExtraction.ServiceTestBase;
 import com.box.l10n.mojito.service.blobstorage.BlobStorage;
+import com.box.l10n.mojito.service.blobstorage.Retention;
+import com.box.l10n.mojito.service.blobstorage.StructuredBlobStorage;
 import com.box.l10n.mojito.service.blobstorage.database.DatabaseBlobStorage;
 import com.box.l10n.mojito.test.TestIdWatcher;
+import com.google.common.base.Strings;
 import java.util.Objects;
 import org.junit.Assume;
 import org.junit.Before;
@@ -26,6 +31,8 @@ public class PollableTaskBlobStorageTest extends ServiceTestBase {
 
   @Autowired BlobStorage blobStorage;
 
+  @Autowired StructuredBlobStorage structuredBlobStorage;
+
   @Before
   public void before() {
     // to be sure ids in the db and in the storage are in sync (if using s3, data might be there
@@ -56,6 +63,58 @@ public class PollableTaskBlobStorageTest extends ServiceTestBase {
     assertEquals(testData, input);
   }
 
+  @Test
+  public void inputIsCompressed() {
+    PollableTask createPollableTask =
+        pollableTaskService.createPollableTask(
+            null, testIdWatcher.getEntityName("inputIsCompressed"), null, 0);
+    TestData testData = new TestData();
+    testData.setId(10L);
+    testData.setName(Strings.repeat("somename", 1000));
+
+    boolean compress = pollableTaskBlobStorage.compress;
+    try {
+      pollableTaskBlobStorage.compress = true;
+      pollableTaskBlobStorage.saveInput(createPollableTask.getId(), testData);
+    } finally {
+      pollableTaskBlobStorage.compress = compress;
+    }
+
+    byte[] bytes =
+        structuredBlobStorage
+            .getBytes(
+                POLLABLE_TASK, pollableTaskBlobStorage.getInputName(createPollableTask.getId()))
+            .get();
+    assertTrue(bytes.length < 1000);
+    assertEquals(
+        testData, pollableTaskBlobStorage.getInput(createPollableTask.getId(), TestData.class));
+  }
+
+  @Test
+  public void uncompressedInputAndOutput() {
+    PollableTask createPollableTask =
+        pollableTaskService.createPollableTask(
+            null, testIdWatcher.getEntityName("uncompressedInputAndOutput"), null, 0);
+    String json = "{\"id\":10,\"name\":\"somename\"}";
+    structuredBlobStorage.put(
+        POLLABLE_TASK,
+        pollableTaskBlobStorage.getInputName(createPollableTask.getId()),
+        json,
+        Retention.MIN_1_DAY);
+    structuredBlobStorage.put(
+        POLLABLE_TASK,
+        pollableTaskBlobStorage.getOutputName(createPollableTask.getId()),
+        json,
+        Retention.MIN_1_DAY);
+
+    TestData testData = new TestData();
+    testData.setId(10L);
+    testData.setName("somename");
+    assertEquals(
+        testData, pollableTaskBlobStorage.getInput(createPollableTask.getId(), TestData.class));
+    assertEquals(json, pollableTaskBlobStorage.getOutputJson(createPollableTask.getId()));
+  }
+
   @Test
   public void missingInput() {
     // that'd fail if the storage has data for that id ... like if db is not cleaned up
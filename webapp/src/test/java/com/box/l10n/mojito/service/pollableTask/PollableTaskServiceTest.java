@@ -3,13 +3,18 @@ package com.box.l10n.mojito.service.pollableTask;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import com.box.l10n.mojito.entity.PollableTask;
 import com.box.l10n.mojito.json.ObjectMapper;
 import com.box.l10n.mojito.service.assetExtraction.ServiceTestBase;
 import com.box.l10n.mojito.test.TestIdWatcher;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import org.junit.Rule;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -26,6 +31,8 @@ public class PollableTaskServiceTest extends ServiceTestBase {
 
   @Autowired ObjectMapper objectMapper;
 
+  @Autowired PollableTaskCompletionRegistry pollableTaskCompletionRegistry;
+
   @Rule public TestIdWatcher testIdWatcher = new TestIdWatcher();
 
   @Test
@@ -213,4 +220,130 @@ public class PollableTaskServiceTest extends ServiceTestBase {
     createPollableTask = pollableTaskService.getPollableTask(createPollableTask.getId());
     assertEquals(12, createPollableTask.getExpectedSubTaskNumber());
   }
+
+  @Test
+  public void testFinishSubTaskNotifiesParentWaiters() throws Exception {
+    PollableTask parent =
+        pollableTaskService.createPollableTask(
+            null, testIdWatcher.getEntityName("testNotify"), null, 1);
+    PollableTask sub =
+        pollableTaskService.createPollableTask(
+            parent.getId(), testIdWatcher.getEntityName("testNotify-sub"), null, 0);
+
+    CompletableFuture<Void> nextFinish =
+        pollableTaskCompletionRegistry.getNextFinish(parent.getId());
+    assertFalse(nextFinish.isDone());
+
+    pollableTaskService.finishTask(sub.getId(), null, null, null);
+    nextFinish.get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testWaitForPollableTaskUpdate() throws Exception {
+    PollableTask pollableTask =
+        pollableTaskService.createPollableTask(
+            null, testIdWatcher.getEntityName("testWaitForPollableTaskUpdate"), null, 0);
+
+    CompletableFuture<PollableTask> waited =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return pollableTaskService.waitForPollableTaskUpdate(pollableTask.getId(), 60000);
+              } catch (InterruptedException ie) {
+                throw new RuntimeException(ie);
+              }
+            });
+
+    pollableTaskService.finishTask(pollableTask.getId(), null, null, null);
+    assertTrue(waited.get(10, TimeUnit.SECONDS).isAllFinished());
+  }
+
+  @Test
+  public void testWaitForPollableTasksUpdate() throws Exception {
+    PollableTask first =
+        pollableTaskService.createPollableTask(
+            null, testIdWatcher.getEntityName("testWaitForPollableTasksUpdate-1"), null, 0);
+    PollableTask second =
+        pollableTaskService.createPollableTask(
+            null, testIdWatcher.getEntityName("testWaitForPollableTasksUpdate-2"), null, 0);
+
+    CompletableFuture<List<PollableTask>> waited =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return pollableTaskService.waitForPollableTasksUpdate(
+                    Arrays.asList(first.getId(), second.getId()), 60000);
+              } catch (InterruptedException ie) {
+                throw new RuntimeException(ie);
+              }
+            });
+
+    pollableTaskService.finishTask(second.getId(), null, null, null);
+
+    List<PollableTask> pollableTasks = waited.get(10, TimeUnit.SECONDS);
+    assertEquals(2, pollableTasks.size());
+    assertEquals(first.getId(), pollableTasks.get(0).getId());
+    assertFalse(pollableTasks.get(0).isAllFinished());
+    assertTrue(pollableTasks.get(1).isAllFinished());
+  }
+
+  @Test
+  public void testWaitForPollableTasksUpdateUnknownId() throws Exception {
+    PollableTask pollableTask =
+        pollableTaskService.createPollableTask(
+            null, testIdWatcher.getEntityName("testWaitForPollableTasksUpdateUnknownId"), null, 0);
+
+    long start = System.currentTimeMillis();
+    List<PollableTask> pollableTasks =
+        pollableTaskService.waitForPollableTasksUpdate(
+            Arrays.asList(pollableTask.getId(), Long.MAX_VALUE), 60000);
+
+    assertTrue(System.currentTimeMillis() - start < 10000);
+    assertEquals(1, pollableTasks.size());
+    assertEquals(pollableTask.getId(), pollableTasks.get(0).getId());
+  }
+
+  @Test
+  public void testWaitForPollableTaskUpdateTimeoutReleasesNextFinish() throws Exception {
+    PollableTask pollableTask =
+        pollableTaskService.createPollableTask(
+            null, testIdWatcher.getEntityName("testTimeoutReleasesNextFinish"), null, 0);
+
+    assertFalse(
+        pollableTaskService.waitForPollableTaskUpdate(pollableTask.getId(), 100).isAllFinished());
+    assertFalse(pollableTaskCompletionRegistry.nextFinishes.containsKey(pollableTask.getId()));
+  }
+
+  @Test
+  public void testWaitForPollableTasksUpdateTimeoutReleasesNextFinishes() throws Exception {
+    PollableTask first =
+        pollableTaskService.createPollableTask(
+            null, testIdWatcher.getEntityName("testTimeoutReleasesNextFinishes-1"), null, 0);
+    PollableTask second =
+        pollableTaskService.createPollableTask(
+            null, testIdWatcher.getEntityName("testTimeoutReleasesNextFinishes-2"), null, 0);
+
+    List<PollableTask> pollableTasks =
+        pollableTaskService.waitForPollableTasksUpdate(
+            Arrays.asList(first.getId(), second.getId()), 100);
+
+    assertEquals(2, pollableTasks.size());
+    assertFalse(pollableTaskCompletionRegistry.nextFinishes.containsKey(first.getId()));
+    assertFalse(pollableTaskCompletionRegistry.nextFinishes.containsKey(second.getId()));
+  }
+
+  @Test
+  public void testReleaseKeepsNextFinishForOtherWaiters() {
+    Long pollableTaskId = Long.MAX_VALUE - 1;
+
+    CompletableFuture<Void> first = pollableTaskCompletionRegistry.getNextFinish(pollableTaskId);
+    CompletableFuture<Void> second = pollableTaskCompletionRegistry.getNextFinish(pollableTaskId);
+    assertSame(first, second);
+
+    pollableTaskCompletionRegistry.release(pollableTaskId, first);
+    assertTrue(pollableTaskCompletionRegistry.nextFinishes.containsKey(pollableTaskId));
+
+    pollableTaskCompletionRegistry.release(pollableTaskId, second);
+    assertFalse(pollableTaskCompletionRegistry.nextFinishes.containsKey(pollableTaskId));
+  }
 }
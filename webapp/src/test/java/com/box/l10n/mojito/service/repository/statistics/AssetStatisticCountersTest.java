@@ -0,0 +1,138 @@
+package com.box.l10n.mojito.service.repository.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import org.junit.Test;
+
+public class AssetStatisticCountersTest {
+
+  static final int UNCOMMENTED = 0;
+
+  static final int PLURAL = 1;
+
+  ImmutableList<Predicate<TextUnitDTO>> predicates =
+      ImmutableList.of(t -> t.getComment() == null, t -> t.getPluralForm() != null);
+
+  AtomicInteger wordCountCalls = new AtomicInteger();
+
+  ToLongFunction<TextUnitDTO> wordCountFunction =
+      t -> {
+        wordCountCalls.incrementAndGet();
+        return t.getSource().split(" ").length;
+      };
+
+  @Test
+  public void testUpdate() {
+    AssetStatisticCounters counters = new AssetStatisticCounters(predicates);
+
+    TextUnitDTO t1 = createTextUnitDTO(1L, "one", null, null);
+    TextUnitDTO t2 = createTextUnitDTO(2L, "two words", "comment", "other");
+    TextUnitDTO t3 = createTextUnitDTO(3L, "three words here", null, "one");
+
+    counters.update(Arrays.asList(t1, t2, t3), wordCountFunction);
+    assertEquals(2, counters.getTextUnitCount(UNCOMMENTED));
+    assertEquals(4, counters.getWordCount(UNCOMMENTED));
+    assertEquals(2, counters.getTextUnitCount(PLURAL));
+    assertEquals(5, counters.getWordCount(PLURAL));
+    assertEquals(3, wordCountCalls.get());
+
+    TextUnitDTO t2Commented = createTextUnitDTO(2L, "two words", null, "other");
+    counters.update(Arrays.asList(t1, t2Commented), wordCountFunction);
+    assertEquals(2, counters.getTextUnitCount(UNCOMMENTED));
+    assertEquals(3, counters.getWordCount(UNCOMMENTED));
+    assertEquals(1, counters.getTextUnitCount(PLURAL));
+    assertEquals(2, counters.getWordCount(PLURAL));
+    assertEquals("word count is computed only for new text units", 3, wordCountCalls.get());
+    assertEquals(2, counters.size());
+  }
+
+  @Test
+  public void testUpdateRemoveAndAddBack() {
+    AssetStatisticCounters counters = new AssetStatisticCounters(predicates);
+
+    TextUnitDTO t1 = createTextUnitDTO(1L, "one", null, null);
+    TextUnitDTO t3 = createTextUnitDTO(3L, "three words here", null, "one");
+
+    counters.update(Arrays.asList(t1, t3), wordCountFunction);
+    counters.update(Arrays.asList(t1), wordCountFunction);
+    assertEquals(1, counters.getTextUnitCount(UNCOMMENTED));
+    assertEquals(1, counters.getWordCount(UNCOMMENTED));
+    assertEquals(0, counters.getTextUnitCount(PLURAL));
+    assertEquals(0, counters.getWordCount(PLURAL));
+
+    counters.update(Arrays.asList(t1, t3), wordCountFunction);
+    assertEquals(2, counters.getTextUnitCount(UNCOMMENTED));
+    assertEquals(4, counters.getWordCount(UNCOMMENTED));
+    assertEquals(1, counters.getTextUnitCount(PLURAL));
+    assertEquals(3, counters.getWordCount(PLURAL));
+    assertEquals(2, counters.size());
+  }
+
+  @Test
+  public void testUpdateUnsorted() {
+    AssetStatisticCounters counters = new AssetStatisticCounters(predicates);
+
+    TextUnitDTO t1 = createTextUnitDTO(1L, "one", null, null);
+    TextUnitDTO t2 = createTextUnitDTO(2L, "two words", "comment", "other");
+    TextUnitDTO t3 = createTextUnitDTO(3L, "three words here", null, "one");
+
+    counters.update(Arrays.asList(t3, t1), wordCountFunction);
+    counters.update(Arrays.asList(t2, t3, t1), wordCountFunction);
+    assertEquals(2, counters.getTextUnitCount(UNCOMMENTED));
+    assertEquals(4, counters.getWordCount(UNCOMMENTED));
+    assertEquals(2, counters.getTextUnitCount(PLURAL));
+    assertEquals(5, counters.getWordCount(PLURAL));
+    assertEquals(3, wordCountCalls.get());
+    assertEquals(3, counters.size());
+  }
+
+  @Test
+  public void testGetRetainedBytes() {
+    AssetStatisticCounters counters = new AssetStatisticCounters(predicates);
+    long emptyRetainedBytes = counters.getRetainedBytes();
+
+    counters.update(
+        Arrays.asList(
+            createTextUnitDTO(1L, "one", null, null), createTextUnitDTO(2L, "two", null, null)),
+        wordCountFunction);
+    assertEquals(emptyRetainedBytes + 2 * 2 * Long.BYTES, counters.getRetainedBytes());
+
+    counters.update(Arrays.asList(createTextUnitDTO(1L, "one", null, null)), wordCountFunction);
+    assertEquals(emptyRetainedBytes + 3 * 2 * Long.BYTES, counters.getRetainedBytes());
+  }
+
+  @Test
+  public void testHasSameCounts() {
+    TextUnitDTO t1 = createTextUnitDTO(1L, "one", null, null);
+    TextUnitDTO t2 = createTextUnitDTO(2L, "two words", "comment", "other");
+
+    AssetStatisticCounters incremental = new AssetStatisticCounters(predicates);
+    incremental.update(Arrays.asList(t1), wordCountFunction);
+    incremental.update(Arrays.asList(t1, t2), wordCountFunction);
+
+    AssetStatisticCounters fromScratch = new AssetStatisticCounters(predicates);
+    fromScratch.update(Arrays.asList(t1, t2), wordCountFunction);
+    assertTrue(incremental.hasSameCounts(fromScratch));
+
+    fromScratch.update(Arrays.asList(t2), wordCountFunction);
+    assertFalse(incremental.hasSameCounts(fromScratch));
+  }
+
+  TextUnitDTO createTextUnitDTO(
+      Long tmTextUnitId, String source, String comment, String pluralForm) {
+    TextUnitDTO textUnitDTO = new TextUnitDTO();
+    textUnitDTO.setTmTextUnitId(tmTextUnitId);
+    textUnitDTO.setSource(source);
+    textUnitDTO.setComment(comment);
+    textUnitDTO.setPluralForm(pluralForm);
+    return textUnitDTO;
+  }
+}
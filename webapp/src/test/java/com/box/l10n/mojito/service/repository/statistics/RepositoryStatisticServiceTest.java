@@ -18,7 +18,9 @@ import com.box.l10n.mojito.service.repository.RepositoryService;
 import com.box.l10n.mojito.service.tm.TMService;
 import com.box.l10n.mojito.service.tm.TMTestData;
 import com.box.l10n.mojito.test.TestIdWatcher;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import org.junit.Rule;
@@ -46,6 +48,8 @@ public class RepositoryStatisticServiceTest extends ServiceTestBase {
 
   @Autowired RepositoryService repositoryService;
 
+  @Autowired RepositoryStatisticsUpdatedReactor repositoryStatisticsUpdatedReactor;
+
   @Rule public TestIdWatcher testIdWatcher = new TestIdWatcher();
 
   @Test
@@ -82,6 +86,44 @@ public class RepositoryStatisticServiceTest extends ServiceTestBase {
         repositoryLocaleStatistics.get("ko-KR"), "ko-KR", 1, 8, 1, 8, 0, 0, 0, 0, 1, 1);
   }
 
+  @Test
+  public void testUpdateStatisticsLastUpdatedByAnotherNode() throws Exception {
+
+    logger.debug("Hold the events, a statistics job would update the changed asset concurrently");
+    repositoryStatisticsUpdatedReactor.createProcessor(Duration.ofHours(1));
+    try {
+      checkUpdateStatisticsLastUpdatedByAnotherNode();
+    } finally {
+      repositoryStatisticsUpdatedReactor.createProcessor(Duration.ofSeconds(1));
+    }
+  }
+
+  void checkUpdateStatisticsLastUpdatedByAnotherNode() throws Exception {
+
+    TMTestData tmTestData = new TMTestData(testIdWatcher);
+    Long repositoryId = tmTestData.repository.getId();
+
+    repositoryStatisticService.updateStatistics(repositoryId);
+
+    tmService.addCurrentTMTextUnitVariant(
+        tmTestData.addTMTextUnit2.getId(), tmTestData.jaJP.getId(), "Content2 ja-JP");
+
+    logger.debug("The asset is not reported as changed, the counters of this node are reused");
+    repositoryStatisticService.updateStatistics(repositoryId, Collections.emptySet(), false);
+    RepositoryLocaleStatistic jaJP = getRepositoryLocaleStatistics(repositoryId).get("ja-JP");
+    checkRepositoryLocaleStatistic(jaJP, "ja-JP", 0, 0, 0, 0, 0, 0, 0, 0, 2, 9);
+
+    logger.debug("Another node updated the statistics, the counters of this node are outdated");
+    RepositoryStatistic repositoryStatistic =
+        repositoryRepository.findById(repositoryId).get().getRepositoryStatistic();
+    repositoryStatistic.setCountersUpdateId("other-node");
+    repositoryStatisticRepository.save(repositoryStatistic);
+
+    repositoryStatisticService.updateStatistics(repositoryId, Collections.emptySet(), false);
+    jaJP = getRepositoryLocaleStatistics(repositoryId).get("ja-JP");
+    checkRepositoryLocaleStatistic(jaJP, "ja-JP", 1, 1, 1, 1, 0, 0, 0, 0, 1, 8);
+  }
+
   @Test
   public void testComputeBaseStatistics() throws Exception {
 
@@ -217,6 +259,18 @@ public class RepositoryStatisticServiceTest extends ServiceTestBase {
         repositoryLocaleStatisticKoKR, "ko-KR", 1, 8, 1, 8, 0, 0, 1, 8, 2, 9);
   }
 
+  private Map<String, RepositoryLocaleStatistic> getRepositoryLocaleStatistics(Long repositoryId) {
+    Long repositoryStatisticId =
+        repositoryRepository.findById(repositoryId).get().getRepositoryStatistic().getId();
+    Map<String, RepositoryLocaleStatistic> repositoryLocaleStatistics = new HashMap<>();
+    for (RepositoryLocaleStatistic repositoryLocaleStatistic :
+        repositoryLocaleStatisticRepository.findByRepositoryStatisticId(repositoryStatisticId)) {
+      repositoryLocaleStatistics.put(
+          repositoryLocaleStatistic.getLocale().getBcp47Tag(), repositoryLocaleStatistic);
+    }
+    return repositoryLocaleStatistics;
+  }
+
   private void checkRepositoryLocaleStatistic(
       RepositoryLocaleStatistic repositoryLocaleStatistic,
       String expectedBcp47tag,
@@ -2,7 +2,11 @@ package com.box.l10n.mojito.service.repository.statistics;
 
 import static org.junit.Assert.*;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -23,7 +27,94 @@ public class RepositoryStatisticsUpdatedReactorTest {
     repositoryStatisticsUpdatedReactor.generateEvent(2L);
 
     Mockito.verify(mockRepositoryStatisticsJobScheduler, Mockito.timeout(200).times(1))
-        .schedule(1L);
-    Mockito.verify(mockRepositoryStatisticsJobScheduler, Mockito.times(1)).schedule(2L);
+        .schedule(1L, null);
+    Mockito.verify(mockRepositoryStatisticsJobScheduler, Mockito.times(1)).schedule(2L, null);
+  }
+
+  @Test
+  public void generateEventCoalesceAndDrop() {
+    RepositoryStatisticsJobScheduler mockRepositoryStatisticsJobScheduler =
+        Mockito.mock(RepositoryStatisticsJobScheduler.class);
+    RepositoryStatisticsUpdatedReactor repositoryStatisticsUpdatedReactor =
+        new RepositoryStatisticsUpdatedReactor(
+            mockRepositoryStatisticsJobScheduler,
+            new SimpleMeterRegistry(),
+            2,
+            1000,
+            Duration.ofSeconds(30));
+
+    repositoryStatisticsUpdatedReactor.createProcessor(Duration.ofHours(1));
+
+    repositoryStatisticsUpdatedReactor.generateEvent(1L);
+    repositoryStatisticsUpdatedReactor.generateEvent(1L);
+    repositoryStatisticsUpdatedReactor.generateEvent(2L);
+    repositoryStatisticsUpdatedReactor.generateEvent(3L);
+
+    assertEquals(4.0, repositoryStatisticsUpdatedReactor.receivedCounter.count(), 0);
+    assertEquals(1.0, repositoryStatisticsUpdatedReactor.coalescedCounter.count(), 0);
+    assertEquals(1.0, repositoryStatisticsUpdatedReactor.droppedCounter.count(), 0);
+
+    assertTrue(repositoryStatisticsUpdatedReactor.isPending(3L, 30L));
+
+    repositoryStatisticsUpdatedReactor.flush();
+    Mockito.verify(mockRepositoryStatisticsJobScheduler, Mockito.times(1)).schedule(1L, null);
+    Mockito.verify(mockRepositoryStatisticsJobScheduler, Mockito.times(1)).schedule(2L, null);
+    Mockito.verify(mockRepositoryStatisticsJobScheduler, Mockito.times(1))
+        .schedule(Mockito.eq(3L), Mockito.<Set<Long>>isNull());
+    assertTrue(repositoryStatisticsUpdatedReactor.pendingAssetIdsByRepositoryId.isEmpty());
+    assertTrue(repositoryStatisticsUpdatedReactor.droppedRepositoryIds.isEmpty());
+    assertFalse(repositoryStatisticsUpdatedReactor.isPending(3L, 30L));
+
+    repositoryStatisticsUpdatedReactor.shutdown();
+  }
+
+  @Test
+  public void generateEventWithAssetIds() {
+    RepositoryStatisticsJobScheduler mockRepositoryStatisticsJobScheduler =
+        Mockito.mock(RepositoryStatisticsJobScheduler.class);
+    RepositoryStatisticsUpdatedReactor repositoryStatisticsUpdatedReactor =
+        new RepositoryStatisticsUpdatedReactor(mockRepositoryStatisticsJobScheduler);
+
+    repositoryStatisticsUpdatedReactor.createProcessor(Duration.ofHours(1));
+
+    repositoryStatisticsUpdatedReactor.generateEvent(1L, 10L);
+    repositoryStatisticsUpdatedReactor.generateEvent(1L, 11L);
+    repositoryStatisticsUpdatedReactor.generateEvent(1L, 10L);
+    repositoryStatisticsUpdatedReactor.generateEvent(2L, 20L);
+    repositoryStatisticsUpdatedReactor.generateEvent(2L);
+    repositoryStatisticsUpdatedReactor.generateEvent(2L, 21L);
+
+    assertTrue(repositoryStatisticsUpdatedReactor.isPending(1L, 10L));
+    assertFalse(repositoryStatisticsUpdatedReactor.isPending(1L, 12L));
+    assertTrue(repositoryStatisticsUpdatedReactor.isPending(2L, 22L));
+
+    repositoryStatisticsUpdatedReactor.flush();
+    Mockito.verify(mockRepositoryStatisticsJobScheduler, Mockito.times(1))
+        .schedule(1L, new HashSet<>(Arrays.asList(10L, 11L)));
+    Mockito.verify(mockRepositoryStatisticsJobScheduler, Mockito.times(1)).schedule(2L, null);
+
+    repositoryStatisticsUpdatedReactor.shutdown();
+  }
+
+  @Test
+  public void updateWindow() {
+    RepositoryStatisticsUpdatedReactor repositoryStatisticsUpdatedReactor =
+        new RepositoryStatisticsUpdatedReactor(
+            Mockito.mock(RepositoryStatisticsJobScheduler.class),
+            new SimpleMeterRegistry(),
+            10,
+            5,
+            Duration.ofSeconds(3));
+
+    repositoryStatisticsUpdatedReactor.createProcessor(Duration.ofSeconds(1));
+
+    repositoryStatisticsUpdatedReactor.updateWindow(6);
+    assertEquals(Duration.ofSeconds(2), repositoryStatisticsUpdatedReactor.window);
+    repositoryStatisticsUpdatedReactor.updateWindow(6);
+    assertEquals(Duration.ofSeconds(3), repositoryStatisticsUpdatedReactor.window);
+    repositoryStatisticsUpdatedReactor.updateWindow(5);
+    assertEquals(Duration.ofSeconds(1), repositoryStatisticsUpdatedReactor.window);
+
+    repositoryStatisticsUpdatedReactor.shutdown();
   }
 }
@@ -45,7 +45,11 @@ import com.box.l10n.mojito.test.TestIdWatcher;
 import com.google.common.base.Function;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -53,6 +57,8 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import net.sf.okapi.common.resource.TextUnit;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -671,6 +677,111 @@ public class TMServiceTest extends ServiceTestBase {
         removeLeadingAndTrailingSpacesOnEveryLine(localizedAsset));
   }
 
+  @Test
+  public void testGenerateLocalizedXLIFFStream()
+      throws RepositoryNameAlreadyUsedException, UnsupportedAssetFilterTypeException {
+
+    createTestData();
+
+    TMTextUnit tmTextUnit1 =
+        tmService.addTMTextUnit(tmId, assetId, "application_name", "Application Name", null);
+    TMTextUnit tmTextUnit2 = tmService.addTMTextUnit(tmId, assetId, "home", "Home", null);
+
+    RepositoryLocale repositoryLocale =
+        repositoryLocaleRepository.findByRepositoryAndLocale_Bcp47Tag(repository, "fr-FR");
+    Locale locale = repositoryLocale.getLocale();
+
+    tmService.addCurrentTMTextUnitVariant(
+        tmTextUnit1.getId(), locale.getId(), "Nom de l'application");
+
+    String sourceXLIFF = getSourceXLIFFContent(Lists.newArrayList(tmTextUnit1, tmTextUnit2));
+
+    String localizedAsset =
+        tmService.generateLocalized(
+            asset,
+            sourceXLIFF,
+            repositoryLocale,
+            null,
+            null,
+            null,
+            Status.ALL,
+            InheritanceMode.USE_PARENT,
+            null);
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    tmService.generateLocalized(
+        asset,
+        new ByteArrayInputStream(sourceXLIFF.getBytes(StandardCharsets.UTF_8)),
+        output,
+        repositoryLocale,
+        null,
+        null,
+        null,
+        Status.ALL,
+        InheritanceMode.USE_PARENT,
+        null);
+
+    assertEquals(localizedAsset, new String(output.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testGenerateLocalizedZip()
+      throws RepositoryNameAlreadyUsedException, UnsupportedAssetFilterTypeException, IOException {
+
+    createTestData();
+
+    TMTextUnit tmTextUnit1 =
+        tmService.addTMTextUnit(tmId, assetId, "application_name", "Application Name", null);
+    TMTextUnit tmTextUnit2 = tmService.addTMTextUnit(tmId, assetId, "home", "Home", null);
+
+    RepositoryLocale frFR =
+        repositoryLocaleRepository.findByRepositoryAndLocale_Bcp47Tag(repository, "fr-FR");
+    RepositoryLocale frCA =
+        repositoryLocaleRepository.findByRepositoryAndLocale_Bcp47Tag(repository, "fr-CA");
+
+    tmService.addCurrentTMTextUnitVariant(
+        tmTextUnit1.getId(), frFR.getLocale().getId(), "Nom de l'application");
+    tmService.addCurrentTMTextUnitVariant(tmTextUnit2.getId(), frCA.getLocale().getId(), "Accueil");
+
+    String sourceXLIFF = getSourceXLIFFContent(Lists.newArrayList(tmTextUnit1, tmTextUnit2));
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    tmService.generateLocalizedZip(
+        asset,
+        sourceXLIFF,
+        output,
+        Arrays.asList(frFR, frCA),
+        null,
+        null,
+        Status.ALL,
+        InheritanceMode.USE_PARENT,
+        null);
+
+    try (ZipInputStream zipInputStream =
+        new ZipInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+      for (RepositoryLocale repositoryLocale : Arrays.asList(frFR, frCA)) {
+        ZipEntry zipEntry = zipInputStream.getNextEntry();
+        assertEquals(repositoryLocale.getLocale().getBcp47Tag(), zipEntry.getName());
+
+        String localizedAsset =
+            tmService.generateLocalized(
+                asset,
+                sourceXLIFF,
+                repositoryLocale,
+                null,
+                null,
+                null,
+                Status.ALL,
+                InheritanceMode.USE_PARENT,
+                null);
+        assertEquals(
+            localizedAsset,
+            new String(ByteStreams.toByteArray(zipInputStream), StandardCharsets.UTF_8));
+      }
+      assertNull(zipInputStream.getNextEntry());
+    }
+  }
+
   @Test
   public void testGenerateLocalizedXLIFFRemoveUntranslated()
       throws RepositoryNameAlreadyUsedException, UnsupportedAssetFilterTypeException {
@@ -2967,6 +3078,70 @@ public class TMServiceTest extends ServiceTestBase {
     assertEquals(forImport, localizedAsset);
   }
 
+  /**
+   * PO files register an output post processing, the stream output is then spooled and either
+   * copied as is or post processed.
+   */
+  @Test
+  public void testLocalizePoStreamWithPostProcessing() throws Exception {
+    Repository repo = repositoryService.createRepository(testIdWatcher.getEntityName("repository"));
+    RepositoryLocale repoLocale = repositoryService.addRepositoryLocale(repo, "ja-JP");
+
+    String assetContent =
+        "msgid \"\"\n"
+            + "msgstr \"\"\n"
+            + "\"Plural-Forms: nplurals=2; plural=(n != 1);\\n\"\n"
+            + "\"Content-Type: text/plain; charset=utf-8\\n\"\n\n"
+            + "#. Comments\n"
+            + "msgid \"repin\"\n"
+            + "msgstr \"\"\n"
+            + "#. Description\n"
+            + "msgid \"description\"\n"
+            + "msgstr \"\"\n";
+
+    asset = assetService.createAssetWithContent(repo.getId(), "messages.pot", assetContent);
+    asset = assetRepository.findById(asset.getId()).orElse(null);
+
+    PollableFuture<Asset> assetResult =
+        assetService.addOrUpdateAssetAndProcessIfNeeded(
+            repo.getId(), asset.getPath(), assetContent, false, null, null, null, null, null, null);
+    pollableTaskService.waitForPollableTask(assetResult.getPollableTask().getId());
+    assetResult.get();
+
+    for (InheritanceMode inheritanceMode :
+        Arrays.asList(InheritanceMode.USE_PARENT, InheritanceMode.REMOVE_UNTRANSLATED)) {
+      String localizedAsset =
+          tmService.generateLocalized(
+              asset,
+              assetContent,
+              repoLocale,
+              "ja-JP",
+              null,
+              null,
+              Status.ALL,
+              inheritanceMode,
+              null);
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      tmService.generateLocalized(
+          asset,
+          new ByteArrayInputStream(assetContent.getBytes(StandardCharsets.UTF_8)),
+          output,
+          repoLocale,
+          "ja-JP",
+          null,
+          null,
+          Status.ALL,
+          inheritanceMode,
+          null);
+
+      assertEquals(
+          inheritanceMode.toString(),
+          localizedAsset,
+          new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+  }
+
   @Test
   public void testLocalizePoEscaping() throws Exception {
 
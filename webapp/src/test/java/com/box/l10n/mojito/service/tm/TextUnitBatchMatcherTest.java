@@ -2,6 +2,7 @@ package com.box.l10n.mojito.service.tm;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
@@ -11,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Function;
-import java.util.function.Predicate;
+import java.util.function.IntPredicate;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -30,13 +31,11 @@ public class TextUnitBatchMatcherTest {
   @Test
   public void testNotAlreadyMatched() {
 
-    Predicate<TextUnitDTO> notAlreadyMatched = textUnitBatchMatcher.notAlreadyMatched("test");
+    IntPredicate notAlreadyMatched = textUnitBatchMatcher.notAlreadyMatched("test");
 
-    TextUnitDTO textUnitDTO = new TextUnitDTO();
-    textUnitDTO.setTmTextUnitId(1000L);
-
-    assertTrue(notAlreadyMatched.test(textUnitDTO));
-    assertFalse(notAlreadyMatched.test(textUnitDTO));
+    assertTrue(notAlreadyMatched.test(1000));
+    assertFalse(notAlreadyMatched.test(1000));
+    assertTrue(notAlreadyMatched.test(1001));
   }
 
   @Test
@@ -77,9 +76,10 @@ public class TextUnitBatchMatcherTest {
     List<TextUnitDTO> existingTextUnitDTOs =
         Arrays.asList(createTextUnitDTO("name-0"), createTextUnitDTO("name-1"));
 
+    TextUnitBatchMatcherIndex index =
+        textUnitBatchMatcher.createIndex(existingTextUnitDTOs, PLURAL_SEPARATOR);
     Function<TextUnitForBatchMatcher, Optional<List<TextUnitDTO>>> matchByPluralPrefix =
-        textUnitBatchMatcher.createMatchByPluralPrefixAndUsed(
-            existingTextUnitDTOs, PLURAL_SEPARATOR);
+        toOptionalList(index, textUnitBatchMatcher.createMatchByPluralPrefixAndUsed(index));
 
     Optional<List<TextUnitDTO>> result =
         matchByPluralPrefix.apply(createPluralTextUnitForBatchMatcher("name-0"));
@@ -101,9 +101,10 @@ public class TextUnitBatchMatcherTest {
             createPluralTextUnitDTO("name-3", "many"),
             createPluralTextUnitDTO("name-3", "other"));
 
+    TextUnitBatchMatcherIndex index =
+        textUnitBatchMatcher.createIndex(existingTextUnitDTOs, PLURAL_SEPARATOR);
     Function<TextUnitForBatchMatcher, Optional<List<TextUnitDTO>>> matchByPluralPrefix =
-        textUnitBatchMatcher.createMatchByPluralPrefixAndUsed(
-            existingTextUnitDTOs, PLURAL_SEPARATOR);
+        toOptionalList(index, textUnitBatchMatcher.createMatchByPluralPrefixAndUsed(index));
 
     List<TextUnitDTO> name2 =
         matchByPluralPrefix.apply(createPluralTextUnitForBatchMatcher("name-2")).get();
@@ -141,9 +142,10 @@ public class TextUnitBatchMatcherTest {
             createUnusedPluralTextUnitDTO("name-3", "many"),
             createUnusedPluralTextUnitDTO("name-3", "other"));
 
+    TextUnitBatchMatcherIndex index =
+        textUnitBatchMatcher.createIndex(existingTextUnitDTOs, PLURAL_SEPARATOR);
     Function<TextUnitForBatchMatcher, Optional<List<TextUnitDTO>>> matchByPluralPrefix =
-        textUnitBatchMatcher.createMatchByPluralPrefixAndUnused(
-            existingTextUnitDTOs, PLURAL_SEPARATOR);
+        toOptionalList(index, textUnitBatchMatcher.createMatchByPluralPrefixAndUnused(index));
 
     List<TextUnitDTO> name2 =
         matchByPluralPrefix.apply(createPluralTextUnitForBatchMatcher("name-2")).get();
@@ -173,6 +175,43 @@ public class TextUnitBatchMatcherTest {
     textUnitForBatchMatcherListFunction.apply(createTextUnitForBatchMatcher("test"));
   }
 
+  @Test
+  public void testMatchWithSharedIndex() {
+    List<TextUnitDTO> existingTextUnitDTOs =
+        Arrays.asList(createTextUnitDTO("name-0", 1L), createTextUnitDTO("name-0", 2L));
+
+    TextUnitBatchMatcherIndex index = textUnitBatchMatcher.createIndex(existingTextUnitDTOs);
+
+    Function<TextUnitForBatchMatcher, Optional<TextUnitDTO>> match1 =
+        textUnitBatchMatcher.match(index);
+    assertEquals(Long.valueOf(1L), matchTmTextUnitId(match1, "name-0", null));
+    assertEquals(Long.valueOf(2L), matchTmTextUnitId(match1, "name-0", null));
+    assertNull(matchTmTextUnitId(match1, "name-0", null));
+
+    Function<TextUnitForBatchMatcher, Optional<TextUnitDTO>> match2 =
+        textUnitBatchMatcher.match(index);
+    assertEquals(Long.valueOf(2L), matchTmTextUnitId(match2, "other", 2L));
+    assertEquals(Long.valueOf(1L), matchTmTextUnitId(match2, "name-0", null));
+    assertNull(matchTmTextUnitId(match2, "unknown", 3L));
+  }
+
+  Long matchTmTextUnitId(
+      Function<TextUnitForBatchMatcher, Optional<TextUnitDTO>> match, String name, Long id) {
+    return match
+        .apply(createTextUnitForBatchMatcher(name, id))
+        .map(TextUnitDTO::getTmTextUnitId)
+        .orElse(null);
+  }
+
+  Function<TextUnitForBatchMatcher, Optional<List<TextUnitDTO>>> toOptionalList(
+      TextUnitBatchMatcherIndex index, Function<TextUnitForBatchMatcher, int[]> matchSlots) {
+    return matchSlots.andThen(
+        slots ->
+            slots.length == 0
+                ? Optional.empty()
+                : Optional.<List<TextUnitDTO>>of(index.getTextUnitDTOs(slots)));
+  }
+
   TextUnitForBatchMatcher createTextUnitForBatchMatcher(String name) {
     return createTextUnitForBatchMatcher(name, UUID.randomUUID().getMostSignificantBits());
   }
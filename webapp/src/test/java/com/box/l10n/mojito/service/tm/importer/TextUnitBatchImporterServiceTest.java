@@ -154,6 +154,40 @@ public class TextUnitBatchImporterServiceTest extends ServiceTestBase {
     }
   }
 
+  @Test
+  public void testAsyncImportTextUnitsSubTaskPerLocaleAndAsset() throws InterruptedException {
+    TMTestData tmTestData = new TMTestData(testIdWatcher);
+
+    TextUnitSearcherParameters textUnitSearcherParameters =
+        new TextUnitSearcherParametersForTesting();
+    textUnitSearcherParameters.setRepositoryNames(Arrays.asList(tmTestData.repository.getName()));
+    textUnitSearcherParameters.setAssetPath(tmTestData.asset.getPath());
+    textUnitSearcherParameters.setLocaleTags(Arrays.asList("fr-FR", "ja-JP"));
+
+    List<TextUnitDTO> textUnitDTOsForImport = textUnitSearcher.search(textUnitSearcherParameters);
+    for (TextUnitDTO textUnitDTO : textUnitDTOsForImport) {
+      textUnitDTO.setTarget(
+          textUnitDTO.getName() + " from import " + textUnitDTO.getTargetLocale());
+    }
+
+    PollableFuture<Void> asyncImportTextUnits =
+        textUnitBatchImporterService.asyncImportTextUnits(textUnitDTOsForImport, false, false);
+    pollableTaskService.waitForPollableTask(asyncImportTextUnits.getPollableTask().getId());
+
+    PollableTask pollableTask =
+        pollableTaskService.getPollableTask(asyncImportTextUnits.getPollableTask().getId());
+    assertEquals(2, pollableTask.getExpectedSubTaskNumber());
+    assertEquals(2, pollableTask.getSubTasks().size());
+
+    List<TextUnitDTO> textUnitDTOs = textUnitSearcher.search(textUnitSearcherParameters);
+    assertFalse(textUnitDTOs.isEmpty());
+    for (TextUnitDTO textUnitDTO : textUnitDTOs) {
+      assertEquals(
+          textUnitDTO.getName() + " from import " + textUnitDTO.getTargetLocale(),
+          textUnitDTO.getTarget());
+    }
+  }
+
   @Test
   public void testAsyncImportTextUnitsDuplicatedNames() throws InterruptedException {
     TMTestData tmTestData = new TMTestData(testIdWatcher);
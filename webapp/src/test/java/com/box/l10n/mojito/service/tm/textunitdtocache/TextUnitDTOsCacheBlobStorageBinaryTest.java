@@ -0,0 +1,125 @@
+package com.box.l10n.mojito.service.tm.textunitdtocache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.box.l10n.mojito.entity.TMTextUnitVariant;
+import com.box.l10n.mojito.json.ObjectMapper;
+import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.google.common.collect.ImmutableList;
+import java.nio.charset.StandardCharsets;
+import org.assertj.core.api.Assertions;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+public class TextUnitDTOsCacheBlobStorageBinaryTest {
+
+  @Test
+  public void writeAndReadEmpty() {
+    byte[] bytes = TextUnitDTOsCacheBlobStorageBinary.write(ImmutableList.of());
+    assertTrue(TextUnitDTOsCacheBlobStorageBinary.isBinary(bytes));
+    assertEquals(ImmutableList.of(), TextUnitDTOsCacheBlobStorageBinary.read(bytes));
+  }
+
+  @Test
+  public void writeAndReadAllFields() {
+    TextUnitDTO full = new TextUnitDTO();
+    full.setTmTextUnitId(1000L);
+    full.setTmTextUnitVariantId(2000L);
+    full.setLocaleId(3L);
+    full.setName("name");
+    full.setSource("source");
+    full.setComment("comment");
+    full.setTarget("target é 日本語");
+    full.setTargetLocale("fr-FR");
+    full.setTargetComment("target comment");
+    full.setAssetId(10L);
+    full.setLastSuccessfulAssetExtractionId(20L);
+    full.setAssetExtractionId(20L);
+    full.setTmTextUnitCurrentVariantId(3000L);
+    full.setStatus(TMTextUnitVariant.Status.REVIEW_NEEDED);
+    full.setIncludedInLocalizedFile(true);
+    full.setCreatedDate(new DateTime(1600000000000L, DateTimeZone.UTC));
+    full.setAssetDeleted(true);
+    full.setPluralForm("one");
+    full.setPluralFormOther("name_other");
+    full.setRepositoryName("repository");
+    full.setAssetPath("path/to/asset.properties");
+    full.setAssetTextUnitId(4000L);
+    full.setTmTextUnitCreatedDate(new DateTime(1500000000000L, DateTimeZone.UTC));
+    full.setDoNotTranslate(true);
+    full.setMd5("3a5b2c6d7e8f90a1b2c3d4e5f6a7b8c9");
+
+    TextUnitDTO empty = new TextUnitDTO();
+
+    TextUnitDTO decreasingIds = new TextUnitDTO();
+    decreasingIds.setTmTextUnitId(10L);
+    decreasingIds.setName("name");
+    decreasingIds.setTargetLocale("fr-FR");
+    decreasingIds.setStatus(TMTextUnitVariant.Status.APPROVED);
+
+    ImmutableList<TextUnitDTO> textUnitDTOs = ImmutableList.of(full, empty, decreasingIds);
+
+    ImmutableList<TextUnitDTO> read =
+        TextUnitDTOsCacheBlobStorageBinary.read(
+            TextUnitDTOsCacheBlobStorageBinary.write(textUnitDTOs));
+
+    Assertions.assertThat(read)
+        .usingFieldByFieldElementComparator()
+        .containsExactlyElementsOf(textUnitDTOs);
+  }
+
+  @Test
+  public void sameAsJsonRoundTrip() {
+    TextUnitDTO textUnitDTO = new TextUnitDTO();
+    textUnitDTO.setTmTextUnitId(1L);
+    textUnitDTO.setName("name");
+    textUnitDTO.setCreatedDate(new DateTime(1600000000000L));
+    textUnitDTO.setStatus(TMTextUnitVariant.Status.APPROVED);
+    textUnitDTO.setMd5("3a5b2c6d7e8f90a1b2c3d4e5f6a7b8c9");
+
+    TextUnitDTOsCacheBlobStorageJson json = new TextUnitDTOsCacheBlobStorageJson();
+    json.setTextUnitDTOs(ImmutableList.of(textUnitDTO));
+    ObjectMapper objectMapper = new ObjectMapper();
+    objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    TextUnitDTOsCacheBlobStorageJson fromJson =
+        objectMapper.readValueUnchecked(
+            objectMapper.writeValueAsStringUnchecked(json), TextUnitDTOsCacheBlobStorageJson.class);
+
+    ImmutableList<TextUnitDTO> fromBinary =
+        TextUnitDTOsCacheBlobStorageBinary.read(
+            TextUnitDTOsCacheBlobStorageBinary.write(ImmutableList.of(textUnitDTO)));
+
+    Assertions.assertThat(fromBinary)
+        .usingFieldByFieldElementComparator()
+        .containsExactlyElementsOf(fromJson.getTextUnitDTOs());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void readPreviousVersion() {
+    byte[] bytes = TextUnitDTOsCacheBlobStorageBinary.write(ImmutableList.of());
+    bytes[TextUnitDTOsCacheBlobStorageBinary.MAGIC.length] = 1;
+    TextUnitDTOsCacheBlobStorageBinary.read(bytes);
+  }
+
+  @Test
+  public void isBinary() {
+    assertFalse(
+        TextUnitDTOsCacheBlobStorageBinary.isBinary(
+            "{\"textUnitDTOs\":[]}".getBytes(StandardCharsets.UTF_8)));
+    assertFalse(TextUnitDTOsCacheBlobStorageBinary.isBinary(new byte[0]));
+  }
+
+  @Test
+  public void zigZag() {
+    for (long value : new long[] {0, 1, -1, 1234567, -1234567, Long.MAX_VALUE, Long.MIN_VALUE}) {
+      assertEquals(
+          value,
+          TextUnitDTOsCacheBlobStorageBinary.zigZagDecode(
+              TextUnitDTOsCacheBlobStorageBinary.zigZagEncode(value)));
+    }
+  }
+}
@@ -62,6 +62,28 @@ public class TextUnitDTOsCacheBlobStorageTest extends ServiceTestBase {
         .containsExactlyElementsOf(textUnitDTOSToWrite);
   }
 
+  @Test
+  public void writeAndReadBinary() {
+    TextUnitDTO textUnitDTO = new TextUnitDTO();
+    textUnitDTO.setName(UUID.randomUUID().toString());
+    ImmutableList<TextUnitDTO> textUnitDTOSToWrite = ImmutableList.of(textUnitDTO);
+
+    TextUnitDTOsCacheBlobStorageFormat previousFormat = textUnitDTOsCacheBlobStorage.format;
+    try {
+      textUnitDTOsCacheBlobStorage.format = TextUnitDTOsCacheBlobStorageFormat.BINARY;
+      textUnitDTOsCacheBlobStorage.putTextUnitDTOs(12346L, 12346L, textUnitDTOSToWrite);
+    } finally {
+      textUnitDTOsCacheBlobStorage.format = previousFormat;
+    }
+
+    List<TextUnitDTO> readTextUnitDTOS =
+        textUnitDTOsCacheBlobStorage.getTextUnitDTOs(12346L, 12346L).get();
+
+    Assertions.assertThat(readTextUnitDTOS)
+        .usingFieldByFieldElementComparator()
+        .containsExactlyElementsOf(textUnitDTOSToWrite);
+  }
+
   @Test
   public void getName() {
     String blobName = textUnitDTOsCacheBlobStorage.getName(1234L, 56L);
@@ -0,0 +1,74 @@
+package com.box.l10n.mojito.service.tm.textunitdtocache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
+import com.google.common.collect.ImmutableList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+public class TextUnitDTOsCacheHotTierTest {
+
+  @Test
+  public void disabled() {
+    TextUnitDTOsCacheHotTier textUnitDTOsCacheHotTier = getTextUnitDTOsCacheHotTier(false);
+    textUnitDTOsCacheHotTier.put(1L, 2L, ImmutableList.of(new TextUnitDTO()));
+    assertFalse(textUnitDTOsCacheHotTier.get(1L, 2L).isPresent());
+  }
+
+  @Test
+  public void putGetInvalidate() {
+    TextUnitDTOsCacheHotTier textUnitDTOsCacheHotTier = getTextUnitDTOsCacheHotTier(true);
+    ImmutableList<TextUnitDTO> textUnitDTOs = ImmutableList.of(new TextUnitDTO());
+
+    textUnitDTOsCacheHotTier.put(1L, 2L, textUnitDTOs);
+    assertTrue(textUnitDTOsCacheHotTier.get(1L, 2L).isPresent());
+    assertEquals(textUnitDTOs, textUnitDTOsCacheHotTier.get(1L, 2L).get());
+    assertFalse(textUnitDTOsCacheHotTier.get(1L, 3L).isPresent());
+
+    textUnitDTOsCacheHotTier.invalidate(1L, 2L);
+    assertFalse(textUnitDTOsCacheHotTier.get(1L, 2L).isPresent());
+  }
+
+  @Test
+  public void metrics() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    TextUnitDTOsCacheHotTierConfigurationProperties configurationProperties =
+        new TextUnitDTOsCacheHotTierConfigurationProperties();
+    configurationProperties.setEnabled(true);
+    TextUnitDTOsCacheHotTier textUnitDTOsCacheHotTier =
+        new TextUnitDTOsCacheHotTier(configurationProperties, meterRegistry);
+
+    textUnitDTOsCacheHotTier.put(1L, 2L, ImmutableList.of());
+    textUnitDTOsCacheHotTier.get(1L, 2L);
+    textUnitDTOsCacheHotTier.get(1L, 3L);
+
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("cache.gets")
+            .tag("cache", "TextUnitDTOsCacheHotTier")
+            .tag("result", "hit")
+            .functionCounter()
+            .count(),
+        0.0);
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("cache.gets")
+            .tag("cache", "TextUnitDTOsCacheHotTier")
+            .tag("result", "miss")
+            .functionCounter()
+            .count(),
+        0.0);
+  }
+
+  TextUnitDTOsCacheHotTier getTextUnitDTOsCacheHotTier(boolean enabled) {
+    TextUnitDTOsCacheHotTierConfigurationProperties configurationProperties =
+        new TextUnitDTOsCacheHotTierConfigurationProperties();
+    configurationProperties.setEnabled(enabled);
+    return new TextUnitDTOsCacheHotTier(configurationProperties, new SimpleMeterRegistry());
+  }
+}
@@ -16,9 +16,14 @@ import com.box.l10n.mojito.service.tm.TMService;
 import com.box.l10n.mojito.service.tm.TMTestData;
 import com.box.l10n.mojito.service.tm.TMTextUnitCurrentVariantRepository;
 import com.box.l10n.mojito.service.tm.TMTextUnitCurrentVariantService;
+import com.box.l10n.mojito.service.tm.TMTextUnitStateDTO;
 import com.box.l10n.mojito.service.tm.search.TextUnitDTO;
 import com.box.l10n.mojito.test.TestIdWatcher;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Comparator;
+import org.joda.time.DateTime;
 import org.junit.Rule;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -199,6 +204,101 @@ public class TextUnitDTOsCacheServiceTest extends ServiceTestBase {
         .containsOnly(true);
   }
 
+  @Test
+  public void testGetTextUnitDTOsForAssetAndLocales() {
+    TMTestData tmTestData = new TMTestData(testIdWatcher);
+    tmTestData.addPluralString("plural_1");
+
+    ImmutableMap<Long, ImmutableList<TextUnitDTO>> textUnitDTOsByLocaleId =
+        textUnitDTOsCacheService.getTextUnitDTOsForAssetAndLocales(
+            tmTestData.asset.getId(),
+            ImmutableSet.of(tmTestData.en.getId(), tmTestData.frFR.getId()),
+            tmTestData.en.getId(),
+            UpdateType.ALWAYS);
+
+    assertThat(textUnitDTOsByLocaleId.keySet())
+        .containsExactlyInAnyOrder(tmTestData.en.getId(), tmTestData.frFR.getId());
+
+    for (Long localeId : textUnitDTOsByLocaleId.keySet()) {
+      boolean isRootLocale = tmTestData.en.getId().equals(localeId);
+      assertThat(textUnitDTOsByLocaleId.get(localeId))
+          .as("Batch should return the same result as the single locale method")
+          // dates read from the database or from the cache have different time zones
+          .usingComparatorForElementFieldsWithType(
+              Comparator.comparing(DateTime::getMillis), DateTime.class)
+          .usingFieldByFieldElementComparator()
+          .containsExactlyElementsOf(
+              textUnitDTOsCacheService.getTextUnitDTOsForAssetAndLocale(
+                  tmTestData.asset.getId(), localeId, isRootLocale, UpdateType.ALWAYS));
+    }
+
+    assertThat(textUnitDTOsByLocaleId.get(tmTestData.frFR.getId()))
+        .extracting(TextUnitDTO::getName, TextUnitDTO::getStatus)
+        .containsExactly(
+            tuple("zuora_error_message_verify_state_province", APPROVED),
+            tuple("TEST2", TRANSLATION_NEEDED),
+            tuple("TEST3", APPROVED),
+            tuple("plural_1_other", TRANSLATION_NEEDED),
+            tuple("plural_1_one", TRANSLATION_NEEDED));
+  }
+
+  @Test
+  public void testGetTmTextUnitIdsToFetch() {
+    TextUnitDTO unchanged = new TextUnitDTO();
+    unchanged.setTmTextUnitId(1L);
+    unchanged.setTmTextUnitVariantId(10L);
+
+    TextUnitDTO newTranslation = new TextUnitDTO();
+    newTranslation.setTmTextUnitId(2L);
+    newTranslation.setTmTextUnitVariantId(20L);
+
+    TextUnitDTO removedTranslation = new TextUnitDTO();
+    removedTranslation.setTmTextUnitId(3L);
+    removedTranslation.setTmTextUnitVariantId(30L);
+
+    TextUnitDTO usedChanged = new TextUnitDTO();
+    usedChanged.setTmTextUnitId(4L);
+
+    TextUnitDTO doNotTranslateChanged = new TextUnitDTO();
+    doNotTranslateChanged.setTmTextUnitId(5L);
+
+    ImmutableMap<Long, TextUnitDTO> previous =
+        ImmutableMap.of(
+            1L, unchanged,
+            2L, newTranslation,
+            3L, removedTranslation,
+            4L, usedChanged,
+            5L, doNotTranslateChanged);
+
+    ImmutableList<TMTextUnitStateDTO> states =
+        ImmutableList.of(
+            new TMTextUnitStateDTO(1L, 100L, 10L, false, false),
+            new TMTextUnitStateDTO(2L, 200L, 21L, false, false),
+            new TMTextUnitStateDTO(3L, 300L, null, false, false),
+            new TMTextUnitStateDTO(4L, null, null, true, false),
+            new TMTextUnitStateDTO(5L, null, null, false, true),
+            new TMTextUnitStateDTO(6L, null, null, false, false));
+
+    assertThat(textUnitDTOsCacheService.getTmTextUnitIdsToFetch(states, previous))
+        .containsExactlyInAnyOrder(2L, 3L, 4L, 5L, 6L);
+  }
+
+  @Test
+  public void testWithAssetDeletedDoesNotMutate() {
+    TextUnitDTO shared = new TextUnitDTO();
+    shared.setTmTextUnitId(1L);
+    shared.setName("name");
+
+    assertThat(textUnitDTOsCacheService.withAssetDeleted(shared, false)).isSameAs(shared);
+
+    TextUnitDTO withAssetDeleted = textUnitDTOsCacheService.withAssetDeleted(shared, true);
+    assertThat(withAssetDeleted).isNotSameAs(shared);
+    assertThat(withAssetDeleted.isAssetDeleted()).isTrue();
+    assertThat(withAssetDeleted.getTmTextUnitId()).isEqualTo(1L);
+    assertThat(withAssetDeleted.getName()).isEqualTo("name");
+    assertThat(shared.isAssetDeleted()).isFalse();
+  }
+
   @Test
   public void testDeleteAsset() {
     TMTestData tmTestData = new TMTestData(testIdWatcher);
@@ -0,0 +1,103 @@
+package com.box.l10n.mojito.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Test;
+
+public class KeyedBatchExecutorTest {
+
+  @Test
+  public void submitSingle() {
+    KeyedBatchExecutor<Long, String, String> keyedBatchExecutor = new KeyedBatchExecutor<>(16);
+    assertEquals("a", keyedBatchExecutor.submit(1L, "a", values -> String.join(",", values)));
+    assertEquals(0, keyedBatchExecutor.getPendingKeyCount());
+  }
+
+  @Test
+  public void submitConcurrentIsBatched() throws Exception {
+    KeyedBatchExecutor<Long, String, String> keyedBatchExecutor = new KeyedBatchExecutor<>(16);
+
+    CountDownLatch firstBatchStarted = new CountDownLatch(1);
+    CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+    AtomicInteger concurrentBatches = new AtomicInteger();
+    List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    Function<List<String>, String> batchProcessor =
+        values -> {
+          if (concurrentBatches.incrementAndGet() > 1) {
+            fail("Batches of a same key must not be processed concurrently");
+          }
+          try {
+            batches.add(values);
+            if (batches.size() == 1) {
+              firstBatchStarted.countDown();
+              releaseFirstBatch.await(10, TimeUnit.SECONDS);
+            }
+            return String.join(",", values);
+          } catch (InterruptedException ie) {
+            throw new RuntimeException(ie);
+          } finally {
+            concurrentBatches.decrementAndGet();
+          }
+        };
+
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      CompletableFuture<String> first =
+          CompletableFuture.supplyAsync(
+              () -> keyedBatchExecutor.submit(1L, "a", batchProcessor), executorService);
+      firstBatchStarted.await(10, TimeUnit.SECONDS);
+
+      List<CompletableFuture<String>> others = new ArrayList<>();
+      for (String value : new String[] {"b", "c", "d"}) {
+        others.add(
+            CompletableFuture.supplyAsync(
+                () -> keyedBatchExecutor.submit(1L, value, batchProcessor), executorService));
+      }
+
+      while (keyedBatchExecutor.pendingByKey.getOrDefault(1L, new ArrayDeque<>()).size() < 3) {
+        Thread.sleep(10);
+      }
+      releaseFirstBatch.countDown();
+
+      assertEquals("a", first.get(10, TimeUnit.SECONDS));
+      for (CompletableFuture<String> other : others) {
+        String result = other.get(10, TimeUnit.SECONDS);
+        assertEquals(3, result.split(",").length);
+      }
+      assertEquals(2, batches.size());
+      assertEquals(0, keyedBatchExecutor.getPendingKeyCount());
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  @Test
+  public void submitThrowsProcessorException() {
+    KeyedBatchExecutor<Long, String, String> keyedBatchExecutor = new KeyedBatchExecutor<>(16);
+    try {
+      keyedBatchExecutor.submit(
+          1L,
+          "a",
+          values -> {
+            throw new IllegalStateException("failed");
+          });
+      fail();
+    } catch (IllegalStateException ise) {
+      assertEquals("failed", ise.getMessage());
+    }
+    assertEquals("b", keyedBatchExecutor.submit(1L, "b", values -> String.join(",", values)));
+  }
+}